@@ -0,0 +1,120 @@
+package com.example.tfgenerator.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.tfgenerator.archive.ArchiveFormat;
+import com.example.tfgenerator.archive.ArchiveWriter;
+import com.example.tfgenerator.archive.ArchiveWriters;
+import com.example.tfgenerator.model.TerraformFile;
+import com.example.tfgenerator.model.TerraformResponse;
+import com.example.tfgenerator.util.Utf8Buffer;
+
+/**
+ * Compression throughput and ratio per archive format, for bundles of one to many
+ * copies of a typical project. The {@code inputBytes} and {@code outputBytes}
+ * counters are rates, so their quotient is the compression ratio.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArchiveBenchmark {
+
+    @Param({ "ZIP", "TAR_GZ" })
+    public ArchiveFormat format;
+
+    @Param({ "-1", "1" })
+    public int level;
+
+    @Param({ "1", "64", "512" })
+    public int environments;
+
+    private ExecutorService compressionExecutor;
+    private ArchiveWriters archiveWriters;
+    private final List<String> names = new ArrayList<>();
+    private final List<byte[]> contents = new ArrayList<>();
+    private long inputSize;
+    private Utf8Buffer sink;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        public long inputBytes;
+        public long outputBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            inputBytes = 0;
+            outputBytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        compressionExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        archiveWriters = new ArchiveWriters(compressionExecutor, level, 512, level, 128 * 1024, 0);
+
+        GeneratorFixture fixture = new GeneratorFixture();
+        try {
+            TerraformResponse project = fixture.generationService()
+                    .generate(fixture.validate(BenchmarkRequests.create(BenchmarkRequests.TYPICAL)));
+            for (int i = 0; i < environments; i++) {
+                for (TerraformFile file : TerraformFile.values()) {
+                    String content = file.getContent(project);
+                    if (!content.isEmpty()) {
+                        // Vary each copy a little, as separate environments would.
+                        byte[] bytes = content.replace("demo-app", "env-" + i).getBytes(StandardCharsets.UTF_8);
+                        names.add("env-" + i + "/" + file.getFileName());
+                        contents.add(bytes);
+                        inputSize += bytes.length;
+                    }
+                }
+            }
+        } finally {
+            fixture.close();
+        }
+        sink = new Utf8Buffer((int) inputSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        compressionExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int write(Bytes bytes) throws IOException {
+        sink.reset();
+        ArchiveWriter writer = archiveWriters.open(format, sink.asOutputStream());
+        for (int i = 0; i < names.size(); i++) {
+            byte[] content = contents.get(i);
+            writer.addEntry(names.get(i), content, 0, content.length);
+        }
+        writer.finish();
+        bytes.inputBytes += inputSize;
+        bytes.outputBytes += sink.size();
+        return sink.size();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.tfgenerator.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.tfgenerator.dto.EcsConfig;
+import com.example.tfgenerator.dto.EcsServiceConfig;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.dto.RdsConfig;
+import com.example.tfgenerator.dto.S3BucketConfig;
+import com.example.tfgenerator.dto.Services;
+
+/**
+ * Request shapes shared by the benchmarks.
+ *
+ * <ul>
+ *   <li>{@code small}: VPC only, no services and no tags</li>
+ *   <li>{@code typical}: the shape of {@code sample-request.json}</li>
+ *   <li>{@code worst}: every service enabled, long names and many tags</li>
+ * </ul>
+ *
+ * {@link #scaled(int)} builds platforms of a given size from the list services.
+ */
+public final class BenchmarkRequests {
+
+    public static final String SMALL = "small";
+    public static final String TYPICAL = "typical";
+    public static final String WORST = "worst";
+
+    private BenchmarkRequests() {
+    }
+
+    public static EnvironmentRequest create(String shape) {
+        switch (shape) {
+            case SMALL: return small();
+            case TYPICAL: return typical();
+            case WORST: return worst();
+            default: throw new IllegalArgumentException("Unknown request shape: " + shape);
+        }
+    }
+
+    private static EnvironmentRequest small() {
+        EnvironmentRequest request = new EnvironmentRequest();
+        request.setName("demo");
+        request.setRegion("us-east-1");
+        request.setVpcCidr("10.0.0.0/16");
+        Services services = new Services();
+        services.setS3Bucket(false);
+        request.setServices(services);
+        return request;
+    }
+
+    private static EnvironmentRequest typical() {
+        EnvironmentRequest request = new EnvironmentRequest();
+        request.setName("demo-app");
+        request.setRegion("us-east-1");
+        request.setVpcCidr("10.0.0.0/16");
+
+        Services services = new Services();
+        services.setS3Bucket(true);
+        services.setRds(rds("postgres"));
+        services.setEcsCluster(ecs());
+        request.setServices(services);
+
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("owner", "platform-team");
+        tags.put("env", "dev");
+        tags.put("project", "terraform-generator");
+        request.setTags(tags);
+        return request;
+    }
+
+    private static EnvironmentRequest worst() {
+        EnvironmentRequest request = new EnvironmentRequest();
+        request.setName("platform-shared-services-production-eu-central-cluster-0001");
+        request.setRegion("eu-central-1");
+        request.setVpcCidr("172.16.0.0/12");
+
+        Services services = new Services();
+        services.setS3Bucket(true);
+        services.setRds(rds("mysql"));
+        services.setEcsCluster(ecs());
+        request.setServices(services);
+
+        Map<String, String> tags = new LinkedHashMap<>();
+        for (int i = 0; i < 50; i++) {
+            tags.put("tag-key-" + i, "a-fairly-long-tag-value-used-to-stress-rendering-" + i);
+        }
+        request.setTags(tags);
+        return request;
+    }
+
+    /**
+     * The {@code typical} request plus the given number of list entries, split evenly
+     * between availability zones, S3 buckets, RDS instances and ECS services.
+     */
+    public static EnvironmentRequest scaled(int resources) {
+        EnvironmentRequest request = typical();
+        request.setVpcCidr("10.0.0.0/8");
+        int share = resources / 4;
+        request.setAvailabilityZones(Math.max(1, resources - 3 * share));
+
+        List<S3BucketConfig> buckets = new ArrayList<>(share);
+        List<RdsConfig> instances = new ArrayList<>(share);
+        List<EcsServiceConfig> ecsServices = new ArrayList<>(share);
+        for (int i = 0; i < share; i++) {
+            S3BucketConfig bucket = new S3BucketConfig();
+            bucket.setName("bucket-" + i);
+            buckets.add(bucket);
+
+            RdsConfig rds = rds(i % 2 == 0 ? "postgres" : "mysql");
+            rds.setName("db-" + i);
+            instances.add(rds);
+
+            EcsServiceConfig service = new EcsServiceConfig();
+            service.setName("service-" + i);
+            service.setImage("registry.example.com/service-" + i + ":1.0." + i);
+            service.setContainerPort(8080);
+            ecsServices.add(service);
+        }
+        request.getServices().setS3Buckets(buckets);
+        request.getServices().setRdsInstances(instances);
+        request.getServices().setEcsServices(ecsServices);
+        return request;
+    }
+
+    private static RdsConfig rds(String engine) {
+        RdsConfig rds = new RdsConfig();
+        rds.setEnabled(true);
+        rds.setEngine(engine);
+        rds.setInstanceClass("db.t3.micro");
+        rds.setDbName("myappdb");
+        rds.setUsername("admin");
+        rds.setPassword("SuperSecret123!");
+        return rds;
+    }
+
+    private static EcsConfig ecs() {
+        EcsConfig ecs = new EcsConfig();
+        ecs.setEnabled(true);
+        return ecs;
+    }
+}
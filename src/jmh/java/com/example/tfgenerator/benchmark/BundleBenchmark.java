@@ -0,0 +1,96 @@
+package com.example.tfgenerator.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.tfgenerator.archive.ArchiveFormat;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.validator.ValidatedEnvironment;
+
+/**
+ * One bundle of N environments against N separate project archives, with the render
+ * memo off so both render everything they need. The {@code archiveBytes} counter is
+ * the output size of the last operation in each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BundleBenchmark {
+
+    @Param({ "ZIP", "TAR_GZ" })
+    public ArchiveFormat format;
+
+    @Param({ "1", "10", "100" })
+    public int environments;
+
+    private GeneratorFixture fixture;
+    private final List<ValidatedEnvironment> validated = new ArrayList<>();
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Output {
+        public long archiveBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            archiveBytes = 0;
+        }
+
+        void record(long bytes) {
+            archiveBytes = bytes;
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        fixture = new GeneratorFixture();
+        for (int i = 0; i < environments; i++) {
+            EnvironmentRequest request = BenchmarkRequests.create(BenchmarkRequests.TYPICAL);
+            request.setName("env-" + i);
+            request.setVpcCidr("10." + (i % 256) + ".0.0/16");
+            validated.add(fixture.validate(request));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public int bundle(Output output) {
+        byte[] archive = fixture.bundleService().generate("platform", validated, null, format);
+        output.record(archive.length);
+        return archive.length;
+    }
+
+    @Benchmark
+    public long separateArchives(Output output) {
+        long total = 0;
+        for (ValidatedEnvironment environment : validated) {
+            total += fixture.generationService().generateArchive(
+                    fixture.generationService().generate(environment), format).length;
+        }
+        output.record(total);
+        return total;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.tfgenerator.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.tfgenerator.util.CidrUtil;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CidrUtilBenchmark {
+
+    @Param({ BenchmarkRequests.SMALL, BenchmarkRequests.TYPICAL, BenchmarkRequests.WORST })
+    public String shape;
+
+    private String cidr;
+    private int count;
+
+    @Setup
+    public void setUp() {
+        switch (shape) {
+            case BenchmarkRequests.SMALL:
+                cidr = "10.0.0.0/16";
+                count = 2;
+                break;
+            case BenchmarkRequests.TYPICAL:
+                cidr = "10.0.0.0/16";
+                count = 6;
+                break;
+            default:
+                cidr = "172.16.0.0/12";
+                count = 256;
+                break;
+        }
+    }
+
+    @Benchmark
+    public List<String> splitCidr() {
+        return CidrUtil.splitCidr(cidr, count);
+    }
+}
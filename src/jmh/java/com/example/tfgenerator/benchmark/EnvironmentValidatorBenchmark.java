@@ -0,0 +1,84 @@
+package com.example.tfgenerator.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.ipam.Cidr;
+import com.example.tfgenerator.ipam.VpcRegistry;
+import com.example.tfgenerator.metrics.GenerationMetrics;
+import com.example.tfgenerator.validator.EnvironmentValidator;
+import com.example.tfgenerator.validator.ValidatedEnvironment;
+import com.example.tfgenerator.validator.ValidationMode;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnvironmentValidatorBenchmark {
+
+    // The checks the validator ran before it parsed each field once: regexes for the
+    // name and CIDR, a CIDR parse for the overlap check and another for the subnet plan.
+    private static final Pattern LEGACY_CIDR = Pattern.compile("^([0-9]{1,3}\\.){3}[0-9]{1,3}/[0-9]{1,2}$");
+    private static final Pattern LEGACY_NAME = Pattern.compile("^[a-z0-9][a-z0-9-]{0,62}[a-z0-9]$");
+    private static final Set<String> LEGACY_REGIONS = Set.of("us-east-1", "us-east-2", "us-west-1", "us-west-2",
+            "eu-west-1", "eu-west-2", "eu-west-3", "eu-central-1", "eu-central-2", "ap-south-1", "ap-northeast-1",
+            "ap-northeast-2", "ap-northeast-3", "ap-southeast-1", "ap-southeast-2", "ap-east-1", "sa-east-1",
+            "ca-central-1");
+
+    @Param({ BenchmarkRequests.SMALL, BenchmarkRequests.TYPICAL, BenchmarkRequests.WORST })
+    public String shape;
+
+    private EnvironmentValidator validator;
+    private VpcRegistry vpcRegistry;
+    private EnvironmentRequest request;
+
+    @Setup
+    public void setUp() {
+        vpcRegistry = new VpcRegistry();
+        validator = new EnvironmentValidator(new GenerationMetrics(new SimpleMeterRegistry()), vpcRegistry);
+        request = BenchmarkRequests.create(shape);
+    }
+
+    @Benchmark
+    public ValidatedEnvironment validate() {
+        return validator.validate(request, ValidationMode.COLLECT_ALL);
+    }
+
+    @Benchmark
+    public ValidatedEnvironment validateFailFast() {
+        return validator.validate(request, ValidationMode.FAIL_FAST);
+    }
+
+    /**
+     * Baseline for {@link #validate()}: the name, region and CIDR work a request used
+     * to cost across validation and generation.
+     */
+    @Benchmark
+    public Cidr legacyParsing() {
+        if (!LEGACY_NAME.matcher(request.getName()).matches()
+                || !LEGACY_REGIONS.contains(request.getRegion())
+                || !LEGACY_CIDR.matcher(request.getVpcCidr()).matches()) {
+            throw new IllegalStateException("Benchmark request is invalid");
+        }
+        vpcRegistry.findOverlap(Cidr.parse(request.getVpcCidr()), request.getName());
+        return Cidr.parse(request.getVpcCidr());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.tfgenerator.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.tfgenerator.dto.ApiResponse;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.model.TerraformResponse;
+import com.example.tfgenerator.validator.ValidatedEnvironment;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerationBenchmark {
+
+    @Param({ BenchmarkRequests.SMALL, BenchmarkRequests.TYPICAL, BenchmarkRequests.WORST })
+    public String shape;
+
+    @Param({ "0", "16777216" })
+    public long memoBytes;
+
+    private GeneratorFixture fixture;
+    private ValidatedEnvironment environment;
+    private ValidatedEnvironment[] renamed;
+    private TerraformResponse response;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        fixture = new GeneratorFixture(memoBytes);
+        EnvironmentRequest request = BenchmarkRequests.create(shape);
+        environment = fixture.validate(request);
+        renamed = new ValidatedEnvironment[64];
+        for (int i = 0; i < renamed.length; i++) {
+            EnvironmentRequest copy = BenchmarkRequests.create(shape);
+            copy.setName(request.getName() + "-" + i);
+            renamed[i] = fixture.validate(copy);
+        }
+        response = fixture.generationService().generate(environment);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public TerraformResponse generate() {
+        return fixture.generationService().generate(environment);
+    }
+
+    /**
+     * Requests that differ only in the environment name, so with the memo enabled
+     * only the templates reading the name are rendered again.
+     */
+    @Benchmark
+    public TerraformResponse generateRenamed() {
+        ValidatedEnvironment next = renamed[this.next++ & (renamed.length - 1)];
+        return fixture.generationService().generate(next);
+    }
+
+    /**
+     * The buffered JSON body of {@code /environments}: the whole project as Strings,
+     * then serialized.
+     */
+    @Benchmark
+    public byte[] generateJson() throws IOException {
+        return fixture.objectMapper().writeValueAsBytes(
+                new ApiResponse<TerraformResponse>(true, fixture.generationService().generate(environment), null));
+    }
+
+    /**
+     * The same body as {@code /environments?stream=true} writes it, file by file.
+     */
+    @Benchmark
+    public void streamJson(Blackhole blackhole) throws IOException {
+        fixture.projectJsonWriter().write(environment, null, discarding(blackhole));
+    }
+
+    @Benchmark
+    public byte[] generateZip() {
+        return fixture.generationService().generateZip(response);
+    }
+
+    /**
+     * Renders straight into a ZIP, as {@code /download?stream=true} does, writing to a
+     * stream that discards the bytes.
+     */
+    @Benchmark
+    public void streamZip(Blackhole blackhole) {
+        fixture.generationService().writeZip(environment, discarding(blackhole));
+    }
+
+    private static OutputStream discarding(Blackhole blackhole) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) {
+                blackhole.consume(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                blackhole.consume(len);
+            }
+        };
+    }
+}
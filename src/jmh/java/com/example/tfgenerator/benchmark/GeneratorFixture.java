@@ -0,0 +1,99 @@
+package com.example.tfgenerator.benchmark;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.ui.freemarker.FreeMarkerConfigurationFactoryBean;
+
+import com.example.tfgenerator.archive.ArchiveWriters;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.ipam.VpcRegistry;
+import com.example.tfgenerator.metrics.GenerationMetrics;
+import com.example.tfgenerator.service.BufferPool;
+import com.example.tfgenerator.service.BundleService;
+import com.example.tfgenerator.service.ProjectJsonWriter;
+import com.example.tfgenerator.service.RenderMemo;
+import com.example.tfgenerator.service.TemplateRegistry;
+import com.example.tfgenerator.service.TerraformGenerationService;
+import com.example.tfgenerator.service.TerraformTemplateService;
+import com.example.tfgenerator.validator.EnvironmentValidator;
+import com.example.tfgenerator.validator.ValidatedEnvironment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import freemarker.template.Configuration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Wires the generation services the same way the application does, without a Spring context.
+ */
+public final class GeneratorFixture {
+
+    private final ExecutorService renderExecutor;
+    private final GenerationMetrics metrics;
+    private final EnvironmentValidator validator;
+    private final TerraformTemplateService templateService;
+    private final TerraformGenerationService generationService;
+    private final BundleService bundleService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ProjectJsonWriter projectJsonWriter;
+
+    public GeneratorFixture() throws Exception {
+        this(0);
+    }
+
+    /**
+     * @param memoBytes render memo budget; 0 disables it so every call measures a full render
+     */
+    public GeneratorFixture(long memoBytes) throws Exception {
+        FreeMarkerConfigurationFactoryBean factoryBean = new FreeMarkerConfigurationFactoryBean();
+        factoryBean.setTemplateLoaderPath("classpath:/templates");
+        factoryBean.afterPropertiesSet();
+        Configuration config = factoryBean.getObject();
+
+        renderExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        metrics = new GenerationMetrics(new SimpleMeterRegistry());
+        validator = new EnvironmentValidator(metrics, new VpcRegistry());
+        templateService = new TerraformTemplateService(new TemplateRegistry(config), metrics, new RenderMemo(memoBytes));
+        generationService = new TerraformGenerationService(templateService, renderExecutor, metrics);
+        BufferPool bufferPool = new BufferPool(4, 1048576);
+        bundleService = new BundleService(validator, generationService, templateService,
+                new ArchiveWriters(renderExecutor), bufferPool, metrics, 1000);
+        projectJsonWriter = new ProjectJsonWriter(generationService, templateService, objectMapper, bufferPool, metrics);
+    }
+
+    public GenerationMetrics metrics() {
+        return metrics;
+    }
+
+    public EnvironmentValidator validator() {
+        return validator;
+    }
+
+    public ValidatedEnvironment validate(EnvironmentRequest request) {
+        return validator.validate(request);
+    }
+
+    public TerraformTemplateService templateService() {
+        return templateService;
+    }
+
+    public TerraformGenerationService generationService() {
+        return generationService;
+    }
+
+    public BundleService bundleService() {
+        return bundleService;
+    }
+
+    public ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    public ProjectJsonWriter projectJsonWriter() {
+        return projectJsonWriter;
+    }
+
+    public void close() {
+        renderExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.tfgenerator.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.tfgenerator.ipam.Cidr;
+import com.example.tfgenerator.ipam.Subnet;
+import com.example.tfgenerator.ipam.SubnetPlanner;
+import com.example.tfgenerator.ipam.VpcRegistry;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IpamBenchmark {
+
+    @Param({ "100", "10000" })
+    public int allocations;
+
+    private VpcRegistry registry;
+    private Cidr candidate;
+
+    @Setup
+    public void setUp() {
+        registry = new VpcRegistry();
+        for (int i = 0; i < allocations; i++) {
+            registry.register("env-" + i, Cidr.of(0x0A000000 + (i << 8), 24));
+        }
+        candidate = Cidr.of(0x0A000000 + ((allocations / 2) << 8) + 16, 28);
+    }
+
+    @Benchmark
+    public Cidr parse() {
+        return Cidr.parse("172.16.240.0/20");
+    }
+
+    @Benchmark
+    public VpcRegistry.Allocation findOverlap() {
+        return registry.findOverlap(candidate, null);
+    }
+
+    @Benchmark
+    public List<Subnet> evenPlan() {
+        return SubnetPlanner.evenPlan(Cidr.parse("10.0.0.0/16"), 3);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.tfgenerator.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.tfgenerator.archive.ArchiveFormat;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.model.GenerationEngine;
+import com.example.tfgenerator.model.TerraformResponse;
+import com.example.tfgenerator.util.Utf8Buffer;
+import com.example.tfgenerator.validator.ValidatedEnvironment;
+
+/**
+ * Validation, generation and streamed ZIP download of platforms with 10 to 1,000
+ * list entries, with the render memo off. Time and {@code gc.alloc.rate.norm}
+ * divided by {@code resources} should stay flat as the platform grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScaleBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int resources;
+
+    @Param({ "FREEMARKER", "HCL" })
+    public GenerationEngine engine;
+
+    private GeneratorFixture fixture;
+    private EnvironmentRequest request;
+    private ValidatedEnvironment environment;
+    private final Utf8Buffer sink = new Utf8Buffer(1 << 20);
+
+    @Setup
+    public void setUp() throws Exception {
+        fixture = new GeneratorFixture();
+        request = BenchmarkRequests.scaled(resources);
+        environment = fixture.validate(request);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public ValidatedEnvironment validate() {
+        return fixture.validate(request);
+    }
+
+    @Benchmark
+    public TerraformResponse generate() {
+        return fixture.generationService().generate(environment, engine);
+    }
+
+    @Benchmark
+    public int writeZip() {
+        sink.reset();
+        fixture.generationService().writeArchive(environment, engine, ArchiveFormat.ZIP, sink.asOutputStream());
+        return sink.size();
+    }
+}
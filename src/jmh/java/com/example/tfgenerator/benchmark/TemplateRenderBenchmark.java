@@ -0,0 +1,64 @@
+package com.example.tfgenerator.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.tfgenerator.model.GenerationEngine;
+import com.example.tfgenerator.model.TerraformFile;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateRenderBenchmark {
+
+    @Param({ BenchmarkRequests.SMALL, BenchmarkRequests.TYPICAL, BenchmarkRequests.WORST })
+    public String shape;
+
+    @Param({ "main.tf.ftl", "variables.tf.ftl", "vpc.tf.ftl", "services_s3.tf.ftl", "services_rds.tf.ftl",
+             "services_ecs.tf.ftl", "outputs.tf.ftl", "terraform.tfvars.ftl" })
+    public String template;
+
+    @Param({ "FREEMARKER", "HCL" })
+    public GenerationEngine engine;
+
+    private GeneratorFixture fixture;
+    private Map<String, Object> model;
+    private TerraformFile file;
+
+    @Setup
+    public void setUp() throws Exception {
+        fixture = new GeneratorFixture();
+        model = fixture.generationService().createRenderPlan(fixture.validate(BenchmarkRequests.create(shape))).getModel();
+        for (TerraformFile candidate : TerraformFile.values()) {
+            if (candidate.getTemplateName().equals(template)) {
+                file = candidate;
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public String render() {
+        return fixture.templateService().render(file, model, engine);
+    }
+}
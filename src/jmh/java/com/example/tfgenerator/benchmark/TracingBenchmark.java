@@ -0,0 +1,84 @@
+package com.example.tfgenerator.benchmark;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.tfgenerator.model.TerraformResponse;
+import com.example.tfgenerator.service.TerraformGenerationService;
+import com.example.tfgenerator.trace.RequestTrace;
+import com.example.tfgenerator.trace.SlowRequestLog;
+import com.example.tfgenerator.validator.ValidatedEnvironment;
+
+/**
+ * Cost of request tracing: a generation with no trace bound, against the same
+ * generation traced the way the filter does it, with spans carried onto the render
+ * threads, the {@code Server-Timing} header built and the request offered to the
+ * slow request log.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TracingBenchmark {
+
+    @Param({ BenchmarkRequests.SMALL, BenchmarkRequests.TYPICAL, BenchmarkRequests.WORST })
+    public String shape;
+
+    private GeneratorFixture fixture;
+    private ExecutorService renderExecutor;
+    private TerraformGenerationService generationService;
+    private ValidatedEnvironment environment;
+    private SlowRequestLog slowRequestLog;
+
+    @Setup
+    public void setUp() throws Exception {
+        fixture = new GeneratorFixture();
+        renderExecutor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        Executor propagating = task -> renderExecutor.execute(RequestTrace.propagate(task));
+        generationService = new TerraformGenerationService(fixture.templateService(), propagating, fixture.metrics());
+        environment = fixture.validate(BenchmarkRequests.create(shape));
+        slowRequestLog = new SlowRequestLog(20);
+    }
+
+    @TearDown
+    public void tearDown() {
+        renderExecutor.shutdownNow();
+        fixture.close();
+    }
+
+    @Benchmark
+    public TerraformResponse untraced() {
+        return generationService.generate(environment);
+    }
+
+    @Benchmark
+    public String traced() {
+        RequestTrace trace = new RequestTrace("POST", "/api/v1/environments");
+        trace.attach();
+        try {
+            generationService.generate(environment);
+            String header = trace.serverTiming();
+            slowRequestLog.offer(trace, 200, trace.elapsedNanos());
+            return header;
+        } finally {
+            RequestTrace.detach();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.tfgenerator.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Measures how a freshly started instance behaves: the time until it reports ready,
+ * the latency of its first request and of its first {@code loadtest.first-requests}
+ * requests, sent one after another. The packaged application is started once with
+ * the startup warm-up and once without it, and the two are reported side by side.
+ * <pre>
+ * mvn -Ploadtest verify -DskipTests -Dloadtest.main=com.example.tfgenerator.loadtest.ColdStartTest
+ * </pre>
+ */
+public final class ColdStartTest {
+
+    private ColdStartTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String jar = System.getProperty("loadtest.jar");
+        int firstRequests = Integer.parseInt(System.getProperty("loadtest.first-requests", "1000"));
+        Path sample = Paths.get(System.getProperty("loadtest.sample", "sample-request.json"));
+        List<byte[]> bodies = RequestVariations.create(sample, firstRequests);
+        Files.createDirectories(Paths.get(System.getProperty("loadtest.output-dir", "target/loadtest")));
+
+        List<String> rows = new ArrayList<>();
+        for (boolean warmup : new boolean[] { false, true }) {
+            rows.add(measure(jar, warmup, bodies));
+        }
+        System.out.println();
+        System.out.printf("%-8s %12s %14s %9s %9s %9s %9s%n", "warm-up", "ready ms", "first req ms",
+                "p50 ms", "p99 ms", "max ms", "total ms");
+        rows.forEach(System.out::println);
+    }
+
+    private static String measure(String jar, boolean warmup, List<byte[]> bodies) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-jar");
+        command.add(jar);
+        command.add("--server.port=" + port);
+        command.add("--generator.warmup.enabled=" + warmup);
+        // Every request must reach the generator, not artifacts stored by an earlier run.
+        command.add("--generator.store.dir=");
+        command.add("--logging.file.name=");
+        command.add("--logging.level.com.example.tfgenerator=INFO");
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File(System.getProperty("loadtest.output-dir", "target/loadtest"),
+                        "coldstart-" + (warmup ? "warm" : "cold") + ".log"))
+                .start();
+        long launched = System.nanoTime();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5)).build();
+        String base = "http://localhost:" + port;
+        try {
+            awaitReady(client, URI.create(base + "/actuator/health/readiness"), process);
+            long ready = System.nanoTime() - launched;
+
+            URI uri = URI.create(base + "/api/v1/environments");
+            Histogram latencies = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+            long first = 0;
+            long start = System.nanoTime();
+            for (byte[] body : bodies) {
+                long sent = System.nanoTime();
+                HttpResponse<Void> response = client.send(HttpRequest.newBuilder(uri)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                        .build(), HttpResponse.BodyHandlers.discarding());
+                long latency = System.nanoTime() - sent;
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Request failed with status " + response.statusCode());
+                }
+                if (first == 0) {
+                    first = latency;
+                }
+                latencies.recordValue(Math.min(latencies.getHighestTrackableValue(), latency / 1000));
+            }
+            long total = System.nanoTime() - start;
+            return String.format(Locale.ROOT, "%-8s %12.0f %14.2f %9.2f %9.2f %9.2f %9.0f", warmup ? "on" : "off",
+                    ready / 1e6, first / 1e6, latencies.getValueAtPercentile(50) / 1000.0,
+                    latencies.getValueAtPercentile(99) / 1000.0, latencies.getMaxValue() / 1000.0, total / 1e6);
+        } finally {
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void awaitReady(HttpClient client, URI readiness, Process process) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue());
+            }
+            try {
+                if (client.send(HttpRequest.newBuilder(readiness).build(),
+                        HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Application not ready after 2 minutes");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.tfgenerator.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Load test of a running generator. Each endpoint is warmed up and then driven at
+ * {@code loadtest.rate} requests per second for {@code loadtest.duration-seconds},
+ * replaying variations of the sample request. Reports latency percentiles and
+ * throughput, writes each endpoint's full latency distribution to
+ * {@code loadtest.output-dir} and fails when a result breaks a threshold.
+ * <p>
+ * Run against an application started separately, for example:
+ * <pre>
+ * mvn -Ploadtest verify -Dloadtest.url=http://localhost:8080 -Dloadtest.rate=200
+ * </pre>
+ * Thresholds set to {@code 0} are not checked.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = property("loadtest.url", "http://localhost:8080");
+        String[] endpoints = property("loadtest.endpoints", "environments,download").split(",");
+        double rate = Double.parseDouble(property("loadtest.rate", "100"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(property("loadtest.duration-seconds", "30")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(property("loadtest.warmup-seconds", "10")));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(property("loadtest.timeout-seconds", "10")));
+        int variations = Integer.parseInt(property("loadtest.variations", "256"));
+        Path sample = Paths.get(property("loadtest.sample", "sample-request.json"));
+        Path outputDir = Paths.get(property("loadtest.output-dir", "target/loadtest"));
+
+        double maxP50 = Double.parseDouble(property("loadtest.max-p50-ms", "0"));
+        double maxP99 = Double.parseDouble(property("loadtest.max-p99-ms", "50"));
+        double maxP999 = Double.parseDouble(property("loadtest.max-p999-ms", "0"));
+        double maxErrorRate = Double.parseDouble(property("loadtest.max-error-rate", "0.001"));
+        double minThroughputRatio = Double.parseDouble(property("loadtest.min-throughput-ratio", "0.95"));
+
+        List<byte[]> bodies = RequestVariations.create(sample, variations);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        Files.createDirectories(outputDir);
+
+        List<String> violations = new ArrayList<>();
+        List<String> rows = new ArrayList<>();
+        for (String endpoint : endpoints) {
+            String name = endpoint.trim();
+            URI uri = URI.create(url + (name.startsWith("/") ? name : "/api/v1/" + name));
+            OpenLoadRun run = new OpenLoadRun(client, uri, bodies, timeout);
+            System.out.printf(Locale.ROOT, "%s: warming up for %ds at %.0f req/s%n", uri, warmup.getSeconds(), rate);
+            run.run(rate, warmup);
+            System.out.printf(Locale.ROOT, "%s: measuring for %ds at %.0f req/s%n", uri, duration.getSeconds(), rate);
+            OpenLoadRun.Result result = run.run(rate, duration);
+
+            rows.add(String.format(Locale.ROOT, "%-14s %8.1f %8.1f %8d %7d %9.2f %9.2f %9.2f %9.2f  %s", name, rate,
+                    result.throughput(), result.sent, result.errors(), result.percentileMillis(50),
+                    result.percentileMillis(99), result.percentileMillis(99.9),
+                    result.latencyMicros.getMaxValue() / 1000.0, result.statuses));
+            writeDistribution(outputDir.resolve(name.replaceAll("[^A-Za-z0-9._-]", "_") + ".hgrm"), result);
+
+            check(violations, name, "p50", result.percentileMillis(50), maxP50);
+            check(violations, name, "p99", result.percentileMillis(99), maxP99);
+            check(violations, name, "p99.9", result.percentileMillis(99.9), maxP999);
+            if (result.errorRate() > maxErrorRate) {
+                violations.add(String.format(Locale.ROOT, "%s: error rate %.4f above %.4f", name, result.errorRate(),
+                        maxErrorRate));
+            }
+            if (minThroughputRatio > 0 && result.throughput() < rate * minThroughputRatio) {
+                violations.add(String.format(Locale.ROOT, "%s: throughput %.1f req/s below %.1f", name,
+                        result.throughput(), rate * minThroughputRatio));
+            }
+        }
+
+        System.out.println();
+        System.out.printf("%-14s %8s %8s %8s %7s %9s %9s %9s %9s  %s%n", "endpoint", "target", "achieved", "sent",
+                "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+        rows.forEach(System.out::println);
+        System.out.println();
+        if (!violations.isEmpty()) {
+            violations.forEach(violation -> System.out.println("FAILED " + violation));
+            throw new IllegalStateException("Load test thresholds not met: " + violations);
+        }
+        System.out.println("All load test thresholds met");
+    }
+
+    private static void check(List<String> violations, String endpoint, String percentile, double millis,
+                              double maxMillis) {
+        if (maxMillis > 0 && millis > maxMillis) {
+            violations.add(String.format(Locale.ROOT, "%s: %s %.2f ms above %.2f ms", endpoint, percentile, millis,
+                    maxMillis));
+        }
+    }
+
+    private static void writeDistribution(Path file, OpenLoadRun.Result result) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+            // Recorded in microseconds, written in milliseconds.
+            result.latencyMicros.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+}
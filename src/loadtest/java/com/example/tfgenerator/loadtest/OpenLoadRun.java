@@ -0,0 +1,152 @@
+package com.example.tfgenerator.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Sends requests to one endpoint at a fixed rate for a fixed time, whether or not
+ * earlier responses have arrived (an open workload, like independent clients).
+ * <p>
+ * Latency is measured from when a request was due to be sent, not from when it
+ * was sent, so a server or client that falls behind shows up as latency instead
+ * of silently lowering the rate (coordinated omission).
+ */
+final class OpenLoadRun {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final int MAX_OUTSTANDING = 10_000;
+
+    private final HttpClient client;
+    private final URI uri;
+    private final List<byte[]> bodies;
+    private final Duration timeout;
+
+    OpenLoadRun(HttpClient client, URI uri, List<byte[]> bodies, Duration timeout) {
+        this.client = client;
+        this.uri = uri;
+        this.bodies = bodies;
+        this.timeout = timeout;
+    }
+
+    Result run(double ratePerSecond, Duration duration) throws InterruptedException {
+        Recorder recorder = new Recorder(MAX_LATENCY_MICROS, 3);
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        LongAdder failures = new LongAdder();
+        AtomicLong lastCompletion = new AtomicLong();
+        Semaphore outstanding = new Semaphore(MAX_OUTSTANDING);
+        long dropped = 0;
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long sent = 0;
+        for (long due = start; due < end; due = start + sent * intervalNanos) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            byte[] body = bodies.get((int) (sent % bodies.size()));
+            sent++;
+            if (!outstanding.tryAcquire()) {
+                dropped++;
+                continue;
+            }
+            long intended = due;
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                long now = System.nanoTime();
+                recorder.recordValue(Math.min(MAX_LATENCY_MICROS, (now - intended) / 1000));
+                if (error != null) {
+                    failures.increment();
+                } else {
+                    statuses.computeIfAbsent(response.statusCode(), s -> new LongAdder()).increment();
+                }
+                lastCompletion.accumulateAndGet(now, Math::max);
+                outstanding.release();
+            });
+        }
+        // Requests still in flight count as failures if they outlive their own timeout.
+        if (outstanding.tryAcquire(MAX_OUTSTANDING, timeout.toMillis() + 1000, TimeUnit.MILLISECONDS)) {
+            outstanding.release(MAX_OUTSTANDING);
+        }
+
+        Map<Integer, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+        long finished = Math.max(lastCompletion.get(), end);
+        return new Result(recorder.getIntervalHistogram(), sent, dropped, failures.sum(), statusCounts,
+                (finished - start) / 1e9);
+    }
+
+    static final class Result {
+
+        final Histogram latencyMicros;
+        final long sent;
+        final long dropped;
+        final long failures;
+        final Map<Integer, Long> statuses;
+        final double elapsedSeconds;
+
+        Result(Histogram latencyMicros, long sent, long dropped, long failures, Map<Integer, Long> statuses,
+               double elapsedSeconds) {
+            this.latencyMicros = latencyMicros;
+            this.sent = sent;
+            this.dropped = dropped;
+            this.failures = failures;
+            this.statuses = statuses;
+            this.elapsedSeconds = elapsedSeconds;
+        }
+
+        long successes() {
+            long successes = 0;
+            for (Map.Entry<Integer, Long> entry : statuses.entrySet()) {
+                int status = entry.getKey();
+                if (status / 100 == 2 || status == 304) {
+                    successes += entry.getValue();
+                }
+            }
+            return successes;
+        }
+
+        /**
+         * Responses other than 2xx and 304, plus requests that failed, timed out or
+         * were never sent because too many were in flight.
+         */
+        long errors() {
+            return sent - successes();
+        }
+
+        double errorRate() {
+            return sent == 0 ? 0 : (double) errors() / sent;
+        }
+
+        /**
+         * Successful responses per second.
+         */
+        double throughput() {
+            return successes() / elapsedSeconds;
+        }
+
+        double percentileMillis(double percentile) {
+            return latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
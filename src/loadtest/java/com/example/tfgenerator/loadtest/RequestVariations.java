@@ -0,0 +1,86 @@
+package com.example.tfgenerator.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.tfgenerator.dto.EcsConfig;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.dto.RdsConfig;
+import com.example.tfgenerator.dto.Services;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+
+/**
+ * Request bodies derived from the sample request. Variation {@code i} has its own
+ * name and VPC block, turns S3, RDS and ECS on by the low bits of {@code i},
+ * alternates the RDS engine and adds {@code i % 17} extra tags, so a run covers
+ * every service mix and a spread of output sizes rather than one cached project.
+ */
+final class RequestVariations {
+
+    private static final String[] ENGINES = { "postgres", "mysql" };
+    private static final int[] PREFIXES = { 16, 18, 20 };
+
+    private RequestVariations() {
+    }
+
+    /**
+     * @return the JSON bodies, as the API expects them
+     */
+    static List<byte[]> create(Path sample, int count) throws IOException {
+        // The sample file is written with camelCase fields; the API reads snake_case.
+        EnvironmentRequest base = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                .readValue(sample.toFile(), EnvironmentRequest.class);
+        ObjectMapper apiMapper = new ObjectMapper()
+                .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        List<byte[]> bodies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            bodies.add(apiMapper.writeValueAsBytes(variation(base, i)));
+        }
+        return bodies;
+    }
+
+    static EnvironmentRequest variation(EnvironmentRequest base, int i) {
+        EnvironmentRequest request = new EnvironmentRequest();
+        request.setName(base.getName() + "-" + i);
+        request.setRegion(base.getRegion());
+        request.setVpcCidr("10." + (i & 0xff) + ".0.0/" + PREFIXES[i % PREFIXES.length]);
+
+        Services services = new Services();
+        services.setS3Bucket((i & 1) != 0);
+        RdsConfig rds = new RdsConfig();
+        rds.setEnabled((i & 2) != 0);
+        if (rds.getEnabled()) {
+            RdsConfig sample = base.getServices() != null ? base.getServices().getRds() : null;
+            rds.setEngine(ENGINES[(i >> 3) % ENGINES.length]);
+            rds.setInstanceClass(sample != null && sample.getInstanceClass() != null
+                    ? sample.getInstanceClass() : "db.t3.micro");
+            rds.setDbName("appdb" + i);
+            rds.setUsername("appuser");
+            rds.setPassword("LoadTest-" + i + "!");
+        }
+        services.setRds(rds);
+        EcsConfig ecs = new EcsConfig();
+        ecs.setEnabled((i & 4) != 0);
+        services.setEcsCluster(ecs);
+        request.setServices(services);
+
+        Map<String, String> tags = new LinkedHashMap<>();
+        if (base.getTags() != null) {
+            tags.putAll(base.getTags());
+        }
+        for (int t = 0; t < i % 17; t++) {
+            tags.put("load-tag-" + t, "value-" + i + "-" + t);
+        }
+        request.setTags(tags);
+        return request;
+    }
+}
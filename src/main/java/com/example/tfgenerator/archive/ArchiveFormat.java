@@ -0,0 +1,72 @@
+package com.example.tfgenerator.archive;
+
+import java.util.Locale;
+
+/**
+ * Archive formats a generated project can be downloaded as.
+ */
+public enum ArchiveFormat {
+
+    ZIP("zip", ".zip", "application/zip"),
+    TAR_GZ("tar.gz", ".tar.gz", "application/gzip");
+
+    private final String code;
+    private final String extension;
+    private final String mediaType;
+
+    ArchiveFormat(String code, String extension, String mediaType) {
+        this.code = code;
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * The format for a {@code format} parameter such as {@code zip}, {@code tar.gz}
+     * or {@code tgz}, or {@code null} if it names none.
+     */
+    public static ArchiveFormat fromCode(String code) {
+        if (code == null) {
+            return null;
+        }
+        switch (code.toLowerCase(Locale.ROOT)) {
+            case "zip":
+                return ZIP;
+            case "tar.gz":
+            case "tgz":
+            case "tar_gz":
+                return TAR_GZ;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * The format for a media type named in an {@code Accept} header, or {@code null}.
+     */
+    public static ArchiveFormat fromMediaType(String mediaType) {
+        switch (mediaType.toLowerCase(Locale.ROOT)) {
+            case "application/zip":
+            case "application/x-zip-compressed":
+                return ZIP;
+            case "application/gzip":
+            case "application/x-gzip":
+            case "application/x-gtar":
+            case "application/x-tar+gzip":
+                return TAR_GZ;
+            default:
+                return null;
+        }
+    }
+}
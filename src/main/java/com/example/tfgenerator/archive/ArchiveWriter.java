@@ -0,0 +1,38 @@
+package com.example.tfgenerator.archive;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+/**
+ * Writes files into an archive on an underlying stream. Each entry's content is
+ * complete when it is added, so formats that need sizes or checksums up front can
+ * write them without buffering.
+ * <p>
+ * Every entry carries the same fixed modification time, so the same files always
+ * produce the same archive bytes.
+ */
+public interface ArchiveWriter {
+
+    /**
+     * 1980-01-01T00:00:00, the earliest time a ZIP entry can hold.
+     */
+    LocalDateTime ENTRY_TIME = LocalDateTime.of(1980, 1, 1, 0, 0);
+
+    void addEntry(String name, byte[] content, int offset, int length) throws IOException;
+
+    /**
+     * Adds {@code name} as a link to the earlier entry {@code target}, for formats that
+     * can store one file under several names.
+     *
+     * @return {@code false} if the format has no links, in which case nothing is
+     *         written and the caller adds the content again
+     */
+    default boolean addLink(String name, String target) throws IOException {
+        return false;
+    }
+
+    /**
+     * Writes the end of the archive and flushes it. The underlying stream is left open.
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,55 @@
+package com.example.tfgenerator.archive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opens an {@link ArchiveWriter} for a format with the configured compression settings.
+ */
+@Component
+public class ArchiveWriters {
+
+    private final Executor compressionExecutor;
+    private final int zipLevel;
+    private final int zipStoreBelowBytes;
+    private final int gzipLevel;
+    private final int gzipChunkBytes;
+    private final int gzipMaxInFlight;
+
+    public ArchiveWriters(Executor compressionExecutor) {
+        this(compressionExecutor, Deflater.DEFAULT_COMPRESSION, 512, Deflater.DEFAULT_COMPRESSION, 128 * 1024, 0);
+    }
+
+    @Autowired
+    public ArchiveWriters(@Qualifier("compressionExecutor") Executor compressionExecutor,
+                          @Value("${generator.archive.zip.level:-1}") int zipLevel,
+                          @Value("${generator.archive.zip.store-below-bytes:512}") int zipStoreBelowBytes,
+                          @Value("${generator.archive.gzip.level:-1}") int gzipLevel,
+                          @Value("${generator.archive.gzip.chunk-bytes:131072}") int gzipChunkBytes,
+                          @Value("${generator.archive.gzip.max-in-flight:0}") int gzipMaxInFlight) {
+        this.compressionExecutor = compressionExecutor;
+        this.zipLevel = zipLevel;
+        this.zipStoreBelowBytes = zipStoreBelowBytes;
+        this.gzipLevel = gzipLevel;
+        this.gzipChunkBytes = gzipChunkBytes;
+        this.gzipMaxInFlight = gzipMaxInFlight > 0
+                ? gzipMaxInFlight : 2 * Runtime.getRuntime().availableProcessors();
+    }
+
+    public ArchiveWriter open(ArchiveFormat format, OutputStream out) throws IOException {
+        switch (format) {
+            case TAR_GZ:
+                return new TarGzArchiveWriter(out, gzipLevel, gzipChunkBytes, compressionExecutor, gzipMaxInFlight);
+            case ZIP:
+            default:
+                return new ZipArchiveWriter(out, zipLevel, zipStoreBelowBytes);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.tfgenerator.archive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzip stream that compresses fixed-size chunks of its input concurrently, the way
+ * pigz does. Every chunk but the last is deflated with a sync flush, so it ends on a
+ * byte boundary without closing the stream, and the compressed chunks are written
+ * in order as one Deflate stream. Each chunk is primed with the last 32 KB of the
+ * chunk before it, so the ratio stays close to single-threaded gzip.
+ * <p>
+ * Input that fits in one chunk is compressed on the calling thread. At most
+ * {@code maxInFlight} chunks are held at once, which bounds memory for large input.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final byte[] HEADER = {
+            0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+    private final OutputStream out;
+    private final int level;
+    private final int chunkSize;
+    private final Executor executor;
+    private final int maxInFlight;
+
+    private final CRC32 crc = new CRC32();
+    private final Deque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+    private byte[] chunk;
+    private int chunkLength;
+    private byte[] previous;
+    private long totalIn;
+    private boolean finished;
+
+    public ParallelGzipOutputStream(OutputStream out, int level, int chunkSize, Executor executor, int maxInFlight)
+            throws IOException {
+        this.out = out;
+        this.level = level;
+        this.chunkSize = Math.max(DICTIONARY_SIZE, chunkSize);
+        this.executor = executor;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (finished) {
+            throw new IOException("Stream already finished");
+        }
+        while (len > 0) {
+            if (chunk == null) {
+                chunk = new byte[chunkSize];
+                chunkLength = 0;
+            }
+            int n = Math.min(len, chunkSize - chunkLength);
+            System.arraycopy(b, off, chunk, chunkLength, n);
+            chunkLength += n;
+            off += n;
+            len -= n;
+            if (chunkLength == chunkSize) {
+                submit(false);
+            }
+        }
+    }
+
+    /**
+     * Compresses what is left, writes the gzip trailer and flushes. The underlying
+     * stream is left open.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        submit(true);
+        while (!pending.isEmpty()) {
+            writeCompleted(pending.poll());
+        }
+        writeIntLe((int) crc.getValue());
+        writeIntLe((int) totalIn);
+        out.flush();
+        finished = true;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+        out.close();
+    }
+
+    private void submit(boolean last) throws IOException {
+        byte[] data = chunk != null ? chunk : new byte[0];
+        int length = chunkLength;
+        byte[] dictionary = previous;
+        crc.update(data, 0, length);
+        totalIn += length;
+        previous = length >= DICTIONARY_SIZE ? data : null;
+        chunk = null;
+        chunkLength = 0;
+
+        if (last) {
+            // Nothing is left to overlap with, so the final chunk runs on this thread.
+            pending.add(CompletableFuture.completedFuture(deflate(data, length, dictionary, true)));
+            return;
+        }
+        CompletableFuture<byte[]> compressed;
+        try {
+            compressed = CompletableFuture.supplyAsync(() -> deflate(data, length, dictionary, false), executor);
+        } catch (RejectedExecutionException e) {
+            compressed = CompletableFuture.completedFuture(deflate(data, length, dictionary, false));
+        }
+        pending.add(compressed);
+        while (pending.size() > maxInFlight || (!pending.isEmpty() && pending.peek().isDone())) {
+            writeCompleted(pending.poll());
+        }
+    }
+
+    private byte[] deflate(byte[] data, int length, byte[] dictionary, boolean last) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary, dictionary.length - DICTIONARY_SIZE, DICTIONARY_SIZE);
+            }
+            deflater.setInput(data, 0, length);
+            byte[] buffer = new byte[Math.max(64, length / 2)];
+            int size = 0;
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    if (size == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
+                    size += deflater.deflate(buffer, size, buffer.length - size);
+                }
+            } else {
+                // A sync flush has completed once it leaves room in the output buffer.
+                do {
+                    if (size == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
+                    size += deflater.deflate(buffer, size, buffer.length - size, Deflater.SYNC_FLUSH);
+                } while (size == buffer.length);
+            }
+            return Arrays.copyOf(buffer, size);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void writeCompleted(CompletableFuture<byte[]> compressed) throws IOException {
+        try {
+            out.write(compressed.join());
+        } catch (CompletionException e) {
+            throw new IOException("Failed to compress chunk", e.getCause());
+        }
+    }
+
+    private void writeIntLe(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        out.write((value >> 16) & 0xff);
+        out.write((value >> 24) & 0xff);
+    }
+}
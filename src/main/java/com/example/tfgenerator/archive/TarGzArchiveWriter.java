@@ -0,0 +1,105 @@
+package com.example.tfgenerator.archive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+/**
+ * A ustar archive compressed with {@link ParallelGzipOutputStream}. Entry names are
+ * limited to the 100 bytes a plain ustar header holds.
+ */
+public class TarGzArchiveWriter implements ArchiveWriter {
+
+    private static final int BLOCK = 512;
+    private static final long MTIME_SECONDS = ENTRY_TIME.toEpochSecond(ZoneOffset.UTC);
+
+    private final ParallelGzipOutputStream gzip;
+    private final byte[] header = new byte[BLOCK];
+
+    public TarGzArchiveWriter(OutputStream out, int level, int chunkSize, Executor executor, int maxInFlight)
+            throws IOException {
+        this.gzip = new ParallelGzipOutputStream(out, level, chunkSize, executor, maxInFlight);
+    }
+
+    @Override
+    public void addEntry(String name, byte[] content, int offset, int length) throws IOException {
+        writeHeader(name, length, '0', null);
+        gzip.write(content, offset, length);
+        int padding = (BLOCK - length % BLOCK) % BLOCK;
+        if (padding > 0) {
+            gzip.write(new byte[padding]);
+        }
+    }
+
+    /**
+     * Writes a hard link, which takes one header block whatever the size of the target.
+     */
+    @Override
+    public boolean addLink(String name, String target) throws IOException {
+        writeHeader(name, 0, '1', target);
+        return true;
+    }
+
+    @Override
+    public void finish() throws IOException {
+        // Two zero blocks mark the end of the archive.
+        gzip.write(new byte[2 * BLOCK]);
+        gzip.finish();
+    }
+
+    private void writeHeader(String name, long size, char type, String linkName) throws IOException {
+        Arrays.fill(header, (byte) 0);
+        utf8(0, name);
+        octal(100, 8, 0644);
+        octal(108, 8, 0);
+        octal(116, 8, 0);
+        octal(124, 12, size);
+        octal(136, 12, MTIME_SECONDS);
+        header[156] = (byte) type;
+        if (linkName != null) {
+            utf8(157, linkName);
+        }
+        ascii(257, "ustar\0");
+        ascii(263, "00");
+
+        // The checksum is taken with its own field filled with spaces.
+        Arrays.fill(header, 148, 156, (byte) ' ');
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xff;
+        }
+        octal(148, 7, checksum);
+        header[155] = ' ';
+        gzip.write(header);
+    }
+
+    private void utf8(int offset, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 100) {
+            throw new IllegalArgumentException("Entry name longer than 100 bytes: " + name);
+        }
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+    }
+
+    /**
+     * Writes the value as zero-padded octal digits followed by a NUL, filling the field.
+     */
+    private void octal(int offset, int width, long value) {
+        String digits = Long.toOctalString(value);
+        int pad = width - 1 - digits.length();
+        for (int i = 0; i < pad; i++) {
+            header[offset + i] = '0';
+        }
+        ascii(offset + Math.max(0, pad), digits);
+        header[offset + width - 1] = 0;
+    }
+
+    private void ascii(int offset, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            header[offset + i] = (byte) text.charAt(i);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.tfgenerator.archive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * ZIP with a configurable Deflate level. Entries smaller than {@code storeBelowBytes}
+ * are stored uncompressed, since Deflate gains nothing on a few hundred bytes and
+ * costs a compressor setup per entry. Level 0 stores every entry.
+ */
+public class ZipArchiveWriter implements ArchiveWriter {
+
+    private final ZipOutputStream zos;
+    private final int level;
+    private final int storeBelowBytes;
+    private final CRC32 crc = new CRC32();
+
+    public ZipArchiveWriter(OutputStream out, int level, int storeBelowBytes) {
+        this.zos = new ZipOutputStream(out);
+        this.level = level;
+        this.storeBelowBytes = storeBelowBytes;
+        zos.setLevel(level);
+    }
+
+    @Override
+    public void addEntry(String name, byte[] content, int offset, int length) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        // A local time in the DOS range is stored as is, without the zone or extra fields.
+        entry.setTimeLocal(ENTRY_TIME);
+        if (level == 0 || length < storeBelowBytes) {
+            crc.reset();
+            crc.update(content, offset, length);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(length);
+            entry.setCompressedSize(length);
+            entry.setCrc(crc.getValue());
+        }
+        zos.putNextEntry(entry);
+        zos.write(content, offset, length);
+        zos.closeEntry();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        zos.finish();
+        zos.flush();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.tfgenerator.cluster;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * {@code generator.cluster.*}: the replicas that share one generation cache. Every
+ * replica lists the same {@code peers}, including itself, and names itself in
+ * {@code self} exactly as it appears there.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "generator.cluster")
+public class ClusterProperties {
+    private boolean enabled;
+    private String self;
+    private List<String> peers = new ArrayList<>();
+    private int virtualNodes = 160;
+    private int connectTimeoutMillis = 250;
+    private int readTimeoutMillis = 5000;
+    private long downMillis = 5000;
+    private String secret;
+}
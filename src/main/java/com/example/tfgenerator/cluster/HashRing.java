@@ -0,0 +1,48 @@
+package com.example.tfgenerator.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.example.tfgenerator.util.Hashes;
+
+/**
+ * A consistent-hash ring of nodes. Each node is placed at {@code virtualNodes}
+ * points so keys spread evenly, and adding or removing a node only moves the keys
+ * that node gains or loses. Immutable once built.
+ */
+final class HashRing {
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+
+    HashRing(Collection<String> nodes, int virtualNodes) {
+        for (String node : nodes) {
+            for (int i = 0; i < Math.max(1, virtualNodes); i++) {
+                ring.put(hash(node + '#' + i), node);
+            }
+        }
+    }
+
+    /**
+     * The node owning the key: the first at or clockwise after the key's hash.
+     */
+    String owner(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+        return (entry != null ? entry : ring.firstEntry()).getValue();
+    }
+
+    private static long hash(String value) {
+        MessageDigest digest = Hashes.sha256();
+        byte[] bytes = digest.digest(value.getBytes(StandardCharsets.UTF_8));
+        long hash = 0;
+        for (int i = 0; i < 8; i++) {
+            hash = (hash << 8) | (bytes[i] & 0xff);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.tfgenerator.cluster;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import com.example.tfgenerator.archive.ArchiveFormat;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.metrics.GenerationMetrics;
+import com.example.tfgenerator.model.TerraformResponse;
+import com.example.tfgenerator.service.TemplateRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The cluster-wide tier of the generation cache. Each request fingerprint is owned
+ * by one replica on a {@link HashRing} of the configured peers, and a replica that
+ * misses its own cache asks the owner for the project or archive, so every request
+ * is rendered and cached once in the cluster rather than once per replica.
+ * <p>
+ * The owner is sent the request itself, so it can render on a miss too. It answers
+ * {@code 409} if it runs other templates, as during a rolling deploy. Any answer
+ * other than {@code 200} is a miss, and a replica that cannot be reached is skipped
+ * for {@code generator.cluster.down-millis}. A miss returns {@code null} and the
+ * caller renders locally, so a peer being down only costs the shared cache.
+ * <p>
+ * Replicas authenticate to each other with {@code generator.cluster.secret}, and
+ * enabling the cluster without one fails startup.
+ */
+@Component
+public class PeerCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PeerCache.class);
+
+    public static final String PROJECT_PATH = "/internal/v1/peer/project";
+    public static final String ARCHIVE_PATH = "/internal/v1/peer/archive";
+    public static final String TEMPLATE_VERSION_HEADER = "X-Template-Version";
+    public static final String SECRET_HEADER = "X-Cluster-Secret";
+
+    private final ClusterProperties properties;
+    private final ObjectMapper objectMapper;
+    private final TemplateRegistry templateRegistry;
+    private final GenerationMetrics metrics;
+    private final HashRing ring;
+    // Unreachable peers and when to try them again, by System.nanoTime().
+    private final Map<String, Long> downUntil = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PeerCache(ClusterProperties properties, ObjectMapper objectMapper, TemplateRegistry templateRegistry,
+                     GenerationMetrics metrics) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.templateRegistry = templateRegistry;
+        this.metrics = metrics;
+        this.ring = ring(properties);
+    }
+
+    private PeerCache() {
+        this(new ClusterProperties(), null, null, null);
+    }
+
+    /**
+     * A peer cache for a single replica, which never asks anyone.
+     */
+    public static PeerCache disabled() {
+        return new PeerCache();
+    }
+
+    private static HashRing ring(ClusterProperties properties) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        if (properties.getSecret() == null || properties.getSecret().isEmpty()) {
+            // The peer endpoints render on request, so they must never be open to everyone.
+            throw new IllegalStateException("generator.cluster.secret is required with generator.cluster.enabled");
+        }
+        if (properties.getSelf() == null || !properties.getPeers().contains(properties.getSelf())) {
+            LOGGER.warn("generator.cluster.self {} is not one of generator.cluster.peers {}, cluster cache disabled",
+                    properties.getSelf(), properties.getPeers());
+            return null;
+        }
+        LOGGER.info("Sharing the generation cache with peers {} as {}", properties.getPeers(), properties.getSelf());
+        return new HashRing(properties.getPeers(), properties.getVirtualNodes());
+    }
+
+    public boolean isEnabled() {
+        return ring != null;
+    }
+
+    /**
+     * The replica owning the key if it is another one and not known to be down,
+     * else {@code null}.
+     */
+    public String remoteOwner(String key) {
+        if (ring == null) {
+            return null;
+        }
+        String owner = ring.owner(key);
+        if (owner.equals(properties.getSelf())) {
+            return null;
+        }
+        Long until = downUntil.get(owner);
+        if (until != null) {
+            if (until - System.nanoTime() > 0) {
+                return null;
+            }
+            downUntil.remove(owner, until);
+        }
+        return owner;
+    }
+
+    /**
+     * The project from the replica owning the key, or {@code null} to render it here.
+     */
+    public TerraformResponse fetchProject(String key, EnvironmentRequest request) {
+        String owner = remoteOwner(key);
+        if (owner == null) {
+            return null;
+        }
+        byte[] body = post(owner, PROJECT_PATH, "project", request);
+        if (body == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(body, TerraformResponse.class);
+        } catch (IOException e) {
+            LOGGER.warn("Unreadable project {} from peer {}", key, owner, e);
+            return null;
+        }
+    }
+
+    /**
+     * The archive from the replica owning the key, or {@code null} to build it here.
+     */
+    public byte[] fetchArchive(String key, EnvironmentRequest request, ArchiveFormat format) {
+        String owner = remoteOwner(key);
+        if (owner == null) {
+            return null;
+        }
+        return post(owner, ARCHIVE_PATH + "?format=" + format.getCode(), "archive", request);
+    }
+
+    private byte[] post(String owner, String path, String artifact, EnvironmentRequest request) {
+        long start = System.nanoTime();
+        try {
+            // Not disconnected: fully read responses leave the connection for reuse.
+            HttpURLConnection connection = (HttpURLConnection) new URL(owner + path).openConnection();
+            connection.setConnectTimeout(properties.getConnectTimeoutMillis());
+            connection.setReadTimeout(properties.getReadTimeoutMillis());
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setRequestProperty(TEMPLATE_VERSION_HEADER, templateRegistry.version());
+            connection.setRequestProperty(SECRET_HEADER, properties.getSecret());
+            byte[] body = objectMapper.writeValueAsBytes(request);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+            int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                // Drain the error body so the connection can be reused.
+                try (InputStream in = connection.getErrorStream()) {
+                    if (in != null) {
+                        StreamUtils.drain(in);
+                    }
+                }
+                LOGGER.debug("Peer {} answered {} for {}", owner, status, path);
+                metrics.recordPeerFetch(artifact, "miss", System.nanoTime() - start);
+                return null;
+            }
+            try (InputStream in = connection.getInputStream()) {
+                byte[] response = StreamUtils.copyToByteArray(in);
+                metrics.recordPeerFetch(artifact, "hit", System.nanoTime() - start);
+                return response;
+            }
+        } catch (IOException e) {
+            downUntil.put(owner, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getDownMillis()));
+            LOGGER.warn("Peer {} unavailable, generating locally for {} ms: {}", owner, properties.getDownMillis(),
+                    e.toString());
+            metrics.recordPeerFetch(artifact, "error", System.nanoTime() - start);
+            return null;
+        }
+    }
+}
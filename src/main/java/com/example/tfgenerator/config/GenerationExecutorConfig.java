@@ -0,0 +1,105 @@
+package com.example.tfgenerator.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.example.tfgenerator.trace.RequestTrace;
+
+@Configuration
+public class GenerationExecutorConfig {
+
+    /**
+     * Executor that runs whole generations off the servlet threads. It has a bounded
+     * queue and aborts when full, so overload becomes a fast 429 instead of
+     * ever-growing latency. Generations reach it through the
+     * {@link com.example.tfgenerator.scheduling.FairGenerationScheduler}, which carries
+     * the request trace itself, so it has no task decorator.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor generationExecutor(
+            @Value("${generator.generation.pool-size:0}") int poolSize,
+            @Value("${generator.generation.queue-capacity:64}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("generate-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * Executor for rendering the templates of one environment concurrently. When the
+     * queue is full the submitting thread renders the template itself, so a burst
+     * degrades to sequential rendering instead of failing.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor renderExecutor(
+            @Value("${generator.render.pool-size:0}") int poolSize,
+            @Value("${generator.render.queue-capacity:256}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("render-");
+        executor.setTaskDecorator(RequestTrace::propagate);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    /**
+     * Executor that writes the results of batch entries, which are generated on the
+     * generation executor. Each batch limits its own number of entries in flight, so
+     * the pool only has to be large enough for the expected batch load.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor batchExecutor(
+            @Value("${generator.batch.pool-size:0}") int poolSize,
+            @Value("${generator.batch.queue-capacity:1000}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("batch-");
+        executor.setTaskDecorator(RequestTrace::propagate);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    /**
+     * Executor that compresses chunks of large gzip archives in parallel. When the
+     * queue is full the writing thread compresses the chunk itself.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor compressionExecutor(
+            @Value("${generator.archive.compression.pool-size:0}") int poolSize,
+            @Value("${generator.archive.compression.queue-capacity:64}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("compress-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+
+    /**
+     * Declaring our own executors switches off Spring Boot's default task executor,
+     * which Spring MVC uses for streaming responses. Recreate it from the standard
+     * {@code spring.task.execution.*} settings so it stays bounded and configurable.
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.taskDecorator(RequestTrace::propagate).build();
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.tfgenerator.controller;
+
+/**
+ * Helpers for the strong ETags derived from request fingerprints.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String quote(String key) {
+        return "\"" + key + "\"";
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header matches the given key. Uses the weak
+     * comparison the header calls for, so {@code W/} prefixes are ignored. Only
+     * concrete tags match: {@code *} would allow a {@code 304} for any body of these
+     * POST requests, which RFC 9110 only permits for GET and HEAD.
+     */
+    static boolean matches(String ifNoneMatch, String key) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        String quoted = quote(key);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(quoted)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
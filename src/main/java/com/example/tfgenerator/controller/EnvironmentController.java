@@ -1,21 +1,55 @@
 package com.example.tfgenerator.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.tfgenerator.archive.ArchiveFormat;
 import com.example.tfgenerator.dto.ApiResponse;
+import com.example.tfgenerator.dto.BundleRequest;
+import com.example.tfgenerator.dto.EnvironmentDiffRequest;
 import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.exception.ValidationException;
+import com.example.tfgenerator.metrics.GenerationMetrics;
+import com.example.tfgenerator.model.CacheStats;
+import com.example.tfgenerator.model.EnvironmentDiff;
+import com.example.tfgenerator.model.GenerationEngine;
 import com.example.tfgenerator.model.TerraformResponse;
+import com.example.tfgenerator.scheduling.ClientContext;
+import com.example.tfgenerator.service.AsyncGenerationService;
+import com.example.tfgenerator.service.BatchGenerationService;
+import com.example.tfgenerator.service.BundleService;
+import com.example.tfgenerator.service.CachedGenerationService;
+import com.example.tfgenerator.service.EnvironmentDiffService;
+import com.example.tfgenerator.service.GenerationCache;
+import com.example.tfgenerator.service.ProjectJsonWriter;
 import com.example.tfgenerator.service.TerraformGenerationService;
+import com.example.tfgenerator.util.ByteBufferResource;
 import com.example.tfgenerator.validator.EnvironmentValidator;
+import com.example.tfgenerator.validator.ValidatedEnvironment;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -25,38 +59,322 @@ public class EnvironmentController {
 
     private final EnvironmentValidator validator;
     private final TerraformGenerationService generationService;
+    private final CachedGenerationService cachedGenerationService;
+    private final AsyncGenerationService asyncGenerationService;
+    private final BatchGenerationService batchGenerationService;
+    private final EnvironmentDiffService environmentDiffService;
+    private final BundleService bundleService;
+    private final ProjectJsonWriter projectJsonWriter;
+    private final GenerationCache generationCache;
+    private final GenerationMetrics metrics;
 
-    public EnvironmentController(EnvironmentValidator validator, TerraformGenerationService generationService) {
+    public EnvironmentController(EnvironmentValidator validator, TerraformGenerationService generationService,
+                                 CachedGenerationService cachedGenerationService,
+                                 AsyncGenerationService asyncGenerationService,
+                                 BatchGenerationService batchGenerationService,
+                                 EnvironmentDiffService environmentDiffService, BundleService bundleService,
+                                 ProjectJsonWriter projectJsonWriter, GenerationCache generationCache,
+                                 GenerationMetrics metrics) {
         this.validator = validator;
         this.generationService = generationService;
+        this.cachedGenerationService = cachedGenerationService;
+        this.asyncGenerationService = asyncGenerationService;
+        this.batchGenerationService = batchGenerationService;
+        this.environmentDiffService = environmentDiffService;
+        this.bundleService = bundleService;
+        this.projectJsonWriter = projectJsonWriter;
+        this.generationCache = generationCache;
+        this.metrics = metrics;
     }
 
     @PostMapping("/environments")
-    public ResponseEntity<ApiResponse<TerraformResponse>> generateEnvironment(@RequestBody EnvironmentRequest request) {
+    public CompletableFuture<ResponseEntity<?>> generateEnvironment(@RequestBody EnvironmentRequest request,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestParam(value = "engine", required = false) String engine) {
         LOGGER.info("Received generate environment request: name={}, region={}", request.getName(), request.getRegion());
-        validator.validate(request);
-        TerraformResponse response = generationService.generate(request);
-        LOGGER.debug("Generated terraform project with files: main_tf length={}, vpc_tf length={}", 
+        GenerationEngine selected = engine(engine);
+        String key = cachedGenerationService.fingerprint(request, selected);
+        if (cachedGenerationService.isStoringArtifacts()) {
+            // The stored body is gzip: passed through as is, or inflated for clients without gzip.
+            if (acceptsGzip(acceptEncoding)) {
+                String tag = key + "-gzip";
+                ByteBuffer stored = cachedGenerationService.findJsonGzip(key, request);
+                if (stored != null) {
+                    return CompletableFuture.completedFuture(gzipJsonResponse(tag, ifNoneMatch, stored));
+                }
+                return asyncGenerationService.generateJsonGzip(key, request, selected)
+                        .thenApply(body -> gzipJsonResponse(tag, ifNoneMatch, body));
+            }
+            if (!cachedGenerationService.isCached(key)) {
+                ByteBuffer stored = cachedGenerationService.findJsonGzip(key, request);
+                if (stored != null) {
+                    return CompletableFuture.completedFuture(inflatedJsonResponse(key, ifNoneMatch, stored));
+                }
+            }
+        }
+        if (cachedGenerationService.isCached(key)) {
+            // Cache hits are cheap, so answer them on the request thread without queueing.
+            return CompletableFuture.completedFuture(environmentResponse(key, ifNoneMatch,
+                    cachedGenerationService.generate(key, request)));
+        }
+        return asyncGenerationService.generate(key, request, selected)
+                .thenApply(response -> environmentResponse(key, ifNoneMatch, response));
+    }
+
+    private ResponseEntity<?> environmentResponse(String key, String ifNoneMatch, TerraformResponse response) {
+        if (ETags.matches(ifNoneMatch, key)) {
+            LOGGER.debug("Project {} not modified", key);
+            metrics.recordRequest("environments", "not_modified");
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(key).build();
+        }
+        LOGGER.debug("Generated terraform project with files: main_tf length={}, vpc_tf length={}",
                 response.getMainTf() != null ? response.getMainTf().length() : 0,
                 response.getVpcTf() != null ? response.getVpcTf().length() : 0);
-        return ResponseEntity.ok(new ApiResponse<TerraformResponse>(true, response, null));
+        metrics.recordRequest("environments", "ok");
+        return ResponseEntity.ok().eTag(key).varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .body(new ApiResponse<TerraformResponse>(true, response, null));
+    }
+
+    private ResponseEntity<?> gzipJsonResponse(String tag, String ifNoneMatch, ByteBuffer body) {
+        if (ETags.matches(ifNoneMatch, tag)) {
+            metrics.recordRequest("environments", "not_modified");
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build();
+        }
+        metrics.recordRequest("environments", "ok");
+        return ResponseEntity.ok().eTag(tag).varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ByteBufferResource(body));
+    }
+
+    private ResponseEntity<?> inflatedJsonResponse(String key, String ifNoneMatch, ByteBuffer body) {
+        if (ETags.matches(ifNoneMatch, key)) {
+            metrics.recordRequest("environments", "not_modified");
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(key).build();
+        }
+        InputStream json;
+        try {
+            json = new GZIPInputStream(new ByteBufferResource(body).getInputStream());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Stored JSON for " + key + " is not gzip", e);
+        }
+        metrics.recordRequest("environments", "ok");
+        return ResponseEntity.ok().eTag(key).varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new InputStreamResource(json));
+    }
+
+    /**
+     * Whether the {@code Accept-Encoding} header allows gzip, by name or wildcard,
+     * without a zero quality.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim().replace(" ", "");
+                    if (parameter.matches("q=0(\\.0*)?")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The same body as {@link #generateEnvironment}, written file by file as each
+     * renders instead of being assembled in memory first.
+     */
+    @PostMapping(value = "/environments", params = "stream=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEnvironment(@RequestBody EnvironmentRequest request,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestParam(value = "engine", required = false) String engine) {
+        LOGGER.info("Received streaming generate request: name={}, region={}", request.getName(), request.getRegion());
+        GenerationEngine selected = engine(engine);
+        String key = cachedGenerationService.fingerprint(request, selected);
+        if (ETags.matches(ifNoneMatch, key)) {
+            metrics.recordRequest("environments_stream", "not_modified");
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(key).build();
+        }
+        ValidatedEnvironment environment = validator.validate(request);
+        asyncGenerationService.admit();
+
+        metrics.recordRequest("environments_stream", "ok");
+        StreamingResponseBody body = out -> projectJsonWriter.write(environment, selected, out);
+        return ResponseEntity.ok().eTag(key).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @PostMapping("/environments/diff")
+    public ResponseEntity<ApiResponse<EnvironmentDiff>> diffEnvironment(@RequestBody EnvironmentDiffRequest request) {
+        if (request.getPrevious() == null || request.getCurrent() == null) {
+            throw new ValidationException("Fields 'previous' and 'current' are required");
+        }
+        LOGGER.info("Received diff request for environment: name={}", request.getCurrent().getName());
+        EnvironmentDiff diff = environmentDiffService.diff(request.getPrevious(), request.getCurrent());
+        metrics.recordRequest("diff", "ok");
+        return ResponseEntity.ok(new ApiResponse<EnvironmentDiff>(true, diff, null));
+    }
+
+    @PostMapping(value = "/download", produces = { MediaType.APPLICATION_OCTET_STREAM_VALUE, "application/zip",
+            "application/gzip", "application/x-gzip" })
+    public CompletableFuture<ResponseEntity<Resource>> downloadTerraform(@RequestBody EnvironmentRequest request,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestParam(value = "engine", required = false) String engine,
+            @RequestParam(value = "format", required = false) String format) {
+        GenerationEngine selected = engine(engine);
+        ArchiveFormat archiveFormat = archiveFormat(format, accept);
+        String key = cachedGenerationService.fingerprint(request, selected);
+        String tag = archiveTag(key, archiveFormat);
+        if (ETags.matches(ifNoneMatch, tag) && cachedGenerationService.isCached(key)) {
+            LOGGER.debug("Archive {} not modified", tag);
+            metrics.recordRequest("download", "not_modified");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build());
+        }
+
+        return asyncGenerationService.generateArchive(key, request, selected, archiveFormat)
+                .thenApply(archive -> downloadResponse(tag, ifNoneMatch, request.getName(), archiveFormat, archive));
+    }
+
+    private ResponseEntity<Resource> downloadResponse(String tag, String ifNoneMatch, String name,
+                                                      ArchiveFormat format, ByteBuffer archive) {
+        if (ETags.matches(ifNoneMatch, tag)) {
+            metrics.recordRequest("download", "not_modified");
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tag).build();
+        }
+        metrics.recordRequest("download", "ok");
+
+        HttpHeaders headers = archiveHeaders(name, format);
+        headers.setContentLength(archive.remaining());
+        headers.setETag(ETags.quote(tag));
+
+        return new ResponseEntity<>(new ByteBufferResource(archive), headers, HttpStatus.OK);
     }
-    
-    @PostMapping(value = "/download", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
-    public ResponseEntity<byte[]> downloadTerraform(@RequestBody EnvironmentRequest request) {
 
-        validator.validate(request);
+    @PostMapping(value = "/download", params = "stream=true", produces = { MediaType.APPLICATION_OCTET_STREAM_VALUE,
+            "application/zip", "application/gzip", "application/x-gzip" })
+    public ResponseEntity<StreamingResponseBody> streamTerraform(@RequestBody EnvironmentRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestParam(value = "engine", required = false) String engine,
+            @RequestParam(value = "format", required = false) String format) {
 
-        TerraformResponse response = generationService.generateTerraformProject(request);
-        byte[] zipBytes = generationService.generateZip(response);
+        GenerationEngine selected = engine(engine);
+        ArchiveFormat archiveFormat = archiveFormat(format, accept);
+        ValidatedEnvironment environment = validator.validate(request);
+        asyncGenerationService.admit();
 
-        String fileName = request.getName() + ".zip";
+        HttpHeaders headers = archiveHeaders(request.getName(), archiveFormat);
+
+        metrics.recordRequest("download_stream", "ok");
+        StreamingResponseBody body = out -> generationService.writeArchive(environment, selected, archiveFormat, out);
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
 
+    @PostMapping(value = "/bundles", produces = { MediaType.APPLICATION_OCTET_STREAM_VALUE, "application/zip",
+            "application/gzip", "application/x-gzip" })
+    public CompletableFuture<ResponseEntity<byte[]>> generateBundle(@RequestBody BundleRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestParam(value = "engine", required = false) String engine,
+            @RequestParam(value = "format", required = false) String format) {
+        GenerationEngine selected = engine(engine);
+        ArchiveFormat archiveFormat = archiveFormat(format, accept);
+        List<ValidatedEnvironment> environments = bundleService.validate(request);
+        LOGGER.info("Received bundle request: name={}, environments={}", request.getName(), environments.size());
+
+        return asyncGenerationService.submit(request.getName(), environments.size(),
+                () -> bundleService.generate(request.getName(), environments, selected, archiveFormat))
+                .thenApply(archive -> {
+                    metrics.recordRequest("bundle", "ok");
+                    HttpHeaders headers = archiveHeaders(request.getName(), archiveFormat);
+                    headers.setContentLength(archive.length);
+                    return new ResponseEntity<>(archive, headers, HttpStatus.OK);
+                });
+    }
+
+    /**
+     * ZIP keeps the {@code application/octet-stream} type it has always been served
+     * with; other formats use their own media type.
+     */
+    private static HttpHeaders archiveHeaders(String name, ArchiveFormat format) {
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentDispositionFormData("attachment", fileName);
-        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-        headers.setContentLength(zipBytes.length);
+        headers.setContentDispositionFormData("attachment", name + format.getExtension());
+        headers.setContentType(format == ArchiveFormat.ZIP
+                ? MediaType.APPLICATION_OCTET_STREAM : MediaType.parseMediaType(format.getMediaType()));
+        headers.setVary(Collections.singletonList(HttpHeaders.ACCEPT));
+        return headers;
+    }
+
+    /**
+     * The archive format from the {@code format} parameter if given, else the first
+     * archive type in the {@code Accept} header by preference, else ZIP.
+     */
+    private static ArchiveFormat archiveFormat(String format, String accept) {
+        if (format != null && !format.isEmpty()) {
+            ArchiveFormat archiveFormat = ArchiveFormat.fromCode(format);
+            if (archiveFormat == null) {
+                throw new ValidationException("Unknown format '" + format + "'. Allowed values: zip, tar.gz");
+            }
+            return archiveFormat;
+        }
+        if (accept != null && !accept.isEmpty()) {
+            List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+            MediaType.sortBySpecificityAndQuality(mediaTypes);
+            for (MediaType mediaType : mediaTypes) {
+                ArchiveFormat archiveFormat = ArchiveFormat.fromMediaType(mediaType.getType() + "/" + mediaType.getSubtype());
+                if (archiveFormat != null) {
+                    return archiveFormat;
+                }
+            }
+        }
+        return ArchiveFormat.ZIP;
+    }
+
+    /**
+     * Archives of one project differ by format, so each format gets its own ETag.
+     * ZIP keeps the bare fingerprint it has always used.
+     */
+    private static String archiveTag(String key, ArchiveFormat format) {
+        return format == ArchiveFormat.ZIP ? key : key + "-" + format.name().toLowerCase(Locale.ROOT);
+    }
+
+    @PostMapping(value = "/environments:batch",
+            consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE },
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> generateBatch(InputStream body,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) throws IOException {
+        List<BatchGenerationService.Entry> entries = batchGenerationService.readEntries(body, contentType);
+        LOGGER.info("Received batch generate request with {} environments", entries.size());
+        metrics.recordRequest("batch", "ok");
+
+        String client = ClientContext.current();
+        StreamingResponseBody responseBody = out -> batchGenerationService.generateAll(entries, client, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(responseBody);
+    }
+
+    /**
+     * The engine named by the {@code engine} request parameter, or {@code null} for the configured default.
+     */
+    private static GenerationEngine engine(String name) {
+        if (name == null || name.isEmpty()) {
+            return null;
+        }
+        GenerationEngine engine = GenerationEngine.fromName(name);
+        if (engine == null) {
+            throw new ValidationException("Unknown engine '" + name + "'. Allowed values: freemarker, hcl");
+        }
+        return engine;
+    }
 
-        return new ResponseEntity<>(zipBytes, headers, HttpStatus.OK);
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ApiResponse<CacheStats>> cacheStats() {
+        return ResponseEntity.ok(new ApiResponse<CacheStats>(true, generationCache.stats(), null));
     }
 }
@@ -0,0 +1,139 @@
+package com.example.tfgenerator.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.tfgenerator.dto.ApiResponse;
+import com.example.tfgenerator.dto.SubnetPlanRequest;
+import com.example.tfgenerator.dto.VpcAllocationRequest;
+import com.example.tfgenerator.exception.ValidationException;
+import com.example.tfgenerator.ipam.Cidr;
+import com.example.tfgenerator.ipam.Subnet;
+import com.example.tfgenerator.ipam.SubnetPlanner;
+import com.example.tfgenerator.ipam.SubnetTier;
+import com.example.tfgenerator.ipam.VpcAllocationsChangedEvent;
+import com.example.tfgenerator.ipam.VpcRegistry;
+import com.example.tfgenerator.model.SubnetAllocation;
+import com.example.tfgenerator.model.VpcAllocation;
+import com.example.tfgenerator.validator.EnvironmentValidator;
+
+@RestController
+@RequestMapping("/api/v1/ipam")
+public class IpamController {
+
+    private final VpcRegistry vpcRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public IpamController(VpcRegistry vpcRegistry, ApplicationEventPublisher eventPublisher) {
+        this.vpcRegistry = vpcRegistry;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @GetMapping("/allocations")
+    public ResponseEntity<ApiResponse<List<VpcAllocation>>> listAllocations() {
+        List<VpcAllocation> allocations = new ArrayList<>();
+        for (VpcRegistry.Allocation allocation : vpcRegistry.list()) {
+            allocations.add(toModel(allocation));
+        }
+        return ResponseEntity.ok(new ApiResponse<List<VpcAllocation>>(true, allocations, null));
+    }
+
+    @PutMapping("/allocations/{name}")
+    public ResponseEntity<ApiResponse<VpcAllocation>> allocate(@PathVariable String name,
+                                                              @RequestBody VpcAllocationRequest request) {
+        VpcRegistry.Allocation allocation = vpcRegistry.register(checkName(name), parse(request.getCidr(), "cidr"));
+        eventPublisher.publishEvent(new VpcAllocationsChangedEvent(this));
+        return ResponseEntity.ok(new ApiResponse<VpcAllocation>(true, toModel(allocation), null));
+    }
+
+    @DeleteMapping("/allocations/{name}")
+    public ResponseEntity<ApiResponse<Object>> release(@PathVariable String name) {
+        if (!vpcRegistry.release(checkName(name))) {
+            return new ResponseEntity<>(new ApiResponse<>(false, null, "No allocation for '" + name + "'"),
+                    HttpStatus.NOT_FOUND);
+        }
+        eventPublisher.publishEvent(new VpcAllocationsChangedEvent(this));
+        return ResponseEntity.ok(new ApiResponse<>(true, null, null));
+    }
+
+    @GetMapping("/overlaps")
+    public ResponseEntity<ApiResponse<VpcAllocation>> findOverlap(@RequestParam String cidr,
+                                                                 @RequestParam(required = false) String name) {
+        VpcRegistry.Allocation overlap = vpcRegistry.findOverlap(parse(cidr, "cidr"), name);
+        return ResponseEntity.ok(new ApiResponse<VpcAllocation>(true, overlap != null ? toModel(overlap) : null, null));
+    }
+
+    @PostMapping("/subnet-plans")
+    public ResponseEntity<ApiResponse<List<SubnetAllocation>>> planSubnets(@RequestBody SubnetPlanRequest request) {
+        Cidr vpc = parse(request.getVpcCidr(), "vpc_cidr");
+        int azCount = request.getAvailabilityZones() != null ? request.getAvailabilityZones() : 2;
+        if (azCount < 1 || azCount > EnvironmentValidator.MAX_AVAILABILITY_ZONES) {
+            throw new ValidationException("Field 'availability_zones' must be between 1 and "
+                    + EnvironmentValidator.MAX_AVAILABILITY_ZONES);
+        }
+        List<Subnet> subnets;
+        try {
+            if (request.getPublicPrefix() == null && request.getPrivatePrefix() == null) {
+                subnets = SubnetPlanner.evenPlan(vpc, azCount);
+            } else {
+                subnets = SubnetPlanner.plan(vpc, requests(request, azCount));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException(e.getMessage(), e);
+        }
+
+        List<SubnetAllocation> allocations = new ArrayList<>(subnets.size());
+        for (Subnet subnet : subnets) {
+            allocations.add(new SubnetAllocation(subnet.getTier().name().toLowerCase(), subnet.getAz(),
+                    subnet.getCidr().toString()));
+        }
+        return ResponseEntity.ok(new ApiResponse<List<SubnetAllocation>>(true, allocations, null));
+    }
+
+    private List<Subnet> requests(SubnetPlanRequest request, int azCount) {
+        if (request.getPublicPrefix() == null || request.getPrivatePrefix() == null) {
+            throw new ValidationException("Fields 'public_prefix' and 'private_prefix' must be given together");
+        }
+        List<Subnet> requests = new ArrayList<>(2 * azCount);
+        for (int az = 0; az < azCount; az++) {
+            requests.add(Subnet.request(SubnetTier.PUBLIC, az, request.getPublicPrefix()));
+            requests.add(Subnet.request(SubnetTier.PRIVATE, az, request.getPrivatePrefix()));
+        }
+        return requests;
+    }
+
+    /**
+     * Allocations are named after environments, so they follow the same naming rules.
+     */
+    private static String checkName(String name) {
+        if (!EnvironmentValidator.isValidName(name)) {
+            throw new ValidationException("Allocation name must be lowercase alphanumeric with hyphens (2–64 chars)");
+        }
+        return name;
+    }
+
+    private static Cidr parse(String cidr, String field) {
+        try {
+            return Cidr.parse(cidr);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Field '" + field + "' must be a valid CIDR (e.g., 10.0.0.0/16)", e);
+        }
+    }
+
+    private static VpcAllocation toModel(VpcRegistry.Allocation allocation) {
+        return new VpcAllocation(allocation.getName(), allocation.getCidr().toString());
+    }
+}
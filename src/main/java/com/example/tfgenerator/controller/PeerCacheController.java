@@ -0,0 +1,117 @@
+package com.example.tfgenerator.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.tfgenerator.archive.ArchiveFormat;
+import com.example.tfgenerator.cluster.ClusterProperties;
+import com.example.tfgenerator.cluster.PeerCache;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.exception.ValidationException;
+import com.example.tfgenerator.model.TerraformResponse;
+import com.example.tfgenerator.scheduling.ClientContext;
+import com.example.tfgenerator.scheduling.FairGenerationScheduler;
+import com.example.tfgenerator.service.AsyncGenerationService;
+import com.example.tfgenerator.service.CachedGenerationService;
+import com.example.tfgenerator.service.TemplateRegistry;
+import com.example.tfgenerator.util.ByteBufferResource;
+
+/**
+ * Answers other replicas asking for projects this replica owns. The answer always
+ * comes from this replica's own cache or renderer, never from another peer, so
+ * replicas that disagree about the ring cannot forward a request in circles.
+ * <p>
+ * Renders are queued on the {@link FairGenerationScheduler} as the
+ * {@link ClientContext#PEER} client, so they share the generation threads fairly
+ * with this replica's own clients and can be given a policy of their own. The
+ * requesting client's rate limit was already applied by the replica it called.
+ */
+@RestController
+@ConditionalOnProperty(name = "generator.cluster.enabled", havingValue = "true")
+public class PeerCacheController {
+
+    private final CachedGenerationService cachedGenerationService;
+    private final AsyncGenerationService asyncGenerationService;
+    private final TemplateRegistry templateRegistry;
+    private final ClusterProperties properties;
+    private final PeerCache peerCache;
+
+    public PeerCacheController(CachedGenerationService cachedGenerationService,
+                               AsyncGenerationService asyncGenerationService, TemplateRegistry templateRegistry,
+                               ClusterProperties properties, PeerCache peerCache) {
+        this.cachedGenerationService = cachedGenerationService;
+        this.asyncGenerationService = asyncGenerationService;
+        this.templateRegistry = templateRegistry;
+        this.properties = properties;
+        this.peerCache = peerCache;
+    }
+
+    @PostMapping(value = PeerCache.PROJECT_PATH, produces = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<ResponseEntity<TerraformResponse>> project(@RequestBody EnvironmentRequest request,
+            @RequestHeader(value = PeerCache.TEMPLATE_VERSION_HEADER, required = false) String templateVersion,
+            @RequestHeader(value = PeerCache.SECRET_HEADER, required = false) String secret) {
+        HttpStatus refused = refuse(templateVersion, secret);
+        if (refused != null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(refused).build());
+        }
+        String key = cachedGenerationService.fingerprint(request);
+        if (cachedGenerationService.isCached(key)) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.ok(cachedGenerationService.generateForPeer(key, request)));
+        }
+        return asyncGenerationService.submit(ClientContext.PEER, request.getName(), 1,
+                () -> cachedGenerationService.generateForPeer(key, request))
+                .thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping(value = PeerCache.ARCHIVE_PATH, produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public CompletableFuture<ResponseEntity<Resource>> archive(@RequestBody EnvironmentRequest request,
+            @RequestParam("format") String format,
+            @RequestHeader(value = PeerCache.TEMPLATE_VERSION_HEADER, required = false) String templateVersion,
+            @RequestHeader(value = PeerCache.SECRET_HEADER, required = false) String secret) {
+        HttpStatus refused = refuse(templateVersion, secret);
+        if (refused != null) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(refused).build());
+        }
+        ArchiveFormat archiveFormat = ArchiveFormat.fromCode(format);
+        if (archiveFormat == null) {
+            throw new ValidationException("Unknown format '" + format + "'");
+        }
+        String key = cachedGenerationService.fingerprint(request);
+        return asyncGenerationService.submit(ClientContext.PEER, request.getName(), 1,
+                () -> cachedGenerationService.generateArchiveForPeer(key, request, archiveFormat))
+                .thenApply(archive -> ResponseEntity.ok().contentLength(archive.remaining())
+                        .<Resource>body(new ByteBufferResource(archive)));
+    }
+
+    /**
+     * {@code 404} if this replica is not part of a cluster, {@code 403} without the
+     * shared secret, {@code 409} if the caller renders with other templates, else
+     * {@code null}.
+     */
+    private HttpStatus refuse(String templateVersion, String secret) {
+        if (!peerCache.isEnabled()) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (secret == null || !MessageDigest.isEqual(
+                properties.getSecret().getBytes(StandardCharsets.UTF_8), secret.getBytes(StandardCharsets.UTF_8))) {
+            return HttpStatus.FORBIDDEN;
+        }
+        if (!templateRegistry.version().equals(templateVersion)) {
+            return HttpStatus.CONFLICT;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.tfgenerator.dto;
+
+import java.util.List;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class BundleRequest {
+    private String name;
+    private List<EnvironmentRequest> environments;
+}
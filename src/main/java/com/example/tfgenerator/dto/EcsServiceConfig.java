@@ -0,0 +1,15 @@
+package com.example.tfgenerator.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class EcsServiceConfig {
+    private String name;
+    private String image;
+    private Integer cpu = 256;
+    private Integer memory = 512;
+    private Integer desiredCount = 1;
+    private Integer containerPort;
+}
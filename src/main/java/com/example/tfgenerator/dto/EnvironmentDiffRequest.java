@@ -0,0 +1,11 @@
+package com.example.tfgenerator.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class EnvironmentDiffRequest {
+    private EnvironmentRequest previous;
+    private EnvironmentRequest current;
+}
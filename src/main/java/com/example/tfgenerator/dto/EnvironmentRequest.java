@@ -11,6 +11,7 @@ public class EnvironmentRequest {
     private String name;
     private String region;
     private String vpcCidr;
+    private Integer availabilityZones;
     private Services services;
     private Map<String, String> tags;
 }
@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 public class RdsConfig {
+    private String name;
     private Boolean enabled;
     private String engine;
     private String instanceClass;
@@ -0,0 +1,10 @@
+package com.example.tfgenerator.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class S3BucketConfig {
+    private String name;
+}
@@ -1,5 +1,7 @@
 package com.example.tfgenerator.dto;
 
+import java.util.List;
+
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -9,4 +11,7 @@ public class Services {
     private Boolean s3Bucket = false;
     private RdsConfig rds;
     private EcsConfig ecsCluster;
+    private List<S3BucketConfig> s3Buckets;
+    private List<RdsConfig> rdsInstances;
+    private List<EcsServiceConfig> ecsServices;
 }
@@ -0,0 +1,13 @@
+package com.example.tfgenerator.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class SubnetPlanRequest {
+    private String vpcCidr;
+    private Integer availabilityZones;
+    private Integer publicPrefix;
+    private Integer privatePrefix;
+}
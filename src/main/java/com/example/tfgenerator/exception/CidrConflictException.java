@@ -0,0 +1,6 @@
+package com.example.tfgenerator.exception;
+
+public class CidrConflictException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+    public CidrConflictException(String message) { super(message); }
+}
@@ -0,0 +1,20 @@
+package com.example.tfgenerator.exception;
+
+/**
+ * Thrown when the generation queue is full. Clients should retry after
+ * {@link #getRetryAfterSeconds()}.
+ */
+public class GenerationRejectedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public GenerationRejectedException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
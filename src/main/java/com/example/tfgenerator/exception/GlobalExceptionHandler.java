@@ -2,11 +2,13 @@ package com.example.tfgenerator.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 
 import com.example.tfgenerator.dto.ApiResponse;
 
@@ -22,6 +24,29 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(CidrConflictException.class)
+    public ResponseEntity<ApiResponse<Object>> handleCidrConflict(CidrConflictException ex) {
+        log.info("CIDR conflict: {}", ex.getMessage());
+        ApiResponse<Object> response = new ApiResponse<>(false, null, ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(GenerationRejectedException.class)
+    public ResponseEntity<ApiResponse<Object>> handleGenerationRejected(GenerationRejectedException ex) {
+        log.warn("Generation rejected: {}", ex.getMessage());
+        ApiResponse<Object> response = new ApiResponse<>(false, null, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(response);
+    }
+
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<ApiResponse<Object>> handleAsyncRequestTimeout(AsyncRequestTimeoutException ex) {
+        log.warn("Generation did not finish before the request timed out");
+        ApiResponse<Object> response = new ApiResponse<>(false, null, "Generation timed out, retry later");
+        return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<ApiResponse<Object>> handleHttpMessageNotReadable(
             HttpMessageNotReadableException ex) {
@@ -0,0 +1,87 @@
+package com.example.tfgenerator.hcl;
+
+import java.io.IOException;
+
+/**
+ * A Fargate ECS cluster with its log group, task execution role and a security
+ * group for tasks.
+ */
+public final class EcsResources implements HclBlock {
+
+    @Override
+    public void writeTo(HclWriter out) throws IOException {
+        out.resource("aws_ecs_cluster", "main")
+                .str("name", 0, HclWriter.ENVIRONMENT_NAME, "-cluster")
+                .blank()
+                .block("setting")
+                .str("name", 5, "containerInsights")
+                .str("value", 5, "enabled")
+                .end()
+                .blank()
+                .nameTag("-ecs-cluster")
+                .end()
+                .blank();
+
+        out.resource("aws_ecs_cluster_capacity_providers", "main")
+                .attr("cluster_name", 0, "aws_ecs_cluster.main.name")
+                .blank()
+                .attr("capacity_providers", 0, "[\"FARGATE\", \"FARGATE_SPOT\"]")
+                .blank()
+                .block("default_capacity_provider_strategy")
+                .str("capacity_provider", 17, "FARGATE")
+                .attr("weight", 17, "1")
+                .attr("base", 17, "1")
+                .end()
+                .end()
+                .blank();
+
+        out.resource("aws_cloudwatch_log_group", "ecs")
+                .str("name", 17, "/ecs/", HclWriter.ENVIRONMENT_NAME)
+                .attr("retention_in_days", 17, "7")
+                .blank()
+                .nameTag("-ecs-logs")
+                .end()
+                .blank();
+
+        out.resource("aws_iam_role", "ecs_task_execution")
+                .str("name", 0, HclWriter.ENVIRONMENT_NAME, "-ecs-task-execution-role")
+                .blank()
+                .call("assume_role_policy", 0, "jsonencode")
+                .str("Version", 0, "2012-10-17")
+                .list("Statement", 0)
+                .object()
+                .str("Action", 0, "sts:AssumeRole")
+                .str("Effect", 0, "Allow")
+                .map("Principal", 0)
+                .str("Service", 0, "ecs-tasks.amazonaws.com")
+                .end()
+                .end()
+                .end("]")
+                .end("})")
+                .blank()
+                .nameTag("-ecs-task-execution-role")
+                .end()
+                .blank();
+
+        out.resource("aws_iam_role_policy_attachment", "ecs_task_execution")
+                .attr("role", 10, "aws_iam_role.ecs_task_execution.name")
+                .str("policy_arn", 10, "arn:aws:iam::aws:policy/service-role/AmazonECSTaskExecutionRolePolicy")
+                .end()
+                .blank();
+
+        out.resource("aws_security_group", "ecs_tasks")
+                .str("name", 11, HclWriter.ENVIRONMENT_NAME, "-ecs-tasks-sg")
+                .str("description", 11, "Security group for ECS tasks")
+                .attr("vpc_id", 11, "aws_vpc.main.id")
+                .blank()
+                .block("egress")
+                .attr("from_port", 11, "0")
+                .attr("to_port", 11, "0")
+                .str("protocol", 11, "-1")
+                .attr("cidr_blocks", 11, "[\"0.0.0.0/0\"]")
+                .end()
+                .blank()
+                .nameTag("-ecs-tasks-sg")
+                .end();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.tfgenerator.hcl;
+
+import java.io.IOException;
+
+/**
+ * A Fargate task definition running one container, and the service keeping
+ * {@code desiredCount} copies of it on the environment's cluster in the private
+ * subnets. The container logs to the cluster's log group.
+ */
+public final class EcsServiceResources implements HclBlock {
+
+    private final String name;
+    private final String label;
+    private final String image;
+    private final String cpu;
+    private final String memory;
+    private final String desiredCount;
+    private final String containerPort;
+    private final String subnetIds;
+
+    /**
+     * @param containerPort the port to map, or {@code null} for none
+     */
+    public EcsServiceResources(String name, String label, String image, String cpu, String memory,
+                               String desiredCount, String containerPort, String subnetIds) {
+        this.name = name;
+        this.label = label;
+        this.image = image;
+        this.cpu = cpu;
+        this.memory = memory;
+        this.desiredCount = desiredCount;
+        this.containerPort = containerPort;
+        this.subnetIds = subnetIds;
+    }
+
+    @Override
+    public void writeTo(HclWriter out) throws IOException {
+        String suffix = "-" + name;
+
+        out.resource("aws_ecs_task_definition", label)
+                .str("family", 24, HclWriter.ENVIRONMENT_NAME, suffix)
+                .attr("requires_compatibilities", 24, "[\"FARGATE\"]")
+                .str("network_mode", 24, "awsvpc")
+                .attr("cpu", 24, cpu)
+                .attr("memory", 24, memory)
+                .attr("execution_role_arn", 24, "aws_iam_role.ecs_task_execution.arn")
+                .blank()
+                .callWithList("container_definitions", 0, "jsonencode")
+                .object()
+                .str("name", 9, name)
+                .str("image", 9, image)
+                .attr("essential", 9, "true");
+        if (containerPort != null) {
+            out.list("portMappings", 0)
+                    .object()
+                    .attr("containerPort", 13, containerPort)
+                    .str("protocol", 13, "tcp")
+                    .end()
+                    .end("]");
+        }
+        out.map("logConfiguration", 0)
+                .str("logDriver", 0, "awslogs")
+                .map("options", 0)
+                .attr("awslogs-group", 21, "aws_cloudwatch_log_group.ecs.name")
+                .attr("awslogs-region", 21, "var.region")
+                .str("awslogs-stream-prefix", 21, name)
+                .end()
+                .end()
+                .end()
+                .end("])")
+                .blank()
+                .nameTag(suffix + "-task")
+                .end()
+                .blank();
+
+        out.resource("aws_ecs_service", label)
+                .str("name", 15, HclWriter.ENVIRONMENT_NAME, suffix)
+                .attr("cluster", 15, "aws_ecs_cluster.main.id")
+                .attr("task_definition", 15, "aws_ecs_task_definition." + label + ".arn")
+                .attr("desired_count", 15, desiredCount)
+                .str("launch_type", 15, "FARGATE")
+                .blank()
+                .block("network_configuration")
+                .attr("subnets", 15, subnetIds)
+                .attr("security_groups", 15, "[aws_security_group.ecs_tasks.id]")
+                .end()
+                .blank()
+                .nameTag(suffix)
+                .end();
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.tfgenerator.hcl;
+
+import java.io.IOException;
+
+/**
+ * One or more related Terraform blocks that can write themselves as HCL.
+ */
+public interface HclBlock {
+
+    void writeTo(HclWriter out) throws IOException;
+}
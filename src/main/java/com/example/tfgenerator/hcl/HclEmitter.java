@@ -0,0 +1,337 @@
+package com.example.tfgenerator.hcl;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.example.tfgenerator.ipam.SubnetTier;
+import com.example.tfgenerator.model.RdsEngine;
+import com.example.tfgenerator.model.TerraformFile;
+
+/**
+ * Generates project files from typed HCL builders instead of FreeMarker templates.
+ * It reads the same data model keys each {@link TerraformFile} declares and must
+ * produce byte-for-byte the same output as the matching template.
+ */
+@Component
+public class HclEmitter {
+
+    public void emit(TerraformFile file, Map<String, Object> model, Appendable out) throws IOException {
+        HclWriter hcl = new HclWriter(out);
+        switch (file) {
+            case MAIN:
+                main(hcl, string(model, "name"), tags(model));
+                break;
+            case VARIABLES:
+                variables(hcl, model);
+                break;
+            case VPC:
+                vpc(hcl, flag(model, "multiZone"), list(model, "zones"));
+                break;
+            case SERVICES_S3:
+                s3(hcl, flag(model, "s3Enabled"), list(model, "s3Buckets"));
+                break;
+            case SERVICES_RDS:
+                rds(hcl, model);
+                break;
+            case SERVICES_ECS:
+                if (flag(model, "ecsEnabled")) {
+                    new EcsResources().writeTo(hcl);
+                    for (Map<String, Object> service : list(model, "ecsServices")) {
+                        hcl.blank();
+                        new EcsServiceResources(string(service, "name"), string(service, "label"),
+                                string(service, "image"), string(service, "cpu"), string(service, "memory"),
+                                string(service, "desiredCount"), (String) service.get("containerPort"),
+                                string(model, "privateSubnetIds")).writeTo(hcl);
+                    }
+                }
+                break;
+            case OUTPUTS:
+                outputs(hcl, model);
+                break;
+            case TERRAFORM_TFVARS:
+                tfvars(hcl, model);
+                break;
+            default:
+                throw new IllegalArgumentException("No HCL emitter for " + file);
+        }
+    }
+
+    private static void main(HclWriter hcl, String name, Map<String, String> tags) throws IOException {
+        hcl.block("terraform")
+                .str("required_version", 0, ">= 1.0")
+                .indentedBlank()
+                .block("required_providers")
+                .map("aws", 0)
+                .str("source", 7, "hashicorp/aws")
+                .str("version", 7, "~> 5.0")
+                .end()
+                .end()
+                .end()
+                .blank();
+
+        hcl.labelled("provider", "aws")
+                .attr("region", 0, "var.region")
+                .blank()
+                .block("default_tags")
+                .map("tags", 0)
+                .str("ManagedBy", 10, "Terraform")
+                .str("Environment", 0, name);
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            hcl.str(tag.getKey(), 0, tag.getValue());
+        }
+        hcl.end()
+                .end()
+                .endFile();
+    }
+
+    private static void variables(HclWriter hcl, Map<String, Object> model) throws IOException {
+        variable(hcl, "region", "AWS region", string(model, "region")).blank();
+        variable(hcl, "environment_name", "Environment name", string(model, "name")).blank();
+        variable(hcl, "vpc_cidr", "VPC CIDR", string(model, "vpcCidr")).blank();
+        variable(hcl, "public_subnet_cidr", "Public subnet CIDR", string(model, "publicSubnetCidr")).blank();
+        variable(hcl, "private_subnet_cidr", "Private subnet CIDR", string(model, "privateSubnetCidr")).blank();
+
+        if (flag(model, "rdsEnabled")) {
+            hcl.labelled("variable", "rds_username")
+                    .attr("type", 11, "string")
+                    .str("default", 11, string(model, "rdsUsername"))
+                    .attr("sensitive", 11, "true")
+                    .end()
+                    .blank();
+            hcl.labelled("variable", "rds_password")
+                    .attr("type", 11, "string")
+                    .str("default", 11, string(model, "rdsPassword"))
+                    .attr("sensitive", 11, "true")
+                    .end()
+                    .blank();
+            hcl.labelled("variable", "rds_db_name")
+                    .attr("type", 11, "string")
+                    .str("default", 11, string(model, "rdsDbName"))
+                    .end();
+        }
+
+        boolean first = true;
+        for (Map<String, Object> db : list(model, "rdsInstances")) {
+            if (flag(model, "rdsEnabled") || !first) {
+                hcl.blank();
+            }
+            first = false;
+            String label = string(db, "label");
+            hcl.labelled("variable", label + "_username")
+                    .attr("type", 11, "string")
+                    .str("default", 11, string(db, "username"))
+                    .attr("sensitive", 11, "true")
+                    .end()
+                    .blank();
+            hcl.labelled("variable", label + "_password")
+                    .attr("type", 11, "string")
+                    .str("default", 11, string(db, "password"))
+                    .attr("sensitive", 11, "true")
+                    .end()
+                    .blank();
+            hcl.labelled("variable", label + "_name")
+                    .attr("type", 11, "string")
+                    .str("default", 11, string(db, "dbName"))
+                    .end();
+        }
+    }
+
+    private static HclWriter variable(HclWriter hcl, String name, String description, String value) throws IOException {
+        return hcl.labelled("variable", name)
+                .str("description", 11, description)
+                .attr("type", 11, "string")
+                .str("default", 11, value)
+                .end();
+    }
+
+    /**
+     * Without {@code availability_zones} the private subnet sits in the second zone,
+     * as it always has; with it, every zone gets one subnet of each tier.
+     */
+    private static void vpc(HclWriter hcl, boolean multiZone, List<Map<String, Object>> zones) throws IOException {
+        RouteTableResource publicRoutes = new RouteTableResource(SubnetTier.PUBLIC);
+        RouteTableResource privateRoutes = new RouteTableResource(SubnetTier.PRIVATE);
+        HclBlock[] blocks = {
+                new VpcResources(),
+                new SubnetResource(SubnetTier.PUBLIC, 0),
+                new SubnetResource(SubnetTier.PRIVATE, multiZone ? 0 : 1),
+                new NatGatewayResources(),
+                publicRoutes,
+                privateRoutes,
+                publicRoutes.association(),
+                privateRoutes.association(),
+        };
+        for (HclBlock block : blocks) {
+            block.writeTo(hcl);
+            hcl.blank();
+        }
+        for (Map<String, Object> zone : zones) {
+            new ZoneSubnetResources(string(zone, "index"), string(zone, "publicCidr"), string(zone, "privateCidr"))
+                    .writeTo(hcl);
+            hcl.blank();
+        }
+        hcl.comment("Data source for availability zones")
+                .data("aws_availability_zones", "available")
+                .str("state", 0, "available")
+                .end();
+
+        if (multiZone) {
+            hcl.blank()
+                    .block("locals")
+                    .attr("public_subnet_ids", 18, subnetIds("public", zones))
+                    .attr("private_subnet_ids", 18, subnetIds("private", zones))
+                    .end();
+        }
+    }
+
+    private static String subnetIds(String tier, List<Map<String, Object>> zones) {
+        StringBuilder ids = new StringBuilder(32 + 32 * zones.size())
+                .append("[aws_subnet.").append(tier).append(".id");
+        for (Map<String, Object> zone : zones) {
+            ids.append(", aws_subnet.").append(tier).append('_').append(string(zone, "index")).append(".id");
+        }
+        return ids.append(']').toString();
+    }
+
+    private static void s3(HclWriter hcl, boolean s3Enabled, List<Map<String, Object>> buckets) throws IOException {
+        if (!s3Enabled && buckets.isEmpty()) {
+            return;
+        }
+        if (s3Enabled) {
+            new S3Resources().writeTo(hcl);
+        }
+        for (Map<String, Object> bucket : buckets) {
+            new S3Resources(string(bucket, "name"), string(bucket, "label")).writeTo(hcl);
+        }
+        hcl.emptyData("aws_caller_identity", "current");
+    }
+
+    private static void rds(HclWriter hcl, Map<String, Object> model) throws IOException {
+        boolean rdsEnabled = flag(model, "rdsEnabled");
+        String subnetIds = string(model, "privateSubnetIds");
+        if (rdsEnabled) {
+            new RdsResources(engine(string(model, "rdsEngine")), string(model, "rdsInstanceClass"), subnetIds)
+                    .writeTo(hcl);
+        }
+        boolean first = true;
+        for (Map<String, Object> db : list(model, "rdsInstances")) {
+            if (rdsEnabled || !first) {
+                hcl.blank();
+            }
+            first = false;
+            new RdsInstanceResources(string(db, "name"), string(db, "label"), engine(string(db, "engine")),
+                    string(db, "instanceClass"), subnetIds).writeTo(hcl);
+        }
+    }
+
+    private static RdsEngine engine(String code) {
+        RdsEngine engine = RdsEngine.fromCode(code);
+        return engine != null ? engine : RdsEngine.MYSQL;
+    }
+
+    private static void outputs(HclWriter hcl, Map<String, Object> model) throws IOException {
+        boolean s3 = flag(model, "s3Enabled");
+        boolean rds = flag(model, "rdsEnabled");
+        boolean ecs = flag(model, "ecsEnabled");
+        output(hcl, "vpc_id", "ID of the VPC", "aws_vpc.main.id").blank();
+        output(hcl, "vpc_cidr", "CIDR block of the VPC", "aws_vpc.main.cidr_block").blank();
+        output(hcl, "public_subnet_id", "ID of the public subnet", "aws_subnet.public.id").blank();
+        output(hcl, "private_subnet_id", "ID of the private subnet", "aws_subnet.private.id").blank();
+        if (flag(model, "multiZone")) {
+            output(hcl, "public_subnet_ids", "IDs of the public subnets", "local.public_subnet_ids").blank();
+            output(hcl, "private_subnet_ids", "IDs of the private subnets", "local.private_subnet_ids").blank();
+        }
+
+        if (s3) {
+            output(hcl, "s3_bucket_name", "Name of the S3 bucket", "aws_s3_bucket.main.id").blank();
+            output(hcl, "s3_bucket_arn", "ARN of the S3 bucket", "aws_s3_bucket.main.arn");
+        }
+        hcl.blank();
+        if (rds) {
+            output(hcl, "rds_endpoint", "Endpoint of the RDS instance", "aws_db_instance.main.endpoint").blank();
+            output(hcl, "rds_instance_id", "ID of the RDS instance", "aws_db_instance.main.id").blank();
+            output(hcl, "rds_database_name", "Name of the database", "aws_db_instance.main.db_name");
+        }
+        hcl.blank();
+        if (ecs) {
+            output(hcl, "ecs_cluster_id", "ID of the ECS cluster", "aws_ecs_cluster.main.id").blank();
+            output(hcl, "ecs_cluster_name", "Name of the ECS cluster", "aws_ecs_cluster.main.name").blank();
+            output(hcl, "ecs_cluster_arn", "ARN of the ECS cluster", "aws_ecs_cluster.main.arn");
+        }
+
+        for (Map<String, Object> bucket : list(model, "s3Buckets")) {
+            String label = string(bucket, "label");
+            output(hcl.blank(), label + "_name", "Name of the " + string(bucket, "name") + " S3 bucket",
+                    "aws_s3_bucket." + label + ".id");
+        }
+        for (Map<String, Object> db : list(model, "rdsInstances")) {
+            String label = string(db, "label");
+            output(hcl.blank(), label + "_endpoint", "Endpoint of the " + string(db, "name") + " RDS instance",
+                    "aws_db_instance." + label + ".endpoint");
+        }
+        for (Map<String, Object> service : list(model, "ecsServices")) {
+            String label = string(service, "label");
+            output(hcl.blank(), label + "_name", "Name of the " + string(service, "name") + " ECS service",
+                    "aws_ecs_service." + label + ".name");
+        }
+    }
+
+    private static HclWriter output(HclWriter hcl, String name, String description, String value) throws IOException {
+        return hcl.labelled("output", name)
+                .str("description", 11, description)
+                .attr("value", 11, value)
+                .end();
+    }
+
+    private static void tfvars(HclWriter hcl, Map<String, Object> model) throws IOException {
+        hcl.str("region", 16, string(model, "region"))
+                .str("environment_name", 16, string(model, "name"))
+                .blank()
+                .str("vpc_cidr", 19, string(model, "vpcCidr"))
+                .str("public_subnet_cidr", 19, string(model, "publicSubnetCidr"))
+                .str("private_subnet_cidr", 19, string(model, "privateSubnetCidr"))
+                .blank();
+        if (flag(model, "rdsEnabled")) {
+            hcl.str("rds_username", 12, string(model, "rdsUsername"))
+                    .str("rds_password", 12, string(model, "rdsPassword"))
+                    .str("rds_db_name", 12, string(model, "rdsDbName"));
+        }
+        boolean first = true;
+        for (Map<String, Object> db : list(model, "rdsInstances")) {
+            if (flag(model, "rdsEnabled") || !first) {
+                hcl.blank();
+            }
+            first = false;
+            String label = string(db, "label");
+            int width = label.length() + "_username".length();
+            hcl.str(label + "_username", width, string(db, "username"))
+                    .str(label + "_password", width, string(db, "password"))
+                    .str(label + "_name", width, string(db, "dbName"));
+        }
+    }
+
+    private static String string(Map<String, Object> model, String key) {
+        Object value = model.get(key);
+        return value != null ? value.toString() : "";
+    }
+
+    private static boolean flag(Map<String, Object> model, String key) {
+        return Boolean.TRUE.equals(model.get(key));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> list(Map<String, Object> model, String key) {
+        Object list = model.get(key);
+        return list instanceof List ? (List<Map<String, Object>>) list : Collections.<Map<String, Object>>emptyList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> tags(Map<String, Object> model) {
+        Object tags = model.get("tags");
+        return tags instanceof Map ? (Map<String, String>) tags : Collections.<String, String>emptyMap();
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.tfgenerator.hcl;
+
+import java.io.IOException;
+
+/**
+ * Writes HCL straight to an {@link Appendable}, keeping track of block nesting.
+ * Attribute names are padded to a caller-supplied width so the {@code =} signs of a
+ * block line up; values are written verbatim, exactly as the templates insert them.
+ */
+public final class HclWriter {
+
+    /** Interpolation of the environment name variable, used in most resource names. */
+    public static final String ENVIRONMENT_NAME = "${var.environment_name}";
+
+    private static final String SPACES = "                                ";
+
+    private final Appendable out;
+    private int depth;
+
+    public HclWriter(Appendable out) {
+        this.out = out;
+    }
+
+    public HclWriter resource(String type, String name) throws IOException {
+        indent();
+        out.append("resource \"").append(type).append("\" \"").append(name).append("\" {\n");
+        depth++;
+        return this;
+    }
+
+    public HclWriter data(String type, String name) throws IOException {
+        indent();
+        out.append("data \"").append(type).append("\" \"").append(name).append("\" {\n");
+        depth++;
+        return this;
+    }
+
+    /**
+     * A data source without arguments, written on one line.
+     */
+    public HclWriter emptyData(String type, String name) throws IOException {
+        indent();
+        out.append("data \"").append(type).append("\" \"").append(name).append("\" {}\n");
+        return this;
+    }
+
+    /**
+     * Opens a labelled top-level block such as a {@code variable} or {@code output}.
+     */
+    public HclWriter labelled(String keyword, String label) throws IOException {
+        indent();
+        out.append(keyword).append(" \"").append(label).append("\" {\n");
+        depth++;
+        return this;
+    }
+
+    /**
+     * Opens a nested block such as {@code route}.
+     */
+    public HclWriter block(String name) throws IOException {
+        indent();
+        out.append(name).append(" {\n");
+        depth++;
+        return this;
+    }
+
+    /**
+     * Opens a map-valued attribute such as {@code tags}.
+     */
+    public HclWriter map(String name, int width) throws IOException {
+        name(name, width);
+        out.append("{\n");
+        depth++;
+        return this;
+    }
+
+    /**
+     * Opens a list-valued attribute, closed with {@link #end(String)} and {@code "]"}.
+     */
+    public HclWriter list(String name, int width) throws IOException {
+        name(name, width);
+        out.append("[\n");
+        depth++;
+        return this;
+    }
+
+    /**
+     * Opens an object element of a list.
+     */
+    public HclWriter object() throws IOException {
+        indent();
+        out.append("{\n");
+        depth++;
+        return this;
+    }
+
+    /**
+     * Opens an attribute whose value is a function called with an object, such as
+     * {@code jsonencode}; closed with {@link #end(String)} and <code>"})"</code>.
+     */
+    public HclWriter call(String name, int width, String function) throws IOException {
+        name(name, width);
+        out.append(function).append("({\n");
+        depth++;
+        return this;
+    }
+
+    /**
+     * Opens an attribute whose value is a function called with a list, such as
+     * {@code jsonencode}; closed with {@link #end(String)} and {@code "])"}.
+     */
+    public HclWriter callWithList(String name, int width, String function) throws IOException {
+        name(name, width);
+        out.append(function).append("([\n");
+        depth++;
+        return this;
+    }
+
+    public HclWriter end() throws IOException {
+        return end("}");
+    }
+
+    public HclWriter end(String closing) throws IOException {
+        depth--;
+        indent();
+        out.append(closing).append('\n');
+        return this;
+    }
+
+    /**
+     * Closes the outermost block without a trailing newline.
+     */
+    public void endFile() throws IOException {
+        depth--;
+        indent();
+        out.append('}');
+    }
+
+    /**
+     * An attribute whose value is an expression, written as is.
+     */
+    public HclWriter attr(String name, int width, String expression) throws IOException {
+        name(name, width);
+        out.append(expression).append('\n');
+        return this;
+    }
+
+    /**
+     * A quoted string attribute made of the given parts.
+     */
+    public HclWriter str(String name, int width, String... parts) throws IOException {
+        name(name, width);
+        out.append('"');
+        for (String part : parts) {
+            out.append(part);
+        }
+        out.append("\"\n");
+        return this;
+    }
+
+    /**
+     * A {@code tags} map holding only a {@code Name} of the environment name plus suffix.
+     */
+    public HclWriter nameTag(String suffix) throws IOException {
+        return map("tags", 0).str("Name", 0, ENVIRONMENT_NAME, suffix).end();
+    }
+
+    public HclWriter comment(String text) throws IOException {
+        indent();
+        out.append("# ").append(text).append('\n');
+        return this;
+    }
+
+    public HclWriter blank() throws IOException {
+        out.append('\n');
+        return this;
+    }
+
+    /**
+     * A blank line that still carries the current indentation.
+     */
+    public HclWriter indentedBlank() throws IOException {
+        indent();
+        out.append('\n');
+        return this;
+    }
+
+    private void name(String name, int width) throws IOException {
+        indent();
+        out.append(name);
+        if (width > name.length()) {
+            out.append(SPACES, 0, width - name.length());
+        }
+        out.append(" = ");
+    }
+
+    private void indent() throws IOException {
+        out.append(SPACES, 0, depth * 2);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.tfgenerator.hcl;
+
+import java.io.IOException;
+
+/**
+ * A NAT gateway with its Elastic IP, placed in the public subnet.
+ */
+public final class NatGatewayResources implements HclBlock {
+
+    @Override
+    public void writeTo(HclWriter out) throws IOException {
+        out.comment("Elastic IP for NAT Gateway")
+                .resource("aws_eip", "nat")
+                .str("domain", 0, "vpc")
+                .blank()
+                .nameTag("-nat-eip")
+                .blank()
+                .attr("depends_on", 0, "[aws_internet_gateway.main]")
+                .end()
+                .blank();
+
+        out.comment("NAT Gateway")
+                .resource("aws_nat_gateway", "main")
+                .attr("allocation_id", 13, "aws_eip.nat.id")
+                .attr("subnet_id", 13, "aws_subnet.public.id")
+                .blank()
+                .nameTag("-nat")
+                .blank()
+                .attr("depends_on", 0, "[aws_internet_gateway.main]")
+                .end();
+    }
+}
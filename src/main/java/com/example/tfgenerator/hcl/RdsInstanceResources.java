@@ -0,0 +1,81 @@
+package com.example.tfgenerator.hcl;
+
+import java.io.IOException;
+
+import com.example.tfgenerator.model.RdsEngine;
+
+/**
+ * An instance of {@code services.rds_instances} with its own subnet group and
+ * security group, all labelled after the instance. Its credentials come from the
+ * instance's variables.
+ */
+public final class RdsInstanceResources implements HclBlock {
+
+    private final String name;
+    private final String label;
+    private final RdsEngine engine;
+    private final String instanceClass;
+    private final String subnetIds;
+
+    public RdsInstanceResources(String name, String label, RdsEngine engine, String instanceClass,
+                                String subnetIds) {
+        this.name = name;
+        this.label = label;
+        this.engine = engine;
+        this.instanceClass = instanceClass;
+        this.subnetIds = subnetIds;
+    }
+
+    @Override
+    public void writeTo(HclWriter out) throws IOException {
+        String suffix = "-" + name;
+
+        out.resource("aws_db_subnet_group", label)
+                .str("name", 10, HclWriter.ENVIRONMENT_NAME, suffix, "-subnet-group")
+                .attr("subnet_ids", 10, subnetIds)
+                .blank()
+                .nameTag(suffix + "-subnet-group")
+                .end()
+                .blank();
+
+        out.resource("aws_security_group", label)
+                .str("name", 11, HclWriter.ENVIRONMENT_NAME, suffix, "-sg")
+                .str("description", 11, "Security group for RDS instance " + name)
+                .attr("vpc_id", 11, "aws_vpc.main.id")
+                .blank();
+        RdsResources.securityGroupRules(out, Integer.toString(engine.getPort()));
+        out.blank()
+                .nameTag(suffix + "-sg")
+                .end()
+                .blank();
+
+        out.resource("aws_db_instance", label)
+                .str("identifier", 22, HclWriter.ENVIRONMENT_NAME, suffix)
+                .str("engine", 22, engine.getCode())
+                .str("engine_version", 22, engine.getVersion())
+                .str("instance_class", 22, instanceClass)
+                .blank()
+                .attr("allocated_storage", 22, "20")
+                .str("storage_type", 22, "gp3")
+                .attr("storage_encrypted", 22, "true")
+                .blank()
+                .attr("db_name", 8, "var." + label + "_name")
+                .attr("username", 8, "var." + label + "_username")
+                .attr("password", 8, "var." + label + "_password")
+                .blank()
+                .attr("db_subnet_group_name", 22, "aws_db_subnet_group." + label + ".name")
+                .attr("vpc_security_group_ids", 22, "[aws_security_group." + label + ".id]")
+                .blank()
+                .attr("backup_retention_period", 23, "7")
+                .str("backup_window", 23, "03:00-04:00")
+                .str("maintenance_window", 23, "mon:04:00-mon:05:00")
+                .blank()
+                .attr("skip_final_snapshot", 25, "true")
+                .str("final_snapshot_identifier", 25, HclWriter.ENVIRONMENT_NAME, suffix, "-final-snapshot")
+                .blank()
+                .attr("enabled_cloudwatch_logs_exports", 0, engine.getLogExports())
+                .blank()
+                .nameTag(suffix)
+                .end();
+    }
+}
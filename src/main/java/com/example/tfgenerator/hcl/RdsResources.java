@@ -0,0 +1,101 @@
+package com.example.tfgenerator.hcl;
+
+import java.io.IOException;
+
+import com.example.tfgenerator.model.RdsEngine;
+
+/**
+ * An RDS instance in the private subnet, with its subnet group and a security group
+ * that admits the engine's port from inside the VPC.
+ */
+public final class RdsResources implements HclBlock {
+
+    private final RdsEngine engine;
+    private final String instanceClass;
+    private final String subnetIds;
+
+    /**
+     * @param subnetIds the expression listing the private subnets
+     */
+    public RdsResources(RdsEngine engine, String instanceClass, String subnetIds) {
+        this.engine = engine;
+        this.instanceClass = instanceClass;
+        this.subnetIds = subnetIds;
+    }
+
+    @Override
+    public void writeTo(HclWriter out) throws IOException {
+        String port = Integer.toString(engine.getPort());
+
+        out.resource("aws_db_subnet_group", "main")
+                .str("name", 10, HclWriter.ENVIRONMENT_NAME, "-db-subnet-group")
+                .blank()
+                .comment("FIX: RDS must use only private subnet")
+                .attr("subnet_ids", 10, subnetIds)
+                .blank()
+                .nameTag("-db-subnet-group")
+                .end()
+                .blank();
+
+        out.resource("aws_security_group", "rds")
+                .str("name", 11, HclWriter.ENVIRONMENT_NAME, "-rds-sg")
+                .str("description", 11, "Security group for RDS instance")
+                .attr("vpc_id", 11, "aws_vpc.main.id")
+                .blank();
+        securityGroupRules(out, port);
+        out.blank()
+                .nameTag("-rds-sg")
+                .end()
+                .blank();
+
+        out.resource("aws_db_instance", "main")
+                .str("identifier", 22, HclWriter.ENVIRONMENT_NAME, "-db")
+                .str("engine", 22, engine.getCode())
+                .str("engine_version", 22, engine.getVersion())
+                .str("instance_class", 22, instanceClass)
+                .blank()
+                .attr("allocated_storage", 22, "20")
+                .str("storage_type", 22, "gp3")
+                .attr("storage_encrypted", 22, "true")
+                .indentedBlank()
+                .attr("db_name", 8, "var.rds_db_name")
+                .attr("username", 8, "var.rds_username")
+                .attr("password", 8, "var.rds_password")
+                .indentedBlank()
+                .attr("db_subnet_group_name", 22, "aws_db_subnet_group.main.name")
+                .attr("vpc_security_group_ids", 22, "[aws_security_group.rds.id]")
+                .blank()
+                .attr("backup_retention_period", 23, "7")
+                .str("backup_window", 23, "03:00-04:00")
+                .str("maintenance_window", 23, "mon:04:00-mon:05:00")
+                .indentedBlank()
+                .attr("skip_final_snapshot", 25, "true")
+                .str("final_snapshot_identifier", 25, HclWriter.ENVIRONMENT_NAME, "-db-final-snapshot")
+                .blank()
+                .attr("enabled_cloudwatch_logs_exports", 0, engine.getLogExports())
+                .blank()
+                .nameTag("-rds")
+                .end();
+    }
+
+    /**
+     * Ingress on the engine's port from inside the VPC, and all egress.
+     */
+    static void securityGroupRules(HclWriter out, String port) throws IOException {
+        out.block("ingress")
+                .attr("from_port", 11, port)
+                .attr("to_port", 11, port)
+                .str("protocol", 11, "tcp")
+                .attr("cidr_blocks", 11, "[var.vpc_cidr]")
+                .str("description", 11, "Allow database access from VPC")
+                .end()
+                .blank()
+                .block("egress")
+                .attr("from_port", 11, "0")
+                .attr("to_port", 11, "0")
+                .str("protocol", 11, "-1")
+                .attr("cidr_blocks", 11, "[\"0.0.0.0/0\"]")
+                .str("description", 11, "Allow all outbound traffic")
+                .end();
+    }
+}
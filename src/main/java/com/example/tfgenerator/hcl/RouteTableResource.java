@@ -0,0 +1,56 @@
+package com.example.tfgenerator.hcl;
+
+import java.io.IOException;
+
+import com.example.tfgenerator.ipam.SubnetTier;
+
+/**
+ * The route table of a subnet tier with its default route: through the internet
+ * gateway for public subnets and through the NAT gateway for private ones.
+ */
+public final class RouteTableResource implements HclBlock {
+
+    private final SubnetTier tier;
+
+    public RouteTableResource(SubnetTier tier) {
+        this.tier = tier;
+    }
+
+    @Override
+    public void writeTo(HclWriter out) throws IOException {
+        boolean isPublic = tier == SubnetTier.PUBLIC;
+        String label = isPublic ? "public" : "private";
+
+        out.comment(isPublic ? "Public Route Table" : "Private Route Table")
+                .resource("aws_route_table", label)
+                .attr("vpc_id", 0, "aws_vpc.main.id")
+                .blank()
+                .block("route");
+        if (isPublic) {
+            out.str("cidr_block", 10, "0.0.0.0/0")
+                    .attr("gateway_id", 10, "aws_internet_gateway.main.id");
+        } else {
+            out.str("cidr_block", 14, "0.0.0.0/0")
+                    .attr("nat_gateway_id", 14, "aws_nat_gateway.main.id");
+        }
+        out.end()
+                .blank()
+                .nameTag("-" + label + "-rt")
+                .end();
+    }
+
+    /**
+     * Associates the tier's subnet with its route table.
+     */
+    public HclBlock association() {
+        return out -> {
+            boolean isPublic = tier == SubnetTier.PUBLIC;
+            String label = isPublic ? "public" : "private";
+            out.comment(isPublic ? "Public Route Table Association" : "Private Route Table Association")
+                    .resource("aws_route_table_association", label)
+                    .attr("subnet_id", 14, "aws_subnet." + label + ".id")
+                    .attr("route_table_id", 14, "aws_route_table." + label + ".id")
+                    .end();
+        };
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.tfgenerator.hcl;
+
+import java.io.IOException;
+
+/**
+ * A versioned, encrypted S3 bucket with all public access blocked, named after the
+ * environment and the AWS account. The {@code aws_caller_identity} data source the
+ * name reads is declared once per file, after all buckets.
+ */
+public final class S3Resources implements HclBlock {
+
+    private final String name;
+    private final String label;
+
+    /**
+     * The environment's {@code main} bucket.
+     */
+    public S3Resources() {
+        this(null, "main");
+    }
+
+    /**
+     * A bucket of {@code services.s3_buckets}, named after the environment and itself.
+     */
+    public S3Resources(String name, String label) {
+        this.name = name;
+        this.label = label;
+    }
+
+    @Override
+    public void writeTo(HclWriter out) throws IOException {
+        String suffix = name != null ? "-" + name : "-bucket";
+        String bucket = "aws_s3_bucket." + label + ".id";
+
+        out.comment(name != null ? "S3 Bucket " + name : "S3 Bucket")
+                .resource("aws_s3_bucket", label)
+                .str("bucket", 0, HclWriter.ENVIRONMENT_NAME, suffix, "-${data.aws_caller_identity.current.account_id}")
+                .blank()
+                .nameTag(suffix)
+                .end()
+                .blank();
+
+        out.resource("aws_s3_bucket_versioning", label)
+                .attr("bucket", 0, bucket)
+                .blank()
+                .block("versioning_configuration")
+                .str("status", 0, "Enabled")
+                .end()
+                .end()
+                .blank();
+
+        out.resource("aws_s3_bucket_server_side_encryption_configuration", label)
+                .attr("bucket", 0, bucket)
+                .blank()
+                .block("rule")
+                .block("apply_server_side_encryption_by_default")
+                .str("sse_algorithm", 0, "AES256")
+                .end()
+                .end()
+                .end()
+                .blank();
+
+        out.resource("aws_s3_bucket_public_access_block", label)
+                .attr("bucket", 0, bucket)
+                .blank()
+                .attr("block_public_acls", 23, "true")
+                .attr("block_public_policy", 23, "true")
+                .attr("ignore_public_acls", 23, "true")
+                .attr("restrict_public_buckets", 23, "true")
+                .end()
+                .blank();
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.tfgenerator.hcl;
+
+import java.io.IOException;
+
+import com.example.tfgenerator.ipam.SubnetTier;
+
+/**
+ * A subnet of the given tier, placed in the availability zone at {@code zoneIndex}.
+ * Public subnets assign public IPs on launch.
+ */
+public final class SubnetResource implements HclBlock {
+
+    private final SubnetTier tier;
+    private final int zoneIndex;
+
+    public SubnetResource(SubnetTier tier, int zoneIndex) {
+        this.tier = tier;
+        this.zoneIndex = zoneIndex;
+    }
+
+    @Override
+    public void writeTo(HclWriter out) throws IOException {
+        boolean isPublic = tier == SubnetTier.PUBLIC;
+        String label = isPublic ? "public" : "private";
+        int width = isPublic ? 23 : 17;
+
+        out.comment(isPublic ? "Public Subnet" : "Private Subnet")
+                .resource("aws_subnet", label)
+                .attr("vpc_id", width, "aws_vpc.main.id")
+                .attr("cidr_block", width, "var." + label + "_subnet_cidr")
+                .attr("availability_zone", width, "data.aws_availability_zones.available.names[" + zoneIndex + "]");
+        if (isPublic) {
+            out.attr("map_public_ip_on_launch", width, "true");
+        }
+        out.blank()
+                .map("tags", 0)
+                .str("Name", 0, HclWriter.ENVIRONMENT_NAME, "-" + label + "-subnet")
+                .str("Type", 0, label)
+                .end()
+                .end();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.tfgenerator.hcl;
+
+import java.io.IOException;
+
+/**
+ * The VPC itself and its internet gateway.
+ */
+public final class VpcResources implements HclBlock {
+
+    @Override
+    public void writeTo(HclWriter out) throws IOException {
+        out.comment("VPC")
+                .resource("aws_vpc", "main")
+                .attr("cidr_block", 20, "var.vpc_cidr")
+                .attr("enable_dns_hostnames", 20, "true")
+                .attr("enable_dns_support", 20, "true")
+                .blank()
+                .nameTag("-vpc")
+                .end()
+                .blank();
+
+        out.comment("Internet Gateway")
+                .resource("aws_internet_gateway", "main")
+                .attr("vpc_id", 0, "aws_vpc.main.id")
+                .blank()
+                .nameTag("-igw")
+                .end();
+    }
+}
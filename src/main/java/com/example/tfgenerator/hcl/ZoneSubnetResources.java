@@ -0,0 +1,66 @@
+package com.example.tfgenerator.hcl;
+
+import java.io.IOException;
+
+/**
+ * The public and private subnet of an availability zone after the first, each
+ * associated with its tier's route table. Zones past the number the region has
+ * wrap around, as {@code element} does.
+ */
+public final class ZoneSubnetResources implements HclBlock {
+
+    private final String index;
+    private final String publicCidr;
+    private final String privateCidr;
+
+    public ZoneSubnetResources(String index, String publicCidr, String privateCidr) {
+        this.index = index;
+        this.publicCidr = publicCidr;
+        this.privateCidr = privateCidr;
+    }
+
+    @Override
+    public void writeTo(HclWriter out) throws IOException {
+        String zone = "element(data.aws_availability_zones.available.names, " + index + ")";
+
+        out.comment("Public Subnet " + index)
+                .resource("aws_subnet", "public_" + index)
+                .attr("vpc_id", 23, "aws_vpc.main.id")
+                .str("cidr_block", 23, publicCidr)
+                .attr("availability_zone", 23, zone)
+                .attr("map_public_ip_on_launch", 23, "true")
+                .blank()
+                .map("tags", 0)
+                .str("Name", 0, HclWriter.ENVIRONMENT_NAME, "-public-subnet-" + index)
+                .str("Type", 0, "public")
+                .end()
+                .end()
+                .blank();
+
+        out.comment("Private Subnet " + index)
+                .resource("aws_subnet", "private_" + index)
+                .attr("vpc_id", 17, "aws_vpc.main.id")
+                .str("cidr_block", 17, privateCidr)
+                .attr("availability_zone", 17, zone)
+                .blank()
+                .map("tags", 0)
+                .str("Name", 0, HclWriter.ENVIRONMENT_NAME, "-private-subnet-" + index)
+                .str("Type", 0, "private")
+                .end()
+                .end()
+                .blank();
+
+        association(out, "public");
+        out.blank();
+        association(out, "private");
+    }
+
+    private void association(HclWriter out, String tier) throws IOException {
+        String label = tier + "_" + index;
+        out.comment(Character.toUpperCase(tier.charAt(0)) + tier.substring(1) + " Route Table Association " + index)
+                .resource("aws_route_table_association", label)
+                .attr("subnet_id", 14, "aws_subnet." + label + ".id")
+                .attr("route_table_id", 14, "aws_route_table." + tier + ".id")
+                .end();
+    }
+}
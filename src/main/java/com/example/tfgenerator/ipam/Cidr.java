@@ -0,0 +1,151 @@
+package com.example.tfgenerator.ipam;
+
+/**
+ * An IPv4 CIDR block held as a primitive address and prefix length.
+ *
+ * Parsing and formatting work directly on characters, without regular expressions,
+ * {@code String.split} or {@code String.format}. Addresses are compared as unsigned
+ * values through the {@code long} accessors.
+ */
+public final class Cidr {
+
+    private final int address;
+    private final int prefix;
+
+    private Cidr(int address, int prefix) {
+        this.address = address;
+        this.prefix = prefix;
+    }
+
+    public static Cidr of(int address, int prefix) {
+        if (prefix < 0 || prefix > 32) {
+            throw new IllegalArgumentException("Invalid prefix length: " + prefix);
+        }
+        return new Cidr(address, prefix);
+    }
+
+    /**
+     * Parses {@code a.b.c.d/p}. Every octet must be 0-255 and the prefix 0-32.
+     *
+     * @throws IllegalArgumentException if the text is not a valid IPv4 CIDR
+     */
+    public static Cidr parse(CharSequence text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Invalid CIDR format: null");
+        }
+        int length = text.length();
+        int address = 0;
+        int pos = 0;
+        for (int octet = 0; octet < 4; octet++) {
+            int value = 0;
+            int digits = 0;
+            while (pos < length && digits < 4) {
+                char c = text.charAt(pos);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                value = value * 10 + (c - '0');
+                digits++;
+                pos++;
+            }
+            char separator = octet < 3 ? '.' : '/';
+            if (digits == 0 || digits > 3 || value > 255 || pos >= length || text.charAt(pos) != separator) {
+                throw new IllegalArgumentException("Invalid CIDR format: " + text);
+            }
+            address = (address << 8) | value;
+            pos++;
+        }
+
+        int prefix = 0;
+        int digits = 0;
+        while (pos < length) {
+            char c = text.charAt(pos++);
+            if (c < '0' || c > '9' || ++digits > 2) {
+                throw new IllegalArgumentException("Invalid CIDR format: " + text);
+            }
+            prefix = prefix * 10 + (c - '0');
+        }
+        if (digits == 0 || prefix > 32) {
+            throw new IllegalArgumentException("Invalid CIDR format: " + text);
+        }
+        return new Cidr(address, prefix);
+    }
+
+    /** The address exactly as written, which may have host bits set. */
+    public int address() {
+        return address;
+    }
+
+    public int prefix() {
+        return prefix;
+    }
+
+    public int mask() {
+        return prefix == 0 ? 0 : -1 << (32 - prefix);
+    }
+
+    /** First address of the block as an unsigned value. */
+    public long start() {
+        return (address & mask()) & 0xFFFFFFFFL;
+    }
+
+    /** Last address of the block as an unsigned value. */
+    public long end() {
+        return start() + size() - 1;
+    }
+
+    public long size() {
+        return 1L << (32 - prefix);
+    }
+
+    /** Whether the address is the first address of the block, with no host bits set. */
+    public boolean isNetworkAddress() {
+        return (address & ~mask()) == 0;
+    }
+
+    public Cidr network() {
+        return isNetworkAddress() ? this : new Cidr(address & mask(), prefix);
+    }
+
+    public boolean contains(Cidr other) {
+        return other.prefix >= prefix && other.start() >= start() && other.end() <= end();
+    }
+
+    public boolean overlaps(Cidr other) {
+        return start() <= other.end() && other.start() <= end();
+    }
+
+    public StringBuilder appendTo(StringBuilder out) {
+        appendAddress(out, address);
+        return out.append('/').append(prefix);
+    }
+
+    public static StringBuilder appendAddress(StringBuilder out, int address) {
+        return out.append((address >>> 24) & 0xFF).append('.')
+                .append((address >>> 16) & 0xFF).append('.')
+                .append((address >>> 8) & 0xFF).append('.')
+                .append(address & 0xFF);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Cidr)) {
+            return false;
+        }
+        Cidr other = (Cidr) o;
+        return address == other.address && prefix == other.prefix;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * address + prefix;
+    }
+
+    @Override
+    public String toString() {
+        return appendTo(new StringBuilder(18)).toString();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.tfgenerator.ipam;
+
+/**
+ * A subnet requested or allocated for one tier in one availability zone.
+ * {@code az} is the index into the region's available zones.
+ */
+public final class Subnet {
+
+    private final SubnetTier tier;
+    private final int az;
+    private final int prefix;
+    private final Cidr cidr;
+
+    private Subnet(SubnetTier tier, int az, int prefix, Cidr cidr) {
+        this.tier = tier;
+        this.az = az;
+        this.prefix = prefix;
+        this.cidr = cidr;
+    }
+
+    /** A request for a subnet of the given prefix length. */
+    public static Subnet request(SubnetTier tier, int az, int prefix) {
+        if (prefix < 0 || prefix > 32) {
+            throw new IllegalArgumentException("Invalid prefix length: " + prefix);
+        }
+        return new Subnet(tier, az, prefix, null);
+    }
+
+    Subnet allocate(Cidr cidr) {
+        return new Subnet(tier, az, prefix, cidr);
+    }
+
+    public SubnetTier getTier() {
+        return tier;
+    }
+
+    public int getAz() {
+        return az;
+    }
+
+    public int getPrefix() {
+        return prefix;
+    }
+
+    /** The allocated block, or {@code null} for a request. */
+    public Cidr getCidr() {
+        return cidr;
+    }
+}
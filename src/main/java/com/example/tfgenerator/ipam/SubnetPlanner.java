@@ -0,0 +1,75 @@
+package com.example.tfgenerator.ipam;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Packs subnets of different sizes into a VPC.
+ *
+ * Subnets are placed largest first, each aligned to its own size. Because every
+ * block is a power of two that is no larger than the previous one, the cursor is
+ * always aligned already and the plan leaves no gaps.
+ */
+public final class SubnetPlanner {
+
+    private SubnetPlanner() {
+    }
+
+    /**
+     * Allocates the requested subnets inside the VPC. The result is in request order.
+     *
+     * @throws IllegalArgumentException if the subnets do not fit
+     */
+    public static List<Subnet> plan(Cidr vpc, List<Subnet> requests) {
+        Integer[] order = new Integer[requests.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> requests.get(i).getPrefix()));
+
+        Subnet[] allocated = new Subnet[requests.size()];
+        long cursor = vpc.start();
+        long end = vpc.end();
+        for (Integer index : order) {
+            Subnet request = requests.get(index);
+            if (request.getPrefix() < vpc.prefix()) {
+                throw new IllegalArgumentException("Subnet /" + request.getPrefix() + " is larger than VPC " + vpc);
+            }
+            long size = 1L << (32 - request.getPrefix());
+            if (cursor + size - 1 > end) {
+                throw new IllegalArgumentException("Subnets do not fit in VPC " + vpc);
+            }
+            allocated[index] = request.allocate(Cidr.of((int) cursor, request.getPrefix()));
+            cursor += size;
+        }
+        return Arrays.asList(allocated);
+    }
+
+    /**
+     * One public and one private subnet per availability zone, all the same size and
+     * together covering the whole VPC (rounded up to the next power of two).
+     */
+    public static List<Subnet> evenPlan(Cidr vpc, int azCount) {
+        if (azCount <= 0) {
+            throw new IllegalArgumentException("azCount must be > 0");
+        }
+        int prefix = vpc.prefix() + ceilLog2(2 * azCount);
+        if (prefix > 32) {
+            throw new IllegalArgumentException("Cannot split " + vpc + " across " + azCount + " availability zones");
+        }
+        List<Subnet> requests = new ArrayList<>(2 * azCount);
+        for (int az = 0; az < azCount; az++) {
+            requests.add(Subnet.request(SubnetTier.PUBLIC, az, prefix));
+        }
+        for (int az = 0; az < azCount; az++) {
+            requests.add(Subnet.request(SubnetTier.PRIVATE, az, prefix));
+        }
+        return plan(vpc, requests);
+    }
+
+    static int ceilLog2(int value) {
+        return value <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(value - 1);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.tfgenerator.ipam;
+
+public enum SubnetTier {
+    PUBLIC,
+    PRIVATE
+}
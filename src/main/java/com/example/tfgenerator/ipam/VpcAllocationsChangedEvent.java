@@ -0,0 +1,16 @@
+package com.example.tfgenerator.ipam;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when a VPC allocation is added or released. Validation results for
+ * previously seen requests may no longer hold.
+ */
+public class VpcAllocationsChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    public VpcAllocationsChangedEvent(Object source) {
+        super(source);
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.tfgenerator.ipam;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.example.tfgenerator.exception.CidrConflictException;
+
+/**
+ * Registry of the VPC CIDR blocks allocated to environments.
+ *
+ * Registered blocks never overlap, so they are kept in a {@link TreeMap} ordered by
+ * start address. The only block that can overlap a candidate is the one with the
+ * greatest start not after the candidate's end, which makes an overlap check a
+ * single {@code floorEntry} lookup: O(log n) however many VPCs are registered.
+ * <p>
+ * With a store directory configured, allocations are also kept in
+ * {@code ipam/allocations} under it, so they survive restarts. Replicas sharing the
+ * directory share the allocations: every change is made holding a lock on
+ * {@code ipam/allocations.lock}, after rereading the file, and the file is replaced
+ * atomically. Reads reload the file when another replica has replaced it, and then
+ * publish a {@link VpcAllocationsChangedEvent}. Without a shared directory, the
+ * no-overlap guarantee holds per replica only.
+ */
+@Component
+public class VpcRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(VpcRegistry.class);
+
+    private final TreeMap<Long, Allocation> byStart = new TreeMap<>();
+    private final Map<String, Allocation> byName = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Path file;
+    private final Path lockFile;
+    private final ApplicationEventPublisher eventPublisher;
+    // Identity of the file last loaded or written, so reads only reload it when it was replaced.
+    private volatile Object loaded;
+
+    public VpcRegistry() {
+        this(null, null);
+    }
+
+    /**
+     * @param directory the artifact store directory to keep allocations in, or empty to keep them in memory only
+     */
+    @Autowired
+    public VpcRegistry(@Value("${generator.store.dir:}") String directory, ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+        if (directory == null || directory.isEmpty()) {
+            this.file = null;
+            this.lockFile = null;
+        } else {
+            Path root = Paths.get(directory).toAbsolutePath().resolve("ipam");
+            this.file = root.resolve("allocations");
+            this.lockFile = root.resolve("allocations.lock");
+            try {
+                load();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load VPC allocations from " + file, e);
+            }
+            LOGGER.info("Loaded {} VPC allocations from {}", size(), file);
+        }
+    }
+
+    /**
+     * Returns the allocation that overlaps the block, ignoring the named environment's
+     * own allocation, or {@code null} if the block is free.
+     */
+    public Allocation findOverlap(Cidr cidr, String ignoreName) {
+        refresh();
+        lock.readLock().lock();
+        try {
+            return overlapping(cidr, ignoreName);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Allocates the block to the environment, replacing any block it held before.
+     *
+     * @throws CidrConflictException if the block overlaps another environment
+     */
+    public Allocation register(String name, Cidr cidr) {
+        Cidr network = cidr.network();
+        return update(() -> {
+            Allocation conflict = overlapping(network, name);
+            if (conflict != null) {
+                throw new CidrConflictException("CIDR " + network + " overlaps " + conflict.getCidr()
+                        + " allocated to '" + conflict.getName() + "'");
+            }
+            removeLocked(name);
+            Allocation allocation = new Allocation(name, network);
+            byStart.put(network.start(), allocation);
+            byName.put(name, allocation);
+            LOGGER.info("Allocated {} to {}", network, name);
+            return allocation;
+        });
+    }
+
+    public boolean release(String name) {
+        return update(() -> removeLocked(name) != null);
+    }
+
+    public Allocation get(String name) {
+        refresh();
+        lock.readLock().lock();
+        try {
+            return byName.get(name);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Allocation> list() {
+        refresh();
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(byStart.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byStart.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a change holding the write lock and, when persisted, the file lock, on
+     * allocations freshly read from the file, and writes them back.
+     */
+    private <T> T update(Supplier<T> change) {
+        lock.writeLock().lock();
+        try {
+            if (file == null) {
+                return change.get();
+            }
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                load();
+                T result = change.get();
+                write();
+                return result;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to update VPC allocations in " + file, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reloads the allocations if another replica has replaced the file since.
+     */
+    private void refresh() {
+        if (file == null || identity().equals(loaded)) {
+            return;
+        }
+        boolean changed;
+        lock.writeLock().lock();
+        try {
+            changed = load();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to reload VPC allocations from {}", file, e);
+            changed = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (changed && eventPublisher != null) {
+            eventPublisher.publishEvent(new VpcAllocationsChangedEvent(this));
+        }
+    }
+
+    /**
+     * Replaces the allocations with the file's, if it changed. Called holding the write lock.
+     */
+    private boolean load() throws IOException {
+        Object identity = identity();
+        if (identity.equals(loaded)) {
+            return false;
+        }
+        byStart.clear();
+        byName.clear();
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int space = line.indexOf(' ');
+                if (space > 0) {
+                    Cidr cidr;
+                    try {
+                        cidr = Cidr.parse(line.substring(space + 1));
+                    } catch (IllegalArgumentException e) {
+                        throw new IOException("Invalid allocation '" + line + "'", e);
+                    }
+                    Allocation allocation = new Allocation(line.substring(0, space), cidr);
+                    byStart.put(allocation.getCidr().start(), allocation);
+                    byName.put(allocation.getName(), allocation);
+                }
+            }
+        }
+        loaded = identity;
+        return true;
+    }
+
+    private void write() throws IOException {
+        StringBuilder out = new StringBuilder(32 * byStart.size());
+        for (Allocation allocation : byStart.values()) {
+            out.append(allocation.getName()).append(' ').append(allocation.getCidr()).append('\n');
+        }
+        Path temp = Files.createTempFile(file.getParent(), ".tmp-", null);
+        try {
+            Files.write(temp, out.toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        loaded = identity();
+    }
+
+    /**
+     * The file's inode and modification time. Every write moves a new file into
+     * place, so a replaced file has a new identity.
+     */
+    private Object identity() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return Arrays.asList(attributes.fileKey(), attributes.lastModifiedTime(), attributes.size());
+        } catch (IOException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    private Allocation overlapping(Cidr cidr, String ignoreName) {
+        Map.Entry<Long, Allocation> candidate = byStart.floorEntry(cidr.end());
+        if (candidate == null || candidate.getValue().getCidr().end() < cidr.start()) {
+            return null;
+        }
+        Allocation allocation = candidate.getValue();
+        if (!allocation.getName().equals(ignoreName)) {
+            return allocation;
+        }
+        // The environment's own block is ignored; one other block could still sit just before it.
+        Map.Entry<Long, Allocation> previous = byStart.lowerEntry(candidate.getKey());
+        if (previous != null && previous.getValue().getCidr().end() >= cidr.start()) {
+            return previous.getValue();
+        }
+        return null;
+    }
+
+    private Allocation removeLocked(String name) {
+        Allocation previous = byName.remove(name);
+        if (previous != null) {
+            byStart.remove(previous.getCidr().start());
+        }
+        return previous;
+    }
+
+    public static final class Allocation {
+
+        private final String name;
+        private final Cidr cidr;
+
+        Allocation(String name, Cidr cidr) {
+            this.name = name;
+            this.cidr = cidr;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Cidr getCidr() {
+            return cidr;
+        }
+    }
+}
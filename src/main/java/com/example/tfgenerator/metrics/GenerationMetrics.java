@@ -0,0 +1,213 @@
+package com.example.tfgenerator.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.example.tfgenerator.model.GenerationEngine;
+import com.example.tfgenerator.trace.RequestTrace;
+import com.example.tfgenerator.util.SingleFlight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Micrometer meters for each stage of Terraform generation. Durations are passed
+ * in as nanoseconds measured by the caller with {@link System#nanoTime()}, just as
+ * the stage ends; each is also recorded as a span of the current {@link RequestTrace}.
+ */
+@Component
+public class GenerationMetrics {
+
+    private static final String STAGE_TIMER = "terraform.generation.stage";
+    private static final String RENDER_TIMER = "terraform.template.render";
+    private static final String OUTPUT_SIZE = "terraform.template.output.size";
+    private static final String VALIDATION_FAILURES = "terraform.validation.failures";
+    private static final String REQUESTS = "terraform.requests";
+    private static final String CLIENT_WAIT = "terraform.client.queue.wait";
+    private static final String CLIENT_REJECTED = "terraform.client.rejected";
+
+    private final MeterRegistry registry;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Timer queueTimer;
+    private final Timer validationTimer;
+    private final Timer modelTimer;
+    private final Timer zipTimer;
+    private final Timer bundleTimer;
+    private final DistributionSummary zipSize;
+    private final Counter rejected;
+
+    private final ConcurrentMap<String, Timer> renderTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> outputSizes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> validationFailures = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> clientWaitTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> clientRejections = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> peerTimers = new ConcurrentHashMap<>();
+
+    public GenerationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.queueTimer = stageTimer("queue");
+        this.validationTimer = stageTimer("validation");
+        this.modelTimer = stageTimer("model");
+        this.zipTimer = stageTimer("zip");
+        this.bundleTimer = stageTimer("bundle");
+        this.zipSize = DistributionSummary.builder("terraform.zip.size")
+                .description("Size of generated ZIP archives")
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.rejected = Counter.builder("terraform.generation.rejected")
+                .description("Generations turned away because the generation queue was full")
+                .register(registry);
+        Gauge.builder("terraform.generation.inflight", inFlight, AtomicInteger::get)
+                .description("Generations currently in progress")
+                .register(registry);
+    }
+
+    public void generationStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    public void generationFinished() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Time a generation spent queued for a worker, before any of its other stages.
+     */
+    public void recordQueueWait(long nanos) {
+        queueTimer.record(nanos, TimeUnit.NANOSECONDS);
+        RequestTrace.record("queue", null, nanos);
+    }
+
+    public void recordRejected() {
+        rejected.increment();
+    }
+
+    public void recordValidation(long nanos) {
+        validationTimer.record(nanos, TimeUnit.NANOSECONDS);
+        RequestTrace.record("validation", null, nanos);
+    }
+
+    public void recordValidationFailure(String field) {
+        validationFailures.computeIfAbsent(field, f -> Counter.builder(VALIDATION_FAILURES)
+                .description("Validation errors by request field")
+                .tag("field", f)
+                .register(registry)).increment();
+    }
+
+    public void recordModel(long nanos) {
+        modelTimer.record(nanos, TimeUnit.NANOSECONDS);
+        RequestTrace.record("model", null, nanos);
+    }
+
+    public void recordRender(GenerationEngine engine, String templateName, long nanos, long bytes) {
+        RequestTrace.record("render", templateName, nanos);
+        String engineName = engine.name().toLowerCase(Locale.ROOT);
+        String key = engineName + '/' + templateName;
+        renderTimers.computeIfAbsent(key, k -> Timer.builder(RENDER_TIMER)
+                .description("Time to render a single template")
+                .tag("engine", engineName)
+                .tag("template", templateName)
+                .publishPercentileHistogram()
+                .register(registry)).record(nanos, TimeUnit.NANOSECONDS);
+        outputSizes.computeIfAbsent(key, k -> DistributionSummary.builder(OUTPUT_SIZE)
+                .description("Size of rendered template output")
+                .baseUnit("bytes")
+                .tag("engine", engineName)
+                .tag("template", templateName)
+                .publishPercentileHistogram()
+                .register(registry)).record(bytes);
+    }
+
+    public void recordZip(long nanos, long bytes) {
+        zipTimer.record(nanos, TimeUnit.NANOSECONDS);
+        RequestTrace.record("zip", null, nanos);
+        if (bytes >= 0) {
+            zipSize.record(bytes);
+        }
+    }
+
+    public void recordBundle(long nanos) {
+        bundleTimer.record(nanos, TimeUnit.NANOSECONDS);
+        RequestTrace.record("bundle", null, nanos);
+    }
+
+    /**
+     * Gauges of one client's generations waiting in the fair queue and running.
+     */
+    public void registerClient(String client, Supplier<Number> queued, Supplier<Number> running) {
+        Gauge.builder("terraform.client.queue.depth", queued)
+                .description("Generations waiting in the fair queue by client")
+                .tag("client", client)
+                .register(registry);
+        Gauge.builder("terraform.client.inflight", running)
+                .description("Generations running by client")
+                .tag("client", client)
+                .register(registry);
+    }
+
+    public void recordClientWait(String client, long nanos) {
+        clientWaitTimers.computeIfAbsent(client, c -> Timer.builder(CLIENT_WAIT)
+                .description("Time a generation waited in the fair queue by client")
+                .tag("client", c)
+                .publishPercentileHistogram()
+                .register(registry)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param reason {@code rate_limited} or {@code queue_full}
+     */
+    public void recordClientRejected(String client, String reason) {
+        clientRejections.computeIfAbsent(client + '/' + reason, k -> Counter.builder(CLIENT_REJECTED)
+                .description("Generations turned away by client and reason")
+                .tag("client", client)
+                .tag("reason", reason)
+                .register(registry)).increment();
+    }
+
+    /**
+     * Counts the callers that shared an in-progress computation of {@code artifact}
+     * instead of running their own.
+     */
+    public void registerCoalesced(String artifact, SingleFlight<?, ?> flight) {
+        FunctionCounter.builder("terraform.generation.coalesced", flight, SingleFlight::coalesced)
+                .description("Requests that shared an in-progress generation")
+                .tag("artifact", artifact)
+                .register(registry);
+    }
+
+    /**
+     * @param outcome {@code hit}, {@code miss} for any answer but a project, or {@code error} if unreachable
+     */
+    public void recordPeerFetch(String artifact, String outcome, long nanos) {
+        peerTimers.computeIfAbsent(artifact + '/' + outcome, k -> Timer.builder("terraform.peer.fetch")
+                .description("Requests to the replica owning a project")
+                .tag("artifact", artifact)
+                .tag("outcome", outcome)
+                .register(registry)).record(nanos, TimeUnit.NANOSECONDS);
+        RequestTrace.record("peer", artifact, nanos);
+    }
+
+    public void recordRequest(String endpoint, String outcome) {
+        registry.counter(REQUESTS, "endpoint", endpoint, "outcome", outcome).increment();
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder(STAGE_TIMER)
+                .description("Time spent in each generation stage")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.tfgenerator.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * AWS regions environments can be generated for.
+ */
+public enum AwsRegion {
+
+    US_EAST_1("us-east-1"),
+    US_EAST_2("us-east-2"),
+    US_WEST_1("us-west-1"),
+    US_WEST_2("us-west-2"),
+    EU_WEST_1("eu-west-1"),
+    EU_WEST_2("eu-west-2"),
+    EU_WEST_3("eu-west-3"),
+    EU_CENTRAL_1("eu-central-1"),
+    EU_CENTRAL_2("eu-central-2"),
+    AP_SOUTH_1("ap-south-1"),
+    AP_NORTHEAST_1("ap-northeast-1"),
+    AP_NORTHEAST_2("ap-northeast-2"),
+    AP_NORTHEAST_3("ap-northeast-3"),
+    AP_SOUTHEAST_1("ap-southeast-1"),
+    AP_SOUTHEAST_2("ap-southeast-2"),
+    AP_EAST_1("ap-east-1"),
+    SA_EAST_1("sa-east-1"),
+    CA_CENTRAL_1("ca-central-1");
+
+    private static final Map<String, AwsRegion> BY_CODE = new HashMap<>();
+
+    static {
+        for (AwsRegion region : values()) {
+            BY_CODE.put(region.code, region);
+        }
+    }
+
+    private final String code;
+
+    AwsRegion(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * The region with this code, e.g. {@code us-east-1}, or {@code null} if there is none.
+     */
+    public static AwsRegion fromCode(String code) {
+        return code != null ? BY_CODE.get(code) : null;
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.tfgenerator.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a batch response: the outcome for the entry at {@code index} of the request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResult {
+    private int index;
+    private String name;
+    private boolean success;
+    private TerraformResponse data;
+    private String error;
+}
@@ -0,0 +1,15 @@
+package com.example.tfgenerator.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnvironmentDiff {
+    private List<FileDiff> changed;
+    private List<String> unchanged;
+}
@@ -0,0 +1,18 @@
+package com.example.tfgenerator.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Change to one generated file. {@code status} is {@code added}, {@code removed} or
+ * {@code modified}; {@code diff} is a unified diff from the previous to the current file.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileDiff {
+    private String fileName;
+    private String status;
+    private String diff;
+}
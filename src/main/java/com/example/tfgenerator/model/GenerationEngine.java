@@ -0,0 +1,25 @@
+package com.example.tfgenerator.model;
+
+/**
+ * How project files are produced. Both engines generate identical output.
+ */
+public enum GenerationEngine {
+
+    /** Interprets the FreeMarker templates under {@code templates/terraform}. */
+    FREEMARKER,
+
+    /** Writes HCL directly from typed builders in the {@code hcl} package. */
+    HCL;
+
+    /**
+     * The engine with this name, ignoring case, or {@code null} if there is none.
+     */
+    public static GenerationEngine fromName(String name) {
+        for (GenerationEngine engine : values()) {
+            if (engine.name().equalsIgnoreCase(name)) {
+                return engine;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.tfgenerator.model;
+
+/**
+ * Database engines supported for the RDS instance.
+ */
+public enum RdsEngine {
+
+    POSTGRES("postgres", 5432, "15.4", "[\"postgresql\"]"),
+    MYSQL("mysql", 3306, "8.0.35", "[\"error\",\"general\",\"slowquery\"]");
+
+    private final String code;
+    private final int port;
+    private final String version;
+    private final String logExports;
+
+    RdsEngine(String code, int port, String version, String logExports) {
+        this.code = code;
+        this.port = port;
+        this.version = version;
+        this.logExports = logExports;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * The CloudWatch log exports of this engine, as an HCL list expression.
+     */
+    public String getLogExports() {
+        return logExports;
+    }
+
+    /**
+     * The engine with this code, e.g. {@code postgres}, or {@code null} if there is none.
+     */
+    public static RdsEngine fromCode(String code) {
+        for (RdsEngine engine : values()) {
+            if (engine.code.equals(code)) {
+                return engine;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return code;
+    }
+}
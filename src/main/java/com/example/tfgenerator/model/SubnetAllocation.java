@@ -0,0 +1,14 @@
+package com.example.tfgenerator.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubnetAllocation {
+    private String tier;
+    private int az;
+    private String cidr;
+}
@@ -0,0 +1,121 @@
+package com.example.tfgenerator.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The files that make up a generated Terraform project, in archive order.
+ */
+public enum TerraformFile {
+
+    MAIN("main.tf", always(),
+            "name", "tags"),
+    VARIABLES("variables.tf", always(),
+            "region", "name", "vpcCidr", "publicSubnetCidr", "privateSubnetCidr",
+            "rdsEnabled", "rdsUsername", "rdsPassword", "rdsDbName", "rdsInstances"),
+    VPC("vpc.tf", always(),
+            "multiZone", "zones"),
+    SERVICES_S3("services_s3.tf", enabledBy("s3Enabled", "s3Buckets"),
+            "s3Enabled", "s3Buckets"),
+    SERVICES_RDS("services_rds.tf", enabledBy("rdsEnabled", "rdsInstances"),
+            "rdsEnabled", "rdsEngine", "rdsInstanceClass", "rdsInstances", "privateSubnetIds"),
+    SERVICES_ECS("services_ecs.tf", enabledBy("ecsEnabled"),
+            "ecsEnabled", "ecsServices", "privateSubnetIds"),
+    OUTPUTS("outputs.tf", always(),
+            "multiZone", "s3Enabled", "rdsEnabled", "ecsEnabled", "s3Buckets", "rdsInstances", "ecsServices"),
+    TERRAFORM_TFVARS("terraform.tfvars", always(),
+            "region", "name", "vpcCidr", "publicSubnetCidr", "privateSubnetCidr",
+            "rdsEnabled", "rdsUsername", "rdsPassword", "rdsDbName", "rdsInstances");
+
+    private final String fileName;
+    private final String jsonField;
+    private final List<String> enabledBy;
+    private final List<String> inputs;
+
+    TerraformFile(String fileName, List<String> enabledBy, String... inputs) {
+        this.fileName = fileName;
+        this.jsonField = fileName.replace('.', '_');
+        this.enabledBy = enabledBy;
+        this.inputs = Collections.unmodifiableList(Arrays.asList(inputs));
+    }
+
+    private static List<String> always() {
+        return Collections.emptyList();
+    }
+
+    private static List<String> enabledBy(String... keys) {
+        return Collections.unmodifiableList(Arrays.asList(keys));
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * The property holding this file in a {@link TerraformResponse}'s JSON form.
+     */
+    public String getJsonField() {
+        return jsonField;
+    }
+
+    public String getTemplateName() {
+        return fileName + ".ftl";
+    }
+
+    /**
+     * The data model keys the template reads. Templates are rendered against only
+     * these keys, so a template that reads anything else fails instead of silently
+     * producing output that does not match its declared inputs.
+     */
+    public List<String> getInputs() {
+        return inputs;
+    }
+
+    /**
+     * Whether this file has any content for the given data model. Service files are
+     * only needed when the matching service flag is set or its list has entries.
+     */
+    public boolean isRequired(Map<String, Object> model) {
+        if (enabledBy.isEmpty()) {
+            return true;
+        }
+        for (String key : enabledBy) {
+            Object value = model.get(key);
+            if (Boolean.TRUE.equals(value) || value instanceof Collection && !((Collection<?>) value).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getContent(TerraformResponse response) {
+        switch (this) {
+            case MAIN: return response.getMainTf();
+            case VARIABLES: return response.getVariablesTf();
+            case VPC: return response.getVpcTf();
+            case SERVICES_S3: return response.getServicesS3Tf();
+            case SERVICES_RDS: return response.getServicesRdsTf();
+            case SERVICES_ECS: return response.getServicesEcsTf();
+            case OUTPUTS: return response.getOutputsTf();
+            case TERRAFORM_TFVARS: return response.getTerraformTfvars();
+            default: throw new IllegalStateException("Unhandled file " + this);
+        }
+    }
+
+    public void setContent(TerraformResponse response, String content) {
+        switch (this) {
+            case MAIN: response.setMainTf(content); break;
+            case VARIABLES: response.setVariablesTf(content); break;
+            case VPC: response.setVpcTf(content); break;
+            case SERVICES_S3: response.setServicesS3Tf(content); break;
+            case SERVICES_RDS: response.setServicesRdsTf(content); break;
+            case SERVICES_ECS: response.setServicesEcsTf(content); break;
+            case OUTPUTS: response.setOutputsTf(content); break;
+            case TERRAFORM_TFVARS: response.setTerraformTfvars(content); break;
+            default: throw new IllegalStateException("Unhandled file " + this);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.tfgenerator.model;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A finished request with its stage breakdown. {@code droppedSpans} counts spans
+ * beyond the per-request limit that were not kept.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TraceSnapshot {
+    private String method;
+    private String path;
+    private int status;
+    private long startedAt;
+    private double totalMs;
+    private int droppedSpans;
+    private List<TraceSpan> spans;
+}
@@ -0,0 +1,18 @@
+package com.example.tfgenerator.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One timed stage of a request. {@code startMs} is relative to the start of the request.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TraceSpan {
+    private String name;
+    private String detail;
+    private double startMs;
+    private double durationMs;
+}
@@ -0,0 +1,31 @@
+package com.example.tfgenerator.scheduling;
+
+/**
+ * The client a request thread is working for, bound by {@link ClientIdentityFilter}.
+ * Work submitted without a bound client, such as startup warm-up or tests, belongs
+ * to {@link #ANONYMOUS}. Renders requested by other replicas of a cluster are
+ * queued as {@link #PEER}.
+ */
+public final class ClientContext {
+
+    public static final String ANONYMOUS = "anonymous";
+    public static final String PEER = "peer";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ClientContext() {
+    }
+
+    public static String current() {
+        String client = CURRENT.get();
+        return client != null ? client : ANONYMOUS;
+    }
+
+    public static void set(String client) {
+        CURRENT.set(client);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.tfgenerator.scheduling;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Binds the {@link ClientContext} of each API request. A client is identified by
+ * its configured API key, then by the client id header, then by remote address. The
+ * header is only honoured for configured clients without an API key; any other id
+ * falls back to the remote address, so rotating it does not get a caller a fresh
+ * rate limit.
+ */
+@Component
+public class ClientIdentityFilter extends OncePerRequestFilter {
+
+    private static final Pattern CLIENT_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private final FairnessProperties properties;
+
+    public ClientIdentityFilter(FairnessProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ClientContext.set(resolve(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ClientContext.clear();
+        }
+    }
+
+    String resolve(HttpServletRequest request) {
+        String apiKey = request.getHeader(properties.getApiKeyHeader());
+        if (apiKey != null) {
+            byte[] presented = apiKey.getBytes(StandardCharsets.UTF_8);
+            for (Map.Entry<String, ClientPolicy> client : properties.getClients().entrySet()) {
+                String expected = client.getValue().getApiKey();
+                if (expected != null && MessageDigest.isEqual(presented, expected.getBytes(StandardCharsets.UTF_8))) {
+                    return client.getKey();
+                }
+            }
+        }
+        String id = request.getHeader(properties.getClientHeader());
+        if (id != null && CLIENT_ID.matcher(id).matches()) {
+            ClientPolicy configured = properties.getClients().get(id);
+            if (configured != null && configured.getApiKey() == null) {
+                return id;
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.tfgenerator.scheduling;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Scheduling limits of one client. {@code maxConcurrent} and {@code ratePerSecond}
+ * are not enforced when {@code 0}; {@code burst} defaults to one second of the rate.
+ */
+@Data
+@NoArgsConstructor
+public class ClientPolicy {
+    private String apiKey;
+    private int weight = 1;
+    private int maxConcurrent;
+    private int maxQueued = 32;
+    private double ratePerSecond;
+    private int burst;
+}
@@ -0,0 +1,361 @@
+package com.example.tfgenerator.scheduling;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.example.tfgenerator.exception.GenerationRejectedException;
+import com.example.tfgenerator.metrics.GenerationMetrics;
+import com.example.tfgenerator.trace.RequestTrace;
+
+/**
+ * Shares the generation executor fairly between clients. Each client has its own
+ * queue, and a generation is handed to the executor only when one of its threads
+ * is free, so a client with a long backlog cannot push everyone else's work behind
+ * it.
+ * <p>
+ * The next generation is chosen by deficit round robin: on each turn a client earns
+ * its {@link ClientPolicy#getWeight() weight} in credit, and runs queued generations
+ * while it has credit for their cost. Over time each busy client gets executor time
+ * in proportion to its weight, whatever the size of its backlog. A client at its
+ * concurrency cap is skipped until one of its generations finishes.
+ * <p>
+ * Rate limits are checked before queueing, through a {@link TokenBucket} per
+ * client. The client table, queue and dispatch state are guarded by this
+ * scheduler's monitor, so a client is found, admitted and queued in one step and
+ * its queue cannot be evicted in between. Tasks are handed to the executor
+ * outside the monitor.
+ * <p>
+ * At most {@link FairnessProperties#getMaxClients() maxClients} clients are
+ * tracked. A new client evicts the least recently used idle one; when every
+ * tracked client has work queued or running, new clients are rejected.
+ */
+@Component
+public class FairGenerationScheduler implements Executor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FairGenerationScheduler.class);
+
+    /**
+     * Metrics tag shared by every client that is not configured by name.
+     */
+    static final String OTHER = "other";
+
+    private final Executor executor;
+    private final int maxInFlight;
+    private final int maxQueued;
+    private final FairnessProperties properties;
+    private final GenerationMetrics metrics;
+
+    private final Map<String, ClientQueue> clients;
+    private final Map<String, MeterGroup> meterGroups = new ConcurrentHashMap<>();
+    private final ArrayDeque<ClientQueue> active = new ArrayDeque<>();
+    private int inFlight;
+    private int queued;
+
+    @Autowired
+    public FairGenerationScheduler(@Qualifier("generationExecutor") ThreadPoolTaskExecutor executor,
+                                   @Value("${generator.generation.queue-capacity:64}") int maxQueued,
+                                   FairnessProperties properties, GenerationMetrics metrics) {
+        this(executor, executor.getMaxPoolSize(), maxQueued, properties, metrics);
+    }
+
+    /**
+     * @param maxInFlight generations handed to the executor at once, normally its thread count
+     * @param maxQueued generations waiting across all clients
+     */
+    public FairGenerationScheduler(Executor executor, int maxInFlight, int maxQueued, FairnessProperties properties,
+                                   GenerationMetrics metrics) {
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.maxQueued = maxQueued;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.clients = new LinkedHashMap<>(64, 0.75f, true);
+    }
+
+    /**
+     * Queues a generation of cost {@code 1} for the client bound to this thread.
+     *
+     * @throws GenerationRejectedException if the client is over its rate limit
+     * @throws RejectedExecutionException if the client's queue or the whole queue is full
+     */
+    @Override
+    public void execute(Runnable task) {
+        execute(ClientContext.current(), 1, task);
+    }
+
+    /**
+     * An executor that queues each task for the given client with the given cost,
+     * such as the number of environments in a bundle. For work submitted off the
+     * request thread, where no client is bound.
+     */
+    public Executor forClient(String clientId, int cost) {
+        return task -> execute(clientId, cost, task);
+    }
+
+    /**
+     * Applies the rate limit of the client bound to this thread to work that does not
+     * run on the generation executor, such as streamed responses.
+     *
+     * @throws GenerationRejectedException if the client is over its rate limit
+     */
+    public void admit() {
+        if (properties.isEnabled()) {
+            synchronized (this) {
+                admit(client(ClientContext.current()));
+            }
+        }
+    }
+
+    void execute(String clientId, int cost, Runnable task) {
+        if (!properties.isEnabled()) {
+            executor.execute(RequestTrace.propagate(task));
+            return;
+        }
+        Runnable traced = RequestTrace.propagate(task);
+        List<Pending> ready;
+        synchronized (this) {
+            ClientQueue client = client(clientId);
+            admit(client);
+            Pending pending = new Pending(client, traced, cost);
+            if (client.queue.size() >= client.policy.getMaxQueued() || queued >= maxQueued) {
+                metrics.recordClientRejected(client.tag, "queue_full");
+                throw new RejectedExecutionException("Generation queue full for client " + clientId);
+            }
+            client.queue.addLast(pending);
+            queued++;
+            client.meters.queued.incrementAndGet();
+            if (!client.active) {
+                client.active = true;
+                active.addLast(client);
+            }
+            ready = dispatch();
+        }
+        hand(ready);
+    }
+
+    /**
+     * Per-client queue depth, for tests and diagnostics.
+     */
+    synchronized int queued(String clientId) {
+        ClientQueue client = clients.get(clientId);
+        return client != null ? client.queue.size() : 0;
+    }
+
+    private void admit(ClientQueue client) {
+        if (client.bucket == null) {
+            return;
+        }
+        long waitNanos = client.bucket.tryAcquire(System.nanoTime());
+        if (waitNanos > 0) {
+            metrics.recordClientRejected(client.tag, "rate_limited");
+            long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            throw new GenerationRejectedException("Rate limit exceeded, retry later", retryAfter, null);
+        }
+    }
+
+    /**
+     * The client's queue, created if needed. Called holding the monitor.
+     *
+     * @throws GenerationRejectedException if the client is new and every tracked client is busy
+     */
+    private ClientQueue client(String clientId) {
+        ClientQueue client = clients.get(clientId);
+        if (client == null) {
+            ClientPolicy configured = properties.getClients().get(clientId);
+            ClientPolicy policy = configured != null ? configured : properties.getDefaultPolicy();
+            String tag = configured != null || ClientContext.ANONYMOUS.equals(clientId)
+                    || ClientContext.PEER.equals(clientId) ? clientId : OTHER;
+            if (clients.size() >= properties.getMaxClients() && !evictIdle()) {
+                metrics.recordClientRejected(tag, "too_many_clients");
+                throw new GenerationRejectedException("Too many active clients, retry later", 1, null);
+            }
+            client = new ClientQueue(clientId, tag, policy, meterGroups.computeIfAbsent(tag, this::meterGroup));
+            clients.put(clientId, client);
+        }
+        return client;
+    }
+
+    /**
+     * Removes the least recently used client with nothing queued or running.
+     */
+    private boolean evictIdle() {
+        Iterator<ClientQueue> eldest = clients.values().iterator();
+        while (eldest.hasNext()) {
+            if (eldest.next().isIdle()) {
+                eldest.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private MeterGroup meterGroup(String tag) {
+        MeterGroup group = new MeterGroup();
+        metrics.registerClient(tag, group.queued::get, group.running::get);
+        return group;
+    }
+
+    /**
+     * Takes queued generations for as many free executor threads as there are.
+     */
+    private List<Pending> dispatch() {
+        List<Pending> ready = Collections.emptyList();
+        while (inFlight < maxInFlight) {
+            Pending next = next();
+            if (next == null) {
+                break;
+            }
+            if (ready.isEmpty()) {
+                ready = new ArrayList<>(2);
+            }
+            ready.add(next);
+            inFlight++;
+            queued--;
+            next.client.running++;
+            next.client.meters.queued.decrementAndGet();
+            next.client.meters.running.incrementAndGet();
+        }
+        return ready;
+    }
+
+    /**
+     * One step of deficit round robin over the clients with queued generations.
+     */
+    private Pending next() {
+        int skipped = 0;
+        while (!active.isEmpty() && skipped < active.size()) {
+            ClientQueue client = active.peekFirst();
+            if (client.atConcurrencyLimit()) {
+                client.turnStarted = false;
+                active.addLast(active.pollFirst());
+                skipped++;
+                continue;
+            }
+            skipped = 0;
+            if (!client.turnStarted) {
+                client.turnStarted = true;
+                client.deficit += Math.max(1, client.policy.getWeight());
+            }
+            Pending head = client.queue.peekFirst();
+            if (client.deficit >= head.cost) {
+                client.queue.pollFirst();
+                client.deficit -= head.cost;
+                if (client.queue.isEmpty()) {
+                    active.pollFirst();
+                    client.active = false;
+                    client.turnStarted = false;
+                    client.deficit = 0;
+                }
+                return head;
+            }
+            client.turnStarted = false;
+            active.addLast(active.pollFirst());
+        }
+        return null;
+    }
+
+    private void hand(List<Pending> ready) {
+        for (Pending pending : ready) {
+            Runnable run = () -> run(pending);
+            try {
+                executor.execute(run);
+            } catch (RejectedExecutionException e) {
+                // Only handed over with a thread free, so this means the executor is shutting down.
+                LOGGER.warn("Generation executor rejected a dispatched generation, running it on the caller");
+                run.run();
+            }
+        }
+    }
+
+    private void run(Pending pending) {
+        metrics.recordClientWait(pending.client.tag, System.nanoTime() - pending.queuedNanos);
+        try {
+            pending.task.run();
+        } finally {
+            List<Pending> ready;
+            synchronized (this) {
+                inFlight--;
+                pending.client.running--;
+                pending.client.meters.running.decrementAndGet();
+                ready = dispatch();
+            }
+            hand(ready);
+        }
+    }
+
+    private static final class Pending {
+        private final ClientQueue client;
+        private final Runnable task;
+        private final int cost;
+        private final long queuedNanos = System.nanoTime();
+
+        private Pending(ClientQueue client, Runnable task, int cost) {
+            this.client = client;
+            this.task = task;
+            this.cost = Math.max(1, cost);
+        }
+    }
+
+    private static final class ClientQueue {
+        private final String id;
+        private final String tag;
+        private final ClientPolicy policy;
+        private final TokenBucket bucket;
+        private final MeterGroup meters;
+        private final ArrayDeque<Pending> queue = new ArrayDeque<>();
+        private int running;
+        private long deficit;
+        private boolean active;
+        private boolean turnStarted;
+
+        private ClientQueue(String id, String tag, ClientPolicy policy, MeterGroup meters) {
+            this.id = id;
+            this.tag = tag;
+            this.policy = policy;
+            this.meters = meters;
+            double rate = policy.getRatePerSecond();
+            this.bucket = rate > 0
+                    ? new TokenBucket(rate, policy.getBurst() > 0 ? policy.getBurst() : (int) Math.ceil(rate))
+                    : null;
+        }
+
+        private boolean atConcurrencyLimit() {
+            return policy.getMaxConcurrent() > 0 && running >= policy.getMaxConcurrent();
+        }
+
+        private boolean isIdle() {
+            return queue.isEmpty() && running == 0;
+        }
+
+        @Override
+        public String toString() {
+            return id;
+        }
+    }
+
+    /**
+     * Gauge values of every client sharing a metrics tag.
+     */
+    private static final class MeterGroup {
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.tfgenerator.scheduling;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * {@code generator.fairness.*}: how clients are identified and the policy of each.
+ * Clients not listed under {@code clients} get {@code default-policy}, each with its
+ * own queue and rate limit.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "generator.fairness")
+public class FairnessProperties {
+    private boolean enabled = true;
+    private String clientHeader = "X-Client-Id";
+    private String apiKeyHeader = "X-API-Key";
+    private int maxClients = 10000;
+    private ClientPolicy defaultPolicy = new ClientPolicy();
+    private Map<String, ClientPolicy> clients = new LinkedHashMap<>();
+}
@@ -0,0 +1,320 @@
+package com.example.tfgenerator.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.info.BuildProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.tfgenerator.util.Hashes;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Generated artifacts on disk, kept across restarts and read through memory-mapped
+ * files so serving them copies nothing onto the heap.
+ * <p>
+ * Contents live once under {@code objects/} named by their SHA-256. A request's
+ * artifact is found through a small ref file under {@code refs/<version>/}, named
+ * by its fingerprint and artifact type and holding the content hash. The ref
+ * directory is named by a digest of the {@link TemplateRegistry#version() template
+ * version}, {@link TerraformGenerationService#OUTPUT_VERSION} and the application
+ * build, so neither editing a template nor deploying other code serves output of
+ * the old one. Both kinds of file are written to a temporary file and moved into
+ * place, so readers never see a partial write.
+ * <p>
+ * Several builds may share one store during a rolling deploy, so superseded output
+ * is only removed when {@code generator.store.cleanup.enabled} is set. At startup
+ * the refs of other versions that have not been written to for the grace period
+ * are then deleted, along with objects no remaining ref points at that are at
+ * least as old.
+ * <p>
+ * The store is a cache: a failed read is a miss and a failed write is only logged.
+ * With no directory configured it is disabled and every lookup misses.
+ */
+@Component
+public class ArtifactStore implements MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactStore.class);
+
+    private final Path objects;
+    private final Path refs;
+    private final TemplateRegistry templateRegistry;
+    private final String build;
+    private final int maxMapped;
+    private final long cleanupGraceMillis;
+    // The template version and the ref directory derived from it.
+    private volatile String[] version;
+    // Recently used mappings by ref name, so repeat hits skip the ref file and mmap call.
+    private final LinkedHashMap<String, MappedByteBuffer> mapped = new LinkedHashMap<>(64, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+
+    public ArtifactStore(String directory, TemplateRegistry templateRegistry) {
+        this(directory, templateRegistry, 4096, null, -1);
+    }
+
+    @Autowired
+    public ArtifactStore(@Value("${generator.store.dir:}") String directory, TemplateRegistry templateRegistry,
+                         @Value("${generator.store.max-mapped:4096}") int maxMapped,
+                         ObjectProvider<BuildProperties> buildProperties,
+                         @Value("${generator.store.cleanup.enabled:false}") boolean cleanup,
+                         @Value("${generator.store.cleanup.grace-hours:24}") long cleanupGraceHours) {
+        this(directory, templateRegistry, maxMapped, build(buildProperties.getIfAvailable()),
+                cleanup ? TimeUnit.HOURS.toMillis(cleanupGraceHours) : -1);
+    }
+
+    /**
+     * @param build identifies the application build, or {@code null} when run outside a packaged build
+     * @param cleanupGraceMillis how long superseded output is kept unused before it is removed at
+     *        startup, or negative to never remove it
+     */
+    ArtifactStore(String directory, TemplateRegistry templateRegistry, int maxMapped, String build,
+                  long cleanupGraceMillis) {
+        this.templateRegistry = templateRegistry;
+        this.build = build;
+        this.maxMapped = maxMapped;
+        this.cleanupGraceMillis = cleanupGraceMillis;
+        if (directory == null || directory.isEmpty()) {
+            this.objects = null;
+            this.refs = null;
+            LOGGER.info("Artifact store disabled");
+        } else {
+            Path root = Paths.get(directory).toAbsolutePath();
+            this.objects = root.resolve("objects");
+            this.refs = root.resolve("refs");
+            LOGGER.info("Artifact store at {}", root);
+            if (cleanupGraceMillis >= 0) {
+                removeSuperseded(System.currentTimeMillis() - cleanupGraceMillis);
+            }
+        }
+    }
+
+    private static String build(BuildProperties properties) {
+        if (properties == null) {
+            return null;
+        }
+        return properties.getVersion() + "@" + (properties.getTime() != null ? properties.getTime().toEpochMilli() : 0);
+    }
+
+    public boolean isEnabled() {
+        return objects != null;
+    }
+
+    /**
+     * The stored artifact as a read-only buffer over the mapped file, or {@code null}
+     * if there is none for the current templates.
+     */
+    public ByteBuffer get(String key, String artifact) {
+        if (!isEnabled()) {
+            return null;
+        }
+        String ref = refName(key, artifact);
+        MappedByteBuffer buffer;
+        synchronized (this) {
+            buffer = mapped.get(ref);
+        }
+        if (buffer == null) {
+            buffer = map(ref);
+        }
+        (buffer != null ? hits : misses).incrementAndGet();
+        return buffer != null ? buffer.asReadOnlyBuffer() : null;
+    }
+
+    public void put(String key, String artifact, byte[] content) {
+        if (!isEnabled()) {
+            return;
+        }
+        String hash = Hashes.sha256Hex(content);
+        try {
+            Path object = objectPath(hash);
+            if (!Files.exists(object)) {
+                writeAtomically(object, content);
+            }
+            writeAtomically(refs.resolve(refName(key, artifact)), hash.getBytes(StandardCharsets.US_ASCII));
+            writes.incrementAndGet();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to store {} for {}", artifact, key, e);
+        }
+    }
+
+    public synchronized void clearMappings() {
+        mapped.clear();
+    }
+
+    /**
+     * Refs of the old templates are simply no longer looked up; only the mappings
+     * held for them are dropped.
+     */
+    @EventListener(TemplatesReloadedEvent.class)
+    public void onTemplatesReloaded() {
+        clearMappings();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("terraform.store.requests", hits, AtomicLong::get)
+                .description("Artifact store lookups").tag("result", "hit").register(registry);
+        FunctionCounter.builder("terraform.store.requests", misses, AtomicLong::get)
+                .description("Artifact store lookups").tag("result", "miss").register(registry);
+        FunctionCounter.builder("terraform.store.writes", writes, AtomicLong::get)
+                .description("Artifacts written to the store").register(registry);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private MappedByteBuffer map(String ref) {
+        try {
+            String hash = new String(Files.readAllBytes(refs.resolve(ref)), StandardCharsets.US_ASCII);
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(objectPath(hash), StandardOpenOption.READ)) {
+                // The mapping stays valid after the channel is closed.
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            synchronized (this) {
+                mapped.put(ref, buffer);
+                if (mapped.size() > maxMapped) {
+                    Map.Entry<String, MappedByteBuffer> eldest = mapped.entrySet().iterator().next();
+                    mapped.remove(eldest.getKey());
+                }
+            }
+            return buffer;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read stored artifact {}", ref, e);
+            return null;
+        }
+    }
+
+    private String refName(String key, String artifact) {
+        return version() + "/" + key + "." + artifact;
+    }
+
+    /**
+     * The ref directory of output from the current templates and code.
+     */
+    private String version() {
+        String templates = templateRegistry.version();
+        String[] cached = version;
+        if (cached == null || !cached[0].equals(templates)) {
+            cached = new String[] { templates, Hashes.sha256Hex(templates + "\n"
+                    + TerraformGenerationService.OUTPUT_VERSION + "\n" + (build != null ? build : "")).substring(0, 16) };
+            version = cached;
+        }
+        return cached[1];
+    }
+
+    /**
+     * Deletes the refs of other versions last written before the cutoff, and the
+     * objects from before it that no remaining ref points at. Versions still written
+     * by other replicas, and objects whose ref may not be written yet, are kept.
+     */
+    private void removeSuperseded(long cutoffMillis) {
+        String current = version();
+        Set<String> live = new HashSet<>();
+        int removedRefs = 0;
+        int removedObjects = 0;
+        try {
+            if (Files.isDirectory(refs)) {
+                try (DirectoryStream<Path> versions = Files.newDirectoryStream(refs)) {
+                    for (Path version : versions) {
+                        if (!version.getFileName().toString().equals(current)
+                                && Files.getLastModifiedTime(version).toMillis() <= cutoffMillis) {
+                            removedRefs += deleteTree(version);
+                            continue;
+                        }
+                        try (DirectoryStream<Path> files = Files.newDirectoryStream(version)) {
+                            for (Path ref : files) {
+                                try {
+                                    live.add(new String(Files.readAllBytes(ref), StandardCharsets.US_ASCII));
+                                } catch (NoSuchFileException e) {
+                                    // A temporary file moved into place or replaced by another replica.
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            if (Files.isDirectory(objects)) {
+                try (Stream<Path> files = Files.walk(objects)) {
+                    for (Path object : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                        if (!live.contains(object.getFileName().toString())
+                                && Files.getLastModifiedTime(object).toMillis() <= cutoffMillis) {
+                            Files.delete(object);
+                            removedObjects++;
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to remove superseded artifacts", e);
+        }
+        if (removedRefs > 0 || removedObjects > 0) {
+            LOGGER.info("Removed {} superseded refs and {} unreferenced objects from the artifact store",
+                    removedRefs, removedObjects);
+        }
+    }
+
+    private static int deleteTree(Path root) throws IOException {
+        int files = 0;
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                if (Files.isRegularFile(path)) {
+                    files++;
+                }
+                Files.delete(path);
+            }
+        }
+        return files;
+    }
+
+    private Path objectPath(String hash) {
+        return objects.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private static void writeAtomically(Path target, byte[] content) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".tmp-", null);
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.tfgenerator.service;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.tfgenerator.archive.ArchiveFormat;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.exception.GenerationRejectedException;
+import com.example.tfgenerator.metrics.GenerationMetrics;
+import com.example.tfgenerator.model.GenerationEngine;
+import com.example.tfgenerator.model.TerraformResponse;
+import com.example.tfgenerator.scheduling.ClientContext;
+import com.example.tfgenerator.scheduling.FairGenerationScheduler;
+
+/**
+ * Runs cached generation on the bounded generation executor so servlet threads are
+ * released while projects render. Work is queued per client by the
+ * {@link FairGenerationScheduler}. A full queue is reported immediately as a
+ * {@link GenerationRejectedException} rather than queued behind other work.
+ */
+@Service
+public class AsyncGenerationService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncGenerationService.class);
+
+    private final CachedGenerationService cachedGenerationService;
+    private final Executor generationExecutor;
+    private final GenerationMetrics metrics;
+    private final long retryAfterSeconds;
+
+    public AsyncGenerationService(CachedGenerationService cachedGenerationService,
+                                  @Qualifier("fairGenerationScheduler") Executor generationExecutor,
+                                  GenerationMetrics metrics,
+                                  @Value("${generator.generation.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.cachedGenerationService = cachedGenerationService;
+        this.generationExecutor = generationExecutor;
+        this.metrics = metrics;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public CompletableFuture<TerraformResponse> generate(String key, EnvironmentRequest request) {
+        return generate(key, request, null);
+    }
+
+    public CompletableFuture<TerraformResponse> generate(String key, EnvironmentRequest request,
+                                                         GenerationEngine engine) {
+        return submit(request.getName(), () -> cachedGenerationService.generate(key, request, engine));
+    }
+
+    public CompletableFuture<ByteBuffer> generateZip(String key, EnvironmentRequest request) {
+        return generateZip(key, request, null);
+    }
+
+    public CompletableFuture<ByteBuffer> generateZip(String key, EnvironmentRequest request, GenerationEngine engine) {
+        return generateArchive(key, request, engine, ArchiveFormat.ZIP);
+    }
+
+    public CompletableFuture<ByteBuffer> generateArchive(String key, EnvironmentRequest request,
+                                                         GenerationEngine engine, ArchiveFormat format) {
+        return submit(request.getName(), () -> cachedGenerationService.generateArchive(key, request, engine, format));
+    }
+
+    public CompletableFuture<ByteBuffer> generateJsonGzip(String key, EnvironmentRequest request,
+                                                          GenerationEngine engine) {
+        return submit(request.getName(), () -> cachedGenerationService.generateJsonGzip(key, request, engine));
+    }
+
+    /**
+     * Applies the client's rate limit to work done on the request thread, such as a
+     * streamed response, which has no place in the generation queue.
+     */
+    public void admit() {
+        if (generationExecutor instanceof FairGenerationScheduler) {
+            ((FairGenerationScheduler) generationExecutor).admit();
+        }
+    }
+
+    /**
+     * Runs other generation work, such as bundles, on the same executor so it shares
+     * the queue limit and its rejection.
+     */
+    public <T> CompletableFuture<T> submit(String name, Supplier<T> work) {
+        return submit(name, 1, work);
+    }
+
+    /**
+     * Runs work that counts as {@code cost} generations against the client's share,
+     * such as a bundle of that many environments.
+     */
+    public <T> CompletableFuture<T> submit(String name, int cost, Supplier<T> work) {
+        return submit(ClientContext.current(), name, cost, work);
+    }
+
+    /**
+     * Runs work for the given client rather than the one bound to this thread, such
+     * as batch entries submitted from a streaming response.
+     */
+    public <T> CompletableFuture<T> submit(String client, String name, int cost, Supplier<T> work) {
+        Executor executor = generationExecutor instanceof FairGenerationScheduler
+                ? ((FairGenerationScheduler) generationExecutor).forClient(client, cost)
+                : generationExecutor;
+        long queued = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                metrics.recordQueueWait(System.nanoTime() - queued);
+                return work.get();
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            LOGGER.warn("Generation queue full, rejecting {}", name);
+            metrics.recordRejected();
+            throw new GenerationRejectedException("Too many generations in progress, retry later", retryAfterSeconds, e);
+        }
+    }
+}
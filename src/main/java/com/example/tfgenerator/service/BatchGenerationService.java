@@ -0,0 +1,238 @@
+package com.example.tfgenerator.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.exception.GenerationRejectedException;
+import com.example.tfgenerator.exception.ValidationException;
+import com.example.tfgenerator.model.BatchResult;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Generates many environments from one request. Entries are processed in parallel
+ * up to a configurable limit and each result is written as an NDJSON line as soon
+ * as it is ready, so a slow or invalid entry never holds up the others.
+ * <p>
+ * Each entry is one generation of the requesting client in the
+ * {@link com.example.tfgenerator.scheduling.FairGenerationScheduler}, so a batch is
+ * subject to the client's share, concurrency cap and rate limit like single
+ * requests are. An entry rejected by them fails with the reason and can be retried
+ * on its own.
+ */
+@Service
+public class BatchGenerationService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchGenerationService.class);
+
+    private static final String INVALID_JSON = "Invalid JSON. Please check request body.";
+    static final String SERVER_ERROR = "Something went wrong on the server.";
+    private static final String NOT_AN_OBJECT = "Batch entry must be a JSON object";
+
+    private final CachedGenerationService cachedGenerationService;
+    private final AsyncGenerationService asyncGenerationService;
+    private final ObjectMapper objectMapper;
+    private final Executor batchExecutor;
+    private final int concurrency;
+    private final int maxSize;
+
+    /**
+     * @param batchExecutor where results are written, so generation threads never wait on a slow client
+     */
+    public BatchGenerationService(CachedGenerationService cachedGenerationService,
+                                  AsyncGenerationService asyncGenerationService, ObjectMapper objectMapper,
+                                  @Qualifier("batchExecutor") Executor batchExecutor,
+                                  @Value("${generator.batch.concurrency:4}") int concurrency,
+                                  @Value("${generator.batch.max-size:500}") int maxSize) {
+        this.cachedGenerationService = cachedGenerationService;
+        this.asyncGenerationService = asyncGenerationService;
+        this.objectMapper = objectMapper;
+        this.batchExecutor = batchExecutor;
+        this.concurrency = concurrency;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Reads the batch body, either a JSON array or NDJSON. A malformed line or element
+     * becomes a failed entry; only a body that cannot be split into entries is rejected.
+     * A body with more than the maximum number of entries is rejected as soon as the
+     * first entry over it is reached, without reading the rest.
+     */
+    public List<Entry> readEntries(InputStream body, MediaType contentType) throws IOException {
+        return MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? readNdjson(body)
+                : readJsonArray(body);
+    }
+
+    /**
+     * @param client the client the batch was requested by, as bound to the request thread
+     */
+    public void generateAll(List<Entry> entries, String client, OutputStream out) throws IOException {
+        LOGGER.info("Start generating batch of {} environments", entries.size());
+        Semaphore permits = new Semaphore(concurrency);
+        AtomicBoolean disconnected = new AtomicBoolean();
+        List<CompletableFuture<Void>> pending = new ArrayList<>(entries.size());
+
+        for (Entry entry : entries) {
+            if (disconnected.get()) {
+                break;
+            }
+            permits.acquireUninterruptibly();
+            pending.add(schedule(entry, client).handleAsync((result, failure) -> {
+                try {
+                    write(out, failure == null ? result : failed(entry, failure));
+                } catch (IOException e) {
+                    LOGGER.warn("Client went away during batch, skipping remaining entries: {}", e.getMessage());
+                    disconnected.set(true);
+                } finally {
+                    permits.release();
+                }
+                return null;
+            }, batchExecutor));
+        }
+
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+        LOGGER.info("Finished generating batch of {} environments", entries.size());
+    }
+
+    /**
+     * The entry's result, generated on the fair scheduler. Rejections complete with a
+     * failed result; the future fails only if generation ended abnormally, such as
+     * with an {@link Error}, which {@link #failed} turns into a result.
+     */
+    private CompletableFuture<BatchResult> schedule(Entry entry, String client) {
+        if (entry.request == null) {
+            return CompletableFuture.completedFuture(new BatchResult(entry.index, null, false, null, entry.error));
+        }
+        try {
+            return asyncGenerationService.submit(client, entry.request.getName(), 1, () -> process(entry));
+        } catch (GenerationRejectedException e) {
+            return CompletableFuture.completedFuture(
+                    new BatchResult(entry.index, entry.request.getName(), false, null, e.getMessage()));
+        }
+    }
+
+    private static BatchResult failed(Entry entry, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        if (cause instanceof GenerationRejectedException) {
+            return new BatchResult(entry.index, entry.request.getName(), false, null, cause.getMessage());
+        }
+        LOGGER.error("Unexpected error generating batch entry {}", entry.index, cause);
+        return new BatchResult(entry.index, entry.request.getName(), false, null, SERVER_ERROR);
+    }
+
+    private BatchResult process(Entry entry) {
+        EnvironmentRequest request = entry.request;
+        try {
+            String key = cachedGenerationService.fingerprint(request);
+            return new BatchResult(entry.index, request.getName(), true,
+                    cachedGenerationService.generate(key, request), null);
+        } catch (ValidationException e) {
+            return new BatchResult(entry.index, request.getName(), false, null, e.getMessage());
+        } catch (RuntimeException e) {
+            LOGGER.error("Unexpected error generating batch entry {}", entry.index, e);
+            return new BatchResult(entry.index, request.getName(), false, null, SERVER_ERROR);
+        }
+    }
+
+    private void write(OutputStream out, BatchResult result) throws IOException {
+        byte[] line = objectMapper.writeValueAsBytes(result);
+        synchronized (out) {
+            out.write(line);
+            out.write('\n');
+            out.flush();
+        }
+    }
+
+    private List<Entry> readNdjson(InputStream body) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            int index = checkSize(entries);
+            try {
+                entries.add(Entry.of(index, objectMapper.readValue(line, EnvironmentRequest.class)));
+            } catch (JsonProcessingException e) {
+                entries.add(new Entry(index, null, INVALID_JSON));
+            }
+        }
+        return entries;
+    }
+
+    private List<Entry> readJsonArray(InputStream body) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ValidationException("Batch body must be a JSON array or NDJSON");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                int index = checkSize(entries);
+                JsonNode node = parser.readValueAsTree();
+                try {
+                    entries.add(Entry.of(index, objectMapper.treeToValue(node, EnvironmentRequest.class)));
+                } catch (JsonProcessingException e) {
+                    entries.add(new Entry(index, null, INVALID_JSON));
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new ValidationException(INVALID_JSON, e);
+        }
+        return entries;
+    }
+
+    /**
+     * The index of the next entry, rejecting the batch if it would be one too many.
+     */
+    private int checkSize(List<Entry> entries) {
+        if (entries.size() >= maxSize) {
+            throw new ValidationException("Batch must not contain more than " + maxSize + " environments");
+        }
+        return entries.size();
+    }
+
+    /**
+     * A batch entry: either a parsed request or the reason it could not be parsed.
+     */
+    public static final class Entry {
+
+        private final int index;
+        private final EnvironmentRequest request;
+        private final String error;
+
+        Entry(int index, EnvironmentRequest request, String error) {
+            this.index = index;
+            this.request = request;
+            this.error = error;
+        }
+
+        static Entry of(int index, EnvironmentRequest request) {
+            return request != null ? new Entry(index, request, null) : new Entry(index, null, NOT_AN_OBJECT);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.tfgenerator.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.tfgenerator.util.Utf8Buffer;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Reusable {@link Utf8Buffer}s for rendering files and assembling archives, so a
+ * request allocates only what its output outgrows. Buffers that have grown past
+ * {@code maxRetainedBytes} are dropped on release rather than pooled.
+ */
+@Component
+public class BufferPool implements MeterBinder {
+
+    private static final int INITIAL_CAPACITY = 16 * 1024;
+
+    private final BlockingQueue<Utf8Buffer> buffers;
+    private final int maxRetainedBytes;
+
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong allocated = new AtomicLong();
+
+    public BufferPool(@Value("${generator.buffer.pool-size:64}") int poolSize,
+                      @Value("${generator.buffer.max-retained-bytes:1048576}") int maxRetainedBytes) {
+        this.buffers = new ArrayBlockingQueue<>(Math.max(1, poolSize));
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    public Utf8Buffer acquire() {
+        Utf8Buffer buffer = buffers.poll();
+        if (buffer != null) {
+            reused.incrementAndGet();
+            return buffer;
+        }
+        allocated.incrementAndGet();
+        return new Utf8Buffer(INITIAL_CAPACITY);
+    }
+
+    public void release(Utf8Buffer buffer) {
+        if (buffer.capacity() <= maxRetainedBytes) {
+            buffer.reset();
+            buffers.offer(buffer);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("terraform.buffer.pool.requests", reused, AtomicLong::get)
+                .description("Output buffers taken from the pool").tag("result", "reused").register(registry);
+        FunctionCounter.builder("terraform.buffer.pool.requests", allocated, AtomicLong::get)
+                .description("Output buffers taken from the pool").tag("result", "allocated").register(registry);
+    }
+
+    public long getReused() {
+        return reused.get();
+    }
+
+    public long getAllocated() {
+        return allocated.get();
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.tfgenerator.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.tfgenerator.archive.ArchiveFormat;
+import com.example.tfgenerator.archive.ArchiveWriter;
+import com.example.tfgenerator.archive.ArchiveWriters;
+import com.example.tfgenerator.dto.BundleRequest;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.exception.ValidationException;
+import com.example.tfgenerator.metrics.GenerationMetrics;
+import com.example.tfgenerator.model.GenerationEngine;
+import com.example.tfgenerator.model.TerraformFile;
+import com.example.tfgenerator.util.Hashes;
+import com.example.tfgenerator.util.Utf8Buffer;
+import com.example.tfgenerator.validator.EnvironmentValidator;
+import com.example.tfgenerator.validator.ValidatedEnvironment;
+
+/**
+ * Generates several environments as one monorepo archive. The resource files are
+ * written once into a shared module under {@code modules/}, and each environment
+ * gets only a {@code main.tf} that calls the module and its own
+ * {@code terraform.tfvars} under {@code envs/<name>/}.
+ * <p>
+ * Environments whose resource files render identically share a module; when the
+ * service selections differ, each distinct selection gets a module of its own.
+ * Each distinct shared file is rendered once per bundle, and entries whose content
+ * already appears in the archive are stored as links where the format has them.
+ */
+@Service
+public class BundleService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BundleService.class);
+
+    static final String MODULE_VARIABLES_TEMPLATE = "bundle_module_variables.tf.ftl";
+    static final String ENVIRONMENT_TEMPLATE = "bundle_environment.tf.ftl";
+
+    private static final Set<TerraformFile> PER_ENVIRONMENT =
+            Collections.unmodifiableSet(EnumSet.of(TerraformFile.MAIN, TerraformFile.TERRAFORM_TFVARS));
+
+    private final EnvironmentValidator validator;
+    private final TerraformGenerationService generationService;
+    private final TerraformTemplateService templateService;
+    private final ArchiveWriters archiveWriters;
+    private final BufferPool bufferPool;
+    private final GenerationMetrics metrics;
+    private final int maxEnvironments;
+
+    public BundleService(EnvironmentValidator validator, TerraformGenerationService generationService,
+                         TerraformTemplateService templateService, ArchiveWriters archiveWriters,
+                         BufferPool bufferPool, GenerationMetrics metrics,
+                         @Value("${generator.bundle.max-environments:50}") int maxEnvironments) {
+        this.validator = validator;
+        this.generationService = generationService;
+        this.templateService = templateService;
+        this.archiveWriters = archiveWriters;
+        this.bufferPool = bufferPool;
+        this.metrics = metrics;
+        this.maxEnvironments = maxEnvironments;
+    }
+
+    /**
+     * Validates the bundle and every environment in it, so a bad request fails
+     * before any generation is queued.
+     */
+    public List<ValidatedEnvironment> validate(BundleRequest request) {
+        if (request == null) {
+            throw new ValidationException("Request body is null");
+        }
+        if (StringUtils.isBlank(request.getName()) || !EnvironmentValidator.isValidName(request.getName())) {
+            throw new ValidationException("Field 'name' must be lowercase alphanumeric with hyphens (2–64 chars)");
+        }
+        List<EnvironmentRequest> requests = request.getEnvironments();
+        if (requests == null || requests.isEmpty()) {
+            throw new ValidationException("Field 'environments' must contain at least one environment");
+        }
+        if (requests.size() > maxEnvironments) {
+            throw new ValidationException("A bundle can hold at most " + maxEnvironments + " environments");
+        }
+
+        List<ValidatedEnvironment> environments = new ArrayList<>(requests.size());
+        Set<String> names = new HashSet<>();
+        for (EnvironmentRequest environment : requests) {
+            ValidatedEnvironment validated = validator.validate(environment);
+            if (!names.add(validated.getName())) {
+                throw new ValidationException("Duplicate environment name '" + validated.getName() + "' in bundle");
+            }
+            environments.add(validated);
+        }
+        return environments;
+    }
+
+    public byte[] generate(String name, List<ValidatedEnvironment> environments, GenerationEngine engine,
+                           ArchiveFormat format) {
+        Utf8Buffer archive = bufferPool.acquire();
+        try {
+            write(name, environments, engine, format, archive.asOutputStream());
+            return archive.toByteArray();
+        } finally {
+            bufferPool.release(archive);
+        }
+    }
+
+    /**
+     * Writes the bundle archive to the stream, leaving the stream open.
+     *
+     * @param engine the engine to render with, or {@code null} for the configured default
+     */
+    public void write(String name, List<ValidatedEnvironment> environments, GenerationEngine engine,
+                      ArchiveFormat format, OutputStream out) {
+        metrics.generationStarted();
+        try {
+            doWrite(name, environments, engine, format, out);
+        } finally {
+            metrics.generationFinished();
+        }
+    }
+
+    private void doWrite(String name, List<ValidatedEnvironment> environments, GenerationEngine engine,
+                         ArchiveFormat format, OutputStream out) {
+        LOGGER.info("Start generating bundle {} with {} environments", name, environments.size());
+        long start = System.nanoTime();
+
+        List<RenderPlan> plans = new ArrayList<>(environments.size());
+        Map<String, Module> modules = new LinkedHashMap<>();
+        List<Module> moduleOf = new ArrayList<>(environments.size());
+        for (ValidatedEnvironment environment : environments) {
+            RenderPlan plan = generationService.createRenderPlan(environment, engine);
+            plans.add(plan);
+            Module module = new Module(plan);
+            moduleOf.add(modules.computeIfAbsent(module.signature, s -> module));
+        }
+        for (Module module : modules.values()) {
+            module.directory = modules.size() == 1
+                    ? "modules/common" : "modules/common-" + module.signature.substring(0, 8);
+        }
+
+        Utf8Buffer buffer = bufferPool.acquire();
+        try {
+            DeduplicatingWriter writer = new DeduplicatingWriter(archiveWriters.open(format, out));
+            // Shared files with the same inputs render the same, so each is rendered once.
+            Map<String, byte[]> rendered = new HashMap<>();
+            for (Module module : modules.values()) {
+                for (int i = 0; i < module.files.size(); i++) {
+                    TerraformFile file = module.files.get(i);
+                    byte[] content = rendered.computeIfAbsent(module.inputKeys.get(i),
+                            k -> render(file, module.plan, buffer));
+                    writer.add(module.directory + "/" + file.getFileName(), content, 0, content.length);
+                }
+                buffer.reset();
+                templateService.renderTo(MODULE_VARIABLES_TEMPLATE, module.wrapperModel(null), buffer);
+                writer.add(module.directory + "/variables.tf", buffer.array(), 0, buffer.size());
+            }
+
+            for (int i = 0; i < plans.size(); i++) {
+                RenderPlan plan = plans.get(i);
+                Module module = moduleOf.get(i);
+                String directory = "envs/" + environments.get(i).getName();
+
+                buffer.reset();
+                templateService.renderTo(TerraformFile.MAIN, plan.getModel(), plan.getEngine(), buffer);
+                buffer.write("\n\n");
+                templateService.renderTo(ENVIRONMENT_TEMPLATE,
+                        module.wrapperModel("../../" + module.directory), buffer);
+                templateService.renderTo(MODULE_VARIABLES_TEMPLATE, module.wrapperModel(null), buffer);
+                writer.add(directory + "/" + TerraformFile.MAIN.getFileName(), buffer.array(), 0, buffer.size());
+
+                buffer.reset();
+                templateService.renderTo(TerraformFile.TERRAFORM_TFVARS, plan.getModel(), plan.getEngine(), buffer);
+                writer.add(directory + "/" + TerraformFile.TERRAFORM_TFVARS.getFileName(),
+                        buffer.array(), 0, buffer.size());
+            }
+            writer.finish();
+
+            LOGGER.info("Finished bundle {}: {} environments, {} modules, {} entries stored as links",
+                    name, environments.size(), modules.size(), writer.links);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write " + format.getCode() + " bundle", e);
+        } finally {
+            bufferPool.release(buffer);
+        }
+        metrics.recordBundle(System.nanoTime() - start);
+    }
+
+    private byte[] render(TerraformFile file, RenderPlan plan, Utf8Buffer buffer) {
+        buffer.reset();
+        templateService.renderTo(file, plan.getModel(), plan.getEngine(), buffer);
+        return buffer.toByteArray();
+    }
+
+    /**
+     * The shared files of one environment, identified by the inputs they render from.
+     * Environments with the same signature use the same module.
+     */
+    private final class Module {
+
+        final RenderPlan plan;
+        final List<TerraformFile> files = new ArrayList<>();
+        final List<String> inputKeys = new ArrayList<>();
+        final String signature;
+        String directory;
+
+        Module(RenderPlan plan) {
+            this.plan = plan;
+            StringBuilder signature = new StringBuilder();
+            for (TerraformFile file : plan.getFiles()) {
+                if (!PER_ENVIRONMENT.contains(file) && file != TerraformFile.VARIABLES) {
+                    String key = templateService.inputKey(file, plan.getModel());
+                    files.add(file);
+                    inputKeys.add(key);
+                    signature.append(file.getFileName()).append('=').append(key).append('\n');
+                }
+            }
+            this.signature = Hashes.sha256Hex(signature.toString());
+        }
+
+        Map<String, Object> wrapperModel(String moduleSource) {
+            Map<String, Object> model = new HashMap<>();
+            model.put("rdsEnabled", plan.getModel().get("rdsEnabled"));
+            model.put("rdsInstances", plan.getModel().get("rdsInstances"));
+            if (moduleSource != null) {
+                model.put("moduleSource", moduleSource);
+            }
+            return model;
+        }
+    }
+
+    /**
+     * Adds each distinct content once and links later entries with the same content
+     * to the first one.
+     */
+    private static final class DeduplicatingWriter {
+
+        private final ArchiveWriter writer;
+        private final Map<String, String> firstByContent = new HashMap<>();
+        private final MessageDigest digest = Hashes.sha256();
+        int links;
+
+        DeduplicatingWriter(ArchiveWriter writer) {
+            this.writer = writer;
+        }
+
+        void add(String name, byte[] content, int offset, int length) throws IOException {
+            digest.update(content, offset, length);
+            String hash = Hashes.toHex(digest.digest());
+            String first = firstByContent.putIfAbsent(hash, name);
+            if (first != null && writer.addLink(name, first)) {
+                links++;
+                return;
+            }
+            writer.addEntry(name, content, offset, length);
+        }
+
+        void finish() throws IOException {
+            writer.finish();
+        }
+    }
+}
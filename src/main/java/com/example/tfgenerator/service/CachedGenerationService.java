@@ -0,0 +1,269 @@
+package com.example.tfgenerator.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.example.tfgenerator.archive.ArchiveFormat;
+import com.example.tfgenerator.cluster.PeerCache;
+import com.example.tfgenerator.dto.ApiResponse;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.metrics.GenerationMetrics;
+import com.example.tfgenerator.model.GenerationEngine;
+import com.example.tfgenerator.model.TerraformResponse;
+import com.example.tfgenerator.util.RequestFingerprint;
+import com.example.tfgenerator.util.SingleFlight;
+import com.example.tfgenerator.validator.EnvironmentValidator;
+import com.example.tfgenerator.validator.ValidatedEnvironment;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Serves generated projects from {@link GenerationCache}, validating and rendering
+ * only on a miss. Generation is deterministic, so a request's fingerprint also
+ * serves as the strong ETag of its output.
+ * <p>
+ * Archives and the gzipped JSON body are also kept in the {@link ArtifactStore},
+ * which is checked after the in-memory cache and survives restarts. A store hit
+ * still validates the request, since the store is not cleared when VPC allocations
+ * change, but renders and compresses nothing.
+ * <p>
+ * Concurrent misses for the same fingerprint, typically CI jobs fanning out the
+ * same request, share one render, one archive per format and one compressed JSON
+ * body through {@link SingleFlight}. The callers that waited are counted in
+ * {@code terraform.generation.coalesced}.
+ * <p>
+ * With {@code generator.cluster.enabled}, a miss is first sent to the replica that
+ * owns the fingerprint through the {@link PeerCache}, and rendered here only if that
+ * replica is this one or does not answer.
+ */
+@Service
+public class CachedGenerationService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachedGenerationService.class);
+
+    static final String JSON_GZIP = "json.gz";
+
+    private final EnvironmentValidator validator;
+    private final TerraformGenerationService generationService;
+    private final GenerationCache cache;
+    private final ArtifactStore artifactStore;
+    private final ObjectMapper objectMapper;
+    private final PeerCache peerCache;
+
+    private final SingleFlight<String, TerraformResponse> renders = new SingleFlight<>();
+    private final SingleFlight<String, byte[]> archives = new SingleFlight<>();
+    private final SingleFlight<String, ByteBuffer> jsonBodies = new SingleFlight<>();
+
+    public CachedGenerationService(EnvironmentValidator validator, TerraformGenerationService generationService,
+                                   GenerationCache cache) {
+        this(validator, generationService, cache, new ArtifactStore(null, null),
+                new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL), PeerCache.disabled(),
+                null);
+    }
+
+    /**
+     * @param metrics where to publish the coalescing counters, or {@code null}
+     */
+    @Autowired
+    public CachedGenerationService(EnvironmentValidator validator, TerraformGenerationService generationService,
+                                   GenerationCache cache, ArtifactStore artifactStore, ObjectMapper objectMapper,
+                                   PeerCache peerCache, GenerationMetrics metrics) {
+        this.validator = validator;
+        this.generationService = generationService;
+        this.cache = cache;
+        this.artifactStore = artifactStore;
+        this.objectMapper = objectMapper;
+        this.peerCache = peerCache;
+        if (metrics != null) {
+            metrics.registerCoalesced("project", renders);
+            metrics.registerCoalesced("archive", archives);
+            metrics.registerCoalesced("json_gzip", jsonBodies);
+        }
+    }
+
+    public String fingerprint(EnvironmentRequest request) {
+        return RequestFingerprint.of(request);
+    }
+
+    /**
+     * The fingerprint of the request's output from this engine. Output of the default
+     * engine keeps the bare fingerprint, so it stays shared with peers, which render
+     * with their default. A reloaded template changes only what FreeMarker renders,
+     * so the engines do not share entries.
+     *
+     * @param engine the engine asked for, or {@code null} for the configured default
+     */
+    public String fingerprint(EnvironmentRequest request, GenerationEngine engine) {
+        String key = fingerprint(request);
+        return isDefault(engine) ? key : key + "-" + engine.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Whether a project for this fingerprint is cached, which also means the request
+     * behind it has already passed validation.
+     */
+    public boolean isCached(String key) {
+        return cache.contains(key);
+    }
+
+    public TerraformResponse generate(String key, EnvironmentRequest request) {
+        return generate(key, request, null);
+    }
+
+    /**
+     * @param key the fingerprint of the request for this engine
+     * @param engine the engine to render with on a miss, or {@code null} for the configured default
+     */
+    public TerraformResponse generate(String key, EnvironmentRequest request, GenerationEngine engine) {
+        GenerationCache.Entry entry = cache.get(key);
+        if (entry != null) {
+            LOGGER.debug("Serving cached Terraform project {} for {}", key, request.getName());
+            return entry.getResponse();
+        }
+        return render(key, request, engine, true);
+    }
+
+    /**
+     * The project for another replica that owns this fingerprint, from this
+     * replica's cache or rendered here, without asking any other peer.
+     */
+    public TerraformResponse generateForPeer(String key, EnvironmentRequest request) {
+        GenerationCache.Entry entry = cache.get(key);
+        return entry != null ? entry.getResponse() : render(key, request, null, false);
+    }
+
+    public ByteBuffer generateZip(String key, EnvironmentRequest request) {
+        return generateZip(key, request, null);
+    }
+
+    public ByteBuffer generateZip(String key, EnvironmentRequest request, GenerationEngine engine) {
+        return generateArchive(key, request, engine, ArchiveFormat.ZIP);
+    }
+
+    public ByteBuffer generateArchive(String key, EnvironmentRequest request, GenerationEngine engine,
+                                      ArchiveFormat format) {
+        return archive(key, request, engine, format, true);
+    }
+
+    /**
+     * The archive for another replica, as {@link #generateForPeer}.
+     */
+    public ByteBuffer generateArchiveForPeer(String key, EnvironmentRequest request, ArchiveFormat format) {
+        return archive(key, request, null, format, false);
+    }
+
+    private ByteBuffer archive(String key, EnvironmentRequest request, GenerationEngine engine, ArchiveFormat format,
+                               boolean askPeers) {
+        GenerationCache.Entry entry = cache.get(key);
+        byte[] cached = entry != null ? entry.getArchive(format) : null;
+        if (cached != null) {
+            LOGGER.debug("Serving cached {} archive {} for {}", format.getCode(), key, request.getName());
+            return ByteBuffer.wrap(cached);
+        }
+        if (entry == null) {
+            ByteBuffer stored = findStored(key, request, format.getCode());
+            if (stored != null) {
+                return stored;
+            }
+        }
+        return ByteBuffer.wrap(archives.run(key + '/' + format.getCode(), () -> {
+            if (entry == null && askPeers && isDefault(engine) && peerCache.remoteOwner(key) != null) {
+                validator.validate(request);
+                byte[] fetched = peerCache.fetchArchive(key, request, format);
+                if (fetched != null) {
+                    return fetched;
+                }
+            }
+            TerraformResponse response = entry != null ? entry.getResponse() : render(key, request, engine, askPeers);
+            byte[] archive = generationService.generateArchive(response, format);
+            cache.putArchive(key, format, archive);
+            artifactStore.put(key, format.getCode(), archive);
+            return archive;
+        }));
+    }
+
+    public boolean isStoringArtifacts() {
+        return artifactStore.isEnabled();
+    }
+
+    /**
+     * The gzipped JSON body of a validated request if it is in the artifact store,
+     * else {@code null}. Cheap enough to call on a request thread.
+     */
+    public ByteBuffer findJsonGzip(String key, EnvironmentRequest request) {
+        return findStored(key, request, JSON_GZIP);
+    }
+
+    /**
+     * The {@code ApiResponse<TerraformResponse>} body as gzip, from the store or
+     * generated, serialized and compressed once and stored.
+     */
+    public ByteBuffer generateJsonGzip(String key, EnvironmentRequest request, GenerationEngine engine) {
+        ByteBuffer stored = cache.contains(key) ? null : findJsonGzip(key, request);
+        if (stored != null) {
+            return stored;
+        }
+        return jsonBodies.run(key, () -> {
+            TerraformResponse response = generate(key, request, engine);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+                objectMapper.writeValue(gzip, new ApiResponse<TerraformResponse>(true, response, null));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to compress JSON for " + request.getName(), e);
+            }
+            byte[] body = bytes.toByteArray();
+            artifactStore.put(key, JSON_GZIP, body);
+            return ByteBuffer.wrap(body);
+        }).duplicate();
+    }
+
+    /**
+     * Callers that shared another caller's render, archive or compressed JSON body
+     * instead of producing their own.
+     */
+    public long coalesced() {
+        return renders.coalesced() + archives.coalesced() + jsonBodies.coalesced();
+    }
+
+    private ByteBuffer findStored(String key, EnvironmentRequest request, String artifact) {
+        ByteBuffer stored = artifactStore.get(key, artifact);
+        if (stored != null) {
+            validator.validate(request);
+            LOGGER.debug("Serving stored {} {} for {}", artifact, key, request.getName());
+        }
+        return stored;
+    }
+
+    /**
+     * Validates here even when the owner renders, as for stored artifacts, since VPC
+     * allocations are per replica. A project fetched from the owner is also cached
+     * here.
+     */
+    private TerraformResponse render(String key, EnvironmentRequest request, GenerationEngine engine,
+                                     boolean askPeers) {
+        return renders.run(key, () -> {
+            ValidatedEnvironment environment = validator.validate(request);
+            TerraformResponse response = askPeers && isDefault(engine) ? peerCache.fetchProject(key, request) : null;
+            if (response == null) {
+                response = generationService.generate(environment, engine);
+            }
+            cache.put(key, response);
+            return response;
+        });
+    }
+
+    /**
+     * Peers render with their default engine, so only its output is fetched from them.
+     */
+    private boolean isDefault(GenerationEngine engine) {
+        return engine == null || engine == generationService.resolveEngine(null);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.tfgenerator.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.model.EnvironmentDiff;
+import com.example.tfgenerator.model.FileDiff;
+import com.example.tfgenerator.model.TerraformFile;
+import com.example.tfgenerator.validator.EnvironmentValidator;
+
+import com.github.difflib.DiffUtils;
+import com.github.difflib.UnifiedDiffUtils;
+import com.github.difflib.patch.Patch;
+
+/**
+ * Compares the projects generated for two versions of an environment. Only files
+ * whose declared template inputs differ are rendered and diffed, so the work done
+ * follows the size of the change rather than the size of the project.
+ */
+@Service
+public class EnvironmentDiffService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EnvironmentDiffService.class);
+
+    private static final int CONTEXT_LINES = 3;
+    private static final String NO_FILE = "/dev/null";
+
+    private final EnvironmentValidator validator;
+    private final TerraformGenerationService generationService;
+    private final TerraformTemplateService templateService;
+
+    public EnvironmentDiffService(EnvironmentValidator validator, TerraformGenerationService generationService,
+                                  TerraformTemplateService templateService) {
+        this.validator = validator;
+        this.generationService = generationService;
+        this.templateService = templateService;
+    }
+
+    public EnvironmentDiff diff(EnvironmentRequest previous, EnvironmentRequest current) {
+        RenderPlan before = generationService.createRenderPlan(validator.validate(previous));
+        RenderPlan after = generationService.createRenderPlan(validator.validate(current));
+
+        List<FileDiff> changed = new ArrayList<>();
+        List<String> unchanged = new ArrayList<>();
+        int rendered = 0;
+        for (TerraformFile file : TerraformFile.values()) {
+            boolean wasIncluded = before.includes(file);
+            boolean isIncluded = after.includes(file);
+            if (!wasIncluded && !isIncluded) {
+                continue;
+            }
+            if (wasIncluded && isIncluded && !inputsChanged(file, before.getModel(), after.getModel())) {
+                unchanged.add(file.getFileName());
+                continue;
+            }
+
+            String oldContent = wasIncluded ? templateService.render(file, before.getModel()) : null;
+            String newContent = isIncluded ? templateService.render(file, after.getModel()) : null;
+            rendered++;
+            if (Objects.equals(oldContent, newContent)) {
+                unchanged.add(file.getFileName());
+            } else {
+                changed.add(diff(file.getFileName(), oldContent, newContent));
+            }
+        }
+
+        LOGGER.info("Diffed {} against previous version: {} files changed, {} rendered",
+                current.getName(), changed.size(), rendered);
+        return new EnvironmentDiff(changed, unchanged);
+    }
+
+    private static boolean inputsChanged(TerraformFile file, Map<String, Object> before, Map<String, Object> after) {
+        for (String input : file.getInputs()) {
+            if (!Objects.equals(before.get(input), after.get(input))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static FileDiff diff(String fileName, String oldContent, String newContent) {
+        List<String> oldLines = lines(oldContent);
+        List<String> newLines = lines(newContent);
+        Patch<String> patch = DiffUtils.diff(oldLines, newLines);
+        List<String> unified = UnifiedDiffUtils.generateUnifiedDiff(
+                oldContent != null ? "a/" + fileName : NO_FILE,
+                newContent != null ? "b/" + fileName : NO_FILE,
+                oldLines, patch, CONTEXT_LINES);
+
+        String status = oldContent == null ? "added" : newContent == null ? "removed" : "modified";
+        return new FileDiff(fileName, status, String.join("\n", unified) + "\n");
+    }
+
+    private static List<String> lines(String content) {
+        if (content == null || content.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(content.split("\n", -1));
+    }
+}
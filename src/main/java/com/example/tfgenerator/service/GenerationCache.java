@@ -0,0 +1,178 @@
+package com.example.tfgenerator.service;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.tfgenerator.archive.ArchiveFormat;
+import com.example.tfgenerator.ipam.VpcAllocationsChangedEvent;
+import com.example.tfgenerator.model.CacheStats;
+import com.example.tfgenerator.model.TerraformFile;
+import com.example.tfgenerator.model.TerraformResponse;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * LRU cache of generated projects keyed by request fingerprint, bounded by the
+ * approximate heap size of the cached files and archives rather than by count.
+ */
+@Component
+public class GenerationCache implements MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(GenerationCache.class);
+
+    private static final long ENTRY_OVERHEAD = 256;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long sizeBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public GenerationCache(@Value("${generator.cache.max-bytes:67108864}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public Entry get(String key) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        (entry != null ? hits : misses).incrementAndGet();
+        return entry;
+    }
+
+    public synchronized boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    public void put(String key, TerraformResponse response) {
+        store(key, new Entry(response, new EnumMap<>(ArchiveFormat.class)));
+    }
+
+    public void putZip(String key, byte[] zip) {
+        putArchive(key, ArchiveFormat.ZIP, zip);
+    }
+
+    /**
+     * Attaches an archive to an already cached project. Does nothing if the project
+     * has been evicted in the meantime.
+     */
+    public synchronized void putArchive(String key, ArchiveFormat format, byte[] archive) {
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.archives.containsKey(format)) {
+            EnumMap<ArchiveFormat, byte[]> archives = new EnumMap<>(entry.archives);
+            archives.put(format, archive);
+            store(key, new Entry(entry.response, archives));
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        sizeBytes = 0;
+    }
+
+    @EventListener(TemplatesReloadedEvent.class)
+    public void onTemplatesReloaded() {
+        LOGGER.info("Templates reloaded, clearing generation cache");
+        clear();
+    }
+
+    /**
+     * Cached entries stand in for a successful validation, which includes the VPC
+     * overlap check, so they are dropped whenever allocations change.
+     */
+    @EventListener(VpcAllocationsChangedEvent.class)
+    public void onVpcAllocationsChanged() {
+        LOGGER.info("VPC allocations changed, clearing generation cache");
+        clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("terraform.cache.requests", hits, AtomicLong::get)
+                .description("Generation cache lookups").tag("result", "hit").register(registry);
+        FunctionCounter.builder("terraform.cache.requests", misses, AtomicLong::get)
+                .description("Generation cache lookups").tag("result", "miss").register(registry);
+        FunctionCounter.builder("terraform.cache.evictions", evictions, AtomicLong::get)
+                .description("Projects evicted from the generation cache").register(registry);
+        Gauge.builder("terraform.cache.size", this, cache -> cache.stats().getSizeBytes())
+                .description("Approximate size of cached projects").baseUnit("bytes").register(registry);
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits.get(), misses.get(), evictions.get(), entries.size(), sizeBytes, maxBytes);
+    }
+
+    private synchronized void store(String key, Entry entry) {
+        if (entry.weight > maxBytes) {
+            return;
+        }
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            sizeBytes -= previous.weight;
+        }
+        sizeBytes += entry.weight;
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (sizeBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> evicted = eldest.next();
+            eldest.remove();
+            sizeBytes -= evicted.getValue().weight;
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * A cached project. The response is shared between callers and must not be modified.
+     */
+    public static final class Entry {
+
+        private final TerraformResponse response;
+        private final EnumMap<ArchiveFormat, byte[]> archives;
+        private final long weight;
+
+        private Entry(TerraformResponse response, EnumMap<ArchiveFormat, byte[]> archives) {
+            this.response = response;
+            this.archives = archives;
+            this.weight = weigh(response, archives);
+        }
+
+        public TerraformResponse getResponse() {
+            return response;
+        }
+
+        public byte[] getZip() {
+            return getArchive(ArchiveFormat.ZIP);
+        }
+
+        public byte[] getArchive(ArchiveFormat format) {
+            return archives.get(format);
+        }
+
+        private static long weigh(TerraformResponse response, EnumMap<ArchiveFormat, byte[]> archives) {
+            long weight = ENTRY_OVERHEAD;
+            for (TerraformFile file : TerraformFile.values()) {
+                String content = file.getContent(response);
+                weight += content != null ? 2L * content.length() : 0;
+            }
+            for (byte[] archive : archives.values()) {
+                weight += archive.length;
+            }
+            return weight;
+        }
+    }
+}
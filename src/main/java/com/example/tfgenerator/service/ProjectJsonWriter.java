@@ -0,0 +1,90 @@
+package com.example.tfgenerator.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.tfgenerator.metrics.GenerationMetrics;
+import com.example.tfgenerator.model.GenerationEngine;
+import com.example.tfgenerator.model.TerraformFile;
+import com.example.tfgenerator.util.Utf8Buffer;
+import com.example.tfgenerator.validator.ValidatedEnvironment;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes a project as the same {@code ApiResponse<TerraformResponse>} JSON the
+ * environments endpoint returns, but one file at a time. Each file is rendered as
+ * UTF-8 into a pooled buffer, escaped straight from those bytes into its field and
+ * flushed, so the client starts receiving the body after the first file and memory
+ * is bounded by the largest file rather than the whole project.
+ * <p>
+ * Once the first bytes are out the status can no longer change, so a render
+ * failure part way through ends the stream with truncated JSON.
+ */
+@Service
+public class ProjectJsonWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProjectJsonWriter.class);
+
+    private final TerraformGenerationService generationService;
+    private final TerraformTemplateService templateService;
+    private final ObjectMapper objectMapper;
+    private final BufferPool bufferPool;
+    private final GenerationMetrics metrics;
+
+    public ProjectJsonWriter(TerraformGenerationService generationService, TerraformTemplateService templateService,
+                             ObjectMapper objectMapper, BufferPool bufferPool, GenerationMetrics metrics) {
+        this.generationService = generationService;
+        this.templateService = templateService;
+        this.objectMapper = objectMapper;
+        this.bufferPool = bufferPool;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param engine the engine to render with, or {@code null} for the configured default
+     */
+    public void write(ValidatedEnvironment environment, GenerationEngine engine, OutputStream out) throws IOException {
+        metrics.generationStarted();
+        try {
+            doWrite(environment, engine, out);
+        } finally {
+            metrics.generationFinished();
+        }
+    }
+
+    private void doWrite(ValidatedEnvironment environment, GenerationEngine engine, OutputStream out)
+            throws IOException {
+        LOGGER.info("Start streaming JSON for: {}", environment.getName());
+        RenderPlan plan = generationService.createRenderPlan(environment, engine);
+        Utf8Buffer buffer = bufferPool.acquire();
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            // The generator must not close the servlet stream; the container does that.
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.writeStartObject();
+            json.writeBooleanField("success", true);
+            json.writeObjectFieldStart("data");
+            for (TerraformFile file : TerraformFile.values()) {
+                json.writeFieldName(file.getJsonField());
+                if (plan.includes(file)) {
+                    buffer.reset();
+                    templateService.renderTo(file, plan.getModel(), plan.getEngine(), buffer);
+                    json.writeUTF8String(buffer.array(), 0, buffer.size());
+                } else {
+                    json.writeString("");
+                }
+                json.flush();
+            }
+            json.writeEndObject();
+            json.writeEndObject();
+        } finally {
+            bufferPool.release(buffer);
+        }
+        LOGGER.info("Finished streaming JSON for: {}", environment.getName());
+    }
+}
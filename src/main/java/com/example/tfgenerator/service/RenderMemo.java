@@ -0,0 +1,161 @@
+package com.example.tfgenerator.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.tfgenerator.model.GenerationEngine;
+import com.example.tfgenerator.model.TerraformFile;
+import com.example.tfgenerator.util.Hashes;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Rendered output of single templates, keyed by a hash of only the model values
+ * each template declares as its inputs. Requests that differ in values a template
+ * does not read share that template's output. Output is held UTF-8 encoded, so it
+ * can be copied straight into archives and takes half the heap of a {@code String}.
+ */
+@Component
+public class RenderMemo implements MeterBinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RenderMemo.class);
+
+    private static final long ENTRY_OVERHEAD = 128;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long sizeBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public RenderMemo(@Value("${generator.render.memo.max-bytes:16777216}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Key for the template's output under this model: the file plus a SHA-256 of the
+     * declared input values, written length-prefixed with maps in key order and lists
+     * in their own order.
+     */
+    public String key(TerraformFile file, Map<String, Object> model) {
+        List<String> inputs = file.getInputs();
+        if (inputs.isEmpty()) {
+            return file.name();
+        }
+        StringBuilder canonical = new StringBuilder(128);
+        for (String input : inputs) {
+            append(canonical, model.get(input));
+        }
+        return file.name() + ':' + Hashes.sha256Hex(canonical.toString());
+    }
+
+    /**
+     * Key for the output of one engine. The engines agree on the templates they were
+     * built from, but a reloaded template changes only what FreeMarker renders.
+     */
+    public String key(TerraformFile file, GenerationEngine engine, Map<String, Object> model) {
+        return engine.name() + '/' + key(file, model);
+    }
+
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    public byte[] get(String key) {
+        if (maxBytes <= 0) {
+            return null;
+        }
+        byte[] output;
+        synchronized (this) {
+            output = entries.get(key);
+        }
+        (output != null ? hits : misses).incrementAndGet();
+        return output;
+    }
+
+    public synchronized void put(String key, byte[] output) {
+        long weight = weigh(key, output);
+        if (weight > maxBytes) {
+            return;
+        }
+        byte[] previous = entries.put(key, output);
+        if (previous != null) {
+            sizeBytes -= weigh(key, previous);
+        }
+        sizeBytes += weight;
+
+        Iterator<Map.Entry<String, byte[]>> eldest = entries.entrySet().iterator();
+        while (sizeBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, byte[]> evicted = eldest.next();
+            eldest.remove();
+            sizeBytes -= weigh(evicted.getKey(), evicted.getValue());
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        sizeBytes = 0;
+    }
+
+    @EventListener(TemplatesReloadedEvent.class)
+    public void onTemplatesReloaded() {
+        LOGGER.info("Templates reloaded, clearing render memo");
+        clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("terraform.render.memo.requests", hits, AtomicLong::get)
+                .description("Template render memo lookups").tag("result", "hit").register(registry);
+        FunctionCounter.builder("terraform.render.memo.requests", misses, AtomicLong::get)
+                .description("Template render memo lookups").tag("result", "miss").register(registry);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static long weigh(String key, byte[] output) {
+        return ENTRY_OVERHEAD + 2L * key.length() + output.length;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void append(StringBuilder canonical, Object value) {
+        if (value == null) {
+            canonical.append('~');
+        } else if (value instanceof Map) {
+            Map<String, Object> sorted = new TreeMap<>((Map<String, Object>) value);
+            canonical.append('{').append(sorted.size());
+            for (Map.Entry<String, Object> entry : sorted.entrySet()) {
+                append(canonical, entry.getKey());
+                append(canonical, entry.getValue());
+            }
+        } else if (value instanceof List) {
+            List<Object> list = (List<Object>) value;
+            canonical.append('[').append(list.size());
+            for (Object element : list) {
+                append(canonical, element);
+            }
+        } else {
+            String text = value.toString();
+            canonical.append(text.length()).append(':').append(text);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.tfgenerator.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.example.tfgenerator.model.GenerationEngine;
+import com.example.tfgenerator.model.TerraformFile;
+
+/**
+ * The data model for one environment together with the files that actually
+ * need rendering for it. Both the JSON and the download paths work from the
+ * same plan, so they always agree on which templates are skipped.
+ */
+public class RenderPlan {
+
+    private final Map<String, Object> model;
+    private final List<TerraformFile> files;
+    private final GenerationEngine engine;
+
+    private RenderPlan(Map<String, Object> model, List<TerraformFile> files, GenerationEngine engine) {
+        this.model = model;
+        this.files = files;
+        this.engine = engine;
+    }
+
+    public static RenderPlan forModel(Map<String, Object> model) {
+        return forModel(model, null);
+    }
+
+    /**
+     * @param engine the engine to render with, or {@code null} for the configured default
+     */
+    public static RenderPlan forModel(Map<String, Object> model, GenerationEngine engine) {
+        List<TerraformFile> files = new ArrayList<>();
+        for (TerraformFile file : TerraformFile.values()) {
+            if (file.isRequired(model)) {
+                files.add(file);
+            }
+        }
+        return new RenderPlan(Collections.unmodifiableMap(model), Collections.unmodifiableList(files), engine);
+    }
+
+    public Map<String, Object> getModel() {
+        return model;
+    }
+
+    public List<TerraformFile> getFiles() {
+        return files;
+    }
+
+    public GenerationEngine getEngine() {
+        return engine;
+    }
+
+    public boolean includes(TerraformFile file) {
+        return files.contains(file);
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.tfgenerator.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import com.example.tfgenerator.archive.ArchiveFormat;
+import com.example.tfgenerator.dto.ApiResponse;
+import com.example.tfgenerator.dto.EcsConfig;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.dto.RdsConfig;
+import com.example.tfgenerator.dto.Services;
+import com.example.tfgenerator.model.GenerationEngine;
+import com.example.tfgenerator.model.TerraformResponse;
+import com.example.tfgenerator.trace.SlowRequestLog;
+import com.example.tfgenerator.validator.EnvironmentValidator;
+import com.example.tfgenerator.validator.ValidatedEnvironment;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Runs synthetic requests through validation, every engine, JSON serialization and
+ * every archive format before the application reports itself ready, so class
+ * loading and JIT compilation happen here rather than in the first real requests.
+ * <p>
+ * Spring Boot publishes the readiness state only after application runners finish,
+ * so {@code /actuator/health/readiness} answers {@code OUT_OF_SERVICE} until the
+ * warm-up is done. It stops after {@code generator.warmup.iterations} requests or
+ * {@code generator.warmup.max-millis}, whichever comes first, and a failure only
+ * ends it early. It bypasses the caches but counts in the generation metrics.
+ * <p>
+ * The in-process requests do not touch Tomcat, Spring MVC or the message
+ * converters, so it finishes with {@code generator.warmup.http-requests} requests
+ * to the application's own port, which also land in the caches and request
+ * metrics. The slow request log is cleared afterwards.
+ */
+@Component
+@ConditionalOnProperty(name = "generator.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private static final String[] RDS_ENGINES = { "postgres", "mysql" };
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    private final EnvironmentValidator validator;
+    private final TerraformGenerationService generationService;
+    private final ProjectJsonWriter projectJsonWriter;
+    private final ObjectMapper objectMapper;
+    private final SlowRequestLog slowRequestLog;
+    private final Environment environment;
+    private final int iterations;
+    private final int httpRequests;
+    private final long maxNanos;
+
+    public StartupWarmup(EnvironmentValidator validator, TerraformGenerationService generationService,
+                         ProjectJsonWriter projectJsonWriter, ObjectMapper objectMapper,
+                         SlowRequestLog slowRequestLog, Environment environment,
+                         @Value("${generator.warmup.iterations:500}") int iterations,
+                         @Value("${generator.warmup.http-requests:20}") int httpRequests,
+                         @Value("${generator.warmup.max-millis:15000}") long maxMillis) {
+        this.validator = validator;
+        this.generationService = generationService;
+        this.projectJsonWriter = projectJsonWriter;
+        this.objectMapper = objectMapper;
+        this.slowRequestLog = slowRequestLog;
+        this.environment = environment;
+        this.iterations = iterations;
+        this.httpRequests = httpRequests;
+        this.maxNanos = TimeUnit.MILLISECONDS.toNanos(maxMillis);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        GenerationEngine[] engines = GenerationEngine.values();
+        ArchiveFormat[] formats = ArchiveFormat.values();
+        int done = 0;
+        try {
+            while (done < iterations && System.nanoTime() - start < maxNanos) {
+                ValidatedEnvironment environment = validator.validate(request(done));
+                GenerationEngine engine = engines[done % engines.length];
+                TerraformResponse response = generationService.generate(environment, engine);
+                objectMapper.writeValueAsBytes(new ApiResponse<TerraformResponse>(true, response, null));
+                generationService.generateArchive(response, formats[done % formats.length]);
+                projectJsonWriter.write(environment, engine, DISCARD);
+                done++;
+            }
+            Integer port = environment.getProperty("local.server.port", Integer.class);
+            for (int i = 0; port != null && i < httpRequests && System.nanoTime() - start < maxNanos; i++) {
+                post(port, i % 2 == 0 ? "/api/v1/environments" : "/api/v1/download",
+                        objectMapper.writeValueAsBytes(request(iterations + i)));
+                done++;
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Warm-up stopped after {} requests", done, e);
+        }
+        slowRequestLog.clear();
+        LOGGER.info("Warm-up ran {} requests in {} ms", done,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static void post(int port, String path, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http", "localhost", port, path).openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+            int status = connection.getResponseCode();
+            try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (in != null) {
+                    StreamUtils.drain(in);
+                }
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Request {@code i} turns services on by the low bits of {@code i} and varies the
+     * name, block and tags, so each one renders rather than hitting the render memo.
+     */
+    static EnvironmentRequest request(int i) {
+        EnvironmentRequest request = new EnvironmentRequest();
+        request.setName("warmup-" + i);
+        request.setRegion(i % 2 == 0 ? "us-east-1" : "eu-west-1");
+        request.setVpcCidr("10." + (i & 0xff) + ".0.0/16");
+
+        Services services = new Services();
+        services.setS3Bucket((i & 1) != 0);
+        RdsConfig rds = new RdsConfig();
+        rds.setEnabled((i & 2) != 0);
+        if (rds.getEnabled()) {
+            rds.setEngine(RDS_ENGINES[(i >> 3) % RDS_ENGINES.length]);
+            rds.setInstanceClass("db.t3.micro");
+            rds.setDbName("warmupdb");
+            rds.setUsername("warmup");
+            rds.setPassword("WarmupPass-" + i);
+        }
+        services.setRds(rds);
+        EcsConfig ecs = new EcsConfig();
+        ecs.setEnabled((i & 4) != 0);
+        services.setEcsCluster(ecs);
+        request.setServices(services);
+
+        Map<String, String> tags = new LinkedHashMap<>();
+        for (int t = 0; t < i % 8; t++) {
+            tags.put("warmup-" + t, "value-" + i);
+        }
+        request.setTags(tags);
+        return request;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.tfgenerator.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.example.tfgenerator.util.Hashes;
+
+import freemarker.cache.FileTemplateLoader;
+import freemarker.core.ParseException;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+
+/**
+ * Every Terraform template in one resource, written at build time so a starting
+ * application reads a single file instead of scanning the classpath, and gets each
+ * template's source hash without hashing it again.
+ * <p>
+ * The build writes it with {@link #main(String[])}, which parses every template
+ * first and fails the build on the first one that does not parse. FreeMarker's
+ * parsed templates cannot be stored, so the sources are still parsed at startup,
+ * but a packaged template is known to parse.
+ * <p>
+ * Format: the magic {@code TFPK}, a format version, the number of templates, then
+ * each template's name, SHA-256 of its source and UTF-8 source.
+ */
+public final class TemplatePack {
+
+    public static final String RESOURCE = "/templates/terraform.pack";
+
+    private static final int MAGIC = 0x5446504b;
+    private static final int FORMAT_VERSION = 1;
+
+    private final List<Entry> entries;
+
+    TemplatePack(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * The packaged templates, or {@code null} if the application was built without them.
+     */
+    static TemplatePack load() throws IOException {
+        InputStream in = TemplatePack.class.getResourceAsStream(RESOURCE);
+        return in == null ? null : read(in);
+    }
+
+    static TemplatePack read(InputStream in) throws IOException {
+        try (DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+            if (data.readInt() != MAGIC || data.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported template pack " + RESOURCE);
+            }
+            int count = data.readInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String name = data.readUTF();
+                String hash = data.readUTF();
+                byte[] source = new byte[data.readInt()];
+                data.readFully(source);
+                entries.add(new Entry(name, hash, new String(source, StandardCharsets.UTF_8)));
+            }
+            return new TemplatePack(entries);
+        }
+    }
+
+    /**
+     * Reads and parses every template in the directory.
+     *
+     * @throws ParseException for the first template that does not parse
+     */
+    static TemplatePack build(Path directory) throws IOException {
+        Configuration config = new Configuration(Configuration.DEFAULT_INCOMPATIBLE_IMPROVEMENTS);
+        config.setTemplateLoader(new FileTemplateLoader(directory.getParent().toFile()));
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream =
+                     Files.newDirectoryStream(directory, "*" + TemplateRegistry.TEMPLATE_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        Collections.sort(files);
+        List<Entry> entries = new ArrayList<>(files.size());
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            new Template(TemplateRegistry.TEMPLATE_PREFIX + name, new StringReader(text), config);
+            entries.add(new Entry(name, Hashes.sha256Hex(text), text));
+        }
+        return new TemplatePack(entries);
+    }
+
+    void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(FORMAT_VERSION);
+        data.writeInt(entries.size());
+        for (Entry entry : entries) {
+            data.writeUTF(entry.getName());
+            data.writeUTF(entry.getHash());
+            byte[] source = entry.getSource().getBytes(StandardCharsets.UTF_8);
+            data.writeInt(source.length);
+            data.write(source);
+        }
+        data.flush();
+    }
+
+    /**
+     * Build step: {@code TemplatePack <template directory> <pack file>}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: TemplatePack <template directory> <pack file>");
+        }
+        TemplatePack pack = build(Paths.get(args[0]));
+        File target = new File(args[1]);
+        try (OutputStream out = Files.newOutputStream(target.toPath())) {
+            pack.write(out);
+        }
+        System.out.println("Packaged " + pack.getEntries().size() + " templates into " + target);
+    }
+
+    public static final class Entry {
+
+        private final String name;
+        private final String hash;
+        private final String source;
+
+        Entry(String name, String hash, String source) {
+            this.name = name;
+            this.hash = hash;
+            this.source = source;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public String getSource() {
+            return source;
+        }
+    }
+}
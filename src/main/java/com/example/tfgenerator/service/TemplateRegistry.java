@@ -0,0 +1,154 @@
+package com.example.tfgenerator.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import com.example.tfgenerator.util.Hashes;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+
+/**
+ * Holds every compiled template under {@code templates/terraform}.
+ *
+ * All templates are parsed once when the registry is created, from the
+ * {@link TemplatePack} written at build time when there is one. Lookups read an
+ * immutable map through a volatile field, so the render path never takes a lock;
+ * reloads build a new map and swap it in.
+ */
+@Component
+public class TemplateRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TemplateRegistry.class);
+
+    static final String TEMPLATE_PREFIX = "terraform/";
+    static final String TEMPLATE_SUFFIX = ".ftl";
+    private static final String TEMPLATE_PATTERN = "classpath:/templates/" + TEMPLATE_PREFIX + "*" + TEMPLATE_SUFFIX;
+
+    private final Configuration freemarkerConfig;
+
+    private volatile Map<String, Template> templates;
+    private volatile Map<String, String> sourceHashes;
+    private volatile String version;
+
+    public TemplateRegistry(Configuration freemarkerConfig) {
+        this.freemarkerConfig = freemarkerConfig;
+        loadAll();
+    }
+
+    public Template get(String templateName) {
+        Template template = templates.get(templateName);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown template: " + templateName);
+        }
+        return template;
+    }
+
+    public Set<String> names() {
+        return templates.keySet();
+    }
+
+    /**
+     * A digest of every template's source, which changes whenever any template does.
+     * Output stored across restarts is keyed by it.
+     */
+    public String version() {
+        return version;
+    }
+
+    /**
+     * Re-parses a single template from the given file and swaps it in. If the new
+     * source does not parse, the previously compiled template stays in service.
+     */
+    public synchronized boolean reload(String templateName, Path source) {
+        Template template;
+        String text;
+        try {
+            text = new String(Files.readAllBytes(source), StandardCharsets.UTF_8);
+            template = new Template(TEMPLATE_PREFIX + templateName, new StringReader(text), freemarkerConfig);
+        } catch (IOException e) {
+            LOGGER.error("Failed to reload template {} from {}, keeping previous version", templateName, source, e);
+            return false;
+        }
+
+        Map<String, Template> next = new HashMap<>(templates);
+        next.put(templateName, template);
+        Map<String, String> nextHashes = new HashMap<>(sourceHashes);
+        nextHashes.put(templateName, Hashes.sha256Hex(text));
+        publish(next, nextHashes);
+        LOGGER.info("Reloaded template {}", templateName);
+        return true;
+    }
+
+    private void loadAll() {
+        long start = System.nanoTime();
+        Map<String, Template> loaded = new HashMap<>();
+        Map<String, String> hashes = new HashMap<>();
+        String origin;
+        try {
+            TemplatePack pack = TemplatePack.load();
+            if (pack != null) {
+                origin = "template pack";
+                for (TemplatePack.Entry entry : pack.getEntries()) {
+                    loaded.put(entry.getName(), new Template(TEMPLATE_PREFIX + entry.getName(),
+                            new StringReader(entry.getSource()), freemarkerConfig));
+                    hashes.put(entry.getName(), entry.getHash());
+                }
+            } else {
+                origin = "classpath";
+                loadFromClasspath(loaded, hashes);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load terraform templates", e);
+        }
+        LOGGER.info("Compiled {} terraform templates from {} in {} ms: {}", loaded.size(), origin,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), loaded.keySet());
+        publish(loaded, hashes);
+    }
+
+    /**
+     * Used when the application was built without a {@link TemplatePack}, as when run
+     * from an IDE.
+     */
+    private void loadFromClasspath(Map<String, Template> loaded, Map<String, String> hashes) throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(TEMPLATE_PATTERN);
+        for (Resource resource : resources) {
+            String templateName = resource.getFilename();
+            String text;
+            try (InputStream in = resource.getInputStream()) {
+                text = StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+            }
+            loaded.put(templateName,
+                    new Template(TEMPLATE_PREFIX + templateName, new StringReader(text), freemarkerConfig));
+            hashes.put(templateName, Hashes.sha256Hex(text));
+        }
+    }
+
+    private void publish(Map<String, Template> next, Map<String, String> nextHashes) {
+        MessageDigest digest = Hashes.sha256();
+        for (Map.Entry<String, String> entry : new TreeMap<>(nextHashes).entrySet()) {
+            digest.update((entry.getKey() + "=" + entry.getValue() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        sourceHashes = Collections.unmodifiableMap(nextHashes);
+        version = Hashes.toHex(digest.digest());
+        templates = Collections.unmodifiableMap(next);
+    }
+}
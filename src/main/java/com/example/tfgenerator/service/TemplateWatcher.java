@@ -0,0 +1,98 @@
+package com.example.tfgenerator.service;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Development helper that watches the template source directory and reloads
+ * only the template that changed. Enabled with {@code generator.templates.watch.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "generator.templates.watch.enabled", havingValue = "true")
+public class TemplateWatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TemplateWatcher.class);
+
+    private final TemplateRegistry registry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path directory;
+
+    private WatchService watchService;
+    private Thread thread;
+
+    public TemplateWatcher(TemplateRegistry registry, ApplicationEventPublisher eventPublisher,
+                           @Value("${generator.templates.watch.dir}") String directory) {
+        this.registry = registry;
+        this.eventPublisher = eventPublisher;
+        this.directory = Paths.get(directory).toAbsolutePath();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            LOGGER.warn("Template watch directory {} does not exist, hot reload disabled", directory);
+            return;
+        }
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+
+        thread = new Thread(this::watch, "template-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        LOGGER.info("Watching {} for template changes", directory);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (!(context instanceof Path)) {
+                        continue;
+                    }
+                    String fileName = context.toString();
+                    if (fileName.endsWith(TemplateRegistry.TEMPLATE_SUFFIX)
+                            && registry.reload(fileName, directory.resolve(fileName))) {
+                        eventPublisher.publishEvent(new TemplatesReloadedEvent(this, fileName));
+                    }
+                }
+                if (!key.reset()) {
+                    LOGGER.warn("Template watch directory {} is no longer accessible", directory);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            LOGGER.debug("Template watcher stopped");
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.tfgenerator.service;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published after a template has been recompiled, so anything derived from the
+ * old template output can be dropped.
+ */
+public class TemplatesReloadedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String templateName;
+
+    public TemplatesReloadedEvent(Object source, String templateName) {
+        super(source);
+        this.templateName = templateName;
+    }
+
+    public String getTemplateName() {
+        return templateName;
+    }
+}
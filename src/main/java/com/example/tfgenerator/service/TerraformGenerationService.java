@@ -1,20 +1,37 @@
 package com.example.tfgenerator.service;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
-import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.archive.ArchiveFormat;
+import com.example.tfgenerator.archive.ArchiveWriter;
+import com.example.tfgenerator.archive.ArchiveWriters;
+import com.example.tfgenerator.dto.EcsServiceConfig;
+import com.example.tfgenerator.dto.RdsConfig;
+import com.example.tfgenerator.dto.S3BucketConfig;
+import com.example.tfgenerator.metrics.GenerationMetrics;
+import com.example.tfgenerator.model.GenerationEngine;
+import com.example.tfgenerator.model.RdsEngine;
+import com.example.tfgenerator.model.TerraformFile;
 import com.example.tfgenerator.model.TerraformResponse;
-import com.example.tfgenerator.util.CidrUtil;
+import com.example.tfgenerator.ipam.Subnet;
+import com.example.tfgenerator.util.Utf8Buffer;
+import com.example.tfgenerator.validator.ValidatedEnvironment;
 
 @Service
 public class TerraformGenerationService {
@@ -22,126 +39,337 @@ public class TerraformGenerationService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TerraformGenerationService.class);
 
+    /**
+     * Version of the output of the Java side of generation: the data model, the
+     * subnet plan and the HCL engine. Bump it with any change that alters the output
+     * for the same request and templates, so stored artifacts of older code are not
+     * served.
+     */
+    public static final int OUTPUT_VERSION = 1;
+
     private final TerraformTemplateService templateService;
+    private final Executor renderExecutor;
+    private final GenerationMetrics metrics;
+    private final BufferPool bufferPool;
+    private final ArchiveWriters archiveWriters;
 
-    public TerraformGenerationService(TerraformTemplateService templateService) {
-        this.templateService = templateService;
+    public TerraformGenerationService(TerraformTemplateService templateService, Executor renderExecutor,
+                                      GenerationMetrics metrics) {
+        this(templateService, renderExecutor, metrics, new BufferPool(4, 1048576), new ArchiveWriters(renderExecutor));
     }
 
-    public TerraformResponse generate(EnvironmentRequest request) {
-    	LOGGER.info("Start generating Terraform project for: {}", request.getName());
-        Map<String,Object> model = prepareDataModel(request);
-        TerraformResponse response = new TerraformResponse();
+    @Autowired
+    public TerraformGenerationService(TerraformTemplateService templateService,
+                                      @Qualifier("renderExecutor") Executor renderExecutor,
+                                      GenerationMetrics metrics, BufferPool bufferPool,
+                                      ArchiveWriters archiveWriters) {
+        this.templateService = templateService;
+        this.renderExecutor = renderExecutor;
+        this.metrics = metrics;
+        this.bufferPool = bufferPool;
+        this.archiveWriters = archiveWriters;
+    }
 
-        LOGGER.info("Generating Terraform files for {}", request.getName());
+    public TerraformResponse generate(ValidatedEnvironment environment) {
+        return generate(environment, null);
+    }
 
-        response.setMainTf(templateService.render("main.tf.ftl", model));
-        response.setVariablesTf(templateService.render("variables.tf.ftl", model));
-        response.setVpcTf(templateService.render("vpc.tf.ftl", model));
-        response.setOutputsTf(templateService.render("outputs.tf.ftl", model));
-        response.setTerraformTfvars(templateService.render("terraform.tfvars.ftl", model));
+    /**
+     * The engine that renders for this argument, resolving {@code null} to the configured default.
+     */
+    public GenerationEngine resolveEngine(GenerationEngine engine) {
+        return templateService.resolve(engine);
+    }
 
-        if (Boolean.TRUE.equals(request.getServices() != null ? request.getServices().getS3Bucket() : false)) {
-            response.setServicesS3Tf(templateService.render("services_s3.tf.ftl", model));
-        } else {
-            response.setServicesS3Tf("");
+    /**
+     * @param engine the engine to render with, or {@code null} for the configured default
+     */
+    public TerraformResponse generate(ValidatedEnvironment environment, GenerationEngine engine) {
+        metrics.generationStarted();
+        try {
+            return doGenerate(environment, engine);
+        } finally {
+            metrics.generationFinished();
         }
+    }
 
-        if (request.getServices() != null && request.getServices().getRds() != null && Boolean.TRUE.equals(request.getServices().getRds().getEnabled())) {
-            response.setServicesRdsTf(templateService.render("services_rds.tf.ftl", model));
-        } else {
-            response.setServicesRdsTf("");
+    private TerraformResponse doGenerate(ValidatedEnvironment environment, GenerationEngine engine) {
+    	LOGGER.info("Start generating Terraform project for: {}", environment.getName());
+        RenderPlan plan = createRenderPlan(environment, engine);
+
+        LOGGER.info("Generating Terraform files for {}: {}", environment.getName(), plan.getFiles());
+
+        Map<TerraformFile, CompletableFuture<String>> renders = new EnumMap<>(TerraformFile.class);
+        List<TerraformFile> files = plan.getFiles();
+        // The first file is rendered on the calling thread while the rest run on the executor.
+        for (int i = 1; i < files.size(); i++) {
+            TerraformFile file = files.get(i);
+            renders.put(file, CompletableFuture.supplyAsync(
+                    () -> templateService.render(file, plan.getModel(), plan.getEngine()), renderExecutor));
+        }
+        if (!files.isEmpty()) {
+            TerraformFile first = files.get(0);
+            renders.put(first, CompletableFuture.completedFuture(
+                    templateService.render(first, plan.getModel(), plan.getEngine())));
         }
 
-        if (request.getServices() != null && request.getServices().getEcsCluster() != null && Boolean.TRUE.equals(request.getServices().getEcsCluster().getEnabled())) {
-            response.setServicesEcsTf(templateService.render("services_ecs.tf.ftl", model));
-        } else {
-            response.setServicesEcsTf("");
+        TerraformResponse response = new TerraformResponse();
+        for (TerraformFile file : TerraformFile.values()) {
+            CompletableFuture<String> render = renders.get(file);
+            file.setContent(response, render != null ? join(render) : "");
         }
 
-        LOGGER.debug("Terraform generation complete for {}", request.getName());
-        LOGGER.info("Finished generating Terraform project for: {}", request.getName());
+        LOGGER.debug("Terraform generation complete for {}", environment.getName());
+        LOGGER.info("Finished generating Terraform project for: {}", environment.getName());
         return response;
     }
 
-    private Map<String,Object> prepareDataModel(EnvironmentRequest request) {
+    public RenderPlan createRenderPlan(ValidatedEnvironment environment) {
+        return createRenderPlan(environment, null);
+    }
+
+    public RenderPlan createRenderPlan(ValidatedEnvironment environment, GenerationEngine engine) {
+        long start = System.nanoTime();
+        RenderPlan plan = RenderPlan.forModel(prepareDataModel(environment), engine);
+        metrics.recordModel(System.nanoTime() - start);
+        return plan;
+    }
+
+    private static String join(CompletableFuture<String> render) {
+        try {
+            return render.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private Map<String,Object> prepareDataModel(ValidatedEnvironment environment) {
         Map<String,Object> model = new HashMap<>();
-        model.put("name", request.getName());
-        model.put("region", request.getRegion());
-        model.put("vpcCidr", request.getVpcCidr());
+        model.put("name", environment.getName());
+        model.put("region", environment.getRegion().getCode());
+        model.put("vpcCidr", environment.getVpcCidrText());
 
-        List<String> subnets = CidrUtil.splitCidr(request.getVpcCidr(), 2);
-        model.put("publicSubnetCidr", subnets.get(0));
-        model.put("privateSubnetCidr", subnets.get(1));
+        List<Subnet> subnets = environment.getSubnets();
+        int zoneCount = environment.getAvailabilityZones();
+        model.put("publicSubnetCidr", subnets.get(0).getCidr().toString());
+        model.put("privateSubnetCidr", subnets.get(zoneCount).getCidr().toString());
+        model.put("multiZone", environment.isMultiZone());
+        model.put("zones", zones(subnets, zoneCount));
+        model.put("privateSubnetIds", environment.isMultiZone() ? "local.private_subnet_ids" : "[aws_subnet.private.id]");
 
-        model.put("s3Enabled", request.getServices() != null && Boolean.TRUE.equals(request.getServices().getS3Bucket()));
+        model.put("s3Enabled", environment.isS3Enabled());
 
-        if (request.getServices() != null && request.getServices().getRds() != null && Boolean.TRUE.equals(request.getServices().getRds().getEnabled())) {
+        RdsConfig rds = environment.getRds();
+        if (rds != null) {
             model.put("rdsEnabled", true);
-            model.put("rdsEngine", request.getServices().getRds().getEngine());
-            model.put("rdsInstanceClass", request.getServices().getRds().getInstanceClass());
-            model.put("rdsDbName", request.getServices().getRds().getDbName());
-            model.put("rdsUsername", request.getServices().getRds().getUsername());
-            model.put("rdsPassword", request.getServices().getRds().getPassword());
+            model.put("rdsEngine", environment.getRdsEngine().getCode());
+            model.put("rdsInstanceClass", rds.getInstanceClass());
+            model.put("rdsDbName", rds.getDbName());
+            model.put("rdsUsername", rds.getUsername());
+            model.put("rdsPassword", rds.getPassword());
         } else {
             model.put("rdsEnabled", false);
         }
 
-        model.put("ecsEnabled", request.getServices() != null && request.getServices().getEcsCluster() != null && Boolean.TRUE.equals(request.getServices().getEcsCluster().getEnabled()));
+        model.put("ecsEnabled", environment.isEcsEnabled());
 
-        model.put("tags", request.getTags() != null ? request.getTags() : new HashMap<String,String>());
+        model.put("s3Buckets", s3Buckets(environment.getS3Buckets()));
+        model.put("rdsInstances", rdsInstances(environment.getRdsInstances(), environment.getRdsInstanceEngines()));
+        model.put("ecsServices", ecsServices(environment.getEcsServices()));
+
+        model.put("tags", environment.getTags());
 
         return model;
     }
+
+    /**
+     * The zones after the first, whose subnets are added to the original public and
+     * private ones. Numbers are passed as strings so templates print them as is.
+     */
+    private static List<Map<String, Object>> zones(List<Subnet> subnets, int zoneCount) {
+        List<Map<String, Object>> zones = new ArrayList<>(zoneCount - 1);
+        for (int zone = 1; zone < zoneCount; zone++) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("index", Integer.toString(zone));
+            entry.put("publicCidr", subnets.get(zone).getCidr().toString());
+            entry.put("privateCidr", subnets.get(zoneCount + zone).getCidr().toString());
+            zones.add(entry);
+        }
+        return zones;
+    }
+
+    private static List<Map<String, Object>> s3Buckets(List<S3BucketConfig> buckets) {
+        List<Map<String, Object>> entries = new ArrayList<>(buckets.size());
+        for (S3BucketConfig bucket : buckets) {
+            entries.add(entry("bucket_", bucket.getName()));
+        }
+        return entries;
+    }
+
+    private static List<Map<String, Object>> rdsInstances(List<RdsConfig> instances, List<RdsEngine> engines) {
+        List<Map<String, Object>> entries = new ArrayList<>(instances.size());
+        for (int i = 0; i < instances.size(); i++) {
+            RdsConfig rds = instances.get(i);
+            RdsEngine engine = engines.get(i);
+            Map<String, Object> entry = entry("db_", rds.getName());
+            entry.put("engine", engine.getCode());
+            entry.put("engineVersion", engine.getVersion());
+            entry.put("port", Integer.toString(engine.getPort()));
+            entry.put("logExports", engine.getLogExports());
+            entry.put("instanceClass", rds.getInstanceClass());
+            entry.put("dbName", rds.getDbName());
+            entry.put("username", rds.getUsername());
+            entry.put("password", rds.getPassword());
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private static List<Map<String, Object>> ecsServices(List<EcsServiceConfig> services) {
+        List<Map<String, Object>> entries = new ArrayList<>(services.size());
+        for (EcsServiceConfig service : services) {
+            Map<String, Object> entry = entry("svc_", service.getName());
+            entry.put("image", service.getImage());
+            entry.put("cpu", service.getCpu().toString());
+            entry.put("memory", service.getMemory().toString());
+            entry.put("desiredCount", service.getDesiredCount().toString());
+            if (service.getContainerPort() != null) {
+                entry.put("containerPort", service.getContainerPort().toString());
+            }
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * A list entry with its name and the label of its resources: the name behind a
+     * prefix, which keeps labels apart from the original {@code main} resources and
+     * valid when the name starts with a digit.
+     */
+    private static Map<String, Object> entry(String labelPrefix, String name) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("name", name);
+        entry.put("label", labelPrefix + name.replace('-', '_'));
+        return entry;
+    }
     
     public byte[] generateZip(TerraformResponse response) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ZipOutputStream zos = new ZipOutputStream(baos);
+        return generateArchive(response, ArchiveFormat.ZIP);
+    }
 
+    /**
+     * Archives the files of a generated project. The project holds its files as
+     * {@code String}s, as cached and served as JSON, so each is encoded to UTF-8 once
+     * here. The archive and each file's bytes are assembled in pooled buffers, so the
+     * only array allocated per call is the returned archive.
+     */
+    public byte[] generateArchive(TerraformResponse response, ArchiveFormat format) {
+        long start = System.nanoTime();
+        Utf8Buffer archive = bufferPool.acquire();
+        Utf8Buffer content = bufferPool.acquire();
         try {
-			addToZip(zos, "main.tf", response.getMainTf());
-			addToZip(zos, "variables.tf", response.getVariablesTf());
-	        addToZip(zos, "vpc.tf", response.getVpcTf());
-	        addToZip(zos, "services_s3.tf", response.getServicesS3Tf());
-	        addToZip(zos, "services_rds.tf", response.getServicesRdsTf());
-	        addToZip(zos, "services_ecs.tf", response.getServicesEcsTf());
-	        addToZip(zos, "outputs.tf", response.getOutputsTf());
-	        addToZip(zos, "terraform.tfvars", response.getTerraformTfvars());
-	        zos.close();
-	        return baos.toByteArray();
-		} catch (IOException e) {
-			throw new RuntimeException("Failed to generate ZIP file", e);
-		}
-    }
-
-    private void addToZip(ZipOutputStream zos, String fileName, String content){
-        if (content == null || content.isBlank()) return;
+            ArchiveWriter writer = archiveWriters.open(format, archive.asOutputStream());
+            for (TerraformFile file : TerraformFile.values()) {
+                addToArchive(writer, file.getFileName(), file.getContent(response), content);
+            }
+            writer.finish();
+            byte[] bytes = archive.toByteArray();
+            metrics.recordZip(System.nanoTime() - start, bytes.length);
+            return bytes;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to generate " + format.getCode() + " archive", e);
+        } finally {
+            bufferPool.release(content);
+            bufferPool.release(archive);
+        }
+    }
+
+    public void writeZip(ValidatedEnvironment environment, OutputStream out) {
+        writeArchive(environment, null, ArchiveFormat.ZIP, out);
+    }
+
+    public void writeZip(ValidatedEnvironment environment, GenerationEngine engine, OutputStream out) {
+        writeArchive(environment, engine, ArchiveFormat.ZIP, out);
+    }
 
-        ZipEntry entry = new ZipEntry(fileName);
+    /**
+     * Renders the project for the environment into an archive written to the given
+     * stream, one entry at a time, holding only the file being added. Each file is
+     * rendered as UTF-8 into a pooled buffer and handed to the archive in one write,
+     * since archive entries are added complete (see {@link ArchiveWriter}), so memory
+     * is bounded by the largest file. Blank files are left out, as in
+     * {@link #generateArchive}, so both paths produce the same entries. The stream
+     * itself is left open.
+     */
+    public void writeArchive(ValidatedEnvironment environment, GenerationEngine engine, ArchiveFormat format,
+                             OutputStream out) {
+        metrics.generationStarted();
         try {
-			zos.putNextEntry(entry);
-			zos.write(content.getBytes());
-	        zos.closeEntry();
-		} catch (IOException e) {
-			throw new RuntimeException("Failed writing " + fileName + " to ZIP", e);
-		}
-        
+            doWriteArchive(environment, engine, format, out);
+        } finally {
+            metrics.generationFinished();
+        }
     }
-    
-    public TerraformResponse generateTerraformProject(EnvironmentRequest request) {
-    	Map<String,Object> model = prepareDataModel(request);
-        TerraformResponse response = new TerraformResponse();
-        response.setMainTf(templateService.render("main.tf.ftl", model));
-        response.setVariablesTf(templateService.render("variables.tf.ftl", model));
-        response.setVpcTf(templateService.render("vpc.tf.ftl", model));
-        response.setServicesS3Tf(templateService.render("services_s3.tf.ftl", model));
-        response.setServicesRdsTf(templateService.render("services_rds.tf.ftl", model));
-        response.setServicesEcsTf(templateService.render("services_ecs.tf.ftl", model));
-        response.setOutputsTf(templateService.render("outputs.tf.ftl", model));
-        response.setTerraformTfvars(templateService.render("terraform.tfvars.ftl", model));
 
-        return response;
+    private void doWriteArchive(ValidatedEnvironment environment, GenerationEngine engine, ArchiveFormat format,
+                                OutputStream out) {
+        LOGGER.info("Start streaming Terraform project for: {}", environment.getName());
+        long start = System.nanoTime();
+        RenderPlan plan = createRenderPlan(environment, engine);
+        Utf8Buffer buffer = bufferPool.acquire();
+
+        try {
+            ArchiveWriter writer = archiveWriters.open(format, out);
+            for (TerraformFile file : plan.getFiles()) {
+                buffer.reset();
+                templateService.renderTo(file, plan.getModel(), plan.getEngine(), buffer);
+                if (!isBlank(buffer.array(), 0, buffer.size())) {
+                    writer.addEntry(file.getFileName(), buffer.array(), 0, buffer.size());
+                }
+            }
+            writer.finish();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to stream " + format.getCode() + " archive", e);
+        } finally {
+            bufferPool.release(buffer);
+        }
+        metrics.recordZip(System.nanoTime() - start, -1);
+        LOGGER.info("Finished streaming Terraform project for: {}", environment.getName());
     }
 
+    /**
+     * Whether UTF-8 bytes hold only whitespace, as {@link String#isBlank()} decides for
+     * the decoded text, so the streamed and buffered archives leave out the same files.
+     */
+    static boolean isBlank(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte b = bytes[i];
+            if (b < 0) {
+                return new String(bytes, i, to - i, StandardCharsets.UTF_8).isBlank();
+            }
+            if (!Character.isWhitespace(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
 
+    private void addToArchive(ArchiveWriter writer, String fileName, String content, Utf8Buffer buffer){
+        if (content == null || content.isBlank()) return;
+
+        try {
+            buffer.reset();
+            buffer.write(content);
+            writer.addEntry(fileName, buffer.array(), 0, buffer.size());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed writing " + fileName + " to archive", e);
+        }
+    }
+    
+    public TerraformResponse generateTerraformProject(ValidatedEnvironment environment) {
+        return generate(environment);
+    }
 }
@@ -2,13 +2,25 @@ package com.example.tfgenerator.service;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import freemarker.template.Configuration;
+import com.example.tfgenerator.hcl.HclEmitter;
+import com.example.tfgenerator.metrics.GenerationMetrics;
+import com.example.tfgenerator.model.GenerationEngine;
+import com.example.tfgenerator.model.TerraformFile;
+import com.example.tfgenerator.util.Utf8Buffer;
+import com.example.tfgenerator.util.Utf8CountingWriter;
+
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
 
@@ -17,19 +29,167 @@ public class TerraformTemplateService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TerraformTemplateService.class);
 
-    private final Configuration freemarkerConfig;
+    private final TemplateRegistry templateRegistry;
+    private final GenerationMetrics metrics;
+    private final RenderMemo renderMemo;
+    private final HclEmitter hclEmitter;
+    private final GenerationEngine defaultEngine;
+    // Last emitted length per file, so the next emit's buffer rarely has to grow.
+    private final AtomicIntegerArray emitSizeHints = new AtomicIntegerArray(TerraformFile.values().length);
+
+    public TerraformTemplateService(TemplateRegistry templateRegistry, GenerationMetrics metrics, RenderMemo renderMemo) {
+        this(templateRegistry, metrics, renderMemo, new HclEmitter(), GenerationEngine.FREEMARKER);
+    }
+
+    @Autowired
+    public TerraformTemplateService(TemplateRegistry templateRegistry, GenerationMetrics metrics, RenderMemo renderMemo,
+                                    HclEmitter hclEmitter,
+                                    @Value("${generator.engine:FREEMARKER}") GenerationEngine defaultEngine) {
+        this.templateRegistry = templateRegistry;
+        this.metrics = metrics;
+        this.renderMemo = renderMemo;
+        this.hclEmitter = hclEmitter;
+        this.defaultEngine = defaultEngine;
+    }
 
-    public TerraformTemplateService(Configuration freemarkerConfig) {
-        this.freemarkerConfig = freemarkerConfig;
+    public String render(TerraformFile file, Map<String, Object> dataModel) {
+        return render(file, dataModel, null);
+    }
+
+    /**
+     * Renders one project file against only its declared inputs, reusing earlier
+     * output of the same engine when those inputs are unchanged.
+     *
+     * @param engine the engine to use, or {@code null} for the configured default
+     */
+    public String render(TerraformFile file, Map<String, Object> dataModel, GenerationEngine engine) {
+        GenerationEngine resolved = resolve(engine);
+        String key = renderMemo.key(file, resolved, dataModel);
+        byte[] memoized = renderMemo.get(key);
+        if (memoized != null) {
+            return new String(memoized, StandardCharsets.UTF_8);
+        }
+        Map<String, Object> inputs = inputsOf(file, dataModel);
+        String output = resolved == GenerationEngine.HCL
+                ? emit(file, inputs)
+                : render(file.getTemplateName(), inputs);
+        if (renderMemo.isEnabled()) {
+            renderMemo.put(key, output.getBytes(StandardCharsets.UTF_8));
+        }
+        return output;
+    }
+
+    public void renderTo(TerraformFile file, Map<String, Object> dataModel, Utf8Buffer out) {
+        renderTo(file, dataModel, null, out);
+    }
+
+    /**
+     * Appends one project file to the buffer as UTF-8, copying memoized bytes or
+     * rendering straight into it, so the file never exists as a {@code String}.
+     */
+    public void renderTo(TerraformFile file, Map<String, Object> dataModel, GenerationEngine engine, Utf8Buffer out) {
+        GenerationEngine resolved = resolve(engine);
+        String key = renderMemo.key(file, resolved, dataModel);
+        byte[] memoized = renderMemo.get(key);
+        if (memoized != null) {
+            out.writeBytes(memoized, 0, memoized.length);
+            return;
+        }
+        int start = out.size();
+        Map<String, Object> inputs = inputsOf(file, dataModel);
+        if (resolved == GenerationEngine.HCL) {
+            emitTo(file, inputs, out);
+        } else {
+            renderTo(file.getTemplateName(), inputs, out);
+        }
+        if (renderMemo.isEnabled()) {
+            renderMemo.put(key, out.toByteArray(start));
+        }
+    }
+
+    /**
+     * A key that is equal for two models exactly when the file renders the same for
+     * both, since a file only reads its declared inputs.
+     */
+    public String inputKey(TerraformFile file, Map<String, Object> dataModel) {
+        return renderMemo.key(file, dataModel);
+    }
+
+    /**
+     * Generates a file with the typed HCL emitter.
+     */
+    public String emit(TerraformFile file, Map<String, Object> dataModel) {
+        try {
+            long start = System.nanoTime();
+            StringBuilder out = new StringBuilder(emitSizeHints.get(file.ordinal()));
+            hclEmitter.emit(file, dataModel, out);
+            emitSizeHints.set(file.ordinal(), out.length() + 256);
+            metrics.recordRender(GenerationEngine.HCL, file.getTemplateName(), System.nanoTime() - start,
+                    Utf8CountingWriter.utf8Length(out));
+            return out.toString();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to emit file: " + file.getFileName(), e);
+        }
+    }
+
+    private void emitTo(TerraformFile file, Map<String, Object> dataModel, Utf8Buffer out) {
+        try {
+            long start = System.nanoTime();
+            int from = out.size();
+            hclEmitter.emit(file, dataModel, out);
+            metrics.recordRender(GenerationEngine.HCL, file.getTemplateName(), System.nanoTime() - start,
+                    out.size() - from);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to emit file: " + file.getFileName(), e);
+        }
+    }
+
+    /**
+     * The engine to use, given the one asked for or {@code null} for the default.
+     */
+    public GenerationEngine resolve(GenerationEngine engine) {
+        return engine != null ? engine : defaultEngine;
     }
 
     public String render(String templateName, Map<String, Object> dataModel) {
+        StringWriter writer = new StringWriter();
+        renderTo(templateName, dataModel, writer);
+        return writer.toString();
+    }
+
+    private static Map<String, Object> inputsOf(TerraformFile file, Map<String, Object> dataModel) {
+        Map<String, Object> inputs = new HashMap<>();
+        for (String key : file.getInputs()) {
+            if (dataModel.containsKey(key)) {
+                inputs.put(key, dataModel.get(key));
+            }
+        }
+        return inputs;
+    }
+
+    /**
+     * Renders a template straight into the given writer. The writer is flushed but
+     * not closed, so callers can keep writing to the underlying stream.
+     */
+    public void renderTo(String templateName, Map<String, Object> dataModel, Writer out) {
         try {
             LOGGER.debug("Rendering template {} with model keys={}", templateName, dataModel != null ? dataModel.keySet() : null);
-            Template template = freemarkerConfig.getTemplate("terraform/" + templateName);
-            StringWriter writer = new StringWriter();
-            template.process(dataModel, writer);
-            return writer.toString();
+            long start = System.nanoTime();
+            Template template = templateRegistry.get(templateName);
+            long bytes;
+            if (out instanceof Utf8Buffer) {
+                // The buffer already counts its bytes.
+                Utf8Buffer buffer = (Utf8Buffer) out;
+                int from = buffer.size();
+                template.process(dataModel, buffer);
+                bytes = buffer.size() - from;
+            } else {
+                Utf8CountingWriter counting = new Utf8CountingWriter(out);
+                template.process(dataModel, counting);
+                counting.flush();
+                bytes = counting.getByteCount();
+            }
+            metrics.recordRender(GenerationEngine.FREEMARKER, templateName, System.nanoTime() - start, bytes);
         } catch (IOException | TemplateException e) {
             LOGGER.error("Failed to render template {}", templateName, e);
             throw new RuntimeException("Failed to render template: " + templateName, e);
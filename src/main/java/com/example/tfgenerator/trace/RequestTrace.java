@@ -0,0 +1,167 @@
+package com.example.tfgenerator.trace;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.tfgenerator.model.TraceSnapshot;
+import com.example.tfgenerator.model.TraceSpan;
+
+/**
+ * Stage timings of one HTTP request. The trace is bound to the request thread and
+ * carried onto executor threads by {@link #propagate(Runnable)}, so the stages
+ * already timed for metrics also land here through {@link #record(String, String, long)}.
+ * <p>
+ * Spans are appended into preallocated arrays with a single atomic increment, so
+ * recording allocates nothing and concurrent renders never contend on a lock.
+ * Spans past {@link #MAX_SPANS} are counted but dropped.
+ */
+public final class RequestTrace {
+
+    public static final int MAX_SPANS = 64;
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private final String method;
+    private final String path;
+    private final long startMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+
+    private final String[] names = new String[MAX_SPANS];
+    private final String[] details = new String[MAX_SPANS];
+    private final long[] starts = new long[MAX_SPANS];
+    private final long[] durations = new long[MAX_SPANS];
+    private final AtomicInteger count = new AtomicInteger();
+
+    public RequestTrace(String method, String path) {
+        this.method = method;
+        this.path = path;
+    }
+
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds the trace to this thread until {@link #detach()}.
+     */
+    public void attach() {
+        CURRENT.set(this);
+    }
+
+    public static void detach() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Records a span that just ended on the current trace, if there is one.
+     *
+     * @param detail what the stage worked on, such as a template name, or {@code null}
+     */
+    public static void record(String name, String detail, long nanos) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.add(name, detail, System.nanoTime() - nanos, nanos);
+        }
+    }
+
+    /**
+     * Wraps a task so it runs under the trace of the submitting thread. Restores the
+     * worker's own trace afterwards, which matters when a caller-runs policy runs
+     * the task on the submitting thread itself.
+     */
+    public static Runnable propagate(Runnable task) {
+        RequestTrace trace = CURRENT.get();
+        if (trace == null) {
+            return task;
+        }
+        return () -> {
+            RequestTrace previous = CURRENT.get();
+            CURRENT.set(trace);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    void add(String name, String detail, long start, long duration) {
+        int i = count.getAndIncrement();
+        if (i < MAX_SPANS) {
+            names[i] = name;
+            details[i] = detail;
+            starts[i] = start;
+            durations[i] = duration;
+        }
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public int spanCount() {
+        return Math.min(count.get(), MAX_SPANS);
+    }
+
+    /**
+     * The spans summed by name, in first-seen order, followed by the time elapsed so
+     * far, as a {@code Server-Timing} header value. Concurrent spans such as the
+     * renders of one project add up to more than the wall-clock time they took.
+     */
+    public String serverTiming() {
+        int n = spanCount();
+        Map<String, long[]> totals = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            totals.computeIfAbsent(names[i], k -> new long[1])[0] += durations[i];
+        }
+        StringBuilder header = new StringBuilder(16 * (totals.size() + 1));
+        for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+            appendMetric(header, entry.getKey(), entry.getValue()[0]);
+        }
+        appendMetric(header, "total", elapsedNanos());
+        return header.toString();
+    }
+
+    public TraceSnapshot snapshot(int status, long totalNanos) {
+        int n = spanCount();
+        List<TraceSpan> spans = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            spans.add(new TraceSpan(names[i], details[i], millis(starts[i] - startNanos), millis(durations[i])));
+        }
+        spans.sort((a, b) -> Double.compare(a.getStartMs(), b.getStartMs()));
+        return new TraceSnapshot(method, path, status, startMillis, millis(totalNanos), count.get() - n, spans);
+    }
+
+    private static void appendMetric(StringBuilder header, String name, long nanos) {
+        if (header.length() > 0) {
+            header.append(", ");
+        }
+        // Milliseconds to three decimals, without the cost of a Formatter.
+        long micros = Math.max(0, nanos / 1000);
+        long fraction = micros % 1000;
+        header.append(name).append(";dur=").append(micros / 1000).append('.');
+        if (fraction < 100) {
+            header.append(fraction < 10 ? "00" : "0");
+        }
+        header.append(fraction);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.tfgenerator.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.tfgenerator.model.TraceSnapshot;
+
+/**
+ * The slowest requests seen since startup, with their stage breakdowns.
+ * <p>
+ * A fixed array of slots replaced by compare-and-set, so finishing requests never
+ * take a lock. Once the slots are full, a request no slower than the fastest one
+ * kept is turned away after a single volatile read, and only requests that make
+ * the list pay for building their snapshot.
+ */
+@Component
+public class SlowRequestLog {
+
+    private final AtomicReferenceArray<Entry> slots;
+    // Duration of the fastest kept request once all slots are taken; may briefly lag behind.
+    private volatile long admitAboveNanos;
+
+    public SlowRequestLog(@Value("${generator.tracing.slowest:20}") int capacity) {
+        this.slots = new AtomicReferenceArray<>(Math.max(1, capacity));
+    }
+
+    /**
+     * Keeps the request if it is among the slowest so far.
+     *
+     * @return whether it was kept
+     */
+    public boolean offer(RequestTrace trace, int status, long totalNanos) {
+        if (totalNanos <= admitAboveNanos) {
+            return false;
+        }
+        Entry entry = null;
+        while (true) {
+            int victim = -1;
+            long victimNanos = Long.MAX_VALUE;
+            for (int i = 0; i < slots.length(); i++) {
+                Entry slot = slots.get(i);
+                long nanos = slot == null ? -1 : slot.nanos;
+                if (nanos < victimNanos) {
+                    victim = i;
+                    victimNanos = nanos;
+                }
+            }
+            if (totalNanos <= victimNanos) {
+                return false;
+            }
+            Entry current = slots.get(victim);
+            if (current != null && current.nanos != victimNanos) {
+                continue;
+            }
+            if (entry == null) {
+                entry = new Entry(totalNanos, trace.snapshot(status, totalNanos));
+            }
+            if (slots.compareAndSet(victim, current, entry)) {
+                admitAboveNanos = fastestKept();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * The kept requests, slowest first.
+     */
+    public List<TraceSnapshot> slowest() {
+        List<Entry> entries = new ArrayList<>(slots.length());
+        for (int i = 0; i < slots.length(); i++) {
+            Entry slot = slots.get(i);
+            if (slot != null) {
+                entries.add(slot);
+            }
+        }
+        entries.sort((a, b) -> Long.compare(b.nanos, a.nanos));
+        List<TraceSnapshot> snapshots = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            snapshots.add(entry.snapshot);
+        }
+        return snapshots;
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+        admitAboveNanos = 0;
+    }
+
+    private long fastestKept() {
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < slots.length(); i++) {
+            Entry slot = slots.get(i);
+            if (slot == null) {
+                return 0;
+            }
+            fastest = Math.min(fastest, slot.nanos);
+        }
+        return fastest;
+    }
+
+    private static final class Entry {
+        private final long nanos;
+        private final TraceSnapshot snapshot;
+
+        private Entry(long nanos, TraceSnapshot snapshot) {
+            this.nanos = nanos;
+            this.snapshot = snapshot;
+        }
+    }
+}
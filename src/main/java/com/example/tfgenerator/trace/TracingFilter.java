@@ -0,0 +1,157 @@
+package com.example.tfgenerator.trace;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Traces every API request: binds a {@link RequestTrace} for the stages to record
+ * into, sends the breakdown to the client as a {@code Server-Timing} header and
+ * offers the finished request to the {@link SlowRequestLog}.
+ * <p>
+ * Responses are often written after the handler has returned, on an async dispatch
+ * or a streaming thread, so the header is added by a response wrapper just before
+ * the body is first written or the response is flushed. Requests slower than
+ * {@code generator.tracing.slow-log-millis} are also logged with their breakdown.
+ * Disabled with {@code generator.tracing.enabled=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "generator.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class TracingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TracingFilter.class);
+
+    private final SlowRequestLog slowRequestLog;
+    private final long slowLogNanos;
+
+    public TracingFilter(SlowRequestLog slowRequestLog,
+                         @Value("${generator.tracing.slow-log-millis:1000}") long slowLogMillis) {
+        this.slowRequestLog = slowRequestLog;
+        this.slowLogNanos = slowLogMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(slowLogMillis) : Long.MAX_VALUE;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTrace trace = new RequestTrace(request.getMethod(), request.getRequestURI());
+        TimingResponse timed = new TimingResponse(response, trace);
+        trace.attach();
+        try {
+            chain.doFilter(request, timed);
+        } finally {
+            RequestTrace.detach();
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        finish(trace, timed);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                timed.addTimingHeader();
+                finish(trace, timed);
+            }
+        }
+    }
+
+    private void finish(RequestTrace trace, HttpServletResponse response) {
+        long total = trace.elapsedNanos();
+        slowRequestLog.offer(trace, response.getStatus(), total);
+        if (total >= slowLogNanos) {
+            LOGGER.warn("Slow request {} {} took {} ms: {}", trace.getMethod(), trace.getPath(),
+                    TimeUnit.NANOSECONDS.toMillis(total), trace.serverTiming());
+        }
+    }
+
+    /**
+     * Adds the {@code Server-Timing} header at the last moment headers can still change.
+     */
+    static class TimingResponse extends HttpServletResponseWrapper {
+
+        private final RequestTrace trace;
+        private volatile boolean timed;
+
+        TimingResponse(HttpServletResponse response, RequestTrace trace) {
+            super(response);
+            this.trace = trace;
+        }
+
+        void addTimingHeader() {
+            if (!timed && !isCommitted()) {
+                timed = true;
+                setHeader(SERVER_TIMING, trace.serverTiming());
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addTimingHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addTimingHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addTimingHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addTimingHeader();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addTimingHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addTimingHeader();
+            super.sendRedirect(location);
+        }
+    }
+}
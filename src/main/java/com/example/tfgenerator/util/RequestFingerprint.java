@@ -0,0 +1,152 @@
+package com.example.tfgenerator.util;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.example.tfgenerator.dto.EcsConfig;
+import com.example.tfgenerator.dto.EcsServiceConfig;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.dto.RdsConfig;
+import com.example.tfgenerator.dto.S3BucketConfig;
+import com.example.tfgenerator.dto.Services;
+
+public class RequestFingerprint {
+
+    /** Bump when the canonical form changes so old fingerprints can never match. */
+    private static final String VERSION = "v2";
+
+    private RequestFingerprint() {
+    }
+
+    /**
+     * Stable SHA-256 of the normalized request, as lowercase hex.
+     *
+     * Every field is written length-prefixed in a fixed order, tags are sorted by key,
+     * and a disabled or absent RDS instance or ECS cluster is written as absent, with
+     * its settings dropped, because they affect neither validation nor the generated
+     * output. Fields added since, such as the
+     * service lists, are appended only when set, so requests without them keep the
+     * fingerprints they always had.
+     */
+    public static String of(EnvironmentRequest request) {
+        StringBuilder canonical = new StringBuilder(256).append(VERSION);
+        append(canonical, request.getName());
+        append(canonical, request.getRegion());
+        append(canonical, request.getVpcCidr());
+
+        Services services = request.getServices();
+        if (services == null) {
+            append(canonical, null);
+        } else {
+            append(canonical, services.getS3Bucket());
+            appendRds(canonical, services.getRds());
+            EcsConfig ecs = services.getEcsCluster();
+            // An ECS cluster without "enabled" fails validation, so it stays distinct.
+            append(canonical, ecs == null || Boolean.FALSE.equals(ecs.getEnabled())
+                    ? null : String.valueOf(ecs.getEnabled()));
+        }
+
+        Map<String, String> tags = request.getTags() == null
+                ? new TreeMap<String, String>()
+                : new TreeMap<>(request.getTags());
+        canonical.append('#').append(tags.size());
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            append(canonical, tag.getKey());
+            append(canonical, tag.getValue());
+        }
+
+        if (request.getAvailabilityZones() != null) {
+            canonical.append("+zones");
+            append(canonical, request.getAvailabilityZones());
+        }
+        if (services != null) {
+            appendLists(canonical, services);
+        }
+
+        return Hashes.sha256Hex(canonical.toString());
+    }
+
+    /**
+     * Each non-empty list as a marked section of {@code *}-prefixed entries, ended by
+     * {@code ;}. Disabled RDS instances are left out like the single one.
+     */
+    private static void appendLists(StringBuilder canonical, Services services) {
+        List<S3BucketConfig> buckets = services.getS3Buckets();
+        if (buckets != null && !buckets.isEmpty()) {
+            canonical.append("+s3");
+            for (S3BucketConfig bucket : buckets) {
+                canonical.append('*');
+                append(canonical, bucket == null ? null : bucket.getName());
+            }
+            canonical.append(';');
+        }
+        List<RdsConfig> instances = services.getRdsInstances();
+        if (instances != null) {
+            boolean opened = false;
+            for (RdsConfig rds : instances) {
+                if (rds != null && Boolean.FALSE.equals(rds.getEnabled())) {
+                    continue;
+                }
+                if (!opened) {
+                    canonical.append("+rds");
+                    opened = true;
+                }
+                canonical.append('*');
+                if (rds == null) {
+                    append(canonical, null);
+                    continue;
+                }
+                append(canonical, rds.getName());
+                append(canonical, rds.getEngine());
+                append(canonical, rds.getInstanceClass());
+                append(canonical, rds.getDbName());
+                append(canonical, rds.getUsername());
+                append(canonical, rds.getPassword());
+            }
+            if (opened) {
+                canonical.append(';');
+            }
+        }
+        List<EcsServiceConfig> ecsServices = services.getEcsServices();
+        if (ecsServices != null && !ecsServices.isEmpty()) {
+            canonical.append("+ecs");
+            for (EcsServiceConfig service : ecsServices) {
+                canonical.append('*');
+                if (service == null) {
+                    append(canonical, null);
+                    continue;
+                }
+                append(canonical, service.getName());
+                append(canonical, service.getImage());
+                append(canonical, service.getCpu());
+                append(canonical, service.getMemory());
+                append(canonical, service.getDesiredCount());
+                append(canonical, service.getContainerPort());
+            }
+            canonical.append(';');
+        }
+    }
+
+    private static void appendRds(StringBuilder canonical, RdsConfig rds) {
+        if (rds == null || !Boolean.TRUE.equals(rds.getEnabled())) {
+            append(canonical, null);
+            return;
+        }
+        append(canonical, "true");
+        append(canonical, rds.getEngine());
+        append(canonical, rds.getInstanceClass());
+        append(canonical, rds.getDbName());
+        append(canonical, rds.getUsername());
+        append(canonical, rds.getPassword());
+    }
+
+    private static void append(StringBuilder canonical, Object value) {
+        if (value == null) {
+            canonical.append('~');
+            return;
+        }
+        String text = value.toString();
+        canonical.append(text.length()).append(':').append(text);
+    }
+}
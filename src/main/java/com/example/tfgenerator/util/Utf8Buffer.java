@@ -0,0 +1,201 @@
+package com.example.tfgenerator.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * A growable byte array that characters are written to as UTF-8, without an
+ * intermediate {@code String} or {@link java.nio.charset.CharsetEncoder}. Raw bytes
+ * can be appended through {@link #asOutputStream()}, and the content is handed on
+ * with {@link #writeTo(OutputStream)} in a single write. Buffers are meant to be
+ * {@link #reset()} and reused; they are not thread-safe.
+ */
+public final class Utf8Buffer extends Writer {
+
+    private byte[] bytes;
+    private int size;
+    // High surrogate written without its low half yet, or 0.
+    private char pendingHigh;
+
+    private final OutputStream outputStream = new OutputStream() {
+        @Override
+        public void write(int b) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            writeBytes(b, off, len);
+        }
+    };
+
+    public Utf8Buffer(int initialCapacity) {
+        this.bytes = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The backing array, valid up to {@link #size()}. It is replaced when the buffer
+     * grows, so it must not be held across writes.
+     */
+    public byte[] array() {
+        return bytes;
+    }
+
+    public int capacity() {
+        return bytes.length;
+    }
+
+    /**
+     * Empties the buffer, keeping its storage.
+     */
+    public void reset() {
+        size = 0;
+        pendingHigh = 0;
+    }
+
+    /**
+     * Appends already encoded bytes.
+     */
+    public void writeBytes(byte[] b, int off, int len) {
+        ensureCapacity(len);
+        System.arraycopy(b, off, bytes, size, len);
+        size += len;
+    }
+
+    /**
+     * A view of this buffer that appends the bytes written to it.
+     */
+    public OutputStream asOutputStream() {
+        return outputStream;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, size);
+    }
+
+    public byte[] toByteArray(int from) {
+        return Arrays.copyOfRange(bytes, from, size);
+    }
+
+    @Override
+    public void write(int c) {
+        encode((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        ensureCapacity(len);
+        for (int i = off; i < off + len; i++) {
+            char c = cbuf[i];
+            if (c < 0x80 && pendingHigh == 0 && size < bytes.length) {
+                bytes[size++] = (byte) c;
+            } else {
+                encode(c);
+            }
+        }
+    }
+
+    @Override
+    public void write(String str) {
+        write(str, 0, str.length());
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        ensureCapacity(len);
+        for (int i = off; i < off + len; i++) {
+            char c = str.charAt(i);
+            if (c < 0x80 && pendingHigh == 0 && size < bytes.length) {
+                bytes[size++] = (byte) c;
+            } else {
+                encode(c);
+            }
+        }
+    }
+
+    @Override
+    public Utf8Buffer append(CharSequence csq) {
+        return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Utf8Buffer append(CharSequence csq, int start, int end) {
+        if (csq instanceof String) {
+            write((String) csq, start, end - start);
+        } else {
+            ensureCapacity(end - start);
+            for (int i = start; i < end; i++) {
+                encode(csq.charAt(i));
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public Utf8Buffer append(char c) {
+        encode(c);
+        return this;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void encode(char c) {
+        if (pendingHigh != 0) {
+            char high = pendingHigh;
+            pendingHigh = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                ensureCapacity(4);
+                bytes[size++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[size++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            // Unpaired surrogate, replaced the way String.getBytes does.
+            ensureCapacity(1);
+            bytes[size++] = '?';
+        }
+        if (c < 0x80) {
+            ensureCapacity(1);
+            bytes[size++] = (byte) c;
+        } else if (c < 0x800) {
+            ensureCapacity(2);
+            bytes[size++] = (byte) (0xC0 | (c >> 6));
+            bytes[size++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            pendingHigh = c;
+        } else if (Character.isLowSurrogate(c)) {
+            ensureCapacity(1);
+            bytes[size++] = '?';
+        } else {
+            ensureCapacity(3);
+            bytes[size++] = (byte) (0xE0 | (c >> 12));
+            bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            bytes[size++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.tfgenerator.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Passes characters through to another writer while counting how many bytes
+ * they take up in UTF-8.
+ */
+public class Utf8CountingWriter extends Writer {
+
+    private final Writer delegate;
+    private long byteCount;
+
+    public Utf8CountingWriter(Writer delegate) {
+        this.delegate = delegate;
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        delegate.write(cbuf, off, len);
+        for (int i = off; i < off + len; i++) {
+            count(cbuf[i]);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        delegate.write(str, off, len);
+        for (int i = off; i < off + len; i++) {
+            count(str.charAt(i));
+        }
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        delegate.write(c);
+        count((char) c);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    /**
+     * Number of bytes the characters take up in UTF-8.
+     */
+    public static long utf8Length(CharSequence chars) {
+        long length = 0;
+        for (int i = 0; i < chars.length(); i++) {
+            length += utf8Length(chars.charAt(i));
+        }
+        return length;
+    }
+
+    private void count(char c) {
+        byteCount += utf8Length(c);
+    }
+
+    private static int utf8Length(char c) {
+        if (c < 0x80) {
+            return 1;
+        } else if (c < 0x800) {
+            return 2;
+        } else if (Character.isSurrogate(c)) {
+            // Each half of a surrogate pair accounts for two of the four bytes.
+            return 2;
+        } else {
+            return 3;
+        }
+    }
+}
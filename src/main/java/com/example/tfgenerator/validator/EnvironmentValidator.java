@@ -1,138 +1,386 @@
 package com.example.tfgenerator.validator;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.example.tfgenerator.dto.EcsServiceConfig;
 import com.example.tfgenerator.dto.EnvironmentRequest;
 import com.example.tfgenerator.dto.RdsConfig;
+import com.example.tfgenerator.dto.S3BucketConfig;
 import com.example.tfgenerator.dto.Services;
 import com.example.tfgenerator.exception.ValidationException;
+import com.example.tfgenerator.ipam.Cidr;
+import com.example.tfgenerator.ipam.Subnet;
+import com.example.tfgenerator.ipam.SubnetPlanner;
+import com.example.tfgenerator.ipam.VpcRegistry;
+import com.example.tfgenerator.metrics.GenerationMetrics;
+import com.example.tfgenerator.model.AwsRegion;
+import com.example.tfgenerator.model.RdsEngine;
 
+/**
+ * Validates an environment request in a single pass. Each field is parsed exactly
+ * once, and the parsed values are handed on as a {@link ValidatedEnvironment} so
+ * generation never parses them again.
+ */
 @Component
 public class EnvironmentValidator {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EnvironmentValidator.class);
 
-    private static final Pattern CIDR_PATTERN =
-            Pattern.compile("^([0-9]{1,3}\\.){3}[0-9]{1,3}/[0-9]{1,2}$");
+    private static final int NAME_MIN_LENGTH = 2;
+    private static final int NAME_MAX_LENGTH = 64;
+    public static final int MAX_AVAILABILITY_ZONES = 256;
+    private static final int MAX_LIST_SIZE = 1000;
 
-    private static final Pattern NAME_PATTERN =
-            Pattern.compile("^[a-z0-9][a-z0-9-]{0,62}[a-z0-9]$");
+    private static final String INVALID_REGION = "Invalid region. Allowed values: " + joinCodes();
 
-    private static final Set<String> VALID_REGIONS = Set.of(
-            "us-east-1", "us-east-2",
-            "us-west-1", "us-west-2",
-            "eu-west-1", "eu-west-2", "eu-west-3",
-            "eu-central-1", "eu-central-2",
-            "ap-south-1",
-            "ap-northeast-1", "ap-northeast-2", "ap-northeast-3",
-            "ap-southeast-1", "ap-southeast-2",
-            "ap-east-1",
-            "sa-east-1",
-            "ca-central-1"
-    );
+    private final GenerationMetrics metrics;
+    private final VpcRegistry vpcRegistry;
+    private final ValidationMode defaultMode;
 
-    private static final List<String> VALID_RDS_ENGINES = List.of("postgres", "mysql");
+    public EnvironmentValidator(GenerationMetrics metrics, VpcRegistry vpcRegistry) {
+        this(metrics, vpcRegistry, ValidationMode.COLLECT_ALL);
+    }
+
+    @Autowired
+    public EnvironmentValidator(GenerationMetrics metrics, VpcRegistry vpcRegistry,
+                                @Value("${generator.validation.mode:COLLECT_ALL}") ValidationMode defaultMode) {
+        this.metrics = metrics;
+        this.vpcRegistry = vpcRegistry;
+        this.defaultMode = defaultMode;
+    }
+
+    public ValidatedEnvironment validate(EnvironmentRequest request) {
+        return validate(request, defaultMode);
+    }
 
-    public void validate(EnvironmentRequest request) {
+    public ValidatedEnvironment validate(EnvironmentRequest request, ValidationMode mode) {
         if (request == null) {
             throw new ValidationException("Request body is null");
         }
 
-        List<String> errors = new ArrayList<>();
-
-        validateName(request.getName(), errors);
-        validateRegion(request.getRegion(), errors);
-        validateVpcCidr(request.getVpcCidr(), errors);
-        validateServices(request.getServices(), errors);
-
-        if (!errors.isEmpty()) {
-            LOGGER.warn("Validation failed: {}", errors);
-            throw new ValidationException("Validation failed: " + String.join("; ", errors));
+        long start = System.nanoTime();
+        Errors errors = new Errors(mode);
+        try {
+            validateName(request.getName(), errors);
+            AwsRegion region = validateRegion(request.getRegion(), errors);
+            Cidr vpcCidr = validateVpcCidr(request.getName(), request.getVpcCidr(), errors);
+            List<Subnet> subnets = planSubnets(request.getAvailabilityZones(), vpcCidr, errors);
+            ValidatedEnvironment environment = validateServices(request, region, vpcCidr, subnets, errors);
+            errors.throwIfAny();
+            return environment;
+        } finally {
+            metrics.recordValidation(System.nanoTime() - start);
         }
     }
 
-    private void validateName(String name, List<String> errors) {
+    private void validateName(String name, Errors errors) {
         if (StringUtils.isBlank(name)) {
-            errors.add("Field 'name' is required");
-        } else if (!NAME_PATTERN.matcher(name).matches()) {
-            errors.add("Field 'name' must be lowercase alphanumeric with hyphens (2–64 chars)");
+            errors.reject("name", "Field 'name' is required");
+        } else if (!isValidName(name)) {
+            errors.reject("name", "Field 'name' must be lowercase alphanumeric with hyphens (2–64 chars)");
         }
     }
 
-    private void validateRegion(String region, List<String> errors) {
-        if (StringUtils.isBlank(region)) {
-            errors.add("Field 'region' is required");
-        } else if (!VALID_REGIONS.contains(region)) {
-            errors.add("Invalid region. Allowed values: " + String.join(", ", VALID_REGIONS));
+    /**
+     * Lowercase letters, digits and hyphens, not starting or ending with a hyphen.
+     */
+    public static boolean isValidName(String name) {
+        int length = name.length();
+        if (length < NAME_MIN_LENGTH || length > NAME_MAX_LENGTH
+                || name.charAt(0) == '-' || name.charAt(length - 1) == '-') {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            if ((c < 'a' || c > 'z') && (c < '0' || c > '9') && c != '-') {
+                return false;
+            }
         }
+        return true;
     }
 
-    private void validateVpcCidr(String cidr, List<String> errors) {
+    private AwsRegion validateRegion(String code, Errors errors) {
+        if (StringUtils.isBlank(code)) {
+            errors.reject("region", "Field 'region' is required");
+            return null;
+        }
+        AwsRegion region = AwsRegion.fromCode(code);
+        if (region == null) {
+            errors.reject("region", INVALID_REGION);
+        }
+        return region;
+    }
+
+    private Cidr validateVpcCidr(String name, String cidr, Errors errors) {
         if (StringUtils.isBlank(cidr)) {
-            errors.add("Field 'vpc_cidr' is required");
-        } else if (!CIDR_PATTERN.matcher(cidr).matches()) {
-            errors.add("Field 'vpc_cidr' must be a valid CIDR (e.g., 10.0.0.0/16)");
+            errors.reject("vpc_cidr", "Field 'vpc_cidr' is required");
+            return null;
         }
+        Cidr parsed;
+        try {
+            parsed = Cidr.parse(cidr);
+        } catch (IllegalArgumentException e) {
+            errors.reject("vpc_cidr", "Field 'vpc_cidr' must be a valid CIDR (e.g., 10.0.0.0/16)");
+            return null;
+        }
+        VpcRegistry.Allocation overlap = vpcRegistry.findOverlap(parsed, name);
+        if (overlap != null) {
+            errors.reject("vpc_cidr", "Field 'vpc_cidr' overlaps " + overlap.getCidr()
+                    + " allocated to environment '" + overlap.getName() + "'");
+        }
+        return parsed;
     }
 
-    private void validateServices(Services services, List<String> errors) {
+    private List<Subnet> planSubnets(Integer availabilityZones, Cidr vpcCidr, Errors errors) {
+        if (availabilityZones != null
+                && (availabilityZones < 1 || availabilityZones > MAX_AVAILABILITY_ZONES)) {
+            errors.reject("availability_zones",
+                    "Field 'availability_zones' must be between 1 and " + MAX_AVAILABILITY_ZONES);
+            return null;
+        }
+        if (vpcCidr == null) {
+            return null;
+        }
+        int zones = availabilityZones != null ? availabilityZones : 1;
+        try {
+            return SubnetPlanner.evenPlan(vpcCidr, zones);
+        } catch (IllegalArgumentException e) {
+            errors.reject("vpc_cidr", "Field 'vpc_cidr' is too small for " + zones + " availability zones");
+            return null;
+        }
+    }
 
+    private ValidatedEnvironment validateServices(EnvironmentRequest request, AwsRegion region, Cidr vpcCidr,
+                                                  List<Subnet> subnets, Errors errors) {
+        Services services = request.getServices();
         if (services == null) {
-            errors.add("Field 'services' is required");
-            return;
+            errors.reject("services", "Field 'services' is required");
+            return null;
+        }
+
+        if (services.getS3Bucket() == null) {
+            errors.reject("services.s3_bucket", "Field 'services.s3_bucket' is required (true/false)");
+        }
+        if (services.getEcsCluster() != null && services.getEcsCluster().getEnabled() == null) {
+            errors.reject("services.ecs_cluster.enabled", "Field 'services.ecs_cluster.enabled' is required (true/false)");
         }
+        boolean ecsEnabled = services.getEcsCluster() != null
+                && Boolean.TRUE.equals(services.getEcsCluster().getEnabled());
+        RdsEngine rdsEngine = validateRds(services.getRds(), errors);
 
-        validateS3(services, errors);
-        validateEcs(services, errors);
-        validateRds(services.getRds(), errors);
+        List<S3BucketConfig> s3Buckets = validateS3Buckets(services.getS3Buckets(), errors);
+        List<RdsConfig> rdsInstances = new ArrayList<>();
+        List<RdsEngine> rdsInstanceEngines = new ArrayList<>();
+        validateRdsInstances(services.getRdsInstances(), rdsInstances, rdsInstanceEngines, errors);
+        List<EcsServiceConfig> ecsServices = validateEcsServices(services.getEcsServices(), ecsEnabled, errors);
+
+        return new ValidatedEnvironment(request, region, vpcCidr,
+                Boolean.TRUE.equals(services.getS3Bucket()), ecsEnabled, rdsEngine, subnets,
+                s3Buckets, rdsInstances, rdsInstanceEngines, ecsServices);
     }
 
-    private void validateS3(Services services, List<String> errors) {
-        if (services.getS3Bucket() == null) {
-            errors.add("Field 'services.s3_bucket' is required (true/false)");
+    private RdsEngine validateRds(RdsConfig rds, Errors errors) {
+        if (rds == null || !Boolean.TRUE.equals(rds.getEnabled())) {
+            return null;
+        }
+        return checkRds(rds, "services.rds", "services.rds", errors);
+    }
+
+    /**
+     * Checks the settings of an enabled RDS instance. Errors are counted under
+     * {@code field} and reported under {@code label}, which for list entries also
+     * carries the index, so the failure metric keeps one series per field.
+     */
+    private static RdsEngine checkRds(RdsConfig rds, String field, String label, Errors errors) {
+        RdsEngine engine = null;
+        if (StringUtils.isBlank(rds.getEngine())) {
+            errors.reject(field + ".engine", "Field '" + label + ".engine' is required");
+        } else if ((engine = RdsEngine.fromCode(rds.getEngine())) == null) {
+            errors.reject(field + ".engine", "Field '" + label + ".engine' must be postgres or mysql");
+        }
+
+        checkRequired(rds.getInstanceClass(), field + ".instance_class", label + ".instance_class", errors);
+        checkRequired(rds.getDbName(), field + ".db_name", label + ".db_name", errors);
+        checkRequired(rds.getUsername(), field + ".username", label + ".username", errors);
+
+        if (StringUtils.isBlank(rds.getPassword())) {
+            errors.reject(field + ".password", "Field '" + label + ".password' is required");
+        } else if (rds.getPassword().length() < 8) {
+            errors.reject(field + ".password", "Field '" + label + ".password' must be at least 8 characters");
         }
+        return engine;
     }
 
-    private void validateEcs(Services services, List<String> errors) {
-        if (services.getEcsCluster() != null &&
-            services.getEcsCluster().getEnabled() == null) {
-            errors.add("Field 'services.ecs_cluster.enabled' is required (true/false)");
+    private static List<S3BucketConfig> validateS3Buckets(List<S3BucketConfig> buckets, Errors errors) {
+        if (!checkSize(buckets, "services.s3_buckets", errors)) {
+            return Collections.emptyList();
         }
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < buckets.size(); i++) {
+            String label = "services.s3_buckets[" + i + "]";
+            S3BucketConfig bucket = buckets.get(i);
+            if (bucket == null) {
+                errors.reject("services.s3_buckets", "Field '" + label + "' must not be null");
+            } else {
+                checkEntryName(bucket.getName(), "services.s3_buckets.name", label + ".name", names, errors);
+            }
+        }
+        return buckets;
     }
 
-    private void validateRds(RdsConfig rds, List<String> errors) {
-        if (rds == null || !Boolean.TRUE.equals(rds.getEnabled())) {
+    /**
+     * Collects the enabled entries and their engines. An entry without
+     * {@code enabled} counts as enabled.
+     */
+    private static void validateRdsInstances(List<RdsConfig> instances, List<RdsConfig> enabled,
+                                             List<RdsEngine> engines, Errors errors) {
+        if (!checkSize(instances, "services.rds_instances", errors)) {
             return;
         }
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < instances.size(); i++) {
+            String label = "services.rds_instances[" + i + "]";
+            RdsConfig rds = instances.get(i);
+            if (rds == null) {
+                errors.reject("services.rds_instances", "Field '" + label + "' must not be null");
+                continue;
+            }
+            if (Boolean.FALSE.equals(rds.getEnabled())) {
+                continue;
+            }
+            checkEntryName(rds.getName(), "services.rds_instances.name", label + ".name", names, errors);
+            RdsEngine engine = checkRds(rds, "services.rds_instances", label, errors);
+            enabled.add(rds);
+            engines.add(engine);
+        }
+    }
 
-        checkRequired(rds.getEngine(), "services.rds.engine", errors);
-        if (rds.getEngine() != null && !VALID_RDS_ENGINES.contains(rds.getEngine())) {
-            errors.add("Field 'services.rds.engine' must be postgres or mysql");
+    private static List<EcsServiceConfig> validateEcsServices(List<EcsServiceConfig> ecsServices, boolean ecsEnabled,
+                                                              Errors errors) {
+        if (!checkSize(ecsServices, "services.ecs_services", errors)) {
+            return Collections.emptyList();
         }
+        if (!ecsEnabled) {
+            errors.reject("services.ecs_services",
+                    "Field 'services.ecs_services' requires 'services.ecs_cluster.enabled' to be true");
+        }
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < ecsServices.size(); i++) {
+            String label = "services.ecs_services[" + i + "]";
+            EcsServiceConfig service = ecsServices.get(i);
+            if (service == null) {
+                errors.reject("services.ecs_services", "Field '" + label + "' must not be null");
+                continue;
+            }
+            checkEntryName(service.getName(), "services.ecs_services.name", label + ".name", names, errors);
+            checkRequired(service.getImage(), "services.ecs_services.image", label + ".image", errors);
+            if (service.getCpu() == null || service.getCpu() <= 0) {
+                errors.reject("services.ecs_services.cpu", "Field '" + label + ".cpu' must be a positive number");
+            }
+            if (service.getMemory() == null || service.getMemory() <= 0) {
+                errors.reject("services.ecs_services.memory",
+                        "Field '" + label + ".memory' must be a positive number");
+            }
+            if (service.getDesiredCount() == null || service.getDesiredCount() < 0) {
+                errors.reject("services.ecs_services.desired_count",
+                        "Field '" + label + ".desired_count' must be zero or more");
+            }
+            Integer port = service.getContainerPort();
+            if (port != null && (port < 1 || port > 65535)) {
+                errors.reject("services.ecs_services.container_port",
+                        "Field '" + label + ".container_port' must be between 1 and 65535");
+            }
+        }
+        return ecsServices;
+    }
 
-        checkRequired(rds.getInstanceClass(), "services.rds.instance_class", errors);
-        checkRequired(rds.getDbName(), "services.rds.db_name", errors);
-        checkRequired(rds.getUsername(), "services.rds.username", errors);
+    /**
+     * Whether the list has entries to validate, rejecting lists longer than
+     * {@value #MAX_LIST_SIZE}.
+     */
+    private static boolean checkSize(List<?> entries, String field, Errors errors) {
+        if (entries == null || entries.isEmpty()) {
+            return false;
+        }
+        if (entries.size() > MAX_LIST_SIZE) {
+            errors.reject(field, "Field '" + field + "' must not have more than " + MAX_LIST_SIZE + " entries");
+            return false;
+        }
+        return true;
+    }
 
-        if (StringUtils.isBlank(rds.getPassword())) {
-            errors.add("Field 'services.rds.password' is required");
-        } else if (rds.getPassword().length() < 8) {
-            errors.add("Field 'services.rds.password' must be at least 8 characters");
+    /**
+     * Entry names become part of resource names and labels, so they follow the rules
+     * for environment names and must be unique within their list.
+     */
+    private static void checkEntryName(String name, String field, String label, Set<String> names, Errors errors) {
+        if (StringUtils.isBlank(name)) {
+            errors.reject(field, "Field '" + label + "' is required");
+        } else if (!isValidName(name)) {
+            errors.reject(field, "Field '" + label + "' must be lowercase alphanumeric with hyphens (2–64 chars)");
+        } else if (!names.add(name)) {
+            errors.reject(field, "Field '" + label + "' duplicates another entry's name '" + name + "'");
         }
     }
 
-    private void checkRequired(String field, String fieldName, List<String> errors) {
-        if (StringUtils.isBlank(field)) {
-            errors.add("Field '" + fieldName + "' is required");
+    private static void checkRequired(String value, String field, String label, Errors errors) {
+        if (StringUtils.isBlank(value)) {
+            errors.reject(field, "Field '" + label + "' is required");
         }
     }
-}
 
+    private static String joinCodes() {
+        StringBuilder codes = new StringBuilder();
+        for (AwsRegion region : AwsRegion.values()) {
+            if (codes.length() > 0) {
+                codes.append(", ");
+            }
+            codes.append(region.getCode());
+        }
+        return codes.toString();
+    }
+
+    /**
+     * Errors of one validation run. In fail-fast mode the first error is thrown
+     * straight away.
+     */
+    private final class Errors {
+
+        private final ValidationMode mode;
+        private List<String> messages;
+
+        Errors(ValidationMode mode) {
+            this.mode = mode;
+        }
+
+        void reject(String field, String message) {
+            metrics.recordValidationFailure(field);
+            if (mode == ValidationMode.FAIL_FAST) {
+                LOGGER.warn("Validation failed: {}", message);
+                throw new ValidationException("Validation failed: " + message);
+            }
+            if (messages == null) {
+                messages = new ArrayList<>(4);
+            }
+            messages.add(message);
+        }
+
+        void throwIfAny() {
+            if (messages != null) {
+                LOGGER.warn("Validation failed: {}", messages);
+                throw new ValidationException("Validation failed: " + String.join("; ", messages));
+            }
+        }
+    }
+}
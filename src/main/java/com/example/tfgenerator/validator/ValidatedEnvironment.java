@@ -0,0 +1,146 @@
+package com.example.tfgenerator.validator;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.example.tfgenerator.dto.EcsServiceConfig;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.dto.RdsConfig;
+import com.example.tfgenerator.dto.S3BucketConfig;
+import com.example.tfgenerator.ipam.Cidr;
+import com.example.tfgenerator.ipam.Subnet;
+import com.example.tfgenerator.model.AwsRegion;
+import com.example.tfgenerator.model.RdsEngine;
+
+/**
+ * An environment request that passed validation, with every field already parsed
+ * into its typed value. Only {@link EnvironmentValidator} creates these, so holding
+ * one means generation can use the values without checking or parsing them again.
+ */
+public final class ValidatedEnvironment {
+
+    private final EnvironmentRequest request;
+    private final AwsRegion region;
+    private final Cidr vpcCidr;
+    private final boolean s3Enabled;
+    private final boolean ecsEnabled;
+    private final RdsEngine rdsEngine;
+    private final List<Subnet> subnets;
+    private final List<S3BucketConfig> s3Buckets;
+    private final List<RdsConfig> rdsInstances;
+    private final List<RdsEngine> rdsInstanceEngines;
+    private final List<EcsServiceConfig> ecsServices;
+
+    ValidatedEnvironment(EnvironmentRequest request, AwsRegion region, Cidr vpcCidr,
+                         boolean s3Enabled, boolean ecsEnabled, RdsEngine rdsEngine, List<Subnet> subnets,
+                         List<S3BucketConfig> s3Buckets, List<RdsConfig> rdsInstances,
+                         List<RdsEngine> rdsInstanceEngines, List<EcsServiceConfig> ecsServices) {
+        this.request = request;
+        this.region = region;
+        this.vpcCidr = vpcCidr;
+        this.s3Enabled = s3Enabled;
+        this.ecsEnabled = ecsEnabled;
+        this.rdsEngine = rdsEngine;
+        this.subnets = subnets;
+        this.s3Buckets = s3Buckets;
+        this.rdsInstances = rdsInstances;
+        this.rdsInstanceEngines = rdsInstanceEngines;
+        this.ecsServices = ecsServices;
+    }
+
+    public EnvironmentRequest getRequest() {
+        return request;
+    }
+
+    public String getName() {
+        return request.getName();
+    }
+
+    public AwsRegion getRegion() {
+        return region;
+    }
+
+    public Cidr getVpcCidr() {
+        return vpcCidr;
+    }
+
+    /**
+     * The VPC CIDR exactly as requested, which is what the generated files contain.
+     */
+    public String getVpcCidrText() {
+        return request.getVpcCidr();
+    }
+
+    /**
+     * Whether the request set {@code availability_zones}. Without it the project keeps
+     * its original layout of one public and one private subnet.
+     */
+    public boolean isMultiZone() {
+        return request.getAvailabilityZones() != null;
+    }
+
+    public int getAvailabilityZones() {
+        return isMultiZone() ? request.getAvailabilityZones() : 1;
+    }
+
+    /**
+     * The public subnet of every zone followed by the private ones, as planned by
+     * {@link com.example.tfgenerator.ipam.SubnetPlanner#evenPlan}.
+     */
+    public List<Subnet> getSubnets() {
+        return subnets;
+    }
+
+    public boolean isS3Enabled() {
+        return s3Enabled;
+    }
+
+    public boolean isEcsEnabled() {
+        return ecsEnabled;
+    }
+
+    public boolean isRdsEnabled() {
+        return rdsEngine != null;
+    }
+
+    /**
+     * The RDS engine, or {@code null} when RDS is disabled.
+     */
+    public RdsEngine getRdsEngine() {
+        return rdsEngine;
+    }
+
+    /**
+     * The RDS settings, or {@code null} when RDS is disabled.
+     */
+    public RdsConfig getRds() {
+        return rdsEngine != null ? request.getServices().getRds() : null;
+    }
+
+    public List<S3BucketConfig> getS3Buckets() {
+        return s3Buckets;
+    }
+
+    /**
+     * The enabled entries of {@code services.rds_instances}.
+     */
+    public List<RdsConfig> getRdsInstances() {
+        return rdsInstances;
+    }
+
+    /**
+     * The engine of each of {@link #getRdsInstances()}, in the same order.
+     */
+    public List<RdsEngine> getRdsInstanceEngines() {
+        return rdsInstanceEngines;
+    }
+
+    public List<EcsServiceConfig> getEcsServices() {
+        return ecsServices;
+    }
+
+    public Map<String, String> getTags() {
+        return request.getTags() != null ? request.getTags() : Collections.<String, String>emptyMap();
+    }
+}
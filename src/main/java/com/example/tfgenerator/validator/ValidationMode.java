@@ -0,0 +1,13 @@
+package com.example.tfgenerator.validator;
+
+/**
+ * How {@link EnvironmentValidator} reports invalid requests.
+ */
+public enum ValidationMode {
+
+    /** Check every field and report all errors together. */
+    COLLECT_ALL,
+
+    /** Stop at the first invalid field. */
+    FAIL_FAST
+}
@@ -0,0 +1,24 @@
+module "environment" {
+  source = "${moduleSource}"
+
+  environment_name    = var.environment_name
+  vpc_cidr            = var.vpc_cidr
+  public_subnet_cidr  = var.public_subnet_cidr
+  private_subnet_cidr = var.private_subnet_cidr
+<#if rdsEnabled>
+  rds_username        = var.rds_username
+  rds_password        = var.rds_password
+  rds_db_name         = var.rds_db_name
+</#if>
+<#list rdsInstances as db>
+  ${db.label}_username = var.${db.label}_username
+  ${db.label}_password = var.${db.label}_password
+  ${db.label}_name     = var.${db.label}_name
+</#list>
+}
+
+variable "region" {
+  description = "AWS region"
+  type        = string
+}
+
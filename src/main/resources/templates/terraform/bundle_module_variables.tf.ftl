@@ -0,0 +1,51 @@
+variable "environment_name" {
+  description = "Environment name"
+  type        = string
+}
+
+variable "vpc_cidr" {
+  description = "VPC CIDR"
+  type        = string
+}
+
+variable "public_subnet_cidr" {
+  description = "Public subnet CIDR"
+  type        = string
+}
+
+variable "private_subnet_cidr" {
+  description = "Private subnet CIDR"
+  type        = string
+}
+<#if rdsEnabled>
+
+variable "rds_username" {
+  type      = string
+  sensitive = true
+}
+
+variable "rds_password" {
+  type      = string
+  sensitive = true
+}
+
+variable "rds_db_name" {
+  type = string
+}
+</#if>
+<#list rdsInstances as db>
+
+variable "${db.label}_username" {
+  type      = string
+  sensitive = true
+}
+
+variable "${db.label}_password" {
+  type      = string
+  sensitive = true
+}
+
+variable "${db.label}_name" {
+  type = string
+}
+</#list>
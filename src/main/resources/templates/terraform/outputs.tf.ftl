@@ -18,6 +18,18 @@ output "private_subnet_id" {
   value       = aws_subnet.private.id
 }
 
+<#if multiZone>
+output "public_subnet_ids" {
+  description = "IDs of the public subnets"
+  value       = local.public_subnet_ids
+}
+
+output "private_subnet_ids" {
+  description = "IDs of the private subnets"
+  value       = local.private_subnet_ids
+}
+
+</#if>
 <#if s3Enabled>
 output "s3_bucket_name" {
   description = "Name of the S3 bucket"
@@ -63,3 +75,24 @@ output "ecs_cluster_arn" {
   value       = aws_ecs_cluster.main.arn
 }
 </#if>
+<#list s3Buckets as bucket>
+
+output "${bucket.label}_name" {
+  description = "Name of the ${bucket.name} S3 bucket"
+  value       = aws_s3_bucket.${bucket.label}.id
+}
+</#list>
+<#list rdsInstances as db>
+
+output "${db.label}_endpoint" {
+  description = "Endpoint of the ${db.name} RDS instance"
+  value       = aws_db_instance.${db.label}.endpoint
+}
+</#list>
+<#list ecsServices as service>
+
+output "${service.label}_name" {
+  description = "Name of the ${service.name} ECS service"
+  value       = aws_ecs_service.${service.label}.name
+}
+</#list>
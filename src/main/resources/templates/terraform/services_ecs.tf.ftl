@@ -75,4 +75,60 @@ resource "aws_security_group" "ecs_tasks" {
     Name = "${r"${var.environment_name}"}-ecs-tasks-sg"
   }
 }
+<#list ecsServices as service>
+
+resource "aws_ecs_task_definition" "${service.label}" {
+  family                   = "${r"${var.environment_name}"}-${service.name}"
+  requires_compatibilities = ["FARGATE"]
+  network_mode             = "awsvpc"
+  cpu                      = ${service.cpu}
+  memory                   = ${service.memory}
+  execution_role_arn       = aws_iam_role.ecs_task_execution.arn
+
+  container_definitions = jsonencode([
+    {
+      name      = "${service.name}"
+      image     = "${service.image}"
+      essential = true
+<#if service.containerPort??>
+      portMappings = [
+        {
+          containerPort = ${service.containerPort}
+          protocol      = "tcp"
+        }
+      ]
+</#if>
+      logConfiguration = {
+        logDriver = "awslogs"
+        options = {
+          awslogs-group         = aws_cloudwatch_log_group.ecs.name
+          awslogs-region        = var.region
+          awslogs-stream-prefix = "${service.name}"
+        }
+      }
+    }
+  ])
+
+  tags = {
+    Name = "${r"${var.environment_name}"}-${service.name}-task"
+  }
+}
+
+resource "aws_ecs_service" "${service.label}" {
+  name            = "${r"${var.environment_name}"}-${service.name}"
+  cluster         = aws_ecs_cluster.main.id
+  task_definition = aws_ecs_task_definition.${service.label}.arn
+  desired_count   = ${service.desiredCount}
+  launch_type     = "FARGATE"
+
+  network_configuration {
+    subnets         = ${privateSubnetIds}
+    security_groups = [aws_security_group.ecs_tasks.id]
+  }
+
+  tags = {
+    Name = "${r"${var.environment_name}"}-${service.name}"
+  }
+}
+</#list>
 </#if>
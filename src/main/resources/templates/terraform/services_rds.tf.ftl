@@ -3,7 +3,7 @@ resource "aws_db_subnet_group" "main" {
   name       = "${r"${var.environment_name}"}-db-subnet-group"
 
   # FIX: RDS must use only private subnet
-  subnet_ids = [aws_subnet.private.id]
+  subnet_ids = ${privateSubnetIds}
 
   tags = {
     Name = "${r"${var.environment_name}"}-db-subnet-group"
@@ -67,3 +67,73 @@ resource "aws_db_instance" "main" {
   }
 }
 </#if>
+<#list rdsInstances as db>
+<#if rdsEnabled || !db?is_first>
+
+</#if>
+resource "aws_db_subnet_group" "${db.label}" {
+  name       = "${r"${var.environment_name}"}-${db.name}-subnet-group"
+  subnet_ids = ${privateSubnetIds}
+
+  tags = {
+    Name = "${r"${var.environment_name}"}-${db.name}-subnet-group"
+  }
+}
+
+resource "aws_security_group" "${db.label}" {
+  name        = "${r"${var.environment_name}"}-${db.name}-sg"
+  description = "Security group for RDS instance ${db.name}"
+  vpc_id      = aws_vpc.main.id
+
+  ingress {
+    from_port   = ${db.port}
+    to_port     = ${db.port}
+    protocol    = "tcp"
+    cidr_blocks = [var.vpc_cidr]
+    description = "Allow database access from VPC"
+  }
+
+  egress {
+    from_port   = 0
+    to_port     = 0
+    protocol    = "-1"
+    cidr_blocks = ["0.0.0.0/0"]
+    description = "Allow all outbound traffic"
+  }
+
+  tags = {
+    Name = "${r"${var.environment_name}"}-${db.name}-sg"
+  }
+}
+
+resource "aws_db_instance" "${db.label}" {
+  identifier             = "${r"${var.environment_name}"}-${db.name}"
+  engine                 = "${db.engine}"
+  engine_version         = "${db.engineVersion}"
+  instance_class         = "${db.instanceClass}"
+
+  allocated_storage      = 20
+  storage_type           = "gp3"
+  storage_encrypted      = true
+
+  db_name  = var.${db.label}_name
+  username = var.${db.label}_username
+  password = var.${db.label}_password
+
+  db_subnet_group_name   = aws_db_subnet_group.${db.label}.name
+  vpc_security_group_ids = [aws_security_group.${db.label}.id]
+
+  backup_retention_period = 7
+  backup_window           = "03:00-04:00"
+  maintenance_window      = "mon:04:00-mon:05:00"
+
+  skip_final_snapshot       = true
+  final_snapshot_identifier = "${r"${var.environment_name}"}-${db.name}-final-snapshot"
+
+  enabled_cloudwatch_logs_exports = ${db.logExports}
+
+  tags = {
+    Name = "${r"${var.environment_name}"}-${db.name}"
+  }
+}
+</#list>
@@ -1,3 +1,4 @@
+<#if s3Enabled || s3Buckets?has_content>
 <#if s3Enabled>
 # S3 Bucket
 resource "aws_s3_bucket" "main" {
@@ -35,5 +36,44 @@ resource "aws_s3_bucket_public_access_block" "main" {
   restrict_public_buckets = true
 }
 
+</#if>
+<#list s3Buckets as bucket>
+# S3 Bucket ${bucket.name}
+resource "aws_s3_bucket" "${bucket.label}" {
+  bucket = "${r"${var.environment_name}"}-${bucket.name}-${r"${data.aws_caller_identity.current.account_id}"}"
+
+  tags = {
+    Name = "${r"${var.environment_name}"}-${bucket.name}"
+  }
+}
+
+resource "aws_s3_bucket_versioning" "${bucket.label}" {
+  bucket = aws_s3_bucket.${bucket.label}.id
+
+  versioning_configuration {
+    status = "Enabled"
+  }
+}
+
+resource "aws_s3_bucket_server_side_encryption_configuration" "${bucket.label}" {
+  bucket = aws_s3_bucket.${bucket.label}.id
+
+  rule {
+    apply_server_side_encryption_by_default {
+      sse_algorithm = "AES256"
+    }
+  }
+}
+
+resource "aws_s3_bucket_public_access_block" "${bucket.label}" {
+  bucket = aws_s3_bucket.${bucket.label}.id
+
+  block_public_acls       = true
+  block_public_policy     = true
+  ignore_public_acls      = true
+  restrict_public_buckets = true
+}
+
+</#list>
 data "aws_caller_identity" "current" {}
 </#if>
@@ -10,3 +10,11 @@ rds_username = "${rdsUsername}"
 rds_password = "${rdsPassword}"
 rds_db_name  = "${rdsDbName}"
 </#if>
+<#list rdsInstances as db>
+<#if rdsEnabled || !db?is_first>
+
+</#if>
+${db.label}_username = "${db.username}"
+${db.label}_password = "${db.password}"
+${db.label}_name     = "${db.dbName}"
+</#list>
@@ -46,3 +46,24 @@ variable "rds_db_name" {
   default     = "${rdsDbName}"
 }
 </#if>
+<#list rdsInstances as db>
+<#if rdsEnabled || !db?is_first>
+
+</#if>
+variable "${db.label}_username" {
+  type        = string
+  default     = "${db.username}"
+  sensitive   = true
+}
+
+variable "${db.label}_password" {
+  type        = string
+  default     = "${db.password}"
+  sensitive   = true
+}
+
+variable "${db.label}_name" {
+  type        = string
+  default     = "${db.dbName}"
+}
+</#list>
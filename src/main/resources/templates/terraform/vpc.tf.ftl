@@ -35,7 +35,7 @@ resource "aws_subnet" "public" {
 resource "aws_subnet" "private" {
   vpc_id            = aws_vpc.main.id
   cidr_block        = var.private_subnet_cidr
-  availability_zone = data.aws_availability_zones.available.names[1]
+  availability_zone = data.aws_availability_zones.available.names[<#if multiZone>0<#else>1</#if>]
 
   tags = {
     Name = "${r"${var.environment_name}"}-private-subnet"
@@ -106,7 +106,53 @@ resource "aws_route_table_association" "private" {
   route_table_id = aws_route_table.private.id
 }
 
+<#list zones as zone>
+# Public Subnet ${zone.index}
+resource "aws_subnet" "public_${zone.index}" {
+  vpc_id                  = aws_vpc.main.id
+  cidr_block              = "${zone.publicCidr}"
+  availability_zone       = element(data.aws_availability_zones.available.names, ${zone.index})
+  map_public_ip_on_launch = true
+
+  tags = {
+    Name = "${r"${var.environment_name}"}-public-subnet-${zone.index}"
+    Type = "public"
+  }
+}
+
+# Private Subnet ${zone.index}
+resource "aws_subnet" "private_${zone.index}" {
+  vpc_id            = aws_vpc.main.id
+  cidr_block        = "${zone.privateCidr}"
+  availability_zone = element(data.aws_availability_zones.available.names, ${zone.index})
+
+  tags = {
+    Name = "${r"${var.environment_name}"}-private-subnet-${zone.index}"
+    Type = "private"
+  }
+}
+
+# Public Route Table Association ${zone.index}
+resource "aws_route_table_association" "public_${zone.index}" {
+  subnet_id      = aws_subnet.public_${zone.index}.id
+  route_table_id = aws_route_table.public.id
+}
+
+# Private Route Table Association ${zone.index}
+resource "aws_route_table_association" "private_${zone.index}" {
+  subnet_id      = aws_subnet.private_${zone.index}.id
+  route_table_id = aws_route_table.private.id
+}
+
+</#list>
 # Data source for availability zones
 data "aws_availability_zones" "available" {
   state = "available"
 }
+<#if multiZone>
+
+locals {
+  public_subnet_ids  = [aws_subnet.public.id<#list zones as zone>, aws_subnet.public_${zone.index}.id</#list>]
+  private_subnet_ids = [aws_subnet.private.id<#list zones as zone>, aws_subnet.private_${zone.index}.id</#list>]
+}
+</#if>
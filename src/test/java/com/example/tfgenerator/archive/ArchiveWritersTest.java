@@ -0,0 +1,192 @@
+package com.example.tfgenerator.archive;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.StreamUtils;
+
+public class ArchiveWritersTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testParallelGzipRoundTripsAcrossManyChunks() throws Exception {
+        byte[] input = terraformLike(3 * 1024 * 1024 + 17);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(out, 6, 64 * 1024, executor, 3);
+        // Uneven writes so chunk boundaries fall in the middle of them.
+        for (int off = 0; off < input.length; off += 10_000) {
+            gzip.write(input, off, Math.min(10_000, input.length - off));
+        }
+        gzip.finish();
+
+        assertArrayEquals(input, gunzip(out.toByteArray()));
+        assertTrue(out.size() < input.length / 5, "compressed to " + out.size());
+    }
+
+    @Test
+    public void testParallelGzipOfEmptyAndSmallInput() throws Exception {
+        for (int size : new int[] { 0, 1, 4096 }) {
+            byte[] input = terraformLike(size);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ParallelGzipOutputStream gzip = new ParallelGzipOutputStream(out, 6, 64 * 1024, executor, 3);
+            gzip.write(input);
+            gzip.finish();
+
+            assertArrayEquals(input, gunzip(out.toByteArray()));
+        }
+    }
+
+    @Test
+    public void testTarGzEntriesRoundTrip() throws Exception {
+        ArchiveWriters writers = new ArchiveWriters(executor);
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        files.put("main.tf", "provider \"aws\" {}\n".getBytes(StandardCharsets.UTF_8));
+        files.put("vpc.tf", terraformLike(5000));
+        files.put("empty.tf", new byte[0]);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArchiveWriter writer = writers.open(ArchiveFormat.TAR_GZ, out);
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            writer.addEntry(file.getKey(), file.getValue(), 0, file.getValue().length);
+        }
+        writer.finish();
+
+        Map<String, byte[]> entries = untar(gunzip(out.toByteArray()));
+        assertEquals(files.keySet(), entries.keySet());
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            assertArrayEquals(file.getValue(), entries.get(file.getKey()));
+        }
+    }
+
+    @Test
+    public void testZipStoresSmallEntries() throws Exception {
+        ArchiveWriters writers = new ArchiveWriters(executor, 6, 512, 6, 128 * 1024, 0);
+        byte[] small = "variable \"region\" {}\n".getBytes(StandardCharsets.UTF_8);
+        byte[] large = terraformLike(8192);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArchiveWriter writer = writers.open(ArchiveFormat.ZIP, out);
+        writer.addEntry("small.tf", small, 0, small.length);
+        writer.addEntry("large.tf", large, 0, large.length);
+        writer.finish();
+
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry = zis.getNextEntry();
+            assertEquals(ZipEntry.STORED, entry.getMethod());
+            assertArrayEquals(small, StreamUtils.copyToByteArray(zis));
+            entry = zis.getNextEntry();
+            assertEquals(ZipEntry.DEFLATED, entry.getMethod());
+            assertArrayEquals(large, StreamUtils.copyToByteArray(zis));
+        }
+    }
+
+    @Test
+    public void testArchivesAreByteForByteReproducible() throws Exception {
+        ArchiveWriters writers = new ArchiveWriters(executor, 6, 512, 6, 64 * 1024, 0);
+        byte[] content = terraformLike(200 * 1024);
+        Map<ArchiveFormat, byte[]> first = new EnumMap<>(ArchiveFormat.class);
+        for (ArchiveFormat format : ArchiveFormat.values()) {
+            first.put(format, archive(writers, format, content));
+        }
+        // ZIP times have a two second resolution, so wait long enough for a clock-based time to change.
+        Thread.sleep(2100);
+        for (ArchiveFormat format : ArchiveFormat.values()) {
+            assertArrayEquals(first.get(format), archive(writers, format, content), format.getCode());
+        }
+    }
+
+    private static byte[] archive(ArchiveWriters writers, ArchiveFormat format, byte[] content) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArchiveWriter writer = writers.open(format, out);
+        writer.addEntry("vpc.tf", content, 0, content.length);
+        writer.addEntry("outputs.tf", content, 0, 100);
+        writer.finish();
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testFormatNames() {
+        assertEquals(ArchiveFormat.TAR_GZ, ArchiveFormat.fromCode("tgz"));
+        assertEquals(ArchiveFormat.TAR_GZ, ArchiveFormat.fromCode("TAR.GZ"));
+        assertEquals(ArchiveFormat.ZIP, ArchiveFormat.fromMediaType("application/zip"));
+        assertEquals(null, ArchiveFormat.fromCode("rar"));
+    }
+
+    /**
+     * Repetitive text with some noise, compressing roughly like generated HCL.
+     */
+    private static byte[] terraformLike(int size) {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder(size + 64);
+        while (text.length() < size) {
+            text.append("resource \"aws_subnet\" \"s").append(random.nextInt(100000)).append("\" {\n  cidr_block = \"10.")
+                    .append(random.nextInt(256)).append(".0.0/24\"\n}\n");
+        }
+        return text.substring(0, size).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] gunzip(byte[] gzip) throws Exception {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return StreamUtils.copyToByteArray(in);
+        }
+    }
+
+    private static Map<String, byte[]> untar(byte[] tar) {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        int offset = 0;
+        while (offset + 512 <= tar.length && tar[offset] != 0) {
+            int nameEnd = offset;
+            while (tar[nameEnd] != 0) {
+                nameEnd++;
+            }
+            String name = new String(tar, offset, nameEnd - offset, StandardCharsets.UTF_8);
+            int size = Integer.parseInt(new String(tar, offset + 124, 11, StandardCharsets.US_ASCII), 8);
+            assertEquals("ustar", new String(tar, offset + 257, 5, StandardCharsets.US_ASCII));
+            assertEquals(checksum(tar, offset), Integer.parseInt(new String(tar, offset + 148, 6, StandardCharsets.US_ASCII), 8));
+
+            byte[] content = new byte[size];
+            System.arraycopy(tar, offset + 512, content, 0, size);
+            entries.put(name, content);
+            offset += 512 + (size + 511) / 512 * 512;
+        }
+        assertEquals(tar.length, offset + 1024);
+        return entries;
+    }
+
+    private static int checksum(byte[] tar, int offset) {
+        int sum = 0;
+        for (int i = 0; i < 512; i++) {
+            sum += (i >= 148 && i < 156) ? ' ' : tar[offset + i] & 0xff;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.tfgenerator.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.tfgenerator.util.Hashes;
+
+public class HashRingTest {
+
+    private static final int KEYS = 10000;
+
+    @Test
+    public void testSpreadsKeysEvenly() {
+        HashRing ring = new HashRing(Arrays.asList("http://a", "http://b", "http://c"), 160);
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            owned.merge(ring.owner(Hashes.sha256Hex("request-" + i)), 1, Integer::sum);
+        }
+
+        assertEquals(3, owned.size());
+        for (int count : owned.values()) {
+            assertTrue(count > KEYS / 3 * 0.8 && count < KEYS / 3 * 1.2, "unbalanced: " + owned);
+        }
+    }
+
+    @Test
+    public void testAddingANodeOnlyMovesKeysToIt() {
+        HashRing before = new HashRing(Arrays.asList("http://a", "http://b", "http://c"), 160);
+        HashRing after = new HashRing(Arrays.asList("http://a", "http://b", "http://c", "http://d"), 160);
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = Hashes.sha256Hex("request-" + i);
+            String owner = after.owner(key);
+            if (!owner.equals(before.owner(key))) {
+                assertEquals("http://d", owner);
+                moved++;
+            }
+        }
+
+        assertTrue(moved > KEYS / 4 * 0.8 && moved < KEYS / 4 * 1.2, "moved " + moved);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.tfgenerator.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.StreamUtils;
+
+import com.example.tfgenerator.archive.ArchiveFormat;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.metrics.GenerationMetrics;
+import com.example.tfgenerator.model.TerraformResponse;
+import com.example.tfgenerator.service.TemplateRegistry;
+import com.example.tfgenerator.service.TestGenerators;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class PeerCacheTest {
+
+    private static final String SELF = "http://self.invalid";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicReference<String> receivedVersion = new AtomicReference<>();
+    private TemplateRegistry templateRegistry;
+    private HttpServer owner;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        templateRegistry = TestGenerators.newTemplateRegistry();
+
+        owner = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        owner.createContext(PeerCache.PROJECT_PATH, exchange -> {
+            TerraformResponse response = new TerraformResponse();
+            response.setMainTf("# from owner");
+            respond(exchange, 200, objectMapper.writeValueAsBytes(response));
+        });
+        owner.createContext(PeerCache.ARCHIVE_PATH, exchange -> respond(exchange, 409, new byte[0]));
+        owner.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        owner.stop(0);
+    }
+
+    @Test
+    public void testFetchesFromTheOwningReplica() {
+        String url = "http://localhost:" + owner.getAddress().getPort();
+        PeerCache peerCache = peerCache(url);
+        String key = keyOwnedBy(peerCache, url);
+
+        TerraformResponse response = peerCache.fetchProject(key, request());
+
+        assertNotNull(response);
+        assertEquals("# from owner", response.getMainTf());
+        assertEquals(templateRegistry.version(), receivedVersion.get());
+        assertEquals(1, meterRegistry.get("terraform.peer.fetch").tag("outcome", "hit").timer().count());
+    }
+
+    @Test
+    public void testRefusalIsAMissButKeepsThePeer() {
+        String url = "http://localhost:" + owner.getAddress().getPort();
+        PeerCache peerCache = peerCache(url);
+        String key = keyOwnedBy(peerCache, url);
+
+        assertNull(peerCache.fetchArchive(key, request(), ArchiveFormat.ZIP));
+        assertEquals(url, peerCache.remoteOwner(key));
+    }
+
+    @Test
+    public void testUnreachableOwnerIsSkippedUntilItMayBeBack() throws IOException {
+        String url;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            url = "http://localhost:" + socket.getLocalPort();
+        }
+        PeerCache peerCache = peerCache(url);
+        String key = keyOwnedBy(peerCache, url);
+
+        assertNull(peerCache.fetchProject(key, request()));
+        assertNull(peerCache.remoteOwner(key));
+        assertEquals(1, meterRegistry.get("terraform.peer.fetch").tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    public void testDisabledWhenSelfIsNotAPeer() {
+        ClusterProperties properties = new ClusterProperties();
+        properties.setEnabled(true);
+        properties.setSelf("http://elsewhere");
+        properties.setPeers(Arrays.asList("http://a", "http://b"));
+        properties.setSecret("secret");
+
+        PeerCache peerCache = new PeerCache(properties, objectMapper, templateRegistry,
+                new GenerationMetrics(meterRegistry));
+
+        assertFalse(peerCache.isEnabled());
+        assertNull(peerCache.remoteOwner("any"));
+    }
+
+    @Test
+    public void testEnablingWithoutASecretFailsStartup() {
+        ClusterProperties properties = new ClusterProperties();
+        properties.setEnabled(true);
+        properties.setSelf(SELF);
+        properties.setPeers(Arrays.asList(SELF, "http://other"));
+
+        assertThrows(IllegalStateException.class, () -> new PeerCache(properties, objectMapper, templateRegistry,
+                new GenerationMetrics(meterRegistry)));
+    }
+
+    private PeerCache peerCache(String peer) {
+        ClusterProperties properties = new ClusterProperties();
+        properties.setEnabled(true);
+        properties.setSelf(SELF);
+        properties.setPeers(Arrays.asList(SELF, peer));
+        properties.setDownMillis(60000);
+        properties.setSecret("secret");
+        return new PeerCache(properties, objectMapper, templateRegistry, new GenerationMetrics(meterRegistry));
+    }
+
+    private static String keyOwnedBy(PeerCache peerCache, String peer) {
+        for (int i = 0;; i++) {
+            String key = "key-" + i;
+            if (peer.equals(peerCache.remoteOwner(key))) {
+                return key;
+            }
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        receivedVersion.set(exchange.getRequestHeaders().getFirst(PeerCache.TEMPLATE_VERSION_HEADER));
+        EnvironmentRequest received = objectMapper.readValue(
+                StreamUtils.copyToString(exchange.getRequestBody(), StandardCharsets.UTF_8), EnvironmentRequest.class);
+        assertEquals("peer-app", received.getName());
+        exchange.sendResponseHeaders(status, body.length > 0 ? body.length : -1);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static EnvironmentRequest request() {
+        EnvironmentRequest request = new EnvironmentRequest();
+        request.setName("peer-app");
+        request.setRegion("us-east-1");
+        request.setVpcCidr("10.0.0.0/16");
+        return request;
+    }
+}
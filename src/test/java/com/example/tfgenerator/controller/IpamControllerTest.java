@@ -0,0 +1,50 @@
+package com.example.tfgenerator.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.tfgenerator.dto.SubnetPlanRequest;
+import com.example.tfgenerator.dto.VpcAllocationRequest;
+import com.example.tfgenerator.exception.ValidationException;
+import com.example.tfgenerator.ipam.VpcRegistry;
+
+public class IpamControllerTest {
+
+    private final VpcRegistry vpcRegistry = new VpcRegistry();
+    private final IpamController controller = new IpamController(vpcRegistry, event -> { });
+
+    @Test
+    public void testAvailabilityZonesAreBounded() {
+        assertEquals(512, controller.planSubnets(plan("10.0.0.0/8", 256)).getBody().getData().size());
+
+        ValidationException tooMany = assertThrows(ValidationException.class,
+                () -> controller.planSubnets(plan("0.0.0.0/0", 500000000)));
+        assertEquals("Field 'availability_zones' must be between 1 and 256", tooMany.getMessage());
+        ValidationException none = assertThrows(ValidationException.class,
+                () -> controller.planSubnets(plan("10.0.0.0/16", 0)));
+        assertTrue(none.getMessage().startsWith("Field 'availability_zones'"));
+    }
+
+    @Test
+    public void testAllocationNamesFollowEnvironmentNaming() {
+        VpcAllocationRequest request = new VpcAllocationRequest();
+        request.setCidr("10.0.0.0/16");
+
+        assertThrows(ValidationException.class, () -> controller.allocate("Not A Name!", request));
+        assertThrows(ValidationException.class, () -> controller.release("-bad"));
+        assertTrue(vpcRegistry.list().isEmpty());
+
+        controller.allocate("orders-prod", request);
+        assertEquals(1, vpcRegistry.list().size());
+    }
+
+    private static SubnetPlanRequest plan(String vpcCidr, int availabilityZones) {
+        SubnetPlanRequest request = new SubnetPlanRequest();
+        request.setVpcCidr(vpcCidr);
+        request.setAvailabilityZones(availabilityZones);
+        return request;
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.tfgenerator.hcl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.StreamUtils;
+
+import com.example.tfgenerator.dto.EcsConfig;
+import com.example.tfgenerator.dto.EcsServiceConfig;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.dto.RdsConfig;
+import com.example.tfgenerator.dto.S3BucketConfig;
+import com.example.tfgenerator.dto.Services;
+import com.example.tfgenerator.model.GenerationEngine;
+import com.example.tfgenerator.model.TerraformFile;
+import com.example.tfgenerator.service.TerraformGenerationService;
+import com.example.tfgenerator.service.TerraformTemplateService;
+import com.example.tfgenerator.service.TestGenerators;
+import com.example.tfgenerator.validator.EnvironmentValidator;
+
+/**
+ * Golden-file tests: both engines must reproduce the files under
+ * {@code src/test/resources/golden} byte for byte. Run with
+ * {@code -Dgolden.update=true} to rewrite them from the FreeMarker templates.
+ */
+public class HclEmitterTest {
+
+    private static final Path GOLDEN_DIR = Paths.get("src/test/resources/golden");
+
+    private TestGenerators generators;
+    private EnvironmentValidator validator;
+    private TerraformGenerationService generationService;
+    private TerraformTemplateService templateService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        generators = new TestGenerators(0);
+        validator = generators.validator();
+        templateService = generators.templateService();
+        generationService = generators.generationService();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        generators.close();
+    }
+
+    @Test
+    public void testFullEnvironmentMatchesGoldenFiles() throws IOException {
+        assertGolden("full", fullRequest());
+    }
+
+    @Test
+    public void testMysqlWithEcsMatchesGoldenFiles() throws IOException {
+        EnvironmentRequest request = fullRequest();
+        request.setName("mysql-app");
+        request.setRegion("ap-southeast-2");
+        request.setVpcCidr("172.16.0.0/20");
+        request.getServices().setS3Bucket(false);
+        request.getServices().getRds().setEngine("mysql");
+        request.setTags(null);
+        assertGolden("mysql-ecs", request);
+    }
+
+    @Test
+    public void testMinimalEnvironmentMatchesGoldenFiles() throws IOException {
+        EnvironmentRequest request = new EnvironmentRequest();
+        request.setName("tiny");
+        request.setRegion("us-west-2");
+        request.setVpcCidr("10.20.0.0/24");
+        Services services = new Services();
+        services.setS3Bucket(false);
+        request.setServices(services);
+        assertGolden("minimal", request);
+    }
+
+    @Test
+    public void testListServicesAcrossZonesMatchGoldenFiles() throws IOException {
+        EnvironmentRequest request = fullRequest();
+        request.setName("fleet");
+        request.setAvailabilityZones(3);
+        request.getServices().setS3Buckets(Arrays.asList(bucket("logs"), bucket("1-assets")));
+        RdsConfig disabled = rds("archive", "postgres");
+        disabled.setEnabled(false);
+        request.getServices().setRdsInstances(Arrays.asList(rds("orders", "mysql"), disabled,
+                rds("reports", "postgres")));
+        EcsServiceConfig worker = ecsService("worker");
+        worker.setContainerPort(null);
+        worker.setCpu(1024);
+        worker.setMemory(2048);
+        request.getServices().setEcsServices(Arrays.asList(ecsService("api"), worker));
+        assertGolden("multi-zone", request);
+    }
+
+    @Test
+    public void testEnginesAgreeForListsWithoutTheOriginalServices() {
+        EnvironmentRequest request = fullRequest();
+        request.getServices().setS3Bucket(false);
+        request.getServices().getRds().setEnabled(false);
+        request.getServices().setS3Buckets(Arrays.asList(bucket("logs"), bucket("data")));
+        request.getServices().setRdsInstances(Arrays.asList(rds("orders", "mysql"), rds("reports", "postgres")));
+        request.getServices().setEcsServices(Arrays.asList(ecsService("api")));
+        Map<String, Object> model = generationService.createRenderPlan(validator.validate(request)).getModel();
+
+        for (TerraformFile file : TerraformFile.values()) {
+            assertEquals(templateService.render(file.getTemplateName(), model), templateService.emit(file, model),
+                    file.getFileName());
+        }
+    }
+
+    @Test
+    public void testEnginesAgreeForEveryServiceCombination() {
+        for (int mask = 0; mask < 8; mask++) {
+            EnvironmentRequest request = fullRequest();
+            request.getServices().setS3Bucket((mask & 1) != 0);
+            request.getServices().getRds().setEnabled((mask & 2) != 0);
+            request.getServices().getEcsCluster().setEnabled((mask & 4) != 0);
+            Map<String, Object> model = generationService.createRenderPlan(validator.validate(request)).getModel();
+
+            for (TerraformFile file : TerraformFile.values()) {
+                assertEquals(templateService.render(file.getTemplateName(), model), templateService.emit(file, model),
+                        file.getFileName() + " with services mask " + mask);
+            }
+        }
+    }
+
+    private void assertGolden(String name, EnvironmentRequest request) throws IOException {
+        Map<String, Object> model = generationService.createRenderPlan(validator.validate(request)).getModel();
+        if (Boolean.getBoolean("golden.update")) {
+            Files.createDirectories(GOLDEN_DIR.resolve(name));
+            for (TerraformFile file : TerraformFile.values()) {
+                Files.write(GOLDEN_DIR.resolve(name).resolve(file.getFileName()),
+                        templateService.render(file, model, GenerationEngine.FREEMARKER).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        for (TerraformFile file : TerraformFile.values()) {
+            String expected = golden(name, file);
+            assertEquals(expected, templateService.render(file, model, GenerationEngine.FREEMARKER),
+                    "freemarker " + name + "/" + file.getFileName());
+            assertEquals(expected, templateService.render(file, model, GenerationEngine.HCL),
+                    "hcl " + name + "/" + file.getFileName());
+        }
+    }
+
+    private static String golden(String name, TerraformFile file) throws IOException {
+        String resource = "/golden/" + name + "/" + file.getFileName();
+        try (InputStream in = HclEmitterTest.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing golden file " + resource);
+            }
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static S3BucketConfig bucket(String name) {
+        S3BucketConfig bucket = new S3BucketConfig();
+        bucket.setName(name);
+        return bucket;
+    }
+
+    private static RdsConfig rds(String name, String engine) {
+        RdsConfig rds = new RdsConfig();
+        rds.setName(name);
+        rds.setEngine(engine);
+        rds.setInstanceClass("db.t3.small");
+        rds.setDbName(name.replace('-', '_'));
+        rds.setUsername(name + "_admin");
+        rds.setPassword(name + "-Secret1");
+        return rds;
+    }
+
+    private static EcsServiceConfig ecsService(String name) {
+        EcsServiceConfig service = new EcsServiceConfig();
+        service.setName(name);
+        service.setImage("registry.example.com/" + name + ":1.4.2");
+        service.setDesiredCount(2);
+        service.setContainerPort(8080);
+        return service;
+    }
+
+    private static EnvironmentRequest fullRequest() {
+        EnvironmentRequest request = new EnvironmentRequest();
+        request.setName("golden-app");
+        request.setRegion("eu-central-1");
+        request.setVpcCidr("10.42.0.0/16");
+
+        RdsConfig rds = new RdsConfig();
+        rds.setEnabled(true);
+        rds.setEngine("postgres");
+        rds.setInstanceClass("db.t3.medium");
+        rds.setDbName("appdb");
+        rds.setUsername("app_admin");
+        rds.setPassword("Sup3rSecret!");
+
+        EcsConfig ecs = new EcsConfig();
+        ecs.setEnabled(true);
+
+        Services services = new Services();
+        services.setS3Bucket(true);
+        services.setRds(rds);
+        services.setEcsCluster(ecs);
+        request.setServices(services);
+
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("team", "platform");
+        tags.put("cost-center", "1234");
+        request.setTags(tags);
+        return request;
+    }
+}
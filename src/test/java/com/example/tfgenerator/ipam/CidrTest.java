@@ -0,0 +1,41 @@
+package com.example.tfgenerator.ipam;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class CidrTest {
+
+    @Test
+    public void testParseAndFormat() {
+        Cidr cidr = Cidr.parse("192.168.10.0/24");
+        assertEquals(24, cidr.prefix());
+        assertEquals(0xC0A80A00L, cidr.start());
+        assertEquals(0xC0A80AFFL, cidr.end());
+        assertEquals("192.168.10.0/24", cidr.toString());
+        assertEquals("255.255.255.255/32", Cidr.parse("255.255.255.255/32").toString());
+        assertEquals("0.0.0.0/0", Cidr.parse("0.0.0.0/0").toString());
+    }
+
+    @Test
+    public void testRejectsOutOfRangeValues() {
+        for (String invalid : new String[] { "999.0.0.0/16", "10.0.0.0/33", "10.0.0/16", "10.0.0.0.0/16",
+                "10.0.0.0", "10.0.0.0/", "10.0.0.0/1a", "a.b.c.d/8", "1000.0.0.0/8", "10.0.0.0/016" }) {
+            assertThrows(IllegalArgumentException.class, () -> Cidr.parse(invalid), invalid);
+        }
+    }
+
+    @Test
+    public void testNetworkAddressAndOverlap() {
+        Cidr cidr = Cidr.parse("10.0.1.0/16");
+        assertFalse(cidr.isNetworkAddress());
+        assertEquals("10.0.0.0/16", cidr.network().toString());
+
+        assertTrue(Cidr.parse("10.0.0.0/8").contains(Cidr.parse("10.20.0.0/16")));
+        assertTrue(Cidr.parse("10.0.0.0/8").overlaps(Cidr.parse("10.20.0.0/16")));
+        assertFalse(Cidr.parse("10.0.0.0/16").overlaps(Cidr.parse("10.1.0.0/16")));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.tfgenerator.ipam;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class SubnetPlannerTest {
+
+    @Test
+    public void testEvenPlanAcrossAvailabilityZones() {
+        List<Subnet> plan = SubnetPlanner.evenPlan(Cidr.parse("10.0.0.0/16"), 3);
+
+        assertEquals(6, plan.size());
+        assertEquals("10.0.0.0/19", plan.get(0).getCidr().toString());
+        assertEquals(SubnetTier.PUBLIC, plan.get(0).getTier());
+        assertEquals("10.0.64.0/19", plan.get(2).getCidr().toString());
+        assertEquals("10.0.96.0/19", plan.get(3).getCidr().toString());
+        assertEquals(SubnetTier.PRIVATE, plan.get(3).getTier());
+        assertEquals(0, plan.get(3).getAz());
+    }
+
+    @Test
+    public void testVariableSizesArePackedLargestFirst() {
+        List<Subnet> plan = SubnetPlanner.plan(Cidr.parse("10.0.0.0/16"), Arrays.asList(
+                Subnet.request(SubnetTier.PUBLIC, 0, 24),
+                Subnet.request(SubnetTier.PRIVATE, 0, 18),
+                Subnet.request(SubnetTier.PUBLIC, 1, 24),
+                Subnet.request(SubnetTier.PRIVATE, 1, 18)));
+
+        assertEquals("10.0.128.0/24", plan.get(0).getCidr().toString());
+        assertEquals("10.0.0.0/18", plan.get(1).getCidr().toString());
+        assertEquals("10.0.129.0/24", plan.get(2).getCidr().toString());
+        assertEquals("10.0.64.0/18", plan.get(3).getCidr().toString());
+    }
+
+    @Test
+    public void testRejectsPlanThatDoesNotFit() {
+        assertThrows(IllegalArgumentException.class, () -> SubnetPlanner.plan(Cidr.parse("10.0.0.0/24"),
+                Arrays.asList(Subnet.request(SubnetTier.PUBLIC, 0, 24), Subnet.request(SubnetTier.PRIVATE, 0, 25))));
+        assertThrows(IllegalArgumentException.class, () -> SubnetPlanner.plan(Cidr.parse("10.0.0.0/24"),
+                Arrays.asList(Subnet.request(SubnetTier.PUBLIC, 0, 23))));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.tfgenerator.ipam;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.tfgenerator.exception.CidrConflictException;
+
+public class VpcRegistryTest {
+
+    @Test
+    public void testFindsOverlapsOnEitherSide() {
+        VpcRegistry registry = new VpcRegistry();
+        registry.register("a", Cidr.parse("10.0.0.0/16"));
+        registry.register("b", Cidr.parse("10.2.0.0/16"));
+
+        assertEquals("a", registry.findOverlap(Cidr.parse("10.0.5.0/24"), null).getName());
+        assertEquals("b", registry.findOverlap(Cidr.parse("10.2.255.0/24"), null).getName());
+        assertEquals("a", registry.findOverlap(Cidr.parse("10.0.0.0/8"), "b").getName());
+        assertNull(registry.findOverlap(Cidr.parse("10.1.0.0/16"), null));
+    }
+
+    @Test
+    public void testIgnoresOwnAllocation() {
+        VpcRegistry registry = new VpcRegistry();
+        registry.register("a", Cidr.parse("10.0.0.0/16"));
+        registry.register("b", Cidr.parse("10.1.0.0/16"));
+
+        assertNull(registry.findOverlap(Cidr.parse("10.1.0.0/16"), "b"));
+        assertEquals("a", registry.findOverlap(Cidr.parse("10.0.0.0/15"), "b").getName());
+    }
+
+    @Test
+    public void testReRegisterMovesAllocation() {
+        VpcRegistry registry = new VpcRegistry();
+        registry.register("a", Cidr.parse("10.0.0.0/16"));
+        registry.register("a", Cidr.parse("10.5.0.0/16"));
+        registry.register("b", Cidr.parse("10.0.0.0/16"));
+
+        assertEquals(2, registry.size());
+        assertThrows(CidrConflictException.class, () -> registry.register("c", Cidr.parse("10.5.1.0/24")));
+    }
+
+    @Test
+    public void testManyAllocations() {
+        VpcRegistry registry = new VpcRegistry();
+        for (int i = 0; i < 4096; i++) {
+            registry.register("env-" + i, Cidr.of(0x0A000000 + (i << 12), 20));
+        }
+        assertEquals("env-100", registry.findOverlap(Cidr.of(0x0A000000 + (100 << 12) + 5, 32), null).getName());
+        assertNull(registry.findOverlap(Cidr.parse("11.0.0.0/8"), null));
+    }
+
+    @Test
+    public void testPersistedAllocationsSurviveRestartsAndAreSharedThroughTheDirectory(@TempDir Path dir) {
+        List<Object> events = new ArrayList<>();
+        VpcRegistry first = new VpcRegistry(dir.toString(), events::add);
+        VpcRegistry second = new VpcRegistry(dir.toString(), events::add);
+
+        first.register("a", Cidr.parse("10.0.0.0/16"));
+        assertEquals("a", second.findOverlap(Cidr.parse("10.0.1.0/24"), null).getName());
+        assertEquals(1, events.size());
+        assertThrows(CidrConflictException.class, () -> second.register("b", Cidr.parse("10.0.0.0/8")));
+
+        second.register("b", Cidr.parse("10.1.0.0/16"));
+        assertTrue(first.release("a"));
+
+        VpcRegistry restarted = new VpcRegistry(dir.toString(), events::add);
+        assertEquals(1, restarted.size());
+        assertEquals("10.1.0.0/16", restarted.get("b").getCidr().toString());
+        assertNull(second.get("a"));
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.tfgenerator.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+public class ClientIdentityFilterTest {
+
+    @Test
+    public void testOnlyConfiguredClientIdsAreHonoured() {
+        FairnessProperties properties = new FairnessProperties();
+        properties.getClients().put("dashboard", new ClientPolicy());
+        ClientPolicy ci = new ClientPolicy();
+        ci.setApiKey("ci-key");
+        properties.getClients().put("ci", ci);
+        ClientIdentityFilter filter = new ClientIdentityFilter(properties);
+
+        assertEquals("dashboard", filter.resolve(request("X-Client-Id", "dashboard")));
+        assertEquals("ip:10.1.2.3", filter.resolve(request("X-Client-Id", "rotated-123")));
+        assertEquals("ip:10.1.2.3", filter.resolve(request("X-Client-Id", "ci")));
+        assertEquals("ci", filter.resolve(request("X-API-Key", "ci-key")));
+    }
+
+    private static MockHttpServletRequest request(String header, String value) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/environments");
+        request.setRemoteAddr("10.1.2.3");
+        request.addHeader(header, value);
+        return request;
+    }
+}
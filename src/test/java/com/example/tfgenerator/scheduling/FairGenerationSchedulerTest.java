@@ -0,0 +1,180 @@
+package com.example.tfgenerator.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.tfgenerator.exception.GenerationRejectedException;
+import com.example.tfgenerator.metrics.GenerationMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class FairGenerationSchedulerTest {
+
+    /**
+     * Executor that only collects tasks, so the test decides when each one runs.
+     */
+    private final ArrayDeque<Runnable> handedOver = new ArrayDeque<>();
+    private final List<String> ran = Collections.synchronizedList(new ArrayList<>());
+
+    private SimpleMeterRegistry meterRegistry;
+    private FairnessProperties properties;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new FairnessProperties();
+    }
+
+    @Test
+    public void testBusyClientsShareThreadsByWeight() {
+        properties.getClients().put("heavy", policy(2));
+        FairGenerationScheduler scheduler = scheduler(1, 64);
+
+        scheduler.execute("first", 1, task("first"));
+        for (int i = 0; i < 9; i++) {
+            scheduler.execute("light", 1, task("light"));
+            scheduler.execute("heavy", 1, task("heavy"));
+        }
+        runAll();
+
+        assertEquals(19, ran.size());
+        List<String> firstRound = ran.subList(1, 10);
+        assertEquals(3, Collections.frequency(firstRound, "light"));
+        assertEquals(6, Collections.frequency(firstRound, "heavy"));
+        assertEquals(9, meterRegistry.get("terraform.client.queue.wait").tag("client", "heavy").timer().count());
+    }
+
+    @Test
+    public void testCostIsChargedAgainstTheClientShare() {
+        FairGenerationScheduler scheduler = scheduler(1, 64);
+
+        scheduler.execute("first", 1, task("first"));
+        scheduler.execute("bundles", 3, task("bundle"));
+        scheduler.execute("bundles", 3, task("bundle"));
+        for (int i = 0; i < 6; i++) {
+            scheduler.execute("single", 1, task("single"));
+        }
+        runAll();
+
+        assertEquals("[first, single, single, bundle, single, single, single, bundle, single]", ran.toString());
+    }
+
+    @Test
+    public void testClientAtConcurrencyCapWaitsWhileOthersRun() {
+        ClientPolicy capped = policy(1);
+        capped.setMaxConcurrent(1);
+        properties.getClients().put("capped", capped);
+        FairGenerationScheduler scheduler = scheduler(4, 64);
+
+        scheduler.execute("capped", 1, task("capped"));
+        scheduler.execute("capped", 1, task("capped"));
+        scheduler.execute("capped", 1, task("capped"));
+        scheduler.execute("other", 1, task("other"));
+
+        assertEquals(2, handedOver.size());
+        assertEquals(2, scheduler.queued("capped"));
+        assertEquals(2.0, meterRegistry.get("terraform.client.queue.depth").tag("client", "capped").gauge().value());
+
+        handedOver.poll().run();
+        assertEquals(2, handedOver.size());
+        assertEquals(1, scheduler.queued("capped"));
+    }
+
+    @Test
+    public void testRateLimitedClientIsRejectedWithRetryAfter() {
+        ClientPolicy limited = policy(1);
+        limited.setRatePerSecond(0.5);
+        limited.setBurst(1);
+        properties.getClients().put("limited", limited);
+        FairGenerationScheduler scheduler = scheduler(1, 64);
+
+        scheduler.execute("limited", 1, task("limited"));
+        GenerationRejectedException e = assertThrows(GenerationRejectedException.class,
+                () -> scheduler.execute("limited", 1, task("limited")));
+        scheduler.execute("unlimited", 1, task("unlimited"));
+
+        assertTrue(e.getRetryAfterSeconds() >= 1 && e.getRetryAfterSeconds() <= 2);
+        assertEquals(1.0, meterRegistry.get("terraform.client.rejected")
+                .tag("client", "limited").tag("reason", "rate_limited").counter().count());
+    }
+
+    @Test
+    public void testFullClientQueueRejectsOnlyThatClient() {
+        properties.getDefaultPolicy().setMaxQueued(2);
+        FairGenerationScheduler scheduler = scheduler(1, 64);
+
+        scheduler.execute("flood", 1, task("flood"));
+        scheduler.execute("flood", 1, task("flood"));
+        scheduler.execute("flood", 1, task("flood"));
+        assertThrows(RejectedExecutionException.class, () -> scheduler.execute("flood", 1, task("flood")));
+        scheduler.execute("quiet", 1, task("quiet"));
+        runAll();
+
+        assertEquals("[flood, flood, quiet, flood]", ran.toString());
+        assertEquals(1.0, meterRegistry.get("terraform.client.rejected")
+                .tag("client", FairGenerationScheduler.OTHER).tag("reason", "queue_full").counter().count());
+    }
+
+    @Test
+    public void testNewClientsEvictIdleOnesAndAreRejectedWhenAllAreBusy() {
+        properties.setMaxClients(2);
+        FairGenerationScheduler scheduler = scheduler(1, 64);
+
+        scheduler.execute("running", 1, task("running"));
+        scheduler.execute("waiting", 1, task("waiting"));
+        assertThrows(GenerationRejectedException.class, () -> scheduler.execute("new", 1, task("new")));
+        assertEquals(1, scheduler.queued("waiting"));
+
+        runAll();
+        scheduler.execute("new", 1, task("new"));
+        runAll();
+
+        assertEquals("[running, waiting, new]", ran.toString());
+        assertEquals(1.0, meterRegistry.get("terraform.client.rejected")
+                .tag("client", FairGenerationScheduler.OTHER).tag("reason", "too_many_clients").counter().count());
+    }
+
+    @Test
+    public void testTokenBucketAllowsBurstThenSustainedRate() {
+        TokenBucket bucket = new TokenBucket(10, 3);
+        long now = System.nanoTime() + 1_000_000_000L;
+
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(100_000_000L, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now + 100_000_000L));
+    }
+
+    private FairGenerationScheduler scheduler(int maxInFlight, int maxQueued) {
+        return new FairGenerationScheduler(handedOver::add, maxInFlight, maxQueued, properties,
+                new GenerationMetrics(meterRegistry));
+    }
+
+    private Runnable task(String name) {
+        return () -> ran.add(name);
+    }
+
+    private void runAll() {
+        Runnable next;
+        while ((next = handedOver.poll()) != null) {
+            next.run();
+        }
+    }
+
+    private static ClientPolicy policy(int weight) {
+        ClientPolicy policy = new ClientPolicy();
+        policy.setWeight(weight);
+        return policy;
+    }
+}
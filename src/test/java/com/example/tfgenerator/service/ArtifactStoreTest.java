@@ -0,0 +1,168 @@
+package com.example.tfgenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.StreamUtils;
+
+import com.example.tfgenerator.archive.ArchiveFormat;
+import com.example.tfgenerator.cluster.PeerCache;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.dto.Services;
+import com.example.tfgenerator.util.RequestFingerprint;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ArtifactStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<TestGenerators> generators = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        generators.forEach(TestGenerators::close);
+    }
+
+    @Test
+    public void testStoredArtifactsSurviveARestart() {
+        TemplateRegistry registry = TestGenerators.newTemplateRegistry();
+        ArtifactStore store = new ArtifactStore(dir.toString(), registry);
+        byte[] content = "archive bytes".getBytes(StandardCharsets.UTF_8);
+        store.put("abc123", "zip", content);
+
+        ArtifactStore restarted = new ArtifactStore(dir.toString(), registry);
+        assertEquals(ByteBuffer.wrap(content), restarted.get("abc123", "zip"));
+        assertNull(restarted.get("abc123", "tar.gz"));
+        assertNull(restarted.get("other", "zip"));
+        assertEquals(1, restarted.getHits());
+        assertEquals(2, restarted.getMisses());
+    }
+
+    @Test
+    public void testIdenticalContentIsStoredOnce() throws Exception {
+        ArtifactStore store = new ArtifactStore(dir.toString(), TestGenerators.newTemplateRegistry());
+        byte[] content = "same".getBytes(StandardCharsets.UTF_8);
+        store.put("first", "zip", content);
+        store.put("second", "zip", content);
+
+        try (Stream<Path> files = Files.walk(dir.resolve("objects"))) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+        assertEquals(store.get("first", "zip"), store.get("second", "zip"));
+    }
+
+    @Test
+    public void testChangedTemplatesMissOldArtifacts() throws Exception {
+        TemplateRegistry registry = TestGenerators.newTemplateRegistry();
+        ArtifactStore store = new ArtifactStore(dir.toString(), registry);
+        store.put("abc123", "zip", new byte[] { 1, 2, 3 });
+
+        Path source = Files.write(dir.resolve("vpc.tf.ftl"), "# changed".getBytes(StandardCharsets.UTF_8));
+        assertTrue(registry.reload("vpc.tf.ftl", source));
+        store.onTemplatesReloaded();
+
+        assertNull(store.get("abc123", "zip"));
+    }
+
+    @Test
+    public void testAnotherBuildMissesAndRemovesOldArtifactsOnlyWhenAskedTo() throws Exception {
+        TemplateRegistry registry = TestGenerators.newTemplateRegistry();
+        ArtifactStore store = new ArtifactStore(dir.toString(), registry, 16, "1.0.0@1", -1);
+        store.put("abc123", "zip", new byte[] { 1, 2, 3 });
+        store.put("shared", "zip", new byte[] { 4 });
+
+        // Without cleanup, or within the grace period, a replica still on the old build keeps its output.
+        ArtifactStore redeployed = new ArtifactStore(dir.toString(), registry, 16, "1.0.0@2", -1);
+        assertNull(redeployed.get("abc123", "zip"));
+        new ArtifactStore(dir.toString(), registry, 16, "1.0.0@2", TimeUnit.HOURS.toMillis(1));
+        assertNotNull(store.get("abc123", "zip"));
+        try (Stream<Path> files = Files.walk(dir.resolve("objects"))) {
+            assertEquals(2, files.filter(Files::isRegularFile).count());
+        }
+
+        redeployed.put("shared", "zip", new byte[] { 4 });
+        ArtifactStore restarted = new ArtifactStore(dir.toString(), registry, 16, "1.0.0@2", 0);
+        assertNotNull(restarted.get("shared", "zip"));
+        try (Stream<Path> files = Files.walk(dir.resolve("objects"))) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+        try (Stream<Path> versions = Files.list(dir.resolve("refs"))) {
+            assertEquals(1, versions.count());
+        }
+    }
+
+    @Test
+    public void testDisabledStoreMisses() {
+        ArtifactStore store = new ArtifactStore(null, null);
+        store.put("abc123", "zip", new byte[] { 1 });
+        assertFalse(store.isEnabled());
+        assertNull(store.get("abc123", "zip"));
+    }
+
+    @Test
+    public void testWarmRestartServesWithoutRendering() throws Exception {
+        EnvironmentRequest request = createRequest();
+        String key = RequestFingerprint.of(request);
+
+        TestGenerators first = start();
+        CachedGenerationService before = cachedService(first);
+        ByteBuffer zip = before.generateArchive(key, request, null, ArchiveFormat.ZIP);
+        ByteBuffer json = before.generateJsonGzip(key, request, null);
+        assertTrue(first.meterRegistry().get("terraform.template.render").timers().size() > 0);
+
+        TestGenerators second = start();
+        CachedGenerationService after = cachedService(second);
+        assertEquals(zip, after.generateArchive(key, request, null, ArchiveFormat.ZIP));
+        ByteBuffer storedJson = after.findJsonGzip(key, request);
+        assertNotNull(storedJson);
+        assertEquals(json, storedJson);
+        assertTrue(second.meterRegistry().find("terraform.template.render").timers().isEmpty());
+
+        byte[] body = new byte[storedJson.remaining()];
+        storedJson.get(body);
+        String text = StreamUtils.copyToString(new GZIPInputStream(new ByteArrayInputStream(body)),
+                StandardCharsets.UTF_8);
+        assertTrue(text.startsWith("{\"success\":true,\"data\":{\"main_tf\":"));
+    }
+
+    private TestGenerators start() {
+        TestGenerators started = new TestGenerators(0);
+        generators.add(started);
+        return started;
+    }
+
+    private CachedGenerationService cachedService(TestGenerators restart) {
+        return new CachedGenerationService(restart.validator(), restart.generationService(),
+                new GenerationCache(1 << 20), new ArtifactStore(dir.toString(), restart.templateRegistry()),
+                new ObjectMapper(), PeerCache.disabled(), restart.metrics());
+    }
+
+    private static EnvironmentRequest createRequest() {
+        EnvironmentRequest request = new EnvironmentRequest();
+        request.setName("stored-app");
+        request.setRegion("us-east-1");
+        request.setVpcCidr("10.0.0.0/16");
+        Services services = new Services();
+        services.setS3Bucket(true);
+        request.setServices(services);
+        return request;
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.tfgenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.dto.Services;
+import com.example.tfgenerator.exception.GenerationRejectedException;
+import com.example.tfgenerator.model.GenerationEngine;
+import com.example.tfgenerator.model.TerraformResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class AsyncGenerationServiceTest {
+
+    private TestGenerators generators;
+    private ThreadPoolExecutor generationExecutor;
+    private SimpleMeterRegistry meterRegistry;
+    private CachedGenerationService cachedService;
+    private AsyncGenerationService asyncService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        generators = new TestGenerators(1 << 20);
+        generationExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                new ThreadPoolExecutor.AbortPolicy());
+        meterRegistry = generators.meterRegistry();
+        cachedService = new CachedGenerationService(generators.validator(), generators.generationService(),
+                new GenerationCache(1024 * 1024));
+        asyncService = new AsyncGenerationService(cachedService, generationExecutor, generators.metrics(), 3);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        generators.close();
+        generationExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testGeneratesOffTheCallingThreadAndRecordsQueueWait() throws Exception {
+        EnvironmentRequest request = createRequest();
+        String key = cachedService.fingerprint(request);
+
+        TerraformResponse response = asyncService.generate(key, request).get(10, TimeUnit.SECONDS);
+
+        assertNotNull(response.getMainTf());
+        assertEquals(1, meterRegistry.get("terraform.generation.stage").tag("stage", "queue").timer().count());
+        assertNotNull(asyncService.generateZip(key, request).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testOtherEnginesAreCachedUnderTheirOwnKey() throws Exception {
+        EnvironmentRequest request = createRequest();
+        String key = cachedService.fingerprint(request, null);
+        String hclKey = cachedService.fingerprint(request, GenerationEngine.HCL);
+
+        assertEquals(cachedService.fingerprint(request), key);
+        assertEquals(key, cachedService.fingerprint(request, GenerationEngine.FREEMARKER));
+        assertEquals(key + "-hcl", hclKey);
+
+        asyncService.generate(key, request).get(10, TimeUnit.SECONDS);
+        assertFalse(cachedService.isCached(hclKey));
+        asyncService.generate(hclKey, request, GenerationEngine.HCL).get(10, TimeUnit.SECONDS);
+        assertTrue(cachedService.isCached(hclKey));
+    }
+
+    @Test
+    public void testFullQueueIsRejectedImmediately() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        generationExecutor.execute(() -> await(release));
+        generationExecutor.execute(() -> await(release));
+
+        EnvironmentRequest request = createRequest();
+        GenerationRejectedException e = assertThrows(GenerationRejectedException.class,
+                () -> asyncService.generate(cachedService.fingerprint(request), request));
+
+        assertEquals(3, e.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("terraform.generation.rejected").counter().count());
+        release.countDown();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private EnvironmentRequest createRequest() {
+        EnvironmentRequest request = new EnvironmentRequest();
+        request.setName("async-app");
+        request.setRegion("us-east-1");
+        request.setVpcCidr("10.0.0.0/16");
+        Services services = new Services();
+        services.setS3Bucket(true);
+        request.setServices(services);
+        return request;
+    }
+}
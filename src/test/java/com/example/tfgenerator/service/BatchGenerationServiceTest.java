@@ -0,0 +1,170 @@
+package com.example.tfgenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.exception.ValidationException;
+import com.example.tfgenerator.metrics.GenerationMetrics;
+import com.example.tfgenerator.model.BatchResult;
+import com.example.tfgenerator.scheduling.ClientContext;
+import com.example.tfgenerator.scheduling.ClientPolicy;
+import com.example.tfgenerator.scheduling.FairGenerationScheduler;
+import com.example.tfgenerator.scheduling.FairnessProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+
+public class BatchGenerationServiceTest {
+
+    private static final String VALID =
+            "{\"name\":\"demo\",\"region\":\"us-east-1\",\"vpc_cidr\":\"10.0.0.0/16\",\"services\":{\"s3_bucket\":true}}";
+
+    private BatchGenerationService batchService;
+    private ObjectMapper objectMapper;
+    private TestGenerators generators;
+    private FairnessProperties fairness;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        generators = new TestGenerators(1 << 20);
+        Executor executor = generators.renderExecutor();
+        GenerationMetrics metrics = generators.metrics();
+        CachedGenerationService cachedService = new CachedGenerationService(generators.validator(),
+                generators.generationService(), new GenerationCache(1024 * 1024));
+
+        fairness = new FairnessProperties();
+        FairGenerationScheduler scheduler = new FairGenerationScheduler(executor, 2, 64, fairness, metrics);
+        AsyncGenerationService asyncService = new AsyncGenerationService(cachedService, scheduler, metrics, 1);
+
+        objectMapper = new ObjectMapper().setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+        batchService = new BatchGenerationService(cachedService, asyncService, objectMapper, executor, 2, 10);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        generators.close();
+    }
+
+    @Test
+    public void testBadEntriesDoNotFailTheBatch() throws Exception {
+        String body = VALID + "\n{oops\n\n" + VALID.replace("demo", "BAD") + "\n" + VALID + "\n";
+        List<BatchGenerationService.Entry> entries =
+                batchService.readEntries(stream(body), MediaType.APPLICATION_NDJSON);
+
+        Map<Integer, BatchResult> results = generateAll(entries, ClientContext.ANONYMOUS);
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertNotNull(results.get(0).getData().getVpcTf());
+        assertFalse(results.get(1).isSuccess());
+        assertFalse(results.get(2).isSuccess());
+        assertTrue(results.get(2).getError().contains("name"));
+        assertTrue(results.get(3).isSuccess());
+    }
+
+    @Test
+    public void testEntriesCountAgainstTheClientRateLimit() throws Exception {
+        ClientPolicy limited = new ClientPolicy();
+        limited.setRatePerSecond(0.001);
+        limited.setBurst(2);
+        fairness.getClients().put("ci", limited);
+        List<BatchGenerationService.Entry> entries = batchService.readEntries(
+                stream(VALID + "\n" + VALID + "\n" + VALID + "\n" + VALID + "\n"), MediaType.APPLICATION_NDJSON);
+
+        Map<Integer, BatchResult> results = generateAll(entries, "ci");
+
+        int rejected = 0;
+        for (BatchResult result : results.values()) {
+            if (!result.isSuccess()) {
+                assertTrue(result.getError().contains("Rate limit"));
+                rejected++;
+            }
+        }
+        assertEquals(2, rejected);
+    }
+
+    @Test
+    public void testReadsJsonArray() throws Exception {
+        List<BatchGenerationService.Entry> entries =
+                batchService.readEntries(stream("[" + VALID + "," + VALID + "]"), MediaType.APPLICATION_JSON);
+        assertEquals(2, entries.size());
+    }
+
+    @Test
+    public void testRejectsOversizedBatch() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 11; i++) {
+            body.append(VALID).append('\n');
+        }
+        assertThrows(ValidationException.class,
+                () -> batchService.readEntries(stream(body.toString()), MediaType.APPLICATION_NDJSON));
+
+        // Rejected at the eleventh entry, before the malformed rest of the body is parsed.
+        String array = "[" + String.join(",", Collections.nCopies(11, VALID)) + ",{oops";
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> batchService.readEntries(stream(array), MediaType.APPLICATION_JSON));
+        assertTrue(e.getMessage().contains("more than 10"));
+    }
+
+    @Test
+    public void testEntriesThatFailAbnormallyStillReleaseTheirSlot() {
+        List<BatchGenerationService.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            EnvironmentRequest request = new EnvironmentRequest() {
+                @Override
+                public String getVpcCidr() {
+                    throw new AssertionError("broken entry");
+                }
+            };
+            request.setName("broken-" + i);
+            entries.add(BatchGenerationService.Entry.of(i, request));
+        }
+
+        // More entries than the batch's concurrency of 2, so a leaked slot would hang here.
+        Map<Integer, BatchResult> results = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> generateAll(entries, ClientContext.ANONYMOUS));
+
+        assertEquals(5, results.size());
+        for (BatchResult result : results.values()) {
+            assertFalse(result.isSuccess());
+            assertEquals(BatchGenerationService.SERVER_ERROR, result.getError());
+        }
+    }
+
+    private Map<Integer, BatchResult> generateAll(List<BatchGenerationService.Entry> entries, String client)
+            throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        batchService.generateAll(entries, client, out);
+
+        Map<Integer, BatchResult> results = new TreeMap<>();
+        for (String line : new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            BatchResult result = objectMapper.readValue(line, BatchResult.class);
+            results.put(result.getIndex(), result);
+        }
+        return results;
+    }
+
+    private ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.tfgenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.StreamUtils;
+
+import com.example.tfgenerator.archive.ArchiveFormat;
+import com.example.tfgenerator.archive.ArchiveWriters;
+import com.example.tfgenerator.dto.BundleRequest;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.dto.RdsConfig;
+import com.example.tfgenerator.dto.Services;
+import com.example.tfgenerator.exception.ValidationException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BundleServiceTest {
+
+    private BundleService bundleService;
+    private TestGenerators generators;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        // No memo, so repeated renders show up in the render timers.
+        generators = new TestGenerators(0);
+        meterRegistry = generators.meterRegistry();
+        bundleService = new BundleService(generators.validator(), generators.generationService(),
+                generators.templateService(), new ArchiveWriters(generators.renderExecutor()),
+                new BufferPool(4, 1 << 20), generators.metrics(), 10);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        generators.close();
+    }
+
+    @Test
+    public void testEnvironmentsWithTheSameServicesShareOneModule() throws Exception {
+        BundleRequest request = bundle(environment("dev", "10.0.0.0/16", false),
+                environment("stage", "10.1.0.0/16", false), environment("prod", "10.2.0.0/16", false));
+
+        Map<String, String> entries = unzip(generate(request, ArchiveFormat.ZIP));
+
+        assertEquals(Arrays.asList(
+                "modules/common/vpc.tf", "modules/common/services_s3.tf", "modules/common/outputs.tf",
+                "modules/common/variables.tf",
+                "envs/dev/main.tf", "envs/dev/terraform.tfvars",
+                "envs/stage/main.tf", "envs/stage/terraform.tfvars",
+                "envs/prod/main.tf", "envs/prod/terraform.tfvars"), new ArrayList<>(entries.keySet()));
+        String main = entries.get("envs/stage/main.tf");
+        assertTrue(main.contains("Environment = \"stage\""));
+        assertTrue(main.contains("source = \"../../modules/common\""));
+        assertTrue(main.contains("variable \"vpc_cidr\""));
+        assertTrue(entries.get("envs/prod/terraform.tfvars").contains("vpc_cidr            = \"10.2.0.0/16\""));
+        assertFalse(entries.get("modules/common/variables.tf").contains("default"));
+    }
+
+    @Test
+    public void testSharedFilesAreRenderedOncePerBundle() throws Exception {
+        BundleRequest request = bundle(environment("dev", "10.0.0.0/16", false),
+                environment("stage", "10.1.0.0/16", false), environment("prod", "10.2.0.0/16", true));
+
+        generate(request, ArchiveFormat.ZIP);
+
+        assertEquals(1, renderCount("vpc.tf.ftl"));
+        assertEquals(1, renderCount("services_s3.tf.ftl"));
+        // outputs.tf reads the service flags, which differ for prod.
+        assertEquals(2, renderCount("outputs.tf.ftl"));
+        assertEquals(3, renderCount("main.tf.ftl"));
+        assertEquals(3, renderCount("terraform.tfvars.ftl"));
+    }
+
+    @Test
+    public void testDifferentServicesGetSeparateModulesWithLinkedDuplicates() throws Exception {
+        BundleRequest request = bundle(environment("dev", "10.0.0.0/16", false),
+                environment("prod", "10.1.0.0/16", true));
+
+        List<String[]> entries = untar(generate(request, ArchiveFormat.TAR_GZ));
+
+        List<String> modules = new ArrayList<>();
+        for (String[] entry : entries) {
+            if (entry[0].endsWith("/vpc.tf")) {
+                modules.add(entry[0].substring(0, entry[0].length() - "/vpc.tf".length()));
+            }
+        }
+        assertEquals(2, modules.size());
+        assertTrue(modules.get(0).startsWith("modules/common-"));
+        assertTrue(modules.get(1).startsWith("modules/common-"));
+
+        // vpc.tf has no inputs, so the second module links to the first copy.
+        String[] secondVpc = find(entries, modules.get(1) + "/vpc.tf");
+        assertEquals("1", secondVpc[1]);
+        assertEquals(modules.get(0) + "/vpc.tf", secondVpc[2]);
+        assertEquals("0", find(entries, modules.get(1) + "/services_rds.tf")[1]);
+        assertEquals("0", find(entries, "envs/prod/main.tf")[1]);
+    }
+
+    @Test
+    public void testListedRdsInstancesAreDeclaredAndPassedToTheModule() throws Exception {
+        EnvironmentRequest prod = environment("prod", "10.0.0.0/16", false);
+        RdsConfig orders = rds();
+        orders.setName("orders");
+        prod.getServices().setRdsInstances(Collections.singletonList(orders));
+
+        Map<String, String> entries = unzip(generate(bundle(prod), ArchiveFormat.ZIP));
+
+        assertTrue(entries.get("modules/common/services_rds.tf").contains("var.db_orders_password"));
+        String variables = entries.get("modules/common/variables.tf");
+        for (String suffix : Arrays.asList("_username", "_password", "_name")) {
+            assertTrue(variables.contains("variable \"db_orders" + suffix + "\""));
+        }
+        String main = entries.get("envs/prod/main.tf");
+        assertTrue(main.contains("db_orders_password = var.db_orders_password"));
+        assertTrue(main.contains("variable \"db_orders_password\""));
+        assertTrue(entries.get("envs/prod/terraform.tfvars").contains("db_orders_password = \"SecurePass123!\""));
+    }
+
+    @Test
+    public void testRejectsInvalidBundles() {
+        assertThrows(ValidationException.class, () -> bundleService.validate(bundle()));
+        assertThrows(ValidationException.class, () -> bundleService.validate(bundle(
+                environment("dev", "10.0.0.0/16", false), environment("dev", "10.1.0.0/16", false))));
+
+        BundleRequest badName = bundle(environment("dev", "10.0.0.0/16", false));
+        badName.setName("Not Valid");
+        assertThrows(ValidationException.class, () -> bundleService.validate(badName));
+
+        EnvironmentRequest[] tooMany = new EnvironmentRequest[11];
+        for (int i = 0; i < tooMany.length; i++) {
+            tooMany[i] = environment("env-" + i, "10." + i + ".0.0/16", false);
+        }
+        assertThrows(ValidationException.class, () -> bundleService.validate(bundle(tooMany)));
+    }
+
+    private byte[] generate(BundleRequest request, ArchiveFormat format) {
+        return bundleService.generate(request.getName(), bundleService.validate(request), null, format);
+    }
+
+    private long renderCount(String template) {
+        return meterRegistry.get("terraform.template.render").tag("template", template).timer().count();
+    }
+
+    private static BundleRequest bundle(EnvironmentRequest... environments) {
+        BundleRequest request = new BundleRequest();
+        request.setName("platform");
+        request.setEnvironments(Arrays.asList(environments));
+        return request;
+    }
+
+    private static EnvironmentRequest environment(String name, String vpcCidr, boolean rds) {
+        EnvironmentRequest request = new EnvironmentRequest();
+        request.setName(name);
+        request.setRegion("us-east-1");
+        request.setVpcCidr(vpcCidr);
+        Services services = new Services();
+        services.setS3Bucket(true);
+        if (rds) {
+            services.setRds(rds());
+        }
+        request.setServices(services);
+        return request;
+    }
+
+    private static RdsConfig rds() {
+        RdsConfig config = new RdsConfig();
+        config.setEnabled(true);
+        config.setEngine("postgres");
+        config.setInstanceClass("db.t3.micro");
+        config.setDbName("appdb");
+        config.setUsername("admin");
+        config.setPassword("SecurePass123!");
+        return config;
+    }
+
+    private static Map<String, String> unzip(byte[] zip) throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(StreamUtils.copyToByteArray(zis), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Name, type flag and link name of each tar entry.
+     */
+    private static List<String[]> untar(byte[] tarGz) throws Exception {
+        List<String[]> entries = new ArrayList<>();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(tarGz))) {
+            DataInputStream data = new DataInputStream(in);
+            byte[] header = new byte[512];
+            while (true) {
+                try {
+                    data.readFully(header);
+                } catch (EOFException e) {
+                    break;
+                }
+                String name = field(header, 0, 100);
+                if (name.isEmpty()) {
+                    break;
+                }
+                long size = Long.parseLong(field(header, 124, 12).trim(), 8);
+                entries.add(new String[] { name, String.valueOf((char) header[156]), field(header, 157, 100) });
+                data.skipBytes((int) ((size + 511) / 512 * 512));
+            }
+        }
+        return entries;
+    }
+
+    private static String field(byte[] header, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+        return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static String[] find(List<String[]> entries, String name) {
+        for (String[] entry : entries) {
+            if (entry[0].equals(name)) {
+                return entry;
+            }
+        }
+        throw new AssertionError("No entry " + name);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.tfgenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.dto.RdsConfig;
+import com.example.tfgenerator.dto.Services;
+import com.example.tfgenerator.model.EnvironmentDiff;
+import com.example.tfgenerator.model.FileDiff;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class EnvironmentDiffServiceTest {
+
+    private TestGenerators generators;
+    private SimpleMeterRegistry meterRegistry;
+    private EnvironmentDiffService diffService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        // No memo, so every template the diff touches shows up as a render.
+        generators = new TestGenerators(0);
+        meterRegistry = generators.meterRegistry();
+        diffService = new EnvironmentDiffService(generators.validator(), generators.generationService(),
+                generators.templateService());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        generators.close();
+    }
+
+    @Test
+    public void testOnlyTemplatesReadingTheChangedFieldAreRendered() {
+        EnvironmentRequest previous = createRequest();
+        EnvironmentRequest current = createRequest();
+        current.getServices().getRds().setInstanceClass("db.r6g.large");
+
+        EnvironmentDiff diff = diffService.diff(previous, current);
+
+        assertEquals(1, diff.getChanged().size());
+        FileDiff rds = diff.getChanged().get(0);
+        assertEquals("services_rds.tf", rds.getFileName());
+        assertEquals("modified", rds.getStatus());
+        assertTrue(rds.getDiff().startsWith("--- a/services_rds.tf\n+++ b/services_rds.tf\n@@"));
+        assertTrue(rds.getDiff().contains("-  instance_class         = \"db.t3.micro\""));
+        assertTrue(rds.getDiff().contains("+  instance_class         = \"db.r6g.large\""));
+        assertEquals(6, diff.getUnchanged().size());
+        assertTrue(diff.getUnchanged().contains("main.tf"));
+
+        assertEquals(2, meterRegistry.get("terraform.template.render").timers().stream()
+                .mapToLong(t -> t.count()).sum());
+    }
+
+    @Test
+    public void testDisabledServiceIsReportedAsRemoved() {
+        EnvironmentRequest previous = createRequest();
+        EnvironmentRequest current = createRequest();
+        current.getServices().setS3Bucket(false);
+
+        EnvironmentDiff diff = diffService.diff(previous, current);
+
+        assertEquals(2, diff.getChanged().size());
+        assertEquals("services_s3.tf", diff.getChanged().get(0).getFileName());
+        assertEquals("removed", diff.getChanged().get(0).getStatus());
+        assertTrue(diff.getChanged().get(0).getDiff().startsWith("--- a/services_s3.tf\n+++ /dev/null\n"));
+        assertEquals("outputs.tf", diff.getChanged().get(1).getFileName());
+    }
+
+    @Test
+    public void testIdenticalRequestsRenderNothing() {
+        EnvironmentDiff diff = diffService.diff(createRequest(), createRequest());
+
+        assertTrue(diff.getChanged().isEmpty());
+        assertEquals(7, diff.getUnchanged().size());
+        assertTrue(meterRegistry.find("terraform.template.render").timers().isEmpty());
+    }
+
+    private EnvironmentRequest createRequest() {
+        EnvironmentRequest request = new EnvironmentRequest();
+        request.setName("diff-app");
+        request.setRegion("eu-west-1");
+        request.setVpcCidr("10.1.0.0/16");
+
+        RdsConfig rds = new RdsConfig();
+        rds.setEnabled(true);
+        rds.setEngine("postgres");
+        rds.setInstanceClass("db.t3.micro");
+        rds.setDbName("appdb");
+        rds.setUsername("admin");
+        rds.setPassword("SecurePass123!");
+
+        Services services = new Services();
+        services.setS3Bucket(true);
+        services.setRds(rds);
+        request.setServices(services);
+        request.setTags(new HashMap<>());
+        return request;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.tfgenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import com.example.tfgenerator.model.CacheStats;
+import com.example.tfgenerator.model.TerraformResponse;
+
+public class GenerationCacheTest {
+
+    @Test
+    public void testHitsAndMisses() {
+        GenerationCache cache = new GenerationCache(1024 * 1024);
+        assertNull(cache.get("a"));
+        cache.put("a", response(100));
+        assertNotNull(cache.get("a"));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getEntries());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedBySize() {
+        // Each entry weighs 256 bytes of overhead plus 2 bytes per char.
+        GenerationCache cache = new GenerationCache(3 * (256 + 2 * 1000));
+        cache.put("a", response(1000));
+        cache.put("b", response(1000));
+        cache.put("c", response(1000));
+        cache.get("a");
+        cache.put("d", response(1000));
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    public void testZipCountsTowardsSize() {
+        GenerationCache cache = new GenerationCache(2 * (256 + 2 * 1000));
+        cache.put("a", response(1000));
+        cache.put("b", response(1000));
+        cache.putZip("a", new byte[500]);
+
+        assertArrayEquals(new byte[500], cache.get("a").getZip());
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    public void testOversizedEntryIsNotCached() {
+        GenerationCache cache = new GenerationCache(1000);
+        cache.put("a", response(1000));
+        assertNull(cache.get("a"));
+    }
+
+    private TerraformResponse response(int size) {
+        TerraformResponse response = new TerraformResponse();
+        response.setMainTf(StringUtils.repeat('x', size));
+        return response;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.tfgenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.tfgenerator.dto.ApiResponse;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.dto.RdsConfig;
+import com.example.tfgenerator.dto.Services;
+import com.example.tfgenerator.model.GenerationEngine;
+import com.example.tfgenerator.model.TerraformResponse;
+import com.example.tfgenerator.validator.EnvironmentValidator;
+import com.example.tfgenerator.validator.ValidatedEnvironment;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ProjectJsonWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private TerraformGenerationService generationService;
+    private ProjectJsonWriter jsonWriter;
+    private EnvironmentValidator validator;
+    private TestGenerators generators;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        generators = new TestGenerators(1 << 20);
+        validator = generators.validator();
+        generationService = generators.generationService();
+        jsonWriter = new ProjectJsonWriter(generationService, generators.templateService(), objectMapper,
+                new BufferPool(4, 1 << 20), generators.metrics());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        generators.close();
+    }
+
+    @Test
+    public void testStreamedJsonMatchesBufferedResponse() throws Exception {
+        ValidatedEnvironment environment = validator.validate(createRequest());
+
+        for (GenerationEngine engine : GenerationEngine.values()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            jsonWriter.write(environment, engine, out);
+
+            ApiResponse<TerraformResponse> streamed = objectMapper.readValue(out.toByteArray(),
+                    new TypeReference<ApiResponse<TerraformResponse>>() { });
+            assertTrue(streamed.isSuccess());
+            assertEquals(generationService.generate(environment), streamed.getData());
+        }
+    }
+
+    @Test
+    public void testEscapesNonAsciiAndQuotes() throws Exception {
+        EnvironmentRequest request = createRequest();
+        request.setTags(Collections.singletonMap("Owner", "Zoë \"platform\" ☁"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        jsonWriter.write(validator.validate(request), null, out);
+
+        ApiResponse<TerraformResponse> streamed = objectMapper.readValue(out.toByteArray(),
+                new TypeReference<ApiResponse<TerraformResponse>>() { });
+        assertTrue(streamed.getData().getMainTf().contains("Owner = \"Zoë \"platform\" ☁\""));
+        // Files for services that are off are present but empty, as in the buffered response.
+        assertEquals("", streamed.getData().getServicesEcsTf());
+    }
+
+    private static EnvironmentRequest createRequest() {
+        EnvironmentRequest request = new EnvironmentRequest();
+        request.setName("stream-app");
+        request.setRegion("eu-west-1");
+        request.setVpcCidr("10.20.0.0/16");
+        Services services = new Services();
+        services.setS3Bucket(true);
+        RdsConfig rds = new RdsConfig();
+        rds.setEnabled(true);
+        rds.setEngine("mysql");
+        rds.setInstanceClass("db.t3.small");
+        rds.setDbName("appdb");
+        rds.setUsername("admin");
+        rds.setPassword("SecurePass123!");
+        services.setRds(rds);
+        request.setServices(services);
+        return request;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.tfgenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.tfgenerator.util.Hashes;
+
+import freemarker.core.ParseException;
+
+public class TemplatePackTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testPackRoundTrip() throws Exception {
+        Path templates = Files.createDirectories(dir.resolve("terraform"));
+        String source = "# ${name} ☁\n";
+        Files.write(templates.resolve("b.tf.ftl"), source.getBytes(StandardCharsets.UTF_8));
+        Files.write(templates.resolve("a.tf.ftl"), "<#if on>on</#if>".getBytes(StandardCharsets.UTF_8));
+        Files.write(templates.resolve("notes.txt"), "not a template".getBytes(StandardCharsets.UTF_8));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TemplatePack.build(templates).write(out);
+        TemplatePack pack = TemplatePack.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(2, pack.getEntries().size());
+        TemplatePack.Entry entry = pack.getEntries().get(1);
+        assertEquals("b.tf.ftl", entry.getName());
+        assertEquals(source, entry.getSource());
+        assertEquals(Hashes.sha256Hex(source), entry.getHash());
+    }
+
+    @Test
+    public void testTemplateThatDoesNotParseFailsThePack() throws Exception {
+        Path templates = Files.createDirectories(dir.resolve("terraform"));
+        Files.write(templates.resolve("broken.tf.ftl"), "<#if on>unclosed".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(ParseException.class, () -> TemplatePack.build(templates));
+    }
+
+    @Test
+    public void testPacksEveryApplicationTemplate() throws Exception {
+        TemplatePack pack = TemplatePack.build(Paths.get("src/main/resources/templates/terraform"));
+        List<String> names = pack.getEntries().stream().map(TemplatePack.Entry::getName).collect(Collectors.toList());
+        assertEquals(10, names.size());
+        assertEquals("bundle_environment.tf.ftl", names.get(0));
+    }
+}
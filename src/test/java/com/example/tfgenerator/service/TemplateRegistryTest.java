@@ -0,0 +1,71 @@
+package com.example.tfgenerator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import freemarker.template.Template;
+
+public class TemplateRegistryTest {
+
+    private TemplateRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        registry = TestGenerators.newTemplateRegistry();
+    }
+
+    @Test
+    public void testAllTemplatesCompiledAtStartup() {
+        assertEquals(10, registry.names().size());
+        assertTrue(registry.names().contains("bundle_environment.tf.ftl"));
+        assertTrue(registry.names().contains("vpc.tf.ftl"));
+        assertSame(registry.get("vpc.tf.ftl"), registry.get("vpc.tf.ftl"));
+    }
+
+    @Test
+    public void testUnknownTemplate() {
+        assertThrows(IllegalArgumentException.class, () -> registry.get("missing.tf.ftl"));
+    }
+
+    @Test
+    public void testReloadReplacesOnlyChangedTemplate(@TempDir Path dir) throws Exception {
+        Template main = registry.get("main.tf.ftl");
+        String version = registry.version();
+        Path source = dir.resolve("vpc.tf.ftl");
+        Files.write(source, "# reloaded ${name}".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(registry.reload("vpc.tf.ftl", source));
+        assertNotEquals(version, registry.version());
+
+        StringWriter out = new StringWriter();
+        registry.get("vpc.tf.ftl").process(Collections.singletonMap("name", "demo"), out);
+        assertEquals("# reloaded demo", out.toString());
+        assertSame(main, registry.get("main.tf.ftl"));
+    }
+
+    @Test
+    public void testReloadKeepsPreviousTemplateOnParseError(@TempDir Path dir) throws Exception {
+        Template vpc = registry.get("vpc.tf.ftl");
+        String version = registry.version();
+        Path source = dir.resolve("vpc.tf.ftl");
+        Files.write(source, "<#if broken".getBytes(StandardCharsets.UTF_8));
+
+        assertFalse(registry.reload("vpc.tf.ftl", source));
+        assertSame(vpc, registry.get("vpc.tf.ftl"));
+        assertEquals(version, registry.version());
+    }
+}
@@ -1,48 +1,297 @@
 package com.example.tfgenerator.service;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.ui.freemarker.FreeMarkerConfigurationFactoryBean;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.StreamUtils;
 
 import com.example.tfgenerator.dto.EcsConfig;
 import com.example.tfgenerator.dto.EnvironmentRequest;
 import com.example.tfgenerator.dto.RdsConfig;
+import com.example.tfgenerator.dto.S3BucketConfig;
 import com.example.tfgenerator.dto.Services;
+import com.example.tfgenerator.metrics.GenerationMetrics;
+import com.example.tfgenerator.model.TerraformFile;
+import com.example.tfgenerator.model.GenerationEngine;
 import com.example.tfgenerator.model.TerraformResponse;
+import com.example.tfgenerator.validator.EnvironmentValidator;
+import com.example.tfgenerator.validator.ValidatedEnvironment;
 
-import freemarker.template.Configuration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 public class TerraformGenerationServiceTest {
 
     private TerraformGenerationService generationService;
+    private TestGenerators generators;
+    private SimpleMeterRegistry meterRegistry;
+    private EnvironmentValidator validator;
+    private RenderMemo renderMemo;
 
     @BeforeEach
     public void setUp() throws Exception {
-        FreeMarkerConfigurationFactoryBean factoryBean =
-                new FreeMarkerConfigurationFactoryBean();
-        factoryBean.setTemplateLoaderPath("classpath:/templates");
-        factoryBean.afterPropertiesSet();
-        Configuration config = factoryBean.getObject();
+        generators = new TestGenerators(1 << 20);
+        meterRegistry = generators.meterRegistry();
+        validator = generators.validator();
+        renderMemo = generators.renderMemo();
+        generationService = generators.generationService();
+    }
 
-        TerraformTemplateService templateService = new TerraformTemplateService(config);
-        generationService = new TerraformGenerationService(templateService);
+    @AfterEach
+    public void tearDown() {
+        generators.close();
     }
 
     @Test
     public void testGenerateWithAllServices() {
         EnvironmentRequest request = createFullRequest();
-        TerraformResponse project = generationService.generate(request);
+        TerraformResponse project = generationService.generate(validated(request));
         assertNotNull(project);
         assertNotNull(project.getMainTf());
         assertNotNull(project.getVariablesTf());
         assertNotNull(project.getVpcTf());
     }
 
+    @Test
+    public void testRecordsRenderMetricsPerTemplate() {
+        TerraformResponse project = generationService.generate(validated(createFullRequest()));
+
+        assertEquals(1, meterRegistry.get("terraform.template.render").tag("template", "vpc.tf.ftl").timer().count());
+        assertEquals(project.getVpcTf().length(), meterRegistry.get("terraform.template.output.size")
+                .tag("template", "vpc.tf.ftl").summary().totalAmount());
+        assertEquals(0.0, meterRegistry.get("terraform.generation.inflight").gauge().value());
+    }
+
+    @Test
+    public void testDisabledServicesAreNotRendered() {
+        EnvironmentRequest request = createFullRequest();
+        request.getServices().setS3Bucket(false);
+        request.getServices().getEcsCluster().setEnabled(false);
+
+        RenderPlan plan = generationService.createRenderPlan(validated(request));
+        assertFalse(plan.includes(TerraformFile.SERVICES_S3));
+        assertFalse(plan.includes(TerraformFile.SERVICES_ECS));
+        assertTrue(plan.includes(TerraformFile.SERVICES_RDS));
+
+        TerraformResponse project = generationService.generate(validated(request));
+        assertEquals("", project.getServicesS3Tf());
+        assertEquals("", project.getServicesEcsTf());
+        assertTrue(project.getServicesRdsTf().contains("aws_db_instance"));
+    }
+
+    @Test
+    public void testListServicesRenderOneBlockPerEntry() throws Exception {
+        EnvironmentRequest request = createFullRequest();
+        request.setAvailabilityZones(6);
+        request.getServices().setS3Bucket(false);
+        List<S3BucketConfig> buckets = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            S3BucketConfig bucket = new S3BucketConfig();
+            bucket.setName("bucket-" + i);
+            buckets.add(bucket);
+        }
+        request.getServices().setS3Buckets(buckets);
+
+        RenderPlan plan = generationService.createRenderPlan(validated(request));
+        assertTrue(plan.includes(TerraformFile.SERVICES_S3));
+
+        TerraformResponse project = generationService.generate(validated(request));
+        assertEquals(250, count(project.getServicesS3Tf(), "resource \"aws_s3_bucket\" "));
+        assertEquals(1, count(project.getServicesS3Tf(), "data \"aws_caller_identity\""));
+        assertEquals(250, count(project.getOutputsTf(), "output \"bucket_"));
+        assertEquals(12, count(project.getVpcTf(), "resource \"aws_subnet\" "));
+
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        generationService.writeZip(validated(request), zip);
+        assertEquals(project.getServicesS3Tf(), unzip(zip.toByteArray()).get("services_s3.tf"));
+    }
+
+    private static int count(String text, String needle) {
+        int count = 0;
+        for (int at = text.indexOf(needle); at >= 0; at = text.indexOf(needle, at + needle.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void testDownloadProjectMatchesGenerate() {
+        EnvironmentRequest request = createFullRequest();
+        request.getServices().setS3Bucket(false);
+        assertEquals(generationService.generate(validated(request)), generationService.generateTerraformProject(validated(request)));
+    }
+
+    @Test
+    public void testStreamedZipMatchesGeneratedFiles() throws Exception {
+        EnvironmentRequest request = createFullRequest();
+        request.getServices().setS3Bucket(false);
+        TerraformResponse project = generationService.generate(validated(request));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generationService.writeZip(validated(request), out);
+
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(StreamUtils.copyToByteArray(zis), StandardCharsets.UTF_8));
+            }
+        }
+
+        assertFalse(entries.containsKey("services_s3.tf"));
+        assertEquals(7, entries.size());
+        for (TerraformFile file : TerraformFile.values()) {
+            if (entries.containsKey(file.getFileName())) {
+                assertEquals(file.getContent(project), entries.get(file.getFileName()));
+            }
+        }
+    }
+
+    @Test
+    public void testZipsAreEncodedAsUtf8() throws Exception {
+        EnvironmentRequest request = createFullRequest();
+        request.getTags().put("owner", "J\u00fcrgen \u00d8stergaard \ud83d\ude80");
+        TerraformResponse project = generationService.generate(validated(request));
+
+        // The first stream copies memoized bytes, the second renders into the buffer.
+        for (int i = 0; i < 2; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            generationService.writeZip(validated(request), out);
+            assertEquals(project.getMainTf(), unzip(out.toByteArray()).get("main.tf"));
+            renderMemo.clear();
+        }
+        assertEquals(project.getMainTf(), unzip(generationService.generateZip(project)).get("main.tf"));
+    }
+
+    @Test
+    public void testStreamedAndBufferedArchivesHaveTheSameEntries(@TempDir Path dir) throws Exception {
+        EnvironmentRequest minimal = createFullRequest();
+        minimal.getServices().setS3Bucket(false);
+        minimal.getServices().getRds().setEnabled(false);
+        minimal.getServices().getEcsCluster().setEnabled(false);
+
+        for (EnvironmentRequest request : Arrays.asList(createFullRequest(), minimal)) {
+            assertSameArchives(request);
+        }
+
+        // A template that renders only whitespace leaves its file out of both archives.
+        Path blank = Files.write(dir.resolve("outputs.tf.ftl"),
+                "<#if multiZone>\n</#if>\n  \n".getBytes(StandardCharsets.UTF_8));
+        assertTrue(generators.templateRegistry().reload("outputs.tf.ftl", blank));
+        renderMemo.onTemplatesReloaded();
+        assertFalse(assertSameArchives(createFullRequest()).contains("outputs.tf"));
+    }
+
+    private Set<String> assertSameArchives(EnvironmentRequest request) throws Exception {
+        byte[] buffered = generationService.generateZip(generationService.generate(validated(request)));
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        generationService.writeZip(validated(request), streamed);
+
+        Set<String> entries = unzip(buffered).keySet();
+        assertEquals(entries.toString(), unzip(streamed.toByteArray()).keySet().toString());
+        assertArrayEquals(buffered, streamed.toByteArray());
+        return entries;
+    }
+
+    @Test
+    public void testBlankBytesMatchBlankStrings() {
+        for (String text : Arrays.asList("", " \n\t", "\u2003\n", "\u00a0", " x ", "\u00e9")) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            assertEquals(text.isBlank(), TerraformGenerationService.isBlank(bytes, 0, bytes.length), text);
+        }
+    }
+
+    private static Map<String, String> unzip(byte[] zip) throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                entries.put(entry.getName(), new String(StreamUtils.copyToByteArray(zis), StandardCharsets.UTF_8));
+            }
+        }
+        return entries;
+    }
+
+    @Test
+    public void testMemoReusesTemplatesWhoseInputsAreUnchanged() {
+        TerraformResponse first = generationService.generate(validated(createFullRequest()));
+        long misses = renderMemo.getMisses();
+
+        EnvironmentRequest renamed = createFullRequest();
+        renamed.setName("other-app");
+        TerraformResponse second = generationService.generate(validated(renamed));
+
+        // main.tf, variables.tf and terraform.tfvars read the name; the other five files are reused.
+        assertEquals(misses + 3, renderMemo.getMisses());
+        assertEquals(5, renderMemo.getHits());
+        assertEquals(first.getServicesRdsTf(), second.getServicesRdsTf());
+        assertTrue(second.getMainTf().contains("other-app"));
+        assertFalse(second.getMainTf().contains("test-app"));
+    }
+
+    @Test
+    public void testMemoKeepsEnginesApart() {
+        TerraformResponse freemarker = generationService.generate(validated(createFullRequest()), GenerationEngine.FREEMARKER);
+        long misses = renderMemo.getMisses();
+        long hits = renderMemo.getHits();
+
+        TerraformResponse hcl = generationService.generate(validated(createFullRequest()), GenerationEngine.HCL);
+
+        assertEquals(misses + 8, renderMemo.getMisses());
+        assertEquals(hits, renderMemo.getHits());
+        assertEquals(freemarker.getMainTf(), hcl.getMainTf());
+    }
+
+    @Test
+    public void testMemoTracksTagChanges() {
+        generationService.generate(validated(createFullRequest()));
+
+        EnvironmentRequest retagged = createFullRequest();
+        retagged.getTags().put("cost-center", "42");
+        TerraformResponse project = generationService.generate(validated(retagged));
+
+        assertTrue(project.getMainTf().contains("cost-center"));
+    }
+
+    @Test
+    public void testTemplatesReadOnlyDeclaredInputs() throws Exception {
+        EnvironmentRequest request = createFullRequest();
+        Map<String, Object> model = generationService.createRenderPlan(validated(request)).getModel();
+        TerraformTemplateService templateService = new TerraformTemplateService(TestGenerators.newTemplateRegistry(),
+                new GenerationMetrics(new SimpleMeterRegistry()), new RenderMemo(0));
+
+        // Rendering against the declared inputs alone must match rendering against the full model.
+        for (TerraformFile file : TerraformFile.values()) {
+            assertEquals(templateService.render(file.getTemplateName(), model), templateService.render(file, model),
+                    file.getFileName());
+        }
+    }
+
+    private ValidatedEnvironment validated(EnvironmentRequest request) {
+        return validator.validate(request);
+    }
+
     private EnvironmentRequest createFullRequest() {
         EnvironmentRequest request = new EnvironmentRequest();
         request.setName("test-app");
@@ -0,0 +1,89 @@
+package com.example.tfgenerator.service;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.ui.freemarker.FreeMarkerConfigurationFactoryBean;
+
+import com.example.tfgenerator.ipam.VpcRegistry;
+import com.example.tfgenerator.metrics.GenerationMetrics;
+import com.example.tfgenerator.validator.EnvironmentValidator;
+
+import freemarker.template.TemplateException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Wires the generation services over the real templates the same way the
+ * application does, without a Spring context. Tests call {@link #close()} when done.
+ */
+public final class TestGenerators {
+
+    private final ExecutorService renderExecutor = Executors.newFixedThreadPool(4);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GenerationMetrics metrics = new GenerationMetrics(meterRegistry);
+    private final EnvironmentValidator validator = new EnvironmentValidator(metrics, new VpcRegistry());
+    private final RenderMemo renderMemo;
+    private final TemplateRegistry templateRegistry = newTemplateRegistry();
+    private final TerraformTemplateService templateService;
+    private final TerraformGenerationService generationService;
+
+    /**
+     * @param memoBytes render memo budget; 0 disables it so every template shows up as a render
+     */
+    public TestGenerators(long memoBytes) {
+        renderMemo = new RenderMemo(memoBytes);
+        templateService = new TerraformTemplateService(templateRegistry, metrics, renderMemo);
+        generationService = new TerraformGenerationService(templateService, renderExecutor, metrics);
+    }
+
+    /**
+     * A registry of the templates under {@code classpath:/templates}, on its own FreeMarker configuration.
+     */
+    public static TemplateRegistry newTemplateRegistry() {
+        FreeMarkerConfigurationFactoryBean factoryBean = new FreeMarkerConfigurationFactoryBean();
+        factoryBean.setTemplateLoaderPath("classpath:/templates");
+        try {
+            factoryBean.afterPropertiesSet();
+        } catch (IOException | TemplateException e) {
+            throw new IllegalStateException("Failed to load templates", e);
+        }
+        return new TemplateRegistry(factoryBean.getObject());
+    }
+
+    public ExecutorService renderExecutor() {
+        return renderExecutor;
+    }
+
+    public SimpleMeterRegistry meterRegistry() {
+        return meterRegistry;
+    }
+
+    public GenerationMetrics metrics() {
+        return metrics;
+    }
+
+    public EnvironmentValidator validator() {
+        return validator;
+    }
+
+    public RenderMemo renderMemo() {
+        return renderMemo;
+    }
+
+    public TemplateRegistry templateRegistry() {
+        return templateRegistry;
+    }
+
+    public TerraformTemplateService templateService() {
+        return templateService;
+    }
+
+    public TerraformGenerationService generationService() {
+        return generationService;
+    }
+
+    public void close() {
+        renderExecutor.shutdownNow();
+    }
+}
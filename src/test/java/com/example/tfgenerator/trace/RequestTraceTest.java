@@ -0,0 +1,81 @@
+package com.example.tfgenerator.trace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.tfgenerator.model.TraceSnapshot;
+
+public class RequestTraceTest {
+
+    @AfterEach
+    public void tearDown() {
+        RequestTrace.detach();
+    }
+
+    @Test
+    public void testServerTimingSumsSpansByName() {
+        RequestTrace trace = new RequestTrace("POST", "/api/v1/environments");
+        trace.attach();
+        RequestTrace.record("validation", null, 2_000_000);
+        RequestTrace.record("render", "vpc.tf.ftl", 1_500_000);
+        RequestTrace.record("render", "main.tf.ftl", 500_000);
+
+        String header = trace.serverTiming();
+        assertTrue(header.startsWith("validation;dur=2.000, render;dur=2.000, total;dur="), header);
+        assertEquals(3, trace.snapshot(200, trace.elapsedNanos()).getSpans().size());
+    }
+
+    @Test
+    public void testRecordingWithoutATraceIsIgnored() {
+        RequestTrace.record("validation", null, 1_000);
+        assertNull(RequestTrace.current());
+    }
+
+    @Test
+    public void testPropagatesToWorkersAndRestoresCallerRunsThread() throws Exception {
+        RequestTrace trace = new RequestTrace("POST", "/api/v1/environments");
+        trace.attach();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            executor.submit(RequestTrace.propagate(() -> RequestTrace.record("render", "vpc.tf.ftl", 1_000))).get();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // A caller-runs task must leave the running thread's own trace in place.
+        RequestTrace other = new RequestTrace("GET", "/api/v1/other");
+        Runnable task = RequestTrace.propagate(() -> RequestTrace.record("render", "main.tf.ftl", 1_000));
+        other.attach();
+        task.run();
+        assertSame(other, RequestTrace.current());
+
+        List<String> details = trace.snapshot(200, trace.elapsedNanos()).getSpans().stream()
+                .map(span -> span.getDetail()).collect(Collectors.toList());
+        assertTrue(details.contains("vpc.tf.ftl") && details.contains("main.tf.ftl"), details.toString());
+    }
+
+    @Test
+    public void testDropsSpansPastTheLimit() {
+        RequestTrace trace = new RequestTrace("POST", "/api/v1/batch");
+        trace.attach();
+        for (int i = 0; i < RequestTrace.MAX_SPANS + 5; i++) {
+            RequestTrace.record("render", null, 1_000);
+        }
+        TraceSnapshot snapshot = trace.snapshot(200, trace.elapsedNanos());
+        assertEquals(RequestTrace.MAX_SPANS, snapshot.getSpans().size());
+        assertEquals(5, snapshot.getDroppedSpans());
+    }
+}
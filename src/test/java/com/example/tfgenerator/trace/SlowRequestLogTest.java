@@ -0,0 +1,72 @@
+package com.example.tfgenerator.trace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.tfgenerator.model.TraceSnapshot;
+
+public class SlowRequestLogTest {
+
+    @Test
+    public void testKeepsTheSlowestRequestsSlowestFirst() {
+        SlowRequestLog log = new SlowRequestLog(3);
+        for (int ms = 1; ms <= 10; ms++) {
+            log.offer(new RequestTrace("POST", "/api/v1/environments/" + ms), 200, ms * 1_000_000L);
+        }
+
+        List<TraceSnapshot> slowest = log.slowest();
+        assertEquals(3, slowest.size());
+        assertEquals("/api/v1/environments/10", slowest.get(0).getPath());
+        assertEquals("/api/v1/environments/8", slowest.get(2).getPath());
+        assertFalse(log.offer(new RequestTrace("POST", "/fast"), 200, 5_000_000L));
+
+        log.clear();
+        assertTrue(log.slowest().isEmpty());
+    }
+
+    @Test
+    public void testConcurrentOffersKeepTheSlowest() throws Exception {
+        SlowRequestLog log = new SlowRequestLog(8);
+        int threads = 4;
+        int perThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        long nanos = (long) i * threads + offset;
+                        log.offer(new RequestTrace("POST", "/api/v1/environments"), 200, nanos);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<TraceSnapshot> slowest = log.slowest();
+        assertEquals(8, slowest.size());
+        long max = (long) perThread * threads - 1;
+        for (int i = 0; i < slowest.size(); i++) {
+            assertEquals((max - i) / 1_000_000.0, slowest.get(i).getTotalMs(), 1e-9);
+        }
+    }
+}
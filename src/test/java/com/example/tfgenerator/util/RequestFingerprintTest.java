@@ -0,0 +1,120 @@
+package com.example.tfgenerator.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.tfgenerator.dto.EcsConfig;
+import com.example.tfgenerator.dto.EnvironmentRequest;
+import com.example.tfgenerator.dto.RdsConfig;
+import com.example.tfgenerator.dto.S3BucketConfig;
+import com.example.tfgenerator.dto.Services;
+
+public class RequestFingerprintTest {
+
+    @Test
+    public void testTagOrderDoesNotMatter() {
+        Map<String, String> first = new LinkedHashMap<>();
+        first.put("env", "dev");
+        first.put("owner", "platform-team");
+        Map<String, String> second = new LinkedHashMap<>();
+        second.put("owner", "platform-team");
+        second.put("env", "dev");
+
+        assertEquals(RequestFingerprint.of(createRequest(first)), RequestFingerprint.of(createRequest(second)));
+    }
+
+    @Test
+    public void testDisabledRdsSettingsAreIgnored() {
+        EnvironmentRequest first = createRequest(null);
+        EnvironmentRequest second = createRequest(null);
+        second.getServices().getRds().setInstanceClass("db.r5.large");
+
+        assertEquals(RequestFingerprint.of(first), RequestFingerprint.of(second));
+
+        first.getServices().getRds().setEnabled(true);
+        second.getServices().getRds().setEnabled(true);
+        assertNotEquals(RequestFingerprint.of(first), RequestFingerprint.of(second));
+    }
+
+    @Test
+    public void testDisabledAndAbsentRdsShareAFingerprint() {
+        EnvironmentRequest disabled = createRequest(null);
+        EnvironmentRequest unset = createRequest(null);
+        unset.getServices().getRds().setEnabled(null);
+        EnvironmentRequest absent = createRequest(null);
+        absent.getServices().setRds(null);
+
+        assertEquals(RequestFingerprint.of(disabled), RequestFingerprint.of(unset));
+        assertEquals(RequestFingerprint.of(disabled), RequestFingerprint.of(absent));
+
+        EcsConfig ecs = new EcsConfig();
+        ecs.setEnabled(false);
+        disabled.getServices().setEcsCluster(ecs);
+        assertEquals(RequestFingerprint.of(absent), RequestFingerprint.of(disabled));
+    }
+
+    @Test
+    public void testFieldBoundariesAreUnambiguous() {
+        EnvironmentRequest first = createRequest(null);
+        first.setName("ab");
+        first.setRegion("c");
+        EnvironmentRequest second = createRequest(null);
+        second.setName("a");
+        second.setRegion("bc");
+
+        assertNotEquals(RequestFingerprint.of(first), RequestFingerprint.of(second));
+    }
+
+    @Test
+    public void testServiceListsChangeTheFingerprintOnlyWhenSet() {
+        EnvironmentRequest request = createRequest(null);
+        String original = RequestFingerprint.of(request);
+
+        request.getServices().setS3Buckets(Collections.<S3BucketConfig>emptyList());
+        assertEquals(original, RequestFingerprint.of(request));
+
+        S3BucketConfig bucket = new S3BucketConfig();
+        bucket.setName("logs");
+        request.getServices().setS3Buckets(Arrays.asList(bucket));
+        String withBucket = RequestFingerprint.of(request);
+        assertNotEquals(original, withBucket);
+
+        request.setAvailabilityZones(3);
+        assertNotEquals(withBucket, RequestFingerprint.of(request));
+
+        request.setAvailabilityZones(null);
+        RdsConfig disabled = new RdsConfig();
+        disabled.setName("orders");
+        disabled.setEnabled(false);
+        request.getServices().setRdsInstances(Arrays.asList(disabled));
+        assertEquals(withBucket, RequestFingerprint.of(request));
+
+        disabled.setEnabled(null);
+        assertNotEquals(withBucket, RequestFingerprint.of(request));
+    }
+
+    private EnvironmentRequest createRequest(Map<String, String> tags) {
+        EnvironmentRequest request = new EnvironmentRequest();
+        request.setName("demo");
+        request.setRegion("us-east-1");
+        request.setVpcCidr("10.0.0.0/16");
+
+        RdsConfig rds = new RdsConfig();
+        rds.setEnabled(false);
+        rds.setInstanceClass("db.t3.micro");
+
+        Services services = new Services();
+        services.setS3Bucket(true);
+        services.setRds(rds);
+        request.setServices(services);
+        request.setTags(tags);
+        return request;
+    }
+}
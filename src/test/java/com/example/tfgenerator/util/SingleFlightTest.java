@@ -0,0 +1,103 @@
+package com.example.tfgenerator.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentCallersShareOneComputation() throws Exception {
+        SingleFlight<String, Object> flight = new SingleFlight<>();
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<Object> leader = executor.submit(() -> flight.run("key", () -> {
+            computations.incrementAndGet();
+            started.countDown();
+            await(release);
+            return new Object();
+        }));
+        started.await(10, TimeUnit.SECONDS);
+        List<Future<Object>> followers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            followers.add(executor.submit(() -> flight.run("key", () -> {
+                computations.incrementAndGet();
+                return new Object();
+            })));
+        }
+        while (flight.coalesced() < 3) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        Object result = leader.get(10, TimeUnit.SECONDS);
+        for (Future<Object> follower : followers) {
+            assertSame(result, follower.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, computations.get());
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    public void testWaitingCallersGetTheSameException() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> flight.run("key", () -> {
+            started.countDown();
+            await(release);
+            throw new IllegalStateException("render failed");
+        }));
+        started.await(10, TimeUnit.SECONDS);
+        Future<String> follower = executor.submit(() -> flight.run("key", () -> "unexpected"));
+        while (flight.coalesced() < 1) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        Exception e = assertThrows(Exception.class, () -> follower.get(10, TimeUnit.SECONDS));
+        assertEquals("render failed", e.getCause().getMessage());
+        assertThrows(Exception.class, () -> leader.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFinishedComputationsAreNotReused() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger computations = new AtomicInteger();
+
+        assertEquals(1, flight.run("key", computations::incrementAndGet).intValue());
+        assertEquals(2, flight.run("key", computations::incrementAndGet).intValue());
+        assertEquals(3, flight.run("other", computations::incrementAndGet).intValue());
+        assertEquals(0, flight.coalesced());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
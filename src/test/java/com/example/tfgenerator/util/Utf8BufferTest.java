@@ -0,0 +1,48 @@
+package com.example.tfgenerator.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+public class Utf8BufferTest {
+
+    @Test
+    public void testEncodesLikeStringGetBytes() {
+        String text = "plain ascii, café, € 100, rocket 🚀, lone \ud83d and \ude80 halves";
+        Utf8Buffer buffer = new Utf8Buffer(4);
+        buffer.write(text);
+
+        assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), buffer.toByteArray());
+    }
+
+    @Test
+    public void testSurrogatePairSplitAcrossWrites() {
+        Utf8Buffer buffer = new Utf8Buffer(16);
+        buffer.append('\ud83d').append("\ude80!");
+
+        assertArrayEquals("🚀!".getBytes(StandardCharsets.UTF_8), buffer.toByteArray());
+    }
+
+    @Test
+    public void testResetKeepsStorageAndAppendsRawBytes() throws Exception {
+        Utf8Buffer buffer = new Utf8Buffer(16);
+        buffer.write("first file contents that outgrow the initial capacity");
+        int capacity = buffer.capacity();
+
+        buffer.reset();
+        buffer.write("x = ");
+        buffer.asOutputStream().write("1\n".getBytes(StandardCharsets.US_ASCII));
+
+        assertEquals(capacity, buffer.capacity());
+        assertEquals(6, buffer.size());
+        assertArrayEquals("= 1\n".getBytes(StandardCharsets.UTF_8), buffer.toByteArray(2));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        buffer.writeTo(out);
+        assertEquals("x = 1\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
@@ -1,25 +1,42 @@
 package com.example.tfgenerator.validator;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.example.tfgenerator.dto.EcsServiceConfig;
 import com.example.tfgenerator.dto.EnvironmentRequest;
 import com.example.tfgenerator.dto.RdsConfig;
+import com.example.tfgenerator.dto.S3BucketConfig;
 import com.example.tfgenerator.dto.Services;
 import com.example.tfgenerator.exception.ValidationException;
+import com.example.tfgenerator.ipam.Cidr;
+import com.example.tfgenerator.ipam.VpcRegistry;
+import com.example.tfgenerator.metrics.GenerationMetrics;
+import com.example.tfgenerator.model.AwsRegion;
+import com.example.tfgenerator.model.RdsEngine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 public class EnvironmentValidatorTest {
 
     private EnvironmentValidator validator;
+    private SimpleMeterRegistry meterRegistry;
+    private VpcRegistry vpcRegistry;
 
     @BeforeEach
     public void setUp() {
-        validator = new EnvironmentValidator();
+        meterRegistry = new SimpleMeterRegistry();
+        vpcRegistry = new VpcRegistry();
+        validator = new EnvironmentValidator(new GenerationMetrics(meterRegistry), vpcRegistry);
     }
 
     @Test
@@ -28,6 +45,67 @@ public class EnvironmentValidatorTest {
         assertDoesNotThrow(() -> validator.validate(request));
     }
 
+    @Test
+    public void testVpcCidrOverlappingAnotherEnvironment_shouldThrowError() {
+        vpcRegistry.register("other-app", Cidr.parse("10.0.128.0/17"));
+        EnvironmentRequest request = createValidRequest();
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> validator.validate(request));
+        assertTrue(ex.getMessage().contains("other-app"));
+
+        vpcRegistry.release("other-app");
+        vpcRegistry.register("test-app", Cidr.parse("10.0.0.0/16"));
+        assertDoesNotThrow(() -> validator.validate(request));
+    }
+
+    @Test
+    public void testValidRequestIsParsedIntoTypedValues() {
+        ValidatedEnvironment environment = validator.validate(createValidRequest());
+
+        assertEquals(AwsRegion.US_EAST_1, environment.getRegion());
+        assertEquals(Cidr.parse("10.0.0.0/16"), environment.getVpcCidr());
+        assertEquals(RdsEngine.POSTGRES, environment.getRdsEngine());
+        assertTrue(environment.isS3Enabled());
+        assertFalse(environment.isEcsEnabled());
+    }
+
+    @Test
+    public void testOutOfRangeCidr_shouldThrowError() {
+        EnvironmentRequest request = createValidRequest();
+        request.setVpcCidr("999.0.0.0/40");
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> validator.validate(request));
+        assertTrue(ex.getMessage().contains("vpc_cidr"));
+    }
+
+    @Test
+    public void testFailFastStopsAtFirstError() {
+        EnvironmentRequest request = createValidRequest();
+        request.setName("BAD");
+        request.setRegion("mars-1");
+
+        ValidationException collected = assertThrows(ValidationException.class,
+                () -> validator.validate(request, ValidationMode.COLLECT_ALL));
+        assertTrue(collected.getMessage().contains("region"));
+
+        ValidationException failFast = assertThrows(ValidationException.class,
+                () -> validator.validate(request, ValidationMode.FAIL_FAST));
+        assertTrue(failFast.getMessage().contains("name"));
+        assertFalse(failFast.getMessage().contains("region"));
+    }
+
+    @Test
+    public void testNameRules() {
+        assertTrue(EnvironmentValidator.isValidName("a1"));
+        assertTrue(EnvironmentValidator.isValidName("my-app-2"));
+        assertFalse(EnvironmentValidator.isValidName("a"));
+        assertFalse(EnvironmentValidator.isValidName("-app"));
+        assertFalse(EnvironmentValidator.isValidName("app-"));
+        assertFalse(EnvironmentValidator.isValidName("My-app"));
+        assertFalse(EnvironmentValidator.isValidName("my_app"));
+        assertFalse(EnvironmentValidator.isValidName(new String(new char[65]).replace('\0', 'a')));
+    }
+
     private EnvironmentRequest createValidRequest() {
         EnvironmentRequest request = new EnvironmentRequest();
         request.setName("test-app");
@@ -93,6 +171,10 @@ public class EnvironmentValidatorTest {
 
         assertThrows(ValidationException.class,
                 () -> validator.validate(request));
+        assertEquals(1.0, meterRegistry.get("terraform.validation.failures")
+                .tag("field", "services.rds.db_name").counter().count());
+        assertEquals(1.0, meterRegistry.get("terraform.validation.failures")
+                .tag("field", "services.rds.engine").counter().count());
     }
 
     @Test
@@ -117,4 +199,52 @@ public class EnvironmentValidatorTest {
         assertThrows(ValidationException.class,
                 () -> validator.validate(request));
     }
+
+    @Test
+    public void testListEntriesAreReportedWithTheirIndex() {
+        EnvironmentRequest request = createValidRequest();
+        S3BucketConfig logs = new S3BucketConfig();
+        logs.setName("logs");
+        request.getServices().setS3Buckets(Arrays.asList(logs, logs));
+        RdsConfig orders = new RdsConfig();
+        orders.setName("orders");
+        orders.setEngine("mysql");
+        orders.setInstanceClass("db.t3.micro");
+        orders.setDbName("orders");
+        orders.setUsername("admin");
+        orders.setPassword("SecurePass123!");
+        RdsConfig broken = new RdsConfig();
+        broken.setName("reports");
+        request.getServices().setRdsInstances(Arrays.asList(orders, broken));
+        EcsServiceConfig api = new EcsServiceConfig();
+        api.setName("api");
+        api.setImage("nginx:1.25");
+        request.getServices().setEcsServices(Arrays.asList(api));
+
+        ValidationException ex = assertThrows(ValidationException.class, () -> validator.validate(request));
+        assertTrue(ex.getMessage().contains("'services.s3_buckets[1].name' duplicates"));
+        assertTrue(ex.getMessage().contains("'services.rds_instances[1].engine' is required"));
+        assertFalse(ex.getMessage().contains("services.rds_instances[0]"));
+        assertTrue(ex.getMessage().contains("'services.ecs_services' requires"));
+        assertEquals(1.0, meterRegistry.get("terraform.validation.failures")
+                .tag("field", "services.rds_instances.engine").counter().count());
+    }
+
+    @Test
+    public void testAvailabilityZonesSplitTheVpc() {
+        EnvironmentRequest request = createValidRequest();
+        request.setAvailabilityZones(4);
+        ValidatedEnvironment environment = validator.validate(request);
+        assertTrue(environment.isMultiZone());
+        assertEquals(8, environment.getSubnets().size());
+        assertEquals(Cidr.parse("10.0.0.0/19"), environment.getSubnets().get(0).getCidr());
+
+        request.setVpcCidr("10.0.0.0/30");
+        ValidationException ex = assertThrows(ValidationException.class, () -> validator.validate(request));
+        assertTrue(ex.getMessage().contains("too small for 4 availability zones"));
+
+        request.setAvailabilityZones(0);
+        ex = assertThrows(ValidationException.class, () -> validator.validate(request));
+        assertTrue(ex.getMessage().contains("availability_zones"));
+    }
 }
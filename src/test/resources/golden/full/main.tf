@@ -0,0 +1,23 @@
+terraform {
+  required_version = ">= 1.0"
+  
+  required_providers {
+    aws = {
+      source  = "hashicorp/aws"
+      version = "~> 5.0"
+    }
+  }
+}
+
+provider "aws" {
+  region = var.region
+
+  default_tags {
+    tags = {
+      ManagedBy  = "Terraform"
+      Environment = "golden-app"
+      team = "platform"
+      cost-center = "1234"
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+variable "region" {
+  description = "AWS region"
+  type        = string
+  default     = "eu-central-1"
+}
+
+variable "environment_name" {
+  description = "Environment name"
+  type        = string
+  default     = "golden-app"
+}
+
+variable "vpc_cidr" {
+  description = "VPC CIDR"
+  type        = string
+  default     = "10.42.0.0/16"
+}
+
+variable "public_subnet_cidr" {
+  description = "Public subnet CIDR"
+  type        = string
+  default     = "10.42.0.0/17"
+}
+
+variable "private_subnet_cidr" {
+  description = "Private subnet CIDR"
+  type        = string
+  default     = "10.42.128.0/17"
+}
+
+variable "rds_username" {
+  type        = string
+  default     = "app_admin"
+  sensitive   = true
+}
+
+variable "rds_password" {
+  type        = string
+  default     = "Sup3rSecret!"
+  sensitive   = true
+}
+
+variable "rds_db_name" {
+  type        = string
+  default     = "appdb"
+}
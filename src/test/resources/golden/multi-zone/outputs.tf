@@ -0,0 +1,99 @@
+output "vpc_id" {
+  description = "ID of the VPC"
+  value       = aws_vpc.main.id
+}
+
+output "vpc_cidr" {
+  description = "CIDR block of the VPC"
+  value       = aws_vpc.main.cidr_block
+}
+
+output "public_subnet_id" {
+  description = "ID of the public subnet"
+  value       = aws_subnet.public.id
+}
+
+output "private_subnet_id" {
+  description = "ID of the private subnet"
+  value       = aws_subnet.private.id
+}
+
+output "public_subnet_ids" {
+  description = "IDs of the public subnets"
+  value       = local.public_subnet_ids
+}
+
+output "private_subnet_ids" {
+  description = "IDs of the private subnets"
+  value       = local.private_subnet_ids
+}
+
+output "s3_bucket_name" {
+  description = "Name of the S3 bucket"
+  value       = aws_s3_bucket.main.id
+}
+
+output "s3_bucket_arn" {
+  description = "ARN of the S3 bucket"
+  value       = aws_s3_bucket.main.arn
+}
+
+output "rds_endpoint" {
+  description = "Endpoint of the RDS instance"
+  value       = aws_db_instance.main.endpoint
+}
+
+output "rds_instance_id" {
+  description = "ID of the RDS instance"
+  value       = aws_db_instance.main.id
+}
+
+output "rds_database_name" {
+  description = "Name of the database"
+  value       = aws_db_instance.main.db_name
+}
+
+output "ecs_cluster_id" {
+  description = "ID of the ECS cluster"
+  value       = aws_ecs_cluster.main.id
+}
+
+output "ecs_cluster_name" {
+  description = "Name of the ECS cluster"
+  value       = aws_ecs_cluster.main.name
+}
+
+output "ecs_cluster_arn" {
+  description = "ARN of the ECS cluster"
+  value       = aws_ecs_cluster.main.arn
+}
+
+output "bucket_logs_name" {
+  description = "Name of the logs S3 bucket"
+  value       = aws_s3_bucket.bucket_logs.id
+}
+
+output "bucket_1_assets_name" {
+  description = "Name of the 1-assets S3 bucket"
+  value       = aws_s3_bucket.bucket_1_assets.id
+}
+
+output "db_orders_endpoint" {
+  description = "Endpoint of the orders RDS instance"
+  value       = aws_db_instance.db_orders.endpoint
+}
+
+output "db_reports_endpoint" {
+  description = "Endpoint of the reports RDS instance"
+  value       = aws_db_instance.db_reports.endpoint
+}
+
+output "svc_api_name" {
+  description = "Name of the api ECS service"
+  value       = aws_ecs_service.svc_api.name
+}
+
+output "svc_worker_name" {
+  description = "Name of the worker ECS service"
+  value       = aws_ecs_service.svc_worker.name
+}
@@ -0,0 +1,109 @@
+# S3 Bucket
+resource "aws_s3_bucket" "main" {
+  bucket = "${var.environment_name}-bucket-${data.aws_caller_identity.current.account_id}"
+
+  tags = {
+    Name = "${var.environment_name}-bucket"
+  }
+}
+
+resource "aws_s3_bucket_versioning" "main" {
+  bucket = aws_s3_bucket.main.id
+
+  versioning_configuration {
+    status = "Enabled"
+  }
+}
+
+resource "aws_s3_bucket_server_side_encryption_configuration" "main" {
+  bucket = aws_s3_bucket.main.id
+
+  rule {
+    apply_server_side_encryption_by_default {
+      sse_algorithm = "AES256"
+    }
+  }
+}
+
+resource "aws_s3_bucket_public_access_block" "main" {
+  bucket = aws_s3_bucket.main.id
+
+  block_public_acls       = true
+  block_public_policy     = true
+  ignore_public_acls      = true
+  restrict_public_buckets = true
+}
+
+# S3 Bucket logs
+resource "aws_s3_bucket" "bucket_logs" {
+  bucket = "${var.environment_name}-logs-${data.aws_caller_identity.current.account_id}"
+
+  tags = {
+    Name = "${var.environment_name}-logs"
+  }
+}
+
+resource "aws_s3_bucket_versioning" "bucket_logs" {
+  bucket = aws_s3_bucket.bucket_logs.id
+
+  versioning_configuration {
+    status = "Enabled"
+  }
+}
+
+resource "aws_s3_bucket_server_side_encryption_configuration" "bucket_logs" {
+  bucket = aws_s3_bucket.bucket_logs.id
+
+  rule {
+    apply_server_side_encryption_by_default {
+      sse_algorithm = "AES256"
+    }
+  }
+}
+
+resource "aws_s3_bucket_public_access_block" "bucket_logs" {
+  bucket = aws_s3_bucket.bucket_logs.id
+
+  block_public_acls       = true
+  block_public_policy     = true
+  ignore_public_acls      = true
+  restrict_public_buckets = true
+}
+
+# S3 Bucket 1-assets
+resource "aws_s3_bucket" "bucket_1_assets" {
+  bucket = "${var.environment_name}-1-assets-${data.aws_caller_identity.current.account_id}"
+
+  tags = {
+    Name = "${var.environment_name}-1-assets"
+  }
+}
+
+resource "aws_s3_bucket_versioning" "bucket_1_assets" {
+  bucket = aws_s3_bucket.bucket_1_assets.id
+
+  versioning_configuration {
+    status = "Enabled"
+  }
+}
+
+resource "aws_s3_bucket_server_side_encryption_configuration" "bucket_1_assets" {
+  bucket = aws_s3_bucket.bucket_1_assets.id
+
+  rule {
+    apply_server_side_encryption_by_default {
+      sse_algorithm = "AES256"
+    }
+  }
+}
+
+resource "aws_s3_bucket_public_access_block" "bucket_1_assets" {
+  bucket = aws_s3_bucket.bucket_1_assets.id
+
+  block_public_acls       = true
+  block_public_policy     = true
+  ignore_public_acls      = true
+  restrict_public_buckets = true
+}
+
+data "aws_caller_identity" "current" {}
@@ -0,0 +1,80 @@
+variable "region" {
+  description = "AWS region"
+  type        = string
+  default     = "eu-central-1"
+}
+
+variable "environment_name" {
+  description = "Environment name"
+  type        = string
+  default     = "fleet"
+}
+
+variable "vpc_cidr" {
+  description = "VPC CIDR"
+  type        = string
+  default     = "10.42.0.0/16"
+}
+
+variable "public_subnet_cidr" {
+  description = "Public subnet CIDR"
+  type        = string
+  default     = "10.42.0.0/19"
+}
+
+variable "private_subnet_cidr" {
+  description = "Private subnet CIDR"
+  type        = string
+  default     = "10.42.96.0/19"
+}
+
+variable "rds_username" {
+  type        = string
+  default     = "app_admin"
+  sensitive   = true
+}
+
+variable "rds_password" {
+  type        = string
+  default     = "Sup3rSecret!"
+  sensitive   = true
+}
+
+variable "rds_db_name" {
+  type        = string
+  default     = "appdb"
+}
+
+variable "db_orders_username" {
+  type        = string
+  default     = "orders_admin"
+  sensitive   = true
+}
+
+variable "db_orders_password" {
+  type        = string
+  default     = "orders-Secret1"
+  sensitive   = true
+}
+
+variable "db_orders_name" {
+  type        = string
+  default     = "orders"
+}
+
+variable "db_reports_username" {
+  type        = string
+  default     = "reports_admin"
+  sensitive   = true
+}
+
+variable "db_reports_password" {
+  type        = string
+  default     = "reports-Secret1"
+  sensitive   = true
+}
+
+variable "db_reports_name" {
+  type        = string
+  default     = "reports"
+}
@@ -0,0 +1,46 @@
+variable "region" {
+  description = "AWS region"
+  type        = string
+  default     = "ap-southeast-2"
+}
+
+variable "environment_name" {
+  description = "Environment name"
+  type        = string
+  default     = "mysql-app"
+}
+
+variable "vpc_cidr" {
+  description = "VPC CIDR"
+  type        = string
+  default     = "172.16.0.0/20"
+}
+
+variable "public_subnet_cidr" {
+  description = "Public subnet CIDR"
+  type        = string
+  default     = "172.16.0.0/21"
+}
+
+variable "private_subnet_cidr" {
+  description = "Private subnet CIDR"
+  type        = string
+  default     = "172.16.8.0/21"
+}
+
+variable "rds_username" {
+  type        = string
+  default     = "app_admin"
+  sensitive   = true
+}
+
+variable "rds_password" {
+  type        = string
+  default     = "Sup3rSecret!"
+  sensitive   = true
+}
+
+variable "rds_db_name" {
+  type        = string
+  default     = "appdb"
+}